@@ -15,6 +15,7 @@ package com.facebook.presto.cache;
 
 import com.google.errorprone.annotations.ThreadSafe;
 import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
 
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -25,6 +26,8 @@ public class CacheStats
     private final AtomicLong hit = new AtomicLong();
     private final AtomicLong miss = new AtomicLong();
     private final AtomicLong quotaExceed = new AtomicLong();
+    // with a memory tier in front of the cache, the counters above only count requests that missed the memory tier
+    private final CacheTierStats memoryTierStats = new CacheTierStats();
 
     public void incrementCacheHit()
     {
@@ -69,4 +72,11 @@ public class CacheStats
     {
         return quotaExceed.get();
     }
+
+    @Managed
+    @Nested
+    public CacheTierStats getMemoryTierStats()
+    {
+        return memoryTierStats;
+    }
 }
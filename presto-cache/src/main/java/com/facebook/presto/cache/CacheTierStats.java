@@ -0,0 +1,111 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.cache;
+
+import com.google.errorprone.annotations.ThreadSafe;
+import org.weakref.jmx.Managed;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stats of one tier of a tiered cache.
+ */
+@ThreadSafe
+public class CacheTierStats
+{
+    private final AtomicLong retainedBytes = new AtomicLong();
+    private final AtomicLong hit = new AtomicLong();
+    private final AtomicLong miss = new AtomicLong();
+    private final AtomicLong quotaExceed = new AtomicLong();
+    private final AtomicLong admissionRejected = new AtomicLong();
+    private final AtomicLong eviction = new AtomicLong();
+    private final AtomicLong allocationFailure = new AtomicLong();
+
+    public void incrementCacheHit()
+    {
+        hit.getAndIncrement();
+    }
+
+    public void incrementCacheMiss()
+    {
+        miss.getAndIncrement();
+    }
+
+    public void incrementQuotaExceed()
+    {
+        quotaExceed.getAndIncrement();
+    }
+
+    public void incrementAdmissionRejected()
+    {
+        admissionRejected.getAndIncrement();
+    }
+
+    public void incrementEviction()
+    {
+        eviction.getAndIncrement();
+    }
+
+    public void incrementAllocationFailure()
+    {
+        allocationFailure.getAndIncrement();
+    }
+
+    public void addRetainedBytes(long bytes)
+    {
+        retainedBytes.addAndGet(bytes);
+    }
+
+    @Managed
+    public long getRetainedBytes()
+    {
+        return retainedBytes.get();
+    }
+
+    @Managed
+    public long getCacheHit()
+    {
+        return hit.get();
+    }
+
+    @Managed
+    public long getCacheMiss()
+    {
+        return miss.get();
+    }
+
+    @Managed
+    public long getQuotaExceed()
+    {
+        return quotaExceed.get();
+    }
+
+    @Managed
+    public long getAdmissionRejected()
+    {
+        return admissionRejected.get();
+    }
+
+    @Managed
+    public long getEviction()
+    {
+        return eviction.get();
+    }
+
+    @Managed
+    public long getAllocationFailure()
+    {
+        return allocationFailure.get();
+    }
+}
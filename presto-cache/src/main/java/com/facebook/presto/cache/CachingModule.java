@@ -17,6 +17,7 @@ import com.facebook.presto.cache.alluxio.AlluxioCacheConfig;
 import com.facebook.presto.cache.alluxio.AlluxioCachingConfigurationProvider;
 import com.facebook.presto.cache.filemerge.FileMergeCacheConfig;
 import com.facebook.presto.cache.filemerge.FileMergeCacheManager;
+import com.facebook.presto.cache.tiered.TieredCacheManager;
 import com.facebook.presto.hive.DynamicConfigurationProvider;
 import com.google.inject.Binder;
 import com.google.inject.Module;
@@ -54,13 +55,22 @@ public class CachingModule
     public CacheManager createCacheManager(CacheConfig cacheConfig, FileMergeCacheConfig fileMergeCacheConfig, CacheStats cacheStats)
     {
         if (cacheConfig.isCachingEnabled() && cacheConfig.getCacheType() == FILE_MERGE) {
-            return new FileMergeCacheManager(
+            FileMergeCacheManager fileMergeCacheManager = new FileMergeCacheManager(
                     cacheConfig,
                     fileMergeCacheConfig,
                     cacheStats,
                     newScheduledThreadPool(5, daemonThreadsNamed("hive-cache-flusher-%s")),
                     newScheduledThreadPool(1, daemonThreadsNamed("hive-cache-remover-%s")),
                     newScheduledThreadPool(1, daemonThreadsNamed("hive-cache-size-calculator-%s")));
+            if (fileMergeCacheConfig.getMemoryTierSize().toBytes() > 0) {
+                return new TieredCacheManager(
+                        fileMergeCacheConfig.getMemoryTierSize().toBytes(),
+                        fileMergeCacheConfig.getMemoryTierMaxEntrySize().toBytes(),
+                        fileMergeCacheConfig.getCacheTtl(),
+                        fileMergeCacheManager,
+                        cacheStats);
+            }
+            return fileMergeCacheManager;
         }
         return new NoOpCacheManager();
     }
@@ -20,7 +20,9 @@ import com.facebook.airlift.units.Duration;
 import com.facebook.airlift.units.MinDuration;
 import jakarta.validation.constraints.Min;
 
+import static com.facebook.airlift.units.DataSize.Unit.BYTE;
 import static com.facebook.airlift.units.DataSize.Unit.GIGABYTE;
+import static com.facebook.airlift.units.DataSize.Unit.MEGABYTE;
 import static java.util.concurrent.TimeUnit.DAYS;
 
 public class FileMergeCacheConfig
@@ -28,6 +30,8 @@ public class FileMergeCacheConfig
     private int maxCachedEntries = 1_000;
     private Duration cacheTtl = new Duration(2, DAYS);
     private DataSize maxInMemoryCacheSize = new DataSize(2, GIGABYTE);
+    private DataSize memoryTierSize = new DataSize(0, BYTE);
+    private DataSize memoryTierMaxEntrySize = new DataSize(16, MEGABYTE);
 
     @Min(1)
     public int getMaxCachedEntries()
@@ -56,6 +60,32 @@ public class FileMergeCacheConfig
         return this;
     }
 
+    public DataSize getMemoryTierSize()
+    {
+        return memoryTierSize;
+    }
+
+    @Config("cache.memory-tier-size")
+    @ConfigDescription("Size of the off-heap cache of frequently read ranges in front of the local disk cache, or zero to disable it. The memory is allocated at startup and must fit in -XX:MaxDirectMemorySize")
+    public FileMergeCacheConfig setMemoryTierSize(DataSize memoryTierSize)
+    {
+        this.memoryTierSize = memoryTierSize;
+        return this;
+    }
+
+    public DataSize getMemoryTierMaxEntrySize()
+    {
+        return memoryTierMaxEntrySize;
+    }
+
+    @Config("cache.memory-tier-max-entry-size")
+    @ConfigDescription("Ranges larger than this are only cached on local disk")
+    public FileMergeCacheConfig setMemoryTierMaxEntrySize(DataSize memoryTierMaxEntrySize)
+    {
+        this.memoryTierMaxEntrySize = memoryTierMaxEntrySize;
+        return this;
+    }
+
     @MinDuration("0s")
     public Duration getCacheTtl()
     {
@@ -0,0 +1,136 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.cache.tiered;
+
+import com.facebook.airlift.concurrent.NotThreadSafe;
+import io.airlift.slice.Slice;
+
+import java.nio.ByteBuffer;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.Math.toIntExact;
+
+/**
+ * Off-heap memory of the memory cache tier. The memory is allocated up front in slabs, which are
+ * divided into pages of a fixed size, and freed pages are reused, so that the memory of evicted
+ * ranges does not have to be reclaimed by the garbage collector, and allocating pages for a range
+ * never allocates memory.
+ * <p>
+ * Allocation and freeing must be synchronized by the caller. Pages can be read and written
+ * concurrently by the owner of the pages.
+ */
+@NotThreadSafe
+class DirectMemoryArena
+{
+    private static final int SLAB_BYTES = 4 * 1024 * 1024;
+
+    private final int pageSize;
+    private final int pagesPerSlab;
+    private final ByteBuffer[] slabs;
+
+    // stack of free pages
+    private final int[] freePages;
+    private int freePageCount;
+
+    public DirectMemoryArena(long capacityBytes, int pageSize)
+    {
+        checkArgument(pageSize > 0, "pageSize must be positive");
+        checkArgument(capacityBytes >= pageSize, "capacityBytes must be at least pageSize");
+        this.pageSize = pageSize;
+        this.pagesPerSlab = max(1, SLAB_BYTES / pageSize);
+        int pageCount = toIntExact(capacityBytes / pageSize);
+        this.slabs = new ByteBuffer[(pageCount + pagesPerSlab - 1) / pagesPerSlab];
+        for (int slab = 0; slab < slabs.length; slab++) {
+            int slabPages = min(pagesPerSlab, pageCount - slab * pagesPerSlab);
+            slabs[slab] = ByteBuffer.allocateDirect(slabPages * pageSize);
+        }
+        this.freePages = new int[pageCount];
+        // the pages are handed out in order
+        for (int page = 0; page < pageCount; page++) {
+            freePages[page] = pageCount - 1 - page;
+        }
+        this.freePageCount = pageCount;
+    }
+
+    public int getPageSize()
+    {
+        return pageSize;
+    }
+
+    public int getPageCount(int length)
+    {
+        return (length + pageSize - 1) / pageSize;
+    }
+
+    public int getFreePageCount()
+    {
+        return freePageCount;
+    }
+
+    /**
+     * Returns the pages for {@code length} bytes, or null if there are not enough free pages.
+     */
+    public int[] allocate(int length)
+    {
+        int pageCount = getPageCount(length);
+        if (freePageCount < pageCount) {
+            return null;
+        }
+
+        int[] pages = new int[pageCount];
+        for (int index = 0; index < pageCount; index++) {
+            freePageCount--;
+            pages[index] = freePages[freePageCount];
+        }
+        return pages;
+    }
+
+    public void free(int[] pages)
+    {
+        for (int page : pages) {
+            freePages[freePageCount++] = page;
+        }
+    }
+
+    public void write(int[] pages, Slice data)
+    {
+        int length = data.length();
+        for (int i = 0; i < pages.length; i++) {
+            int dataOffset = i * pageSize;
+            int pageLength = min(pageSize, length - dataOffset);
+            slab(pages[i]).put(slabOffset(pages[i]), data.toByteBuffer(dataOffset, pageLength), 0, pageLength);
+        }
+    }
+
+    public void read(int[] pages, byte[] buffer, int offset, int length)
+    {
+        for (int i = 0; i < pages.length; i++) {
+            int dataOffset = i * pageSize;
+            int pageLength = min(pageSize, length - dataOffset);
+            slab(pages[i]).get(slabOffset(pages[i]), buffer, offset + dataOffset, pageLength);
+        }
+    }
+
+    private ByteBuffer slab(int page)
+    {
+        return slabs[page / pagesPerSlab];
+    }
+
+    private int slabOffset(int page)
+    {
+        return (page % pagesPerSlab) * pageSize;
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.cache.tiered;
+
+import com.google.errorprone.annotations.concurrent.GuardedBy;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.Integer.bitCount;
+
+/**
+ * Count-min sketch of access frequencies, as used by TinyLFU admission. Counters saturate at
+ * {@link #MAX_FREQUENCY}, and all counters are halved after a number of increments proportional
+ * to the size of the sketch, so that frequencies of old accesses decay.
+ */
+class FrequencySketch
+{
+    static final int MAX_FREQUENCY = 15;
+
+    private static final int DEPTH = 4;
+    private static final long[] SEEDS = {0x97CB3127L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0x9E3779B97F4A7C15L};
+    private static final int SAMPLE_SIZE_MULTIPLIER = 10;
+
+    @GuardedBy("this")
+    private final byte[][] counters;
+    private final int mask;
+    private final int sampleSize;
+    @GuardedBy("this")
+    private int additions;
+
+    public FrequencySketch(int width)
+    {
+        checkArgument(width > 0 && bitCount(width) == 1, "width must be a power of two: %s", width);
+        this.counters = new byte[DEPTH][width];
+        this.mask = width - 1;
+        this.sampleSize = width * SAMPLE_SIZE_MULTIPLIER;
+    }
+
+    public synchronized int frequency(long hash)
+    {
+        int frequency = MAX_FREQUENCY;
+        for (int row = 0; row < DEPTH; row++) {
+            frequency = Math.min(frequency, counters[row][index(hash, row)]);
+        }
+        return frequency;
+    }
+
+    public synchronized void increment(long hash)
+    {
+        // conservative update: only increment the counters that are at the minimum
+        int frequency = MAX_FREQUENCY;
+        int[] indexes = new int[DEPTH];
+        for (int row = 0; row < DEPTH; row++) {
+            indexes[row] = index(hash, row);
+            frequency = Math.min(frequency, counters[row][indexes[row]]);
+        }
+        if (frequency == MAX_FREQUENCY) {
+            return;
+        }
+        for (int row = 0; row < DEPTH; row++) {
+            if (counters[row][indexes[row]] == frequency) {
+                counters[row][indexes[row]]++;
+            }
+        }
+
+        additions++;
+        if (additions >= sampleSize) {
+            age();
+        }
+    }
+
+    @GuardedBy("this")
+    private void age()
+    {
+        for (byte[] row : counters) {
+            for (int i = 0; i < row.length; i++) {
+                row[i] >>= 1;
+            }
+        }
+        additions /= 2;
+    }
+
+    private int index(long hash, int row)
+    {
+        long value = (hash + SEEDS[row]) * SEEDS[(row + 1) % DEPTH];
+        return (int) (value ^ (value >>> 32)) & mask;
+    }
+}
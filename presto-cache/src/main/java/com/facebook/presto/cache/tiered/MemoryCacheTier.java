@@ -0,0 +1,371 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.cache.tiered;
+
+import com.facebook.airlift.units.Duration;
+import com.facebook.presto.cache.CacheTierStats;
+import com.facebook.presto.cache.FileReadRequest;
+import com.facebook.presto.hive.CacheQuota;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
+import com.google.errorprone.annotations.ThreadSafe;
+import com.google.errorprone.annotations.concurrent.GuardedBy;
+import com.sun.management.HotSpotDiagnosticMXBean;
+import io.airlift.slice.Slice;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.base.Ticker.systemTicker;
+import static java.lang.Integer.highestOneBit;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Least recently used cache of file ranges in off-heap memory. A range is only admitted if
+ * it has been requested more frequently than the ranges it would evict (TinyLFU), so that
+ * ranges read once by a large scan do not evict frequently read ranges.
+ * <p>
+ * Ranges are cached and looked up by their exact offset and length, and expire if they have not
+ * been read for the cache TTL, like in the disk tier. The cached data is stored in pages of a
+ * {@link DirectMemoryArena}, so the off-heap memory of evicted ranges is reused right away. The
+ * memory of the arena is allocated when the cache is created, and must fit in the maximum direct
+ * memory of the JVM.
+ */
+@ThreadSafe
+class MemoryCacheTier
+{
+    // expected size of a cached range, used to size the frequency sketch
+    private static final long EXPECTED_ENTRY_BYTES = 64 * 1024;
+    private static final int MIN_SKETCH_WIDTH = 1 << 10;
+    private static final int MAX_SKETCH_WIDTH = 1 << 24;
+    private static final int PAGE_SIZE = 4 * 1024;
+
+    private final long capacityBytes;
+    private final long maxEntryBytes;
+    private final long ttlNanos;
+    private final Ticker ticker;
+    private final CacheTierStats stats;
+    private final FrequencySketch sketch;
+    @GuardedBy("this")
+    private final DirectMemoryArena arena;
+
+    // in access order, so the first entry is the least recently used, and expires first
+    @GuardedBy("this")
+    private final LinkedHashMap<FileReadRequest, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    // cache quota identifier to bytes cached for it
+    @GuardedBy("this")
+    private final Map<Long, Long> quotaScopeBytes = new HashMap<>();
+    // bytes of the cached ranges and of the ranges which are being copied into the cache, in pages
+    @GuardedBy("this")
+    private long retainedBytes;
+
+    public MemoryCacheTier(long capacityBytes, long maxEntryBytes, Duration ttl, CacheTierStats stats)
+    {
+        this(checkDirectMemory(capacityBytes), maxEntryBytes, ttl, PAGE_SIZE, systemTicker(), stats);
+    }
+
+    private static long checkDirectMemory(long capacityBytes)
+    {
+        HotSpotDiagnosticMXBean hotspotMBean = ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class);
+        long maxDirectMemoryBytes = Long.parseLong(hotspotMBean.getVMOption("MaxDirectMemorySize").getValue());
+        if (maxDirectMemoryBytes == 0) {
+            // the direct memory is limited by the maximum heap size by default
+            maxDirectMemoryBytes = Runtime.getRuntime().maxMemory();
+        }
+        checkArgument(
+                capacityBytes <= maxDirectMemoryBytes,
+                "Memory tier size (%s bytes) exceeds the maximum direct memory (%s bytes), which is set with -XX:MaxDirectMemorySize",
+                capacityBytes,
+                maxDirectMemoryBytes);
+        return capacityBytes;
+    }
+
+    @VisibleForTesting
+    MemoryCacheTier(long capacityBytes, long maxEntryBytes, Duration ttl, int pageSize, Ticker ticker, CacheTierStats stats)
+    {
+        checkArgument(capacityBytes > 0, "capacityBytes must be positive");
+        checkArgument(maxEntryBytes > 0, "maxEntryBytes must be positive");
+        this.arena = new DirectMemoryArena(capacityBytes, pageSize);
+        this.capacityBytes = capacityBytes;
+        this.maxEntryBytes = min(maxEntryBytes, capacityBytes);
+        this.ttlNanos = requireNonNull(ttl, "ttl is null").roundTo(NANOSECONDS);
+        this.ticker = requireNonNull(ticker, "ticker is null");
+        this.stats = requireNonNull(stats, "stats is null");
+        long expectedEntries = capacityBytes / EXPECTED_ENTRY_BYTES;
+        this.sketch = new FrequencySketch(highestOneBit((int) max(MIN_SKETCH_WIDTH, min(MAX_SKETCH_WIDTH, expectedEntries))));
+    }
+
+    /**
+     * Copies the range of {@code request} to {@code buffer} if it is cached, and records the request
+     * for admission of the range.
+     */
+    public boolean get(FileReadRequest request, byte[] buffer, int offset)
+    {
+        sketch.increment(request.hashCode());
+
+        Entry entry;
+        synchronized (this) {
+            long now = ticker.read();
+            entry = entries.get(request);
+            if (entry != null && isExpired(entry, now)) {
+                entries.remove(request);
+                remove(entry);
+                entry = null;
+            }
+            if (entry != null) {
+                entry.setLastAccessNanos(now);
+                entry.addReader();
+            }
+        }
+        if (entry == null) {
+            stats.incrementCacheMiss();
+            return false;
+        }
+
+        // the pages of an entry are not reused while it is read, so they can be read without holding the lock
+        try {
+            arena.read(entry.getPages(), buffer, offset, request.getLength());
+        }
+        finally {
+            synchronized (this) {
+                if (entry.removeReader() && entry.isRemoved()) {
+                    arena.free(entry.getPages());
+                }
+            }
+        }
+        stats.incrementCacheHit();
+        return true;
+    }
+
+    public void put(FileReadRequest request, Slice data, CacheQuota cacheQuota)
+    {
+        int length = data.length();
+        if (length == 0 || length > maxEntryBytes) {
+            return;
+        }
+        int frequency = sketch.frequency(request.hashCode());
+        long size = (long) arena.getPageCount(length) * arena.getPageSize();
+        int[] pages;
+        synchronized (this) {
+            expire(ticker.read());
+            if (entries.containsKey(request) || !canAdmit(size, frequency, cacheQuota)) {
+                return;
+            }
+            if (!canAllocate(size)) {
+                // the pages of removed ranges which are still being read are not available yet
+                stats.incrementAllocationFailure();
+                return;
+            }
+            evict(size);
+            pages = arena.allocate(length);
+            checkState(pages != null, "pages are not available after eviction");
+            retainedBytes += size;
+        }
+
+        // copy outside of the lock, as the input data could be a reusable buffer
+        arena.write(pages, data);
+
+        synchronized (this) {
+            // check again, as the range might have been cached in the meantime
+            if (entries.containsKey(request) || exceedsQuota(size, cacheQuota)) {
+                arena.free(pages);
+                retainedBytes -= size;
+                return;
+            }
+            entries.put(request, new Entry(pages, size, cacheQuota.getIdentifier(), ticker.read()));
+            quotaScopeBytes.merge(cacheQuota.getIdentifier(), size, Long::sum);
+            stats.addRetainedBytes(size);
+        }
+    }
+
+    @GuardedBy("this")
+    private boolean canAdmit(long size, int frequency, CacheQuota cacheQuota)
+    {
+        if (exceedsQuota(size, cacheQuota)) {
+            return false;
+        }
+
+        // the range is only admitted if it is requested more frequently than each range it evicts
+        long bytesToFree = retainedBytes + size - capacityBytes;
+        Iterator<Map.Entry<FileReadRequest, Entry>> iterator = entries.entrySet().iterator();
+        while (bytesToFree > 0 && iterator.hasNext()) {
+            Map.Entry<FileReadRequest, Entry> victim = iterator.next();
+            if (sketch.frequency(victim.getKey().hashCode()) >= frequency) {
+                stats.incrementAdmissionRejected();
+                return false;
+            }
+            bytesToFree -= victim.getValue().getSize();
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether the arena has enough free pages for {@code size} bytes once the ranges
+     * which are evicted for it are removed, so that no range is evicted for a failing allocation.
+     */
+    @GuardedBy("this")
+    private boolean canAllocate(long size)
+    {
+        long freeBytes = (long) arena.getFreePageCount() * arena.getPageSize();
+        long remainingBytes = retainedBytes;
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (remainingBytes + size > capacityBytes && iterator.hasNext()) {
+            Entry victim = iterator.next();
+            remainingBytes -= victim.getSize();
+            if (!victim.hasReaders()) {
+                freeBytes += victim.getSize();
+            }
+        }
+        return freeBytes >= size;
+    }
+
+    @GuardedBy("this")
+    private boolean exceedsQuota(long size, CacheQuota cacheQuota)
+    {
+        long quotaScopeSize = quotaScopeBytes.getOrDefault(cacheQuota.getIdentifier(), 0L) + size;
+        if (cacheQuota.getQuota().map(quota -> quotaScopeSize > quota.toBytes()).orElse(false)) {
+            stats.incrementQuotaExceed();
+            return true;
+        }
+        return false;
+    }
+
+    @GuardedBy("this")
+    private void expire(long now)
+    {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (!isExpired(entry, now)) {
+                break;
+            }
+            iterator.remove();
+            remove(entry);
+        }
+    }
+
+    private boolean isExpired(Entry entry, long now)
+    {
+        return now - entry.getLastAccessNanos() > ttlNanos;
+    }
+
+    @GuardedBy("this")
+    private void evict(long size)
+    {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (retainedBytes + size > capacityBytes && iterator.hasNext()) {
+            Entry victim = iterator.next();
+            iterator.remove();
+            remove(victim);
+            stats.incrementEviction();
+        }
+    }
+
+    /**
+     * Releases an entry which has been removed from the map. Its pages are reused once it is no longer read.
+     */
+    @GuardedBy("this")
+    private void remove(Entry entry)
+    {
+        long size = entry.getSize();
+        quotaScopeBytes.computeIfPresent(entry.getQuotaScope(), (scope, bytes) -> bytes == size ? null : bytes - size);
+        retainedBytes -= size;
+        stats.addRetainedBytes(-size);
+        entry.setRemoved();
+        if (!entry.hasReaders()) {
+            arena.free(entry.getPages());
+        }
+    }
+
+    // the mutable state is guarded by the lock of the cache
+    private static class Entry
+    {
+        private final int[] pages;
+        private final long size;
+        private final long quotaScope;
+        private long lastAccessNanos;
+        private int readers;
+        private boolean removed;
+
+        public Entry(int[] pages, long size, long quotaScope, long lastAccessNanos)
+        {
+            this.pages = requireNonNull(pages, "pages is null");
+            this.size = size;
+            this.quotaScope = quotaScope;
+            this.lastAccessNanos = lastAccessNanos;
+        }
+
+        public int[] getPages()
+        {
+            return pages;
+        }
+
+        public long getSize()
+        {
+            return size;
+        }
+
+        public long getQuotaScope()
+        {
+            return quotaScope;
+        }
+
+        public long getLastAccessNanos()
+        {
+            return lastAccessNanos;
+        }
+
+        public void setLastAccessNanos(long lastAccessNanos)
+        {
+            this.lastAccessNanos = lastAccessNanos;
+        }
+
+        public void addReader()
+        {
+            readers++;
+        }
+
+        /**
+         * Returns true if this was the last reader.
+         */
+        public boolean removeReader()
+        {
+            readers--;
+            return readers == 0;
+        }
+
+        public boolean hasReaders()
+        {
+            return readers > 0;
+        }
+
+        public boolean isRemoved()
+        {
+            return removed;
+        }
+
+        public void setRemoved()
+        {
+            removed = true;
+        }
+    }
+}
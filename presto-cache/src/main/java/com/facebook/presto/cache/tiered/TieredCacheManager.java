@@ -0,0 +1,76 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.cache.tiered;
+
+import com.facebook.airlift.units.Duration;
+import com.facebook.presto.cache.CacheManager;
+import com.facebook.presto.cache.CacheResult;
+import com.facebook.presto.cache.CacheStats;
+import com.facebook.presto.cache.FileReadRequest;
+import com.facebook.presto.cache.filemerge.FileMergeCacheManager;
+import com.facebook.presto.hive.CacheQuota;
+import io.airlift.slice.Slice;
+import jakarta.annotation.PreDestroy;
+
+import static com.facebook.presto.cache.CacheResult.HIT;
+import static io.airlift.slice.Slices.wrappedBuffer;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Cache with an off-heap memory tier in front of the {@link FileMergeCacheManager} local disk tier.
+ * <p>
+ * Reads are served from the memory tier if possible, and ranges read from the disk tier or from the
+ * remote file system are offered to the memory tier, which only admits them if they are read
+ * frequently. Both tiers honor the {@link CacheQuota} of the table and the cache TTL separately. If
+ * the memory tier cannot allocate memory for a range, the range is only cached in the disk tier.
+ */
+public class TieredCacheManager
+        implements CacheManager
+{
+    private final MemoryCacheTier memoryTier;
+    private final FileMergeCacheManager diskTier;
+
+    public TieredCacheManager(long memoryTierCapacityBytes, long memoryTierMaxEntryBytes, Duration cacheTtl, FileMergeCacheManager diskTier, CacheStats stats)
+    {
+        this.memoryTier = new MemoryCacheTier(memoryTierCapacityBytes, memoryTierMaxEntryBytes, cacheTtl, requireNonNull(stats, "stats is null").getMemoryTierStats());
+        this.diskTier = requireNonNull(diskTier, "diskTier is null");
+    }
+
+    @PreDestroy
+    public void destroy()
+    {
+        diskTier.destroy();
+    }
+
+    @Override
+    public CacheResult get(FileReadRequest request, byte[] buffer, int offset, CacheQuota cacheQuota)
+    {
+        if (memoryTier.get(request, buffer, offset)) {
+            return HIT;
+        }
+
+        CacheResult result = diskTier.get(request, buffer, offset, cacheQuota);
+        if (result == HIT) {
+            memoryTier.put(request, wrappedBuffer(buffer, offset, request.getLength()), cacheQuota);
+        }
+        return result;
+    }
+
+    @Override
+    public void put(FileReadRequest request, Slice data, CacheQuota cacheQuota)
+    {
+        memoryTier.put(request, data, cacheQuota);
+        diskTier.put(request, data, cacheQuota);
+    }
+}
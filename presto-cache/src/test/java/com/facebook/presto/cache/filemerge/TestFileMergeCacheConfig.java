@@ -23,6 +23,7 @@ import java.util.Map;
 import static com.facebook.airlift.configuration.testing.ConfigAssertions.assertFullMapping;
 import static com.facebook.airlift.configuration.testing.ConfigAssertions.assertRecordedDefaults;
 import static com.facebook.airlift.configuration.testing.ConfigAssertions.recordDefaults;
+import static com.facebook.airlift.units.DataSize.Unit.BYTE;
 import static com.facebook.airlift.units.DataSize.Unit.GIGABYTE;
 import static com.facebook.airlift.units.DataSize.Unit.MEGABYTE;
 import static java.util.concurrent.TimeUnit.DAYS;
@@ -36,6 +37,8 @@ public class TestFileMergeCacheConfig
         assertRecordedDefaults(recordDefaults(FileMergeCacheConfig.class)
                 .setMaxCachedEntries(1_000)
                 .setMaxInMemoryCacheSize(new DataSize(2, GIGABYTE))
+                .setMemoryTierSize(new DataSize(0, BYTE))
+                .setMemoryTierMaxEntrySize(new DataSize(16, MEGABYTE))
                 .setCacheTtl(new Duration(2, DAYS)));
     }
 
@@ -45,12 +48,16 @@ public class TestFileMergeCacheConfig
         Map<String, String> properties = new ImmutableMap.Builder<String, String>()
                 .put("cache.max-cached-entries", "5")
                 .put("cache.max-in-memory-cache-size", "42MB")
+                .put("cache.memory-tier-size", "10GB")
+                .put("cache.memory-tier-max-entry-size", "4MB")
                 .put("cache.ttl", "10s")
                 .build();
 
         FileMergeCacheConfig expected = new FileMergeCacheConfig()
                 .setMaxCachedEntries(5)
                 .setMaxInMemoryCacheSize(new DataSize(42, MEGABYTE))
+                .setMemoryTierSize(new DataSize(10, GIGABYTE))
+                .setMemoryTierMaxEntrySize(new DataSize(4, MEGABYTE))
                 .setCacheTtl(new Duration(10, SECONDS));
         assertFullMapping(properties, expected);
     }
@@ -0,0 +1,225 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.cache.tiered;
+
+import com.facebook.airlift.units.DataSize;
+import com.facebook.airlift.units.Duration;
+import com.facebook.presto.cache.CacheTierStats;
+import com.facebook.presto.cache.FileReadRequest;
+import com.facebook.presto.hive.CacheQuota;
+import com.google.common.base.Ticker;
+import org.apache.hadoop.fs.Path;
+import org.testng.annotations.Test;
+
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static com.facebook.airlift.units.DataSize.Unit.BYTE;
+import static com.facebook.presto.cache.TestingCacheUtils.validateBuffer;
+import static com.facebook.presto.hive.CacheQuota.NO_CACHE_CONSTRAINTS;
+import static io.airlift.slice.Slices.wrappedBuffer;
+import static java.util.concurrent.TimeUnit.HOURS;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestMemoryCacheTier
+{
+    private static final int ENTRY_LENGTH = 100;
+    private static final int PAGE_SIZE = 25;
+    private static final Path PATH = new Path("/data");
+    private static final Duration TTL = new Duration(1, HOURS);
+
+    private final byte[] data = createData(200_000);
+    private final TestingTicker ticker = new TestingTicker();
+
+    @Test
+    public void testBasic()
+    {
+        CacheTierStats stats = new CacheTierStats();
+        MemoryCacheTier cache = createCache(stats);
+        byte[] buffer = new byte[ENTRY_LENGTH + 10];
+
+        assertFalse(read(cache, 0, buffer, 10));
+        assertEquals(stats.getCacheMiss(), 1);
+        assertEquals(stats.getRetainedBytes(), ENTRY_LENGTH);
+
+        assertTrue(read(cache, 0, buffer, 10));
+        assertEquals(stats.getCacheHit(), 1);
+        validateBuffer(data, 0, buffer, 10, ENTRY_LENGTH);
+
+        // ranges are matched exactly
+        assertFalse(cache.get(new FileReadRequest(PATH, 10, ENTRY_LENGTH - 10), buffer, 0));
+        assertEquals(stats.getCacheMiss(), 2);
+
+        // ranges larger than the maximum entry size are not cached
+        cache.put(new FileReadRequest(PATH, 0, ENTRY_LENGTH + 1), wrappedBuffer(data, 0, ENTRY_LENGTH + 1), NO_CACHE_CONSTRAINTS);
+        assertEquals(stats.getRetainedBytes(), ENTRY_LENGTH);
+    }
+
+    @Test
+    public void testScanDoesNotEvictFrequentRanges()
+    {
+        CacheTierStats stats = new CacheTierStats();
+        MemoryCacheTier cache = createCache(stats);
+        byte[] buffer = new byte[ENTRY_LENGTH];
+
+        // fill the cache with ranges which are read repeatedly
+        for (int i = 0; i < 5; i++) {
+            for (int entry = 0; entry < 10; entry++) {
+                read(cache, entry * ENTRY_LENGTH, buffer, 0);
+            }
+        }
+        assertEquals(stats.getRetainedBytes(), 10 * ENTRY_LENGTH);
+        assertEquals(stats.getCacheMiss(), 10);
+
+        // ranges read once are not admitted
+        for (int entry = 10; entry < 1_000; entry++) {
+            assertFalse(read(cache, entry * ENTRY_LENGTH, buffer, 0));
+        }
+        assertEquals(stats.getEviction(), 0);
+        assertEquals(stats.getAdmissionRejected(), 990);
+        for (int entry = 0; entry < 10; entry++) {
+            assertTrue(read(cache, entry * ENTRY_LENGTH, buffer, 0));
+            validateBuffer(data, entry * ENTRY_LENGTH, buffer, 0, ENTRY_LENGTH);
+        }
+
+        // a range which is read more frequently than the cached ranges replaces the least recently used one
+        for (int i = 0; i < 10; i++) {
+            read(cache, 1_500 * ENTRY_LENGTH, buffer, 0);
+        }
+        assertTrue(read(cache, 1_500 * ENTRY_LENGTH, buffer, 0));
+        assertEquals(stats.getEviction(), 1);
+        assertFalse(cache.get(new FileReadRequest(PATH, 0, ENTRY_LENGTH), buffer, 0));
+        assertEquals(stats.getRetainedBytes(), 10 * ENTRY_LENGTH);
+    }
+
+    @Test
+    public void testQuota()
+    {
+        CacheTierStats stats = new CacheTierStats();
+        MemoryCacheTier cache = createCache(stats);
+        CacheQuota quota = new CacheQuota("test.table", Optional.of(new DataSize(3 * ENTRY_LENGTH, BYTE)));
+
+        for (int entry = 0; entry < 5; entry++) {
+            FileReadRequest request = new FileReadRequest(PATH, entry * ENTRY_LENGTH, ENTRY_LENGTH);
+            cache.put(request, wrappedBuffer(data, entry * ENTRY_LENGTH, ENTRY_LENGTH), quota);
+        }
+        assertEquals(stats.getRetainedBytes(), 3 * ENTRY_LENGTH);
+        assertEquals(stats.getQuotaExceed(), 2);
+
+        // other tables are not affected by the quota
+        cache.put(new FileReadRequest(PATH, 5 * ENTRY_LENGTH, ENTRY_LENGTH), wrappedBuffer(data, 5 * ENTRY_LENGTH, ENTRY_LENGTH), NO_CACHE_CONSTRAINTS);
+        assertEquals(stats.getRetainedBytes(), 4 * ENTRY_LENGTH);
+    }
+
+    @Test
+    public void testExpiration()
+    {
+        CacheTierStats stats = new CacheTierStats();
+        MemoryCacheTier cache = createCache(stats);
+        byte[] buffer = new byte[ENTRY_LENGTH];
+
+        read(cache, 0, buffer, 0);
+        read(cache, ENTRY_LENGTH, buffer, 0);
+        assertEquals(stats.getRetainedBytes(), 2 * ENTRY_LENGTH);
+
+        // reading a range resets its expiration
+        ticker.increment(40, MINUTES);
+        assertTrue(read(cache, 0, buffer, 0));
+        ticker.increment(40, MINUTES);
+        assertTrue(read(cache, 0, buffer, 0));
+        validateBuffer(data, 0, buffer, 0, ENTRY_LENGTH);
+
+        // expired ranges are dropped when they are read, or when other ranges are cached
+        assertFalse(cache.get(new FileReadRequest(PATH, ENTRY_LENGTH, ENTRY_LENGTH), buffer, 0));
+        assertEquals(stats.getRetainedBytes(), ENTRY_LENGTH);
+        ticker.increment(2, HOURS);
+        read(cache, 2 * ENTRY_LENGTH, buffer, 0);
+        assertEquals(stats.getRetainedBytes(), ENTRY_LENGTH);
+        assertFalse(cache.get(new FileReadRequest(PATH, 0, ENTRY_LENGTH), buffer, 0));
+        assertEquals(stats.getEviction(), 0);
+    }
+
+    @Test
+    public void testMemoryIsReused()
+    {
+        CacheTierStats stats = new CacheTierStats();
+        MemoryCacheTier cache = createCache(stats);
+        byte[] buffer = new byte[ENTRY_LENGTH];
+
+        // ranges smaller than a page still retain a full page
+        cache.put(new FileReadRequest(PATH, 0, 10), wrappedBuffer(data, 0, 10), NO_CACHE_CONSTRAINTS);
+        assertEquals(stats.getRetainedBytes(), PAGE_SIZE);
+
+        // the pages of expired ranges are reused by new ranges
+        for (int i = 0; i < 100; i++) {
+            ticker.increment(2, HOURS);
+            int offset = i * ENTRY_LENGTH;
+            for (int entry = 0; entry < 10; entry++) {
+                read(cache, offset + entry * 7, buffer, 0);
+            }
+            for (int entry = 0; entry < 10; entry++) {
+                assertTrue(read(cache, offset + entry * 7, buffer, 0));
+                validateBuffer(data, offset + entry * 7, buffer, 0, ENTRY_LENGTH);
+            }
+            assertEquals(stats.getRetainedBytes(), 10 * ENTRY_LENGTH);
+        }
+        assertEquals(stats.getAllocationFailure(), 0);
+    }
+
+    private MemoryCacheTier createCache(CacheTierStats stats)
+    {
+        return new MemoryCacheTier(10 * ENTRY_LENGTH, ENTRY_LENGTH, TTL, PAGE_SIZE, ticker, stats);
+    }
+
+    /**
+     * Reads a range the way the caching input stream does, caching it on a miss.
+     */
+    private boolean read(MemoryCacheTier cache, int offset, byte[] buffer, int bufferOffset)
+    {
+        FileReadRequest request = new FileReadRequest(PATH, offset, ENTRY_LENGTH);
+        if (cache.get(request, buffer, bufferOffset)) {
+            return true;
+        }
+        cache.put(request, wrappedBuffer(data, offset, ENTRY_LENGTH), NO_CACHE_CONSTRAINTS);
+        return false;
+    }
+
+    private static byte[] createData(int length)
+    {
+        byte[] data = new byte[length];
+        new Random(42).nextBytes(data);
+        return data;
+    }
+
+    private static class TestingTicker
+            extends Ticker
+    {
+        private long time;
+
+        @Override
+        public long read()
+        {
+            return time;
+        }
+
+        public void increment(long delta, TimeUnit unit)
+        {
+            time += unit.toNanos(delta);
+        }
+    }
+}
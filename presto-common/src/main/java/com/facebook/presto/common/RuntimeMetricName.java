@@ -87,4 +87,6 @@ public class RuntimeMetricName
     public static final String DIRECTORY_LISTING_CACHE_MISS = "directoryListingCacheMiss";
     public static final String DIRECTORY_LISTING_TIME_NANOS = "directoryListingTimeNanos";
     public static final String FILES_READ_COUNT = "filesReadCount";
+    // Bytes allocated while evaluating a projection, suffixed with the output channel of the projection
+    public static final String PROJECTION_ALLOCATED_BYTES = "projectionAllocatedBytes";
 }
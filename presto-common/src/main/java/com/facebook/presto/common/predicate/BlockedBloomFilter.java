@@ -0,0 +1,126 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.common.predicate;
+
+import io.airlift.slice.XxHash64;
+import org.openjdk.jol.info.ClassLayout;
+
+import static com.facebook.presto.common.predicate.TupleDomainFilterUtils.checkArgument;
+import static io.airlift.slice.SizeOf.sizeOf;
+import static java.lang.Math.toIntExact;
+
+/**
+ * Split block bloom filter over 64-bit values.
+ * <p>
+ * Each value sets one bit in each of the eight words of a single 512-bit block,
+ * so both insertion and lookup touch exactly one cache line. Filters of the same
+ * size can be merged with {@link #merge(BlockedBloomFilter)}, which is how the
+ * per-driver filters of a join build side are combined.
+ * <p>
+ * This class is not thread safe.
+ */
+public final class BlockedBloomFilter
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(BlockedBloomFilter.class).instanceSize();
+
+    private static final int WORDS_PER_BLOCK = 8;
+    private static final int BYTES_PER_BLOCK = WORDS_PER_BLOCK * Long.BYTES;
+    // odd constants used to derive the bit index of each word from the lower half of the hash
+    private static final int[] SALT = {
+            0x47b6137b, 0x44974d91, 0x8824ad5b, 0xa2b7289d,
+            0x705495c7, 0x2df1424b, 0x9efc4947, 0x5c6bfb31};
+
+    private final long[] words;
+    private final int blockCount;
+
+    private BlockedBloomFilter(int blockCount)
+    {
+        checkArgument(blockCount > 0, "blockCount must be positive");
+        this.blockCount = blockCount;
+        this.words = new long[blockCount * WORDS_PER_BLOCK];
+    }
+
+    /**
+     * Creates an empty filter using at most {@code sizeInBytes} bytes, and at least one block.
+     */
+    public static BlockedBloomFilter create(long sizeInBytes)
+    {
+        checkArgument(sizeInBytes > 0, "sizeInBytes must be positive");
+        return new BlockedBloomFilter(toIntExact(Math.max(1, sizeInBytes / BYTES_PER_BLOCK)));
+    }
+
+    public static long hash(long value)
+    {
+        return XxHash64.hash(value);
+    }
+
+    public void put(long hash)
+    {
+        int offset = blockOffset(hash);
+        int key = (int) hash;
+        for (int i = 0; i < WORDS_PER_BLOCK; i++) {
+            words[offset + i] |= 1L << ((key * SALT[i]) >>> 26);
+        }
+    }
+
+    public boolean mightContain(long hash)
+    {
+        int offset = blockOffset(hash);
+        int key = (int) hash;
+        for (int i = 0; i < WORDS_PER_BLOCK; i++) {
+            if ((words[offset + i] & (1L << ((key * SALT[i]) >>> 26))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void putLong(long value)
+    {
+        put(hash(value));
+    }
+
+    public boolean mightContainLong(long value)
+    {
+        return mightContain(hash(value));
+    }
+
+    /**
+     * Adds all values of {@code other} to this filter. Both filters must have the same size.
+     */
+    public void merge(BlockedBloomFilter other)
+    {
+        checkArgument(blockCount == other.blockCount, "cannot merge bloom filters of different sizes");
+        for (int i = 0; i < words.length; i++) {
+            words[i] |= other.words[i];
+        }
+    }
+
+    public long getRetainedSizeInBytes()
+    {
+        return INSTANCE_SIZE + sizeOf(words);
+    }
+
+    private int blockOffset(long hash)
+    {
+        // multiply-shift maps the upper half of the hash onto [0, blockCount) without a modulo
+        return (int) (((hash >>> 32) * blockCount) >>> 32) * WORDS_PER_BLOCK;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "BlockedBloomFilter{blockCount=" + blockCount + "}";
+    }
+}
@@ -703,6 +703,81 @@ public interface TupleDomainFilter
         }
     }
 
+    /**
+     * Range filter refined by a bloom filter of the accepted values. May accept values
+     * which are not in the original set, so it is only suitable for filters whose
+     * result is re-checked later, such as dynamic filters derived from a join build side.
+     */
+    class BigintValuesUsingBloomFilter
+            extends AbstractTupleDomainFilter
+    {
+        private final long min;
+        private final long max;
+        private final BlockedBloomFilter bloomFilter;
+
+        private BigintValuesUsingBloomFilter(long min, long max, BlockedBloomFilter bloomFilter, boolean nullAllowed)
+        {
+            super(true, nullAllowed);
+
+            checkArgument(min <= max, "min must be less than or equal to max");
+            this.min = min;
+            this.max = max;
+            this.bloomFilter = requireNonNull(bloomFilter, "bloomFilter is null");
+        }
+
+        public static BigintValuesUsingBloomFilter of(long min, long max, BlockedBloomFilter bloomFilter, boolean nullAllowed)
+        {
+            return new BigintValuesUsingBloomFilter(min, max, bloomFilter, nullAllowed);
+        }
+
+        @Override
+        public boolean testLong(long value)
+        {
+            if (value < min || value > max) {
+                return false;
+            }
+
+            return bloomFilter.mightContainLong(value);
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) {
+                return true;
+            }
+
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+
+            BigintValuesUsingBloomFilter that = (BigintValuesUsingBloomFilter) o;
+            return min == that.min &&
+                    max == that.max &&
+                    bloomFilter == that.bloomFilter &&
+                    nullAllowed == that.nullAllowed;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(min, max, System.identityHashCode(bloomFilter), nullAllowed);
+        }
+
+        @Override
+        public String toString()
+        {
+            StringBuilder sb = new StringBuilder(this.getClass().getName());
+            sb.append("{min='").append(min);
+            sb.append(", max=").append(max);
+            sb.append(", bloomFilter=").append(bloomFilter);
+            sb.append(", nullAllowed=").append(nullAllowed);
+            sb.append("}");
+
+            return sb.toString();
+        }
+    }
+
     class AbstractRange
             extends AbstractTupleDomainFilter
     {
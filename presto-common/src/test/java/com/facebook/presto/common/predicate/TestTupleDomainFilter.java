@@ -16,6 +16,7 @@ package com.facebook.presto.common.predicate;
 import com.facebook.presto.common.predicate.TupleDomainFilter.BigintMultiRange;
 import com.facebook.presto.common.predicate.TupleDomainFilter.BigintRange;
 import com.facebook.presto.common.predicate.TupleDomainFilter.BigintValuesUsingBitmask;
+import com.facebook.presto.common.predicate.TupleDomainFilter.BigintValuesUsingBloomFilter;
 import com.facebook.presto.common.predicate.TupleDomainFilter.BigintValuesUsingHashTable;
 import com.facebook.presto.common.predicate.TupleDomainFilter.BooleanValue;
 import com.facebook.presto.common.predicate.TupleDomainFilter.BytesRange;
@@ -97,6 +98,38 @@ public class TestTupleDomainFilter
         assertFalse(filter.testLong(Long.MAX_VALUE));
     }
 
+    @Test
+    public void testBigintValuesUsingBloomFilter()
+    {
+        BlockedBloomFilter bloomFilter = BlockedBloomFilter.create(64 * 1024);
+        for (long value = 0; value < 10_000; value += 2) {
+            bloomFilter.putLong(value);
+        }
+        TupleDomainFilter filter = BigintValuesUsingBloomFilter.of(0, 9_998, bloomFilter, false);
+
+        for (long value = 0; value < 10_000; value += 2) {
+            assertTrue(filter.testLong(value));
+        }
+
+        assertFalse(filter.testNull());
+        assertFalse(filter.testLong(-2));
+        assertFalse(filter.testLong(10_000));
+        assertFalse(filter.testLong(Long.MAX_VALUE));
+
+        int falsePositives = 0;
+        for (long value = 1; value < 10_000; value += 2) {
+            if (filter.testLong(value)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 50, "too many false positives: " + falsePositives);
+
+        BlockedBloomFilter other = BlockedBloomFilter.create(64 * 1024);
+        other.putLong(1);
+        bloomFilter.merge(other);
+        assertTrue(filter.testLong(1));
+    }
+
     @Test
     public void testBigintMultiRange()
     {
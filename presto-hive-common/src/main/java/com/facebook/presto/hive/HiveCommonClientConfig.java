@@ -39,6 +39,7 @@ public class HiveCommonClientConfig
     private double orcWriterValidationPercentage;
     private boolean useOrcColumnNames;
     private DataSize orcTinyStripeThreshold = new DataSize(8, MEGABYTE);
+    private DataSize orcStripePrefetchMaxSize = new DataSize(0, MEGABYTE);
     private boolean parquetBatchReadOptimizationEnabled;
     private boolean parquetEnableBatchReaderVerification;
     private DataSize parquetMaxReadBlockSize = new DataSize(16, MEGABYTE);
@@ -210,6 +211,20 @@ public class HiveCommonClientConfig
         return this;
     }
 
+    @NotNull
+    public DataSize getOrcStripePrefetchMaxSize()
+    {
+        return orcStripePrefetchMaxSize;
+    }
+
+    @Config("hive.orc.stripe-prefetch-max-size")
+    @ConfigDescription("Maximum size of the streams of the next stripe read in the background while the current stripe is decoded, 0 disables prefetching")
+    public HiveCommonClientConfig setOrcStripePrefetchMaxSize(DataSize orcStripePrefetchMaxSize)
+    {
+        this.orcStripePrefetchMaxSize = orcStripePrefetchMaxSize;
+        return this;
+    }
+
     @Config("hive.parquet-batch-read-optimization-enabled")
     @ConfigDescription("enable parquet batch reads optimization")
     public HiveCommonClientConfig setParquetBatchReadOptimizationEnabled(boolean parquetBatchReadOptimizationEnabled)
@@ -57,6 +57,7 @@ public class HiveCommonSessionProperties
     private static final String ORC_OPTIMIZED_WRITER_VALIDATE_PERCENTAGE = "orc_optimized_writer_validate_percentage";
     private static final String ORC_STREAM_BUFFER_SIZE = "orc_stream_buffer_size";
     private static final String ORC_TINY_STRIPE_THRESHOLD = "orc_tiny_stripe_threshold";
+    private static final String ORC_STRIPE_PREFETCH_MAX_SIZE = "orc_stripe_prefetch_max_size";
     private static final String ORC_ZSTD_JNI_DECOMPRESSION_ENABLED = "orc_zstd_jni_decompression_enabled";
     private static final String PARQUET_BATCH_READER_VERIFICATION_ENABLED = "parquet_batch_reader_verification_enabled";
     private static final String PARQUET_MAX_READ_BLOCK_SIZE = "parquet_max_read_block_size";
@@ -150,6 +151,11 @@ public class HiveCommonSessionProperties
                         "ORC: Threshold below which an ORC stripe or file will read in its entirety",
                         hiveCommonClientConfig.getOrcTinyStripeThreshold(),
                         false),
+                dataSizeSessionProperty(
+                        ORC_STRIPE_PREFETCH_MAX_SIZE,
+                        "ORC: Maximum size of the next stripe to read in the background, 0 disables prefetching",
+                        hiveCommonClientConfig.getOrcStripePrefetchMaxSize(),
+                        false),
                 booleanProperty(
                         ORC_ZSTD_JNI_DECOMPRESSION_ENABLED,
                         "use JNI based zstd decompression for reading ORC files",
@@ -264,6 +270,11 @@ public class HiveCommonSessionProperties
         return session.getProperty(ORC_TINY_STRIPE_THRESHOLD, DataSize.class);
     }
 
+    public static DataSize getOrcStripePrefetchMaxSize(ConnectorSession session)
+    {
+        return session.getProperty(ORC_STRIPE_PREFETCH_MAX_SIZE, DataSize.class);
+    }
+
     public static boolean isOrcZstdJniDecompressionEnabled(ConnectorSession session)
     {
         return session.getProperty(ORC_ZSTD_JNI_DECOMPRESSION_ENABLED, Boolean.class);
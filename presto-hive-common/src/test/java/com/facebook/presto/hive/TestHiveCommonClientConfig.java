@@ -40,6 +40,7 @@ public class TestHiveCommonClientConfig
                 .setOrcMaxBufferSize(new DataSize(8, DataSize.Unit.MEGABYTE))
                 .setOrcStreamBufferSize(new DataSize(8, DataSize.Unit.MEGABYTE))
                 .setOrcTinyStripeThreshold(new DataSize(8, DataSize.Unit.MEGABYTE))
+                .setOrcStripePrefetchMaxSize(new DataSize(0, DataSize.Unit.MEGABYTE))
                 .setOrcMaxReadBlockSize(new DataSize(16, DataSize.Unit.MEGABYTE))
                 .setOrcLazyReadSmallRanges(true)
                 .setOrcOptimizedWriterEnabled(true)
@@ -67,6 +68,7 @@ public class TestHiveCommonClientConfig
                 .put("hive.orc.max-buffer-size", "44kB")
                 .put("hive.orc.stream-buffer-size", "55kB")
                 .put("hive.orc.tiny-stripe-threshold", "61kB")
+                .put("hive.orc.stripe-prefetch-max-size", "64MB")
                 .put("hive.orc.max-read-block-size", "66kB")
                 .put("hive.orc.lazy-read-small-ranges", "false")
                 .put("hive.orc.optimized-writer.enabled", "false")
@@ -91,6 +93,7 @@ public class TestHiveCommonClientConfig
                 .setOrcMaxBufferSize(new DataSize(44, DataSize.Unit.KILOBYTE))
                 .setOrcStreamBufferSize(new DataSize(55, DataSize.Unit.KILOBYTE))
                 .setOrcTinyStripeThreshold(new DataSize(61, DataSize.Unit.KILOBYTE))
+                .setOrcStripePrefetchMaxSize(new DataSize(64, DataSize.Unit.MEGABYTE))
                 .setOrcMaxReadBlockSize(new DataSize(66, DataSize.Unit.KILOBYTE))
                 .setOrcLazyReadSmallRanges(false)
                 .setOrcOptimizedWriterEnabled(false)
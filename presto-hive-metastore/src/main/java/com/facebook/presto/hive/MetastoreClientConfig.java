@@ -19,6 +19,7 @@ import com.facebook.airlift.units.Duration;
 import com.facebook.airlift.units.MinDuration;
 import com.facebook.presto.hive.metastore.AbstractCachingHiveMetastore.MetastoreCacheScope;
 import com.google.common.net.HostAndPort;
+import jakarta.validation.constraints.AssertTrue;
 import jakarta.validation.constraints.DecimalMax;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.Min;
@@ -27,6 +28,7 @@ import jakarta.validation.constraints.NotNull;
 import java.util.concurrent.TimeUnit;
 
 import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.SECONDS;
 
 public class MetastoreClientConfig
 {
@@ -52,6 +54,10 @@ public class MetastoreClientConfig
     private HiveMetastoreAuthenticationType hiveMetastoreAuthenticationType = HiveMetastoreAuthenticationType.NONE;
     private boolean deleteFilesOnTableDrop;
     private boolean invalidateMetastoreCacheProcedureEnabled;
+    private boolean metastoreCacheNotificationInvalidationEnabled;
+    private Duration metastoreCacheNotificationPollInterval = new Duration(10, SECONDS);
+    private String metastoreCacheSnapshotPath;
+    private Duration metastoreCacheSnapshotInterval = new Duration(5, MINUTES);
 
     public HostAndPort getMetastoreSocksProxy()
     {
@@ -316,4 +322,68 @@ public class MetastoreClientConfig
         this.invalidateMetastoreCacheProcedureEnabled = invalidateMetastoreCacheProcedureEnabled;
         return this;
     }
+
+    public boolean isMetastoreCacheNotificationInvalidationEnabled()
+    {
+        return metastoreCacheNotificationInvalidationEnabled;
+    }
+
+    @Config("hive.metastore-cache-notification-invalidation-enabled")
+    @ConfigDescription("Invalidate metastore cache entries of the tables changed in the metastore notification log")
+    public MetastoreClientConfig setMetastoreCacheNotificationInvalidationEnabled(boolean metastoreCacheNotificationInvalidationEnabled)
+    {
+        this.metastoreCacheNotificationInvalidationEnabled = metastoreCacheNotificationInvalidationEnabled;
+        return this;
+    }
+
+    @NotNull
+    public Duration getMetastoreCacheNotificationPollInterval()
+    {
+        return metastoreCacheNotificationPollInterval;
+    }
+
+    @MinDuration("1ms")
+    @Config("hive.metastore-cache-notification-poll-interval")
+    @ConfigDescription("Interval between reads of the metastore notification log")
+    public MetastoreClientConfig setMetastoreCacheNotificationPollInterval(Duration metastoreCacheNotificationPollInterval)
+    {
+        this.metastoreCacheNotificationPollInterval = metastoreCacheNotificationPollInterval;
+        return this;
+    }
+
+    public String getMetastoreCacheSnapshotPath()
+    {
+        return metastoreCacheSnapshotPath;
+    }
+
+    @Config("hive.metastore-cache-snapshot-path")
+    @ConfigDescription("File the table, partition and statistics entries of the metastore cache are persisted to, and loaded from on startup")
+    public MetastoreClientConfig setMetastoreCacheSnapshotPath(String metastoreCacheSnapshotPath)
+    {
+        this.metastoreCacheSnapshotPath = metastoreCacheSnapshotPath;
+        return this;
+    }
+
+    @NotNull
+    public Duration getMetastoreCacheSnapshotInterval()
+    {
+        return metastoreCacheSnapshotInterval;
+    }
+
+    @MinDuration("1ms")
+    @Config("hive.metastore-cache-snapshot-interval")
+    @ConfigDescription("Interval between writes of the metastore cache snapshot")
+    public MetastoreClientConfig setMetastoreCacheSnapshotInterval(Duration metastoreCacheSnapshotInterval)
+    {
+        this.metastoreCacheSnapshotInterval = metastoreCacheSnapshotInterval;
+        return this;
+    }
+
+    @AssertTrue(message = "hive.metastore-cache-snapshot-path requires hive.metastore-cache-notification-invalidation-enabled, and is not supported with hive.metastore-impersonation-enabled")
+    public boolean isMetastoreCacheSnapshotConfigValid()
+    {
+        // changes made while the snapshot was not in memory are only found in the notification log,
+        // and entries loaded with the credentials of one user must not be served to other users
+        return metastoreCacheSnapshotPath == null || (metastoreCacheNotificationInvalidationEnabled && !metastoreImpersonationEnabled);
+    }
 }
@@ -154,6 +154,19 @@ public interface ExtendedHiveMetastore
         throw new NotSupportedException("Unlock is not supported by default");
     }
 
+    default long getCurrentNotificationEventId(MetastoreContext metastoreContext)
+    {
+        throw new NotSupportedException("Notification events are not supported by default");
+    }
+
+    /**
+     * Returns up to {@code maxEvents} events of the metastore notification log following the event {@code lastEventId}.
+     */
+    default List<MetastoreNotificationEvent> getNotificationEvents(MetastoreContext metastoreContext, long lastEventId, int maxEvents)
+    {
+        throw new NotSupportedException("Notification events are not supported by default");
+    }
+
     default List<TableConstraint<String>> getTableConstraints(MetastoreContext metastoreContext, String schemaName, String tableName)
     {
         return ImmutableList.of();
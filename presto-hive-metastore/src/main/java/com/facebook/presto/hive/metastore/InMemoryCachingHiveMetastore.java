@@ -13,16 +13,20 @@
  */
 package com.facebook.presto.hive.metastore;
 
+import com.facebook.airlift.log.Logger;
 import com.facebook.airlift.units.Duration;
+import com.facebook.presto.common.RuntimeStats;
 import com.facebook.presto.common.predicate.Domain;
 import com.facebook.presto.hive.ForCachingHiveMetastore;
 import com.facebook.presto.hive.HiveTableHandle;
 import com.facebook.presto.hive.MetastoreClientConfig;
 import com.facebook.presto.hive.PartitionNameWithVersion;
 import com.facebook.presto.spi.PrestoException;
+import com.facebook.presto.spi.WarningCollector;
 import com.facebook.presto.spi.constraints.TableConstraint;
 import com.facebook.presto.spi.security.PrestoPrincipal;
 import com.facebook.presto.spi.security.RoleGrant;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
@@ -32,9 +36,13 @@ import com.google.common.collect.Iterables;
 import com.google.common.collect.SetMultimap;
 import com.google.common.util.concurrent.UncheckedExecutionException;
 import com.google.errorprone.annotations.ThreadSafe;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.inject.Inject;
 import org.weakref.jmx.Managed;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -44,22 +52,31 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.OptionalLong;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 
+import static com.facebook.airlift.concurrent.Threads.daemonThreadsNamed;
+import static com.facebook.presto.hive.HiveColumnConverterProvider.DEFAULT_COLUMN_CONVERTER_PROVIDER;
 import static com.facebook.presto.hive.HiveErrorCode.HIVE_CORRUPTED_PARTITION_CACHE;
 import static com.facebook.presto.hive.HiveErrorCode.HIVE_PARTITION_DROPPED_DURING_QUERY;
 import static com.facebook.presto.hive.metastore.AbstractCachingHiveMetastore.MetastoreCacheScope.ALL;
 import static com.facebook.presto.hive.metastore.HivePartitionName.hivePartitionName;
 import static com.facebook.presto.hive.metastore.HiveTableName.hiveTableName;
+import static com.facebook.presto.hive.metastore.MetastoreCacheSnapshot.readSnapshot;
+import static com.facebook.presto.hive.metastore.MetastoreCacheSnapshot.toMap;
+import static com.facebook.presto.hive.metastore.MetastoreUtil.DEFAULT_METASTORE_USER;
 import static com.facebook.presto.hive.metastore.NoopMetastoreCacheStats.NOOP_METASTORE_CACHE_STATS;
 import static com.facebook.presto.hive.metastore.PartitionFilter.partitionFilter;
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Throwables.throwIfInstanceOf;
 import static com.google.common.base.Throwables.throwIfUnchecked;
 import static com.google.common.cache.CacheLoader.asyncReloading;
@@ -67,11 +84,12 @@ import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.collect.ImmutableMap.toImmutableMap;
 import static com.google.common.collect.ImmutableSet.toImmutableSet;
 import static com.google.common.collect.ImmutableSetMultimap.toImmutableSetMultimap;
+import static com.google.common.collect.Iterables.getLast;
 import static com.google.common.collect.Iterables.transform;
-import static com.google.common.collect.Streams.stream;
 import static com.google.common.util.concurrent.MoreExecutors.newDirectExecutorService;
 import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.apache.hadoop.hive.common.FileUtils.makePartName;
 
@@ -79,6 +97,9 @@ import static org.apache.hadoop.hive.common.FileUtils.makePartName;
 public class InMemoryCachingHiveMetastore
         extends AbstractCachingHiveMetastore
 {
+    private static final Logger log = Logger.get(InMemoryCachingHiveMetastore.class);
+    private static final int MAX_NOTIFICATION_EVENTS = 1000;
+
     private final ExtendedHiveMetastore delegate;
     private final LoadingCache<KeyAndContext<String>, Optional<Database>> databaseCache;
     private final LoadingCache<KeyAndContext<String>, List<String>> databaseNamesCache;
@@ -101,6 +122,19 @@ public class InMemoryCachingHiveMetastore
     private final double partitionCacheValidationPercentage;
     private final int partitionCacheColumnCountLimit;
 
+    private final Optional<Duration> notificationPollInterval;
+    private final Optional<File> snapshotFile;
+    private final Duration snapshotInterval;
+    private final Optional<ScheduledExecutorService> backgroundExecutor;
+    // position in the metastore notification log up to which the cache is invalidated, or -1 if unknown
+    private final AtomicLong lastNotificationEventId = new AtomicLong(-1);
+
+    // entries of the snapshot loaded on startup, which are moved to the caches when they are first requested
+    private final Map<HiveTableName, Table> snapshotTables = new ConcurrentHashMap<>();
+    private final Map<HiveTableName, PartitionStatistics> snapshotTableStatistics = new ConcurrentHashMap<>();
+    private final Map<HivePartitionName, Partition> snapshotPartitions = new ConcurrentHashMap<>();
+    private final Map<HivePartitionName, PartitionStatistics> snapshotPartitionStatistics = new ConcurrentHashMap<>();
+
     @Inject
     public InMemoryCachingHiveMetastore(
             @ForCachingHiveMetastore ExtendedHiveMetastore delegate,
@@ -119,7 +153,10 @@ public class InMemoryCachingHiveMetastore
                 metastoreClientConfig.getMetastoreCacheScope(),
                 metastoreClientConfig.getPartitionCacheValidationPercentage(),
                 metastoreClientConfig.getPartitionCacheColumnCountLimit(),
-                metastoreCacheStats);
+                metastoreCacheStats,
+                metastoreClientConfig.isMetastoreCacheNotificationInvalidationEnabled() ? Optional.of(metastoreClientConfig.getMetastoreCacheNotificationPollInterval()) : Optional.empty(),
+                Optional.ofNullable(metastoreClientConfig.getMetastoreCacheSnapshotPath()).map(File::new),
+                metastoreClientConfig.getMetastoreCacheSnapshotInterval());
     }
 
     public InMemoryCachingHiveMetastore(
@@ -134,6 +171,43 @@ public class InMemoryCachingHiveMetastore
             double partitionCacheValidationPercentage,
             int partitionCacheColumnCountLimit,
             MetastoreCacheStats metastoreCacheStats)
+    {
+        this(
+                delegate,
+                executor,
+                metastoreImpersonationEnabled,
+                cacheTtl,
+                refreshInterval,
+                maximumSize,
+                partitionVersioningEnabled,
+                metastoreCacheScope,
+                partitionCacheValidationPercentage,
+                partitionCacheColumnCountLimit,
+                metastoreCacheStats,
+                Optional.empty(),
+                Optional.empty(),
+                new Duration(0, MILLISECONDS));
+    }
+
+    /**
+     * @param notificationPollInterval interval between reads of the metastore notification log, if cache entries of changed tables are invalidated
+     * @param snapshotFile file the cache entries are persisted to, and loaded from on {@link #start()}; requires the notification log
+     */
+    public InMemoryCachingHiveMetastore(
+            ExtendedHiveMetastore delegate,
+            ExecutorService executor,
+            boolean metastoreImpersonationEnabled,
+            Duration cacheTtl,
+            Duration refreshInterval,
+            long maximumSize,
+            boolean partitionVersioningEnabled,
+            MetastoreCacheScope metastoreCacheScope,
+            double partitionCacheValidationPercentage,
+            int partitionCacheColumnCountLimit,
+            MetastoreCacheStats metastoreCacheStats,
+            Optional<Duration> notificationPollInterval,
+            Optional<File> snapshotFile,
+            Duration snapshotInterval)
     {
         this(
                 delegate,
@@ -146,7 +220,10 @@ public class InMemoryCachingHiveMetastore
                 metastoreCacheScope,
                 partitionCacheValidationPercentage,
                 partitionCacheColumnCountLimit,
-                metastoreCacheStats);
+                metastoreCacheStats,
+                notificationPollInterval,
+                snapshotFile,
+                snapshotInterval);
     }
 
     public static InMemoryCachingHiveMetastore memoizeMetastore(ExtendedHiveMetastore delegate, boolean isMetastoreImpersonationEnabled, long maximumSize, int partitionCacheMaxColumnCount)
@@ -162,7 +239,10 @@ public class InMemoryCachingHiveMetastore
                 ALL,
                 0.0,
                 partitionCacheMaxColumnCount,
-                NOOP_METASTORE_CACHE_STATS);
+                NOOP_METASTORE_CACHE_STATS,
+                Optional.empty(),
+                Optional.empty(),
+                new Duration(0, MILLISECONDS));
     }
 
     private InMemoryCachingHiveMetastore(
@@ -176,7 +256,10 @@ public class InMemoryCachingHiveMetastore
             MetastoreCacheScope metastoreCacheScope,
             double partitionCacheValidationPercentage,
             int partitionCacheColumnCountLimit,
-            MetastoreCacheStats metastoreCacheStats)
+            MetastoreCacheStats metastoreCacheStats,
+            Optional<Duration> notificationPollInterval,
+            Optional<File> snapshotFile,
+            Duration snapshotInterval)
     {
         this.delegate = requireNonNull(delegate, "delegate is null");
         requireNonNull(executor, "executor is null");
@@ -185,6 +268,12 @@ public class InMemoryCachingHiveMetastore
         this.partitionCacheValidationPercentage = partitionCacheValidationPercentage;
         this.partitionCacheColumnCountLimit = partitionCacheColumnCountLimit;
         this.metastoreCacheStats = metastoreCacheStats;
+        this.notificationPollInterval = requireNonNull(notificationPollInterval, "notificationPollInterval is null");
+        this.snapshotFile = requireNonNull(snapshotFile, "snapshotFile is null");
+        this.snapshotInterval = requireNonNull(snapshotInterval, "snapshotInterval is null");
+        checkArgument(!snapshotFile.isPresent() || notificationPollInterval.isPresent(), "metastore cache snapshot requires notification invalidation");
+        checkArgument(!snapshotFile.isPresent() || !metastoreImpersonationEnabled, "metastore cache snapshot is not supported with metastore impersonation");
+        this.backgroundExecutor = notificationPollInterval.map(interval -> newSingleThreadScheduledExecutor(daemonThreadsNamed("hive-metastore-cache-%s")));
 
         OptionalLong cacheExpiresAfterWriteMillis;
         OptionalLong cacheRefreshMills;
@@ -296,12 +385,176 @@ public class InMemoryCachingHiveMetastore
                 .build(asyncReloading(CacheLoader.from(this::loadRoleGrants), executor));
     }
 
+    @PostConstruct
+    public void start()
+    {
+        if (!backgroundExecutor.isPresent()) {
+            return;
+        }
+        snapshotFile.ifPresent(this::loadSnapshot);
+
+        long pollIntervalMillis = notificationPollInterval.get().toMillis();
+        backgroundExecutor.get().scheduleWithFixedDelay(this::pollNotificationEvents, 0, pollIntervalMillis, MILLISECONDS);
+        if (snapshotFile.isPresent()) {
+            long snapshotIntervalMillis = snapshotInterval.toMillis();
+            backgroundExecutor.get().scheduleWithFixedDelay(this::tryWriteSnapshot, snapshotIntervalMillis, snapshotIntervalMillis, MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void stop()
+    {
+        backgroundExecutor.ifPresent(ExecutorService::shutdownNow);
+        if (snapshotFile.isPresent()) {
+            tryWriteSnapshot();
+        }
+    }
+
     @Override
     public ExtendedHiveMetastore getDelegate()
     {
         return delegate;
     }
 
+    private void loadSnapshot(File file)
+    {
+        if (!file.exists()) {
+            return;
+        }
+
+        MetastoreCacheSnapshot snapshot;
+        try {
+            snapshot = readSnapshot(file);
+        }
+        catch (IOException | RuntimeException e) {
+            log.warn(e, "Failed to read metastore cache snapshot %s", file);
+            return;
+        }
+        snapshotTables.putAll(toMap(snapshot.getTables()));
+        snapshotTableStatistics.putAll(toMap(snapshot.getTableStatistics()));
+        snapshotPartitions.putAll(toMap(snapshot.getPartitions()));
+        snapshotPartitionStatistics.putAll(toMap(snapshot.getPartitionStatistics()));
+        lastNotificationEventId.set(snapshot.getLastEventId());
+
+        // the entries must not be used before the changes made since the snapshot was written are applied
+        try {
+            processNotificationEvents();
+        }
+        catch (RuntimeException e) {
+            log.warn(e, "Failed to apply metastore notification events to metastore cache snapshot %s", file);
+            lastNotificationEventId.set(-1);
+            invalidateSnapshot(hiveTableName -> true);
+            return;
+        }
+        log.info("Loaded %s tables and %s partitions from metastore cache snapshot %s", snapshotTables.size(), snapshotPartitions.size(), file);
+    }
+
+    @Managed
+    public void writeSnapshot()
+            throws IOException
+    {
+        checkState(snapshotFile.isPresent(), "metastore cache snapshot is not configured");
+        long lastEventId = lastNotificationEventId.get();
+        if (lastEventId < 0) {
+            // the entries could not be brought up to date when the snapshot is loaded
+            return;
+        }
+
+        Map<HiveTableName, Table> tables = new HashMap<>(snapshotTables);
+        tableCache.asMap().forEach((key, table) -> table.ifPresent(value -> tables.put(hiveTableName(key.getKey().getSchemaName(), key.getKey().getTableName()), value)));
+        Map<HiveTableName, PartitionStatistics> tableStatistics = new HashMap<>(snapshotTableStatistics);
+        tableStatisticsCache.asMap().forEach((key, statistics) -> tableStatistics.put(key.getKey(), statistics));
+        Map<HivePartitionName, Partition> partitions = new HashMap<>(snapshotPartitions);
+        partitionCache.asMap().forEach((key, partition) -> partition.ifPresent(value -> partitions.put(key.getKey(), value)));
+        Map<HivePartitionName, PartitionStatistics> partitionStatistics = new HashMap<>(snapshotPartitionStatistics);
+        partitionStatisticsCache.asMap().forEach((key, statistics) -> partitionStatistics.put(key.getKey(), statistics));
+
+        new MetastoreCacheSnapshot(lastEventId, tables, tableStatistics, partitions, partitionStatistics).writeSnapshot(snapshotFile.get());
+    }
+
+    private void tryWriteSnapshot()
+    {
+        try {
+            writeSnapshot();
+        }
+        catch (IOException | RuntimeException e) {
+            log.warn(e, "Failed to write metastore cache snapshot %s", snapshotFile.get());
+        }
+    }
+
+    @VisibleForTesting
+    void pollNotificationEvents()
+    {
+        try {
+            processNotificationEvents();
+        }
+        catch (RuntimeException e) {
+            log.warn(e, "Failed to read metastore notification events");
+        }
+    }
+
+    private void processNotificationEvents()
+    {
+        MetastoreContext context = new MetastoreContext(
+                DEFAULT_METASTORE_USER,
+                "metastore_cache_notifications",
+                Optional.empty(),
+                ImmutableSet.of(),
+                Optional.empty(),
+                Optional.empty(),
+                false,
+                DEFAULT_COLUMN_CONVERTER_PROVIDER,
+                WarningCollector.NOOP,
+                new RuntimeStats());
+
+        long lastEventId = lastNotificationEventId.get();
+        if (lastEventId < 0) {
+            // changes made before the position in the log is known may have been missed
+            lastNotificationEventId.set(delegate.getCurrentNotificationEventId(context));
+            invalidateAll();
+            return;
+        }
+
+        while (true) {
+            List<MetastoreNotificationEvent> events = delegate.getNotificationEvents(context, lastEventId, MAX_NOTIFICATION_EVENTS);
+            if (events.isEmpty()) {
+                return;
+            }
+            if (events.get(0).getEventId() > lastEventId + 1) {
+                log.warn("Metastore notification events after %s were removed before they were read, invalidating metastore cache", lastEventId);
+                invalidateAll();
+            }
+            for (MetastoreNotificationEvent event : events) {
+                invalidate(event);
+            }
+            lastEventId = getLast(events).getEventId();
+            lastNotificationEventId.set(lastEventId);
+            if (events.size() < MAX_NOTIFICATION_EVENTS) {
+                return;
+            }
+        }
+    }
+
+    private void invalidate(MetastoreNotificationEvent event)
+    {
+        if (event.getDatabaseName().isPresent() && event.getTableName().isPresent()) {
+            invalidateTableCache(event.getDatabaseName().get(), event.getTableName().get());
+        }
+        else if (event.getDatabaseName().isPresent()) {
+            // database events may apply to all tables of the database
+            invalidateAll();
+        }
+        // other events, such as transaction events, do not change cached metadata
+    }
+
+    private void invalidateSnapshot(Predicate<HiveTableName> tablePredicate)
+    {
+        snapshotTables.keySet().removeIf(tablePredicate);
+        snapshotTableStatistics.keySet().removeIf(tablePredicate);
+        snapshotPartitions.keySet().removeIf(partitionName -> tablePredicate.test(partitionName.getHiveTableName()));
+        snapshotPartitionStatistics.keySet().removeIf(partitionName -> tablePredicate.test(partitionName.getHiveTableName()));
+    }
+
     @Managed
     @Override
     public void invalidateAll()
@@ -319,6 +572,7 @@ public class InMemoryCachingHiveMetastore
         tableStatisticsCache.invalidateAll();
         partitionStatisticsCache.invalidateAll();
         rolesCache.invalidateAll();
+        invalidateSnapshot(hiveTableName -> true);
     }
 
     private static <K, V> V get(LoadingCache<K, V> cache, K key)
@@ -386,6 +640,10 @@ public class InMemoryCachingHiveMetastore
 
     private Optional<Table> loadTable(KeyAndContext<HiveTableHandle> hiveTableHandle)
     {
+        Table table = snapshotTables.remove(hiveTableName(hiveTableHandle.getKey().getSchemaName(), hiveTableHandle.getKey().getTableName()));
+        if (table != null) {
+            return Optional.of(table);
+        }
         return delegate.getTable(hiveTableHandle.getContext(), hiveTableHandle.getKey());
     }
 
@@ -402,6 +660,10 @@ public class InMemoryCachingHiveMetastore
 
     private PartitionStatistics loadTableColumnStatistics(KeyAndContext<HiveTableName> hiveTableName)
     {
+        PartitionStatistics statistics = snapshotTableStatistics.remove(hiveTableName.getKey());
+        if (statistics != null) {
+            return statistics;
+        }
         return delegate.getTableStatistics(hiveTableName.getContext(), hiveTableName.getKey().getDatabaseName(), hiveTableName.getKey().getTableName());
     }
 
@@ -419,6 +681,10 @@ public class InMemoryCachingHiveMetastore
 
     private PartitionStatistics loadPartitionColumnStatistics(KeyAndContext<HivePartitionName> partition)
     {
+        PartitionStatistics statistics = snapshotPartitionStatistics.remove(partition.getKey());
+        if (statistics != null) {
+            return statistics;
+        }
         String partitionName = partition.getKey().getPartitionNameWithVersion().get().getPartitionName();
         Map<String, PartitionStatistics> partitionStatistics = delegate.getPartitionStatistics(
                 partition.getContext(),
@@ -433,9 +699,20 @@ public class InMemoryCachingHiveMetastore
 
     private Map<KeyAndContext<HivePartitionName>, PartitionStatistics> loadPartitionColumnStatistics(Iterable<? extends KeyAndContext<HivePartitionName>> keys)
     {
-        SetMultimap<KeyAndContext<HiveTableName>, KeyAndContext<HivePartitionName>> tablePartitions = stream(keys)
-                .collect(toImmutableSetMultimap(nameKey -> getCachingKey(nameKey.getContext(), nameKey.getKey().getHiveTableName()), nameKey -> nameKey));
         ImmutableMap.Builder<KeyAndContext<HivePartitionName>, PartitionStatistics> result = ImmutableMap.builder();
+        List<KeyAndContext<HivePartitionName>> remainingKeys = new ArrayList<>();
+        for (KeyAndContext<HivePartitionName> key : keys) {
+            PartitionStatistics statistics = snapshotPartitionStatistics.remove(key.getKey());
+            if (statistics != null) {
+                result.put(key, statistics);
+            }
+            else {
+                remainingKeys.add(key);
+            }
+        }
+
+        SetMultimap<KeyAndContext<HiveTableName>, KeyAndContext<HivePartitionName>> tablePartitions = remainingKeys.stream()
+                .collect(toImmutableSetMultimap(nameKey -> getCachingKey(nameKey.getContext(), nameKey.getKey().getHiveTableName()), nameKey -> nameKey));
         tablePartitions.keySet().forEach(table -> {
             Set<String> partitionNames = tablePartitions.get(table).stream()
                     .map(partitionName -> partitionName.getKey().getPartitionNameWithVersion().get().getPartitionName())
@@ -473,6 +750,7 @@ public class InMemoryCachingHiveMetastore
             tableStatisticsCache.asMap().keySet().stream()
                     .filter(hiveTableNameKey -> hiveTableNameKey.getKey().equals(hiveTableName(databaseName, tableName)))
                     .forEach(tableStatisticsCache::invalidate);
+            invalidateSnapshot(hiveTableName(databaseName, tableName)::equals);
         }
     }
 
@@ -486,6 +764,7 @@ public class InMemoryCachingHiveMetastore
             partitionStatisticsCache.asMap().keySet().stream()
                     .filter(partitionFilterKey -> partitionFilterKey.getKey().equals(hivePartitionName(databaseName, tableName, partitionName)))
                     .forEach(partitionStatisticsCache::invalidate);
+            invalidateSnapshot(hiveTableName(databaseName, tableName)::equals);
         }
     }
 
@@ -573,6 +852,7 @@ public class InMemoryCachingHiveMetastore
         partitionStatisticsCache.asMap().keySet().stream()
                 .filter(partitionFilterKey -> partitionFilterKey.getKey().getHiveTableName().equals(hiveTableName))
                 .forEach(partitionStatisticsCache::invalidate);
+        invalidateSnapshot(hiveTableName::equals);
     }
 
     @Override
@@ -713,6 +993,11 @@ public class InMemoryCachingHiveMetastore
         //Invalidate Partition Statistics Cache on a partition cache miss.
         partitionStatisticsCache.invalidate(getCachingKey(partitionName.getContext(), partitionName.getKey()));
 
+        Partition partition = snapshotPartitions.remove(partitionName.getKey());
+        if (partition != null) {
+            return Optional.of(partition);
+        }
+
         return delegate.getPartition(
                 partitionName.getContext(),
                 partitionName.getKey().getHiveTableName().getDatabaseName(),
@@ -728,7 +1013,22 @@ public class InMemoryCachingHiveMetastore
         //Invalidate Partition Statistics Cache on a partition cache miss.
         partitionStatisticsCache.invalidateAll(transform(partitionNamesKey, partitionNameKey -> getCachingKey(partitionNameKey.getContext(), partitionNameKey.getKey())));
 
-        KeyAndContext<HivePartitionName> firstPartitionKey = Iterables.get(partitionNamesKey, 0);
+        ImmutableMap.Builder<KeyAndContext<HivePartitionName>, Optional<Partition>> partitions = ImmutableMap.builder();
+        List<KeyAndContext<HivePartitionName>> remainingPartitionNamesKey = new ArrayList<>();
+        for (KeyAndContext<HivePartitionName> partitionNameKey : partitionNamesKey) {
+            Partition partition = snapshotPartitions.remove(partitionNameKey.getKey());
+            if (partition != null) {
+                partitions.put(partitionNameKey, Optional.of(partition));
+            }
+            else {
+                remainingPartitionNamesKey.add(partitionNameKey);
+            }
+        }
+        if (remainingPartitionNamesKey.isEmpty()) {
+            return partitions.build();
+        }
+
+        KeyAndContext<HivePartitionName> firstPartitionKey = remainingPartitionNamesKey.get(0);
 
         HiveTableName hiveTableName = firstPartitionKey.getKey().getHiveTableName();
         String databaseName = hiveTableName.getDatabaseName();
@@ -736,14 +1036,13 @@ public class InMemoryCachingHiveMetastore
 
         List<PartitionNameWithVersion> partitionsToFetch = new ArrayList<>();
         Map<String, PartitionNameWithVersion> partitionNameToVersionMap = new HashMap<>();
-        for (KeyAndContext<HivePartitionName> partitionNameKey : partitionNamesKey) {
+        for (KeyAndContext<HivePartitionName> partitionNameKey : remainingPartitionNamesKey) {
             checkArgument(partitionNameKey.getKey().getHiveTableName().equals(hiveTableName), "Expected table name %s but got %s", hiveTableName, partitionNameKey.getKey().getHiveTableName());
             checkArgument(partitionNameKey.getContext().equals(firstPartitionKey.getContext()), "Expected context %s but got %s", firstPartitionKey.getContext(), partitionNameKey.getContext());
             partitionsToFetch.add(partitionNameKey.getKey().getPartitionNameWithVersion().get());
             partitionNameToVersionMap.put(partitionNameKey.getKey().getPartitionNameWithVersion().get().getPartitionName(), partitionNameKey.getKey().getPartitionNameWithVersion().get());
         }
 
-        ImmutableMap.Builder<KeyAndContext<HivePartitionName>, Optional<Partition>> partitions = ImmutableMap.builder();
         Map<String, Optional<Partition>> partitionsByNames = delegate.getPartitionsByNames(firstPartitionKey.getContext(), databaseName, tableName, partitionsToFetch);
         for (Entry<String, Optional<Partition>> entry : partitionsByNames.entrySet()) {
             partitions.put(getCachingKey(firstPartitionKey.getContext(), HivePartitionName.hivePartitionName(hiveTableName, partitionNameToVersionMap.get(entry.getKey()))), entry.getValue());
@@ -804,6 +1103,7 @@ public class InMemoryCachingHiveMetastore
     public Optional<Long> lock(MetastoreContext metastoreContext, String databaseName, String tableName)
     {
         tableCache.invalidate(getCachingKey(metastoreContext, new HiveTableHandle(databaseName, tableName)));
+        invalidateSnapshot(hiveTableName(databaseName, tableName)::equals);
         return delegate.lock(metastoreContext, databaseName, tableName);
     }
 
@@ -878,6 +1178,8 @@ public class InMemoryCachingHiveMetastore
                 partitionStatisticsCache,
                 newMetastoreContext,
                 hivePartitionNameKeyAndContext -> hivePartitionNameKeyAndContext.getKey().getHiveTableName().getDatabaseName().equals(databaseName));
+
+        invalidateSnapshot(hiveTableName -> hiveTableName.getDatabaseName().equals(databaseName));
     }
 
     public void invalidateCache(MetastoreContext metastoreContext, String databaseName, String tableName)
@@ -944,6 +1246,8 @@ public class InMemoryCachingHiveMetastore
                 partitionStatisticsCache,
                 newMetastoreContext,
                 hivePartitionNameKeyAndContext -> hivePartitionNameKeyAndContext.getKey().getHiveTableName().equals(hiveTableName));
+
+        invalidateSnapshot(hiveTableName::equals);
     }
 
     public void invalidateCache(
@@ -984,6 +1288,8 @@ public class InMemoryCachingHiveMetastore
 
         // Invalidate Partition Statistics Cache
         invalidateCacheForKey(partitionStatisticsCache, newMetastoreContext, hivePartitionNamePredicate);
+
+        invalidateSnapshot(hiveTableName::equals);
     }
 
     private <K> void invalidateCacheForKey(LoadingCache<KeyAndContext<K>, ?> cache, MetastoreContext newMetastoreContext, Predicate<KeyAndContext<K>> keyPredicate)
@@ -0,0 +1,134 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.metastore;
+
+import com.facebook.airlift.json.JsonObjectMapperProvider;
+import com.facebook.presto.hive.metastore.RecordingHiveMetastore.Pair;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.ImmutableList;
+import com.google.errorprone.annotations.Immutable;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.ImmutableMap.toImmutableMap;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Table, partition and statistics entries of the metastore cache, persisted so that the cache is
+ * warm after a restart. The entries are up to date with the metastore notification log up to and
+ * including {@code lastEventId}; later events have to be applied before the entries are used.
+ */
+@Immutable
+public class MetastoreCacheSnapshot
+{
+    private final long lastEventId;
+    private final List<Pair<HiveTableName, Table>> tables;
+    private final List<Pair<HiveTableName, PartitionStatistics>> tableStatistics;
+    private final List<Pair<HivePartitionName, Partition>> partitions;
+    private final List<Pair<HivePartitionName, PartitionStatistics>> partitionStatistics;
+
+    @JsonCreator
+    public MetastoreCacheSnapshot(
+            @JsonProperty("lastEventId") long lastEventId,
+            @JsonProperty("tables") List<Pair<HiveTableName, Table>> tables,
+            @JsonProperty("tableStatistics") List<Pair<HiveTableName, PartitionStatistics>> tableStatistics,
+            @JsonProperty("partitions") List<Pair<HivePartitionName, Partition>> partitions,
+            @JsonProperty("partitionStatistics") List<Pair<HivePartitionName, PartitionStatistics>> partitionStatistics)
+    {
+        this.lastEventId = lastEventId;
+        this.tables = ImmutableList.copyOf(requireNonNull(tables, "tables is null"));
+        this.tableStatistics = ImmutableList.copyOf(requireNonNull(tableStatistics, "tableStatistics is null"));
+        this.partitions = ImmutableList.copyOf(requireNonNull(partitions, "partitions is null"));
+        this.partitionStatistics = ImmutableList.copyOf(requireNonNull(partitionStatistics, "partitionStatistics is null"));
+    }
+
+    public MetastoreCacheSnapshot(
+            long lastEventId,
+            Map<HiveTableName, Table> tables,
+            Map<HiveTableName, PartitionStatistics> tableStatistics,
+            Map<HivePartitionName, Partition> partitions,
+            Map<HivePartitionName, PartitionStatistics> partitionStatistics)
+    {
+        this(lastEventId, toPairs(tables), toPairs(tableStatistics), toPairs(partitions), toPairs(partitionStatistics));
+    }
+
+    public static MetastoreCacheSnapshot readSnapshot(File file)
+            throws IOException
+    {
+        return new JsonObjectMapperProvider().get().readValue(file, MetastoreCacheSnapshot.class);
+    }
+
+    /**
+     * Writes the snapshot to a temporary file which replaces {@code file}, so that a failure while
+     * writing does not leave a partial snapshot behind.
+     */
+    public void writeSnapshot(File file)
+            throws IOException
+    {
+        File temporaryFile = new File(file.getPath() + ".tmp");
+        new JsonObjectMapperProvider().get().writeValue(temporaryFile, this);
+        Files.move(temporaryFile.toPath(), file.toPath(), ATOMIC_MOVE, REPLACE_EXISTING);
+    }
+
+    @JsonProperty
+    public long getLastEventId()
+    {
+        return lastEventId;
+    }
+
+    @JsonProperty
+    public List<Pair<HiveTableName, Table>> getTables()
+    {
+        return tables;
+    }
+
+    @JsonProperty
+    public List<Pair<HiveTableName, PartitionStatistics>> getTableStatistics()
+    {
+        return tableStatistics;
+    }
+
+    @JsonProperty
+    public List<Pair<HivePartitionName, Partition>> getPartitions()
+    {
+        return partitions;
+    }
+
+    @JsonProperty
+    public List<Pair<HivePartitionName, PartitionStatistics>> getPartitionStatistics()
+    {
+        return partitionStatistics;
+    }
+
+    public static <K, V> Map<K, V> toMap(List<Pair<K, V>> pairs)
+    {
+        return pairs.stream()
+                .collect(toImmutableMap(Pair::getKey, Pair::getValue, (first, second) -> first));
+    }
+
+    private static <K, V> List<Pair<K, V>> toPairs(Map<K, V> map)
+    {
+        return map.entrySet().stream()
+                .map(entry -> new Pair<>(entry.getKey(), entry.getValue()))
+                .collect(toImmutableList());
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.metastore;
+
+import com.google.errorprone.annotations.Immutable;
+
+import java.util.Objects;
+import java.util.Optional;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Entry of the metastore notification log, which records the changes made to databases, tables and partitions.
+ */
+@Immutable
+public class MetastoreNotificationEvent
+{
+    private final long eventId;
+    private final String eventType;
+    private final Optional<String> databaseName;
+    private final Optional<String> tableName;
+
+    public MetastoreNotificationEvent(long eventId, String eventType, Optional<String> databaseName, Optional<String> tableName)
+    {
+        this.eventId = eventId;
+        this.eventType = requireNonNull(eventType, "eventType is null");
+        this.databaseName = requireNonNull(databaseName, "databaseName is null");
+        this.tableName = requireNonNull(tableName, "tableName is null");
+    }
+
+    public long getEventId()
+    {
+        return eventId;
+    }
+
+    public String getEventType()
+    {
+        return eventType;
+    }
+
+    public Optional<String> getDatabaseName()
+    {
+        return databaseName;
+    }
+
+    public Optional<String> getTableName()
+    {
+        return tableName;
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        MetastoreNotificationEvent other = (MetastoreNotificationEvent) o;
+        return eventId == other.eventId &&
+                Objects.equals(eventType, other.eventType) &&
+                Objects.equals(databaseName, other.databaseName) &&
+                Objects.equals(tableName, other.tableName);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(eventId, eventType, databaseName, tableName);
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("eventId", eventId)
+                .add("eventType", eventType)
+                .add("databaseName", databaseName.orElse(null))
+                .add("tableName", tableName.orElse(null))
+                .toString();
+    }
+}
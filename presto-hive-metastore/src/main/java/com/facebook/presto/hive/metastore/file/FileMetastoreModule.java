@@ -16,6 +16,7 @@ package com.facebook.presto.hive.metastore.file;
 import com.facebook.airlift.configuration.AbstractConfigurationAwareModule;
 import com.facebook.presto.hive.ForCachingHiveMetastore;
 import com.facebook.presto.hive.HiveCommonClientConfig;
+import com.facebook.presto.hive.MetastoreClientConfig;
 import com.facebook.presto.hive.metastore.ExtendedHiveMetastore;
 import com.facebook.presto.hive.metastore.InMemoryCachingHiveMetastore;
 import com.google.inject.Binder;
@@ -41,6 +42,7 @@ public class FileMetastoreModule
     public void setup(Binder binder)
     {
         checkArgument(buildConfigObject(HiveCommonClientConfig.class).getCatalogName() == null, "'hive.metastore.catalog.name' should not be set for file metastore");
+        checkArgument(!buildConfigObject(MetastoreClientConfig.class).isMetastoreCacheNotificationInvalidationEnabled(), "'hive.metastore-cache-notification-invalidation-enabled' is not supported for file metastore, which has no notification log");
         configBinder(binder).bindConfig(FileHiveMetastoreConfig.class);
         binder.bind(ExtendedHiveMetastore.class).annotatedWith(ForCachingHiveMetastore.class).to(FileHiveMetastore.class).in(Scopes.SINGLETON);
         binder.bind(ExtendedHiveMetastore.class).to(InMemoryCachingHiveMetastore.class).in(Scopes.SINGLETON);
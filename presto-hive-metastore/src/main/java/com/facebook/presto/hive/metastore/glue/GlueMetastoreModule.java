@@ -17,6 +17,7 @@ import com.facebook.airlift.concurrent.BoundedExecutor;
 import com.facebook.airlift.configuration.AbstractConfigurationAwareModule;
 import com.facebook.presto.hive.ForCachingHiveMetastore;
 import com.facebook.presto.hive.HiveCommonClientConfig;
+import com.facebook.presto.hive.MetastoreClientConfig;
 import com.facebook.presto.hive.metastore.ExtendedHiveMetastore;
 import com.facebook.presto.hive.metastore.InMemoryCachingHiveMetastore;
 import com.google.inject.Binder;
@@ -49,6 +50,7 @@ public class GlueMetastoreModule
     public void setup(Binder binder)
     {
         checkArgument(buildConfigObject(HiveCommonClientConfig.class).getCatalogName() == null, "'hive.metastore.catalog.name' should not be set for glue metastore");
+        checkArgument(!buildConfigObject(MetastoreClientConfig.class).isMetastoreCacheNotificationInvalidationEnabled(), "'hive.metastore-cache-notification-invalidation-enabled' is not supported for glue metastore, which has no notification log");
         configBinder(binder).bindConfig(GlueHiveMetastoreConfig.class);
         binder.bind(GlueHiveMetastore.class).in(Scopes.SINGLETON);
         binder.bind(ExtendedHiveMetastore.class).annotatedWith(ForCachingHiveMetastore.class).to(GlueHiveMetastore.class).in(Scopes.SINGLETON);
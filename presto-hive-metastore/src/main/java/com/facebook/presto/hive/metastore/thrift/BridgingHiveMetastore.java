@@ -25,6 +25,7 @@ import com.facebook.presto.hive.metastore.Database;
 import com.facebook.presto.hive.metastore.ExtendedHiveMetastore;
 import com.facebook.presto.hive.metastore.HivePrivilegeInfo;
 import com.facebook.presto.hive.metastore.MetastoreContext;
+import com.facebook.presto.hive.metastore.MetastoreNotificationEvent;
 import com.facebook.presto.hive.metastore.MetastoreOperationResult;
 import com.facebook.presto.hive.metastore.MetastoreUtil;
 import com.facebook.presto.hive.metastore.Partition;
@@ -459,4 +460,16 @@ public class BridgingHiveMetastore
     {
         delegate.unlock(metastoreContext, lockId);
     }
+
+    @Override
+    public long getCurrentNotificationEventId(MetastoreContext metastoreContext)
+    {
+        return delegate.getCurrentNotificationEventId(metastoreContext);
+    }
+
+    @Override
+    public List<MetastoreNotificationEvent> getNotificationEvents(MetastoreContext metastoreContext, long lastEventId, int maxEvents)
+    {
+        return delegate.getNotificationEvents(metastoreContext, lastEventId, maxEvents);
+    }
 }
@@ -21,6 +21,7 @@ import com.facebook.presto.hive.PartitionNameWithVersion;
 import com.facebook.presto.hive.metastore.Column;
 import com.facebook.presto.hive.metastore.HivePrivilegeInfo;
 import com.facebook.presto.hive.metastore.MetastoreContext;
+import com.facebook.presto.hive.metastore.MetastoreNotificationEvent;
 import com.facebook.presto.hive.metastore.MetastoreOperationResult;
 import com.facebook.presto.hive.metastore.PartitionStatistics;
 import com.facebook.presto.hive.metastore.PartitionWithStatistics;
@@ -160,6 +161,16 @@ public interface HiveMetastore
         throw new UnsupportedOperationException();
     }
 
+    default long getCurrentNotificationEventId(MetastoreContext metastoreContext)
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    default List<MetastoreNotificationEvent> getNotificationEvents(MetastoreContext metastoreContext, long lastEventId, int maxEvents)
+    {
+        throw new UnsupportedOperationException();
+    }
+
     default void setPartitionLeases(MetastoreContext metastoreContext, String databaseName, String tableName, Map<String, String> partitionNameToLocation, Duration leaseDuration)
     {
         throw new UnsupportedOperationException();
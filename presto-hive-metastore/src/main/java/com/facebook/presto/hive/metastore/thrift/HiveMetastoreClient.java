@@ -15,6 +15,7 @@ package com.facebook.presto.hive.metastore.thrift;
 
 import org.apache.hadoop.hive.metastore.api.CheckLockRequest;
 import org.apache.hadoop.hive.metastore.api.ColumnStatisticsObj;
+import org.apache.hadoop.hive.metastore.api.CurrentNotificationEventId;
 import org.apache.hadoop.hive.metastore.api.Database;
 import org.apache.hadoop.hive.metastore.api.EnvironmentContext;
 import org.apache.hadoop.hive.metastore.api.FieldSchema;
@@ -23,6 +24,8 @@ import org.apache.hadoop.hive.metastore.api.HiveObjectRef;
 import org.apache.hadoop.hive.metastore.api.LockRequest;
 import org.apache.hadoop.hive.metastore.api.LockResponse;
 import org.apache.hadoop.hive.metastore.api.NotNullConstraintsResponse;
+import org.apache.hadoop.hive.metastore.api.NotificationEventRequest;
+import org.apache.hadoop.hive.metastore.api.NotificationEventResponse;
 import org.apache.hadoop.hive.metastore.api.Partition;
 import org.apache.hadoop.hive.metastore.api.PrimaryKeysResponse;
 import org.apache.hadoop.hive.metastore.api.PrincipalType;
@@ -177,6 +180,12 @@ public interface HiveMetastoreClient
     void unlock(UnlockRequest request)
             throws TException;
 
+    CurrentNotificationEventId getCurrentNotificationEventId()
+            throws TException;
+
+    NotificationEventResponse getNextNotification(NotificationEventRequest request)
+            throws TException;
+
     Optional<PrimaryKeysResponse> getPrimaryKey(String dbName, String tableName)
             throws TException;
 
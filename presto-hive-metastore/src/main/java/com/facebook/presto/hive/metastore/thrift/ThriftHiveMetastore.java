@@ -35,6 +35,7 @@ import com.facebook.presto.hive.metastore.Column;
 import com.facebook.presto.hive.metastore.HiveColumnStatistics;
 import com.facebook.presto.hive.metastore.HivePrivilegeInfo;
 import com.facebook.presto.hive.metastore.MetastoreContext;
+import com.facebook.presto.hive.metastore.MetastoreNotificationEvent;
 import com.facebook.presto.hive.metastore.MetastoreOperationResult;
 import com.facebook.presto.hive.metastore.PartitionStatistics;
 import com.facebook.presto.hive.metastore.PartitionWithStatistics;
@@ -79,6 +80,7 @@ import org.apache.hadoop.hive.metastore.api.LockState;
 import org.apache.hadoop.hive.metastore.api.MetaException;
 import org.apache.hadoop.hive.metastore.api.NoSuchObjectException;
 import org.apache.hadoop.hive.metastore.api.NotNullConstraintsResponse;
+import org.apache.hadoop.hive.metastore.api.NotificationEventRequest;
 import org.apache.hadoop.hive.metastore.api.Partition;
 import org.apache.hadoop.hive.metastore.api.PrimaryKeysResponse;
 import org.apache.hadoop.hive.metastore.api.PrincipalType;
@@ -151,6 +153,7 @@ import static com.facebook.presto.spi.statistics.ColumnStatisticType.NUMBER_OF_N
 import static com.facebook.presto.spi.statistics.ColumnStatisticType.NUMBER_OF_TRUE_VALUES;
 import static com.facebook.presto.spi.statistics.ColumnStatisticType.TOTAL_SIZE_IN_BYTES;
 import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Strings.emptyToNull;
 import static com.google.common.base.Strings.isNullOrEmpty;
 import static com.google.common.base.Throwables.throwIfUnchecked;
 import static com.google.common.collect.ImmutableList.toImmutableList;
@@ -1857,6 +1860,48 @@ public class ThriftHiveMetastore
         }
     }
 
+    @Override
+    public long getCurrentNotificationEventId(MetastoreContext metastoreContext)
+    {
+        try {
+            return retry()
+                    .stopOnIllegalExceptions()
+                    .run("getCurrentNotificationEventId", stats.getGetCurrentNotificationEventId().wrap(() ->
+                            getMetastoreClientThenCall(metastoreContext, client -> client.getCurrentNotificationEventId().getEventId())));
+        }
+        catch (TException e) {
+            throw new PrestoException(HIVE_METASTORE_ERROR, e);
+        }
+        catch (Exception e) {
+            throw propagate(e);
+        }
+    }
+
+    @Override
+    public List<MetastoreNotificationEvent> getNotificationEvents(MetastoreContext metastoreContext, long lastEventId, int maxEvents)
+    {
+        try {
+            NotificationEventRequest request = new NotificationEventRequest(lastEventId);
+            request.setMaxEvents(maxEvents);
+            return retry()
+                    .stopOnIllegalExceptions()
+                    .run("getNextNotification", stats.getGetNextNotification().wrap(() ->
+                            getMetastoreClientThenCall(metastoreContext, client -> client.getNextNotification(request).getEvents().stream()
+                                    .map(event -> new MetastoreNotificationEvent(
+                                            event.getEventId(),
+                                            event.getEventType(),
+                                            Optional.ofNullable(emptyToNull(event.getDbName())),
+                                            Optional.ofNullable(emptyToNull(event.getTableName()))))
+                                    .collect(toImmutableList()))));
+        }
+        catch (TException e) {
+            throw new PrestoException(HIVE_METASTORE_ERROR, e);
+        }
+        catch (Exception e) {
+            throw propagate(e);
+        }
+    }
+
     private static class WaitingForLockException
             extends RuntimeException
     {
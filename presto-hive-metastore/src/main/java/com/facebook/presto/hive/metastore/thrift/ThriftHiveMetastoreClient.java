@@ -21,6 +21,7 @@ import org.apache.hadoop.hive.metastore.api.CheckLockRequest;
 import org.apache.hadoop.hive.metastore.api.ColumnStatistics;
 import org.apache.hadoop.hive.metastore.api.ColumnStatisticsDesc;
 import org.apache.hadoop.hive.metastore.api.ColumnStatisticsObj;
+import org.apache.hadoop.hive.metastore.api.CurrentNotificationEventId;
 import org.apache.hadoop.hive.metastore.api.Database;
 import org.apache.hadoop.hive.metastore.api.DropConstraintRequest;
 import org.apache.hadoop.hive.metastore.api.EnvironmentContext;
@@ -37,6 +38,8 @@ import org.apache.hadoop.hive.metastore.api.LockResponse;
 import org.apache.hadoop.hive.metastore.api.MetaException;
 import org.apache.hadoop.hive.metastore.api.NotNullConstraintsRequest;
 import org.apache.hadoop.hive.metastore.api.NotNullConstraintsResponse;
+import org.apache.hadoop.hive.metastore.api.NotificationEventRequest;
+import org.apache.hadoop.hive.metastore.api.NotificationEventResponse;
 import org.apache.hadoop.hive.metastore.api.Partition;
 import org.apache.hadoop.hive.metastore.api.PartitionsStatsRequest;
 import org.apache.hadoop.hive.metastore.api.PrimaryKeysRequest;
@@ -500,6 +503,20 @@ public class ThriftHiveMetastoreClient
         client.unlock(request);
     }
 
+    @Override
+    public CurrentNotificationEventId getCurrentNotificationEventId()
+            throws TException
+    {
+        return client.get_current_notificationEventId();
+    }
+
+    @Override
+    public NotificationEventResponse getNextNotification(NotificationEventRequest request)
+            throws TException
+    {
+        return client.get_next_notification(request);
+    }
+
     public Optional<PrimaryKeysResponse> getPrimaryKey(String dbName, String tableName)
             throws TException
     {
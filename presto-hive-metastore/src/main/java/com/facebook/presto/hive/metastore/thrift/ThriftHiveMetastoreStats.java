@@ -55,6 +55,8 @@ public class ThriftHiveMetastoreStats
     private final HiveMetastoreApiStats dropRole = new HiveMetastoreApiStats();
     private final HiveMetastoreApiStats lock = new HiveMetastoreApiStats();
     private final HiveMetastoreApiStats unlock = new HiveMetastoreApiStats();
+    private final HiveMetastoreApiStats getCurrentNotificationEventId = new HiveMetastoreApiStats();
+    private final HiveMetastoreApiStats getNextNotification = new HiveMetastoreApiStats();
     private final HiveMetastoreApiStats getPrimaryKey = new HiveMetastoreApiStats();
     private final HiveMetastoreApiStats getUniqueConstraints = new HiveMetastoreApiStats();
     private final HiveMetastoreApiStats getNotNullConstraints = new HiveMetastoreApiStats();
@@ -327,6 +329,20 @@ public class ThriftHiveMetastoreStats
         return unlock;
     }
 
+    @Managed
+    @Nested
+    public HiveMetastoreApiStats getGetCurrentNotificationEventId()
+    {
+        return getCurrentNotificationEventId;
+    }
+
+    @Managed
+    @Nested
+    public HiveMetastoreApiStats getGetNextNotification()
+    {
+        return getNextNotification;
+    }
+
     public HiveMetastoreApiStats getGetUniqueConstraints()
     {
         return getUniqueConstraints;
@@ -0,0 +1,167 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.metastore;
+
+import com.facebook.airlift.units.Duration;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.facebook.presto.hive.metastore.AbstractCachingHiveMetastore.MetastoreCacheScope.ALL;
+import static com.facebook.presto.hive.metastore.NoopMetastoreCacheStats.NOOP_METASTORE_CACHE_STATS;
+import static com.facebook.presto.hive.metastore.PrestoTableType.MANAGED_TABLE;
+import static com.facebook.presto.hive.metastore.thrift.MockHiveMetastoreClient.TEST_METASTORE_CONTEXT;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.util.concurrent.MoreExecutors.newDirectExecutorService;
+import static java.util.concurrent.TimeUnit.HOURS;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static org.testng.Assert.assertEquals;
+
+public class TestMetastoreCacheSnapshot
+{
+    @Test
+    public void testNotificationInvalidation()
+    {
+        TestingNotificationHiveMetastore delegate = new TestingNotificationHiveMetastore();
+        InMemoryCachingHiveMetastore metastore = createMetastore(delegate, Optional.empty());
+        metastore.pollNotificationEvents();
+
+        assertEquals(metastore.getTable(TEST_METASTORE_CONTEXT, "database", "table"), Optional.of(createTable("1")));
+        delegate.alterTable(createTable("2"));
+        assertEquals(metastore.getTable(TEST_METASTORE_CONTEXT, "database", "table"), Optional.of(createTable("1")));
+
+        metastore.pollNotificationEvents();
+        assertEquals(metastore.getTable(TEST_METASTORE_CONTEXT, "database", "table"), Optional.of(createTable("2")));
+        assertEquals(delegate.getTableCount(), 2);
+    }
+
+    @Test
+    public void testSnapshot()
+            throws IOException
+    {
+        File snapshotFile = new File(Files.createTempDirectory("metastore_cache_snapshot").toFile(), "snapshot.json");
+        TestingNotificationHiveMetastore delegate = new TestingNotificationHiveMetastore();
+
+        InMemoryCachingHiveMetastore metastore = createMetastore(delegate, Optional.of(snapshotFile));
+        metastore.pollNotificationEvents();
+        assertEquals(metastore.getTable(TEST_METASTORE_CONTEXT, "database", "table"), Optional.of(createTable("1")));
+        metastore.writeSnapshot();
+        assertEquals(delegate.getTableCount(), 1);
+
+        // the table is loaded from the snapshot
+        metastore = createMetastore(delegate, Optional.of(snapshotFile));
+        metastore.start();
+        assertEquals(metastore.getTable(TEST_METASTORE_CONTEXT, "database", "table"), Optional.of(createTable("1")));
+        metastore.stop();
+        assertEquals(delegate.getTableCount(), 1);
+
+        // changes made after the snapshot was written are applied when the snapshot is loaded
+        delegate.alterTable(createTable("2"));
+        metastore = createMetastore(delegate, Optional.of(snapshotFile));
+        metastore.start();
+        assertEquals(metastore.getTable(TEST_METASTORE_CONTEXT, "database", "table"), Optional.of(createTable("2")));
+        metastore.stop();
+        assertEquals(delegate.getTableCount(), 2);
+    }
+
+    private static InMemoryCachingHiveMetastore createMetastore(ExtendedHiveMetastore delegate, Optional<File> snapshotFile)
+    {
+        return new InMemoryCachingHiveMetastore(
+                delegate,
+                newDirectExecutorService(),
+                false,
+                new Duration(1, HOURS),
+                new Duration(1, HOURS),
+                1000,
+                false,
+                ALL,
+                0.0,
+                500,
+                NOOP_METASTORE_CACHE_STATS,
+                Optional.of(new Duration(1, HOURS)),
+                snapshotFile,
+                new Duration(1, MINUTES));
+    }
+
+    private static Table createTable(String version)
+    {
+        return new Table(
+                Optional.empty(),
+                "database",
+                "table",
+                "owner",
+                MANAGED_TABLE,
+                new Storage(
+                        StorageFormat.create("serde", "input", "output"),
+                        "location",
+                        Optional.empty(),
+                        false,
+                        ImmutableMap.of(),
+                        ImmutableMap.of()),
+                ImmutableList.of(),
+                ImmutableList.of(),
+                ImmutableMap.of("version", version),
+                Optional.empty(),
+                Optional.empty());
+    }
+
+    private static class TestingNotificationHiveMetastore
+            extends UnimplementedHiveMetastore
+    {
+        private final List<MetastoreNotificationEvent> events = new CopyOnWriteArrayList<>();
+        private final AtomicInteger tableCount = new AtomicInteger();
+        private volatile Table table = createTable("1");
+
+        public void alterTable(Table table)
+        {
+            this.table = table;
+            events.add(new MetastoreNotificationEvent(events.size() + 1, "ALTER_TABLE", Optional.of("database"), Optional.of("table")));
+        }
+
+        public int getTableCount()
+        {
+            return tableCount.get();
+        }
+
+        @Override
+        public Optional<Table> getTable(MetastoreContext metastoreContext, String databaseName, String tableName)
+        {
+            tableCount.incrementAndGet();
+            return Optional.of(table);
+        }
+
+        @Override
+        public long getCurrentNotificationEventId(MetastoreContext metastoreContext)
+        {
+            return events.size();
+        }
+
+        @Override
+        public List<MetastoreNotificationEvent> getNotificationEvents(MetastoreContext metastoreContext, long lastEventId, int maxEvents)
+        {
+            return events.stream()
+                    .filter(event -> event.getEventId() > lastEventId)
+                    .limit(maxEvents)
+                    .collect(toImmutableList());
+        }
+    }
+}
@@ -50,7 +50,11 @@ public class TestMetastoreClientConfig
                 .setPartitionCacheColumnCountLimit(500)
                 .setHiveMetastoreAuthenticationType(HiveMetastoreAuthenticationType.NONE)
                 .setDeleteFilesOnTableDrop(false)
-                .setInvalidateMetastoreCacheProcedureEnabled(false));
+                .setInvalidateMetastoreCacheProcedureEnabled(false)
+                .setMetastoreCacheNotificationInvalidationEnabled(false)
+                .setMetastoreCacheNotificationPollInterval(new Duration(10, TimeUnit.SECONDS))
+                .setMetastoreCacheSnapshotPath(null)
+                .setMetastoreCacheSnapshotInterval(new Duration(5, TimeUnit.MINUTES)));
     }
 
     @Test
@@ -77,6 +81,10 @@ public class TestMetastoreClientConfig
                 .put("hive.metastore.authentication.type", "KERBEROS")
                 .put("hive.metastore.thrift.delete-files-on-table-drop", "true")
                 .put("hive.invalidate-metastore-cache-procedure-enabled", "true")
+                .put("hive.metastore-cache-notification-invalidation-enabled", "true")
+                .put("hive.metastore-cache-notification-poll-interval", "1m")
+                .put("hive.metastore-cache-snapshot-path", "/tmp/snapshot.json")
+                .put("hive.metastore-cache-snapshot-interval", "1h")
                 .build();
 
         MetastoreClientConfig expected = new MetastoreClientConfig()
@@ -99,7 +107,11 @@ public class TestMetastoreClientConfig
                 .setPartitionCacheColumnCountLimit(50)
                 .setHiveMetastoreAuthenticationType(HiveMetastoreAuthenticationType.KERBEROS)
                 .setDeleteFilesOnTableDrop(true)
-                .setInvalidateMetastoreCacheProcedureEnabled(true);
+                .setInvalidateMetastoreCacheProcedureEnabled(true)
+                .setMetastoreCacheNotificationInvalidationEnabled(true)
+                .setMetastoreCacheNotificationPollInterval(new Duration(1, TimeUnit.MINUTES))
+                .setMetastoreCacheSnapshotPath("/tmp/snapshot.json")
+                .setMetastoreCacheSnapshotInterval(new Duration(1, TimeUnit.HOURS));
 
         ConfigAssertions.assertFullMapping(properties, expected);
     }
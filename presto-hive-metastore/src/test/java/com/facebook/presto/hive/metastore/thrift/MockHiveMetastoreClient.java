@@ -28,6 +28,7 @@ import org.apache.hadoop.hive.metastore.TableType;
 import org.apache.hadoop.hive.metastore.Warehouse;
 import org.apache.hadoop.hive.metastore.api.CheckLockRequest;
 import org.apache.hadoop.hive.metastore.api.ColumnStatisticsObj;
+import org.apache.hadoop.hive.metastore.api.CurrentNotificationEventId;
 import org.apache.hadoop.hive.metastore.api.Database;
 import org.apache.hadoop.hive.metastore.api.EnvironmentContext;
 import org.apache.hadoop.hive.metastore.api.FieldSchema;
@@ -38,6 +39,8 @@ import org.apache.hadoop.hive.metastore.api.LockResponse;
 import org.apache.hadoop.hive.metastore.api.MetaException;
 import org.apache.hadoop.hive.metastore.api.NoSuchObjectException;
 import org.apache.hadoop.hive.metastore.api.NotNullConstraintsResponse;
+import org.apache.hadoop.hive.metastore.api.NotificationEventRequest;
+import org.apache.hadoop.hive.metastore.api.NotificationEventResponse;
 import org.apache.hadoop.hive.metastore.api.Partition;
 import org.apache.hadoop.hive.metastore.api.PrimaryKeysResponse;
 import org.apache.hadoop.hive.metastore.api.PrincipalType;
@@ -494,6 +497,18 @@ public class MockHiveMetastoreClient
         throw new UnsupportedOperationException();
     }
 
+    @Override
+    public CurrentNotificationEventId getCurrentNotificationEventId()
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public NotificationEventResponse getNextNotification(NotificationEventRequest request)
+    {
+        throw new UnsupportedOperationException();
+    }
+
     public Optional<PrimaryKeysResponse> getPrimaryKey(String dbName, String tableName)
     {
         accessCount.incrementAndGet();
@@ -16,8 +16,10 @@ package com.facebook.presto.hive;
 import com.facebook.presto.common.predicate.Domain;
 import com.facebook.presto.hive.StoragePartitionLoader.BucketSplitInfo;
 import com.facebook.presto.hive.metastore.Table;
+import com.facebook.presto.hive.orc.OrcStripeSplitter;
 import com.facebook.presto.hive.util.ResumableTask;
 import com.facebook.presto.hive.util.ResumableTasks;
+import com.facebook.presto.orc.cache.StorageOrcFileTailSource;
 import com.facebook.presto.spi.ConnectorSession;
 import com.facebook.presto.spi.PrestoException;
 import com.google.common.util.concurrent.ListenableFuture;
@@ -45,7 +47,7 @@ public class BackgroundHiveSplitLoader
 
     private final int loaderConcurrency;
     private final Executor executor;
-    private final ConcurrentLazyQueue<HivePartitionMetadata> partitions;
+    private final PartitionMetadataQueue partitions;
     private final Deque<Iterator<InternalHiveSplit>> fileIterators = new ConcurrentLinkedDeque<>();
     private final PartitionLoader delegatingPartitionLoader;
 
@@ -83,18 +85,52 @@ public class BackgroundHiveSplitLoader
             boolean recursiveDirWalkerEnabled,
             boolean schedulerUsesHostAddresses,
             boolean partialAggregationsPushedDown)
+    {
+        this(
+                table,
+                PartitionMetadataQueue.lazy(requireNonNull(partitions, "partitions is null")),
+                infoColumnConstraints,
+                tableBucketInfo,
+                session,
+                hdfsEnvironment,
+                namenodeStats,
+                directoryLister,
+                new OrcStripeSplitter(new StorageOrcFileTailSource(), new FileFormatDataSourceStats()),
+                executor,
+                loaderConcurrency,
+                recursiveDirWalkerEnabled,
+                schedulerUsesHostAddresses,
+                partialAggregationsPushedDown);
+    }
+
+    public BackgroundHiveSplitLoader(
+            Table table,
+            PartitionMetadataQueue partitions,
+            Map<Integer, Domain> infoColumnConstraints,
+            Optional<BucketSplitInfo> tableBucketInfo,
+            ConnectorSession session,
+            HdfsEnvironment hdfsEnvironment,
+            NamenodeStats namenodeStats,
+            DirectoryLister directoryLister,
+            OrcStripeSplitter orcStripeSplitter,
+            Executor executor,
+            int loaderConcurrency,
+            boolean recursiveDirWalkerEnabled,
+            boolean schedulerUsesHostAddresses,
+            boolean partialAggregationsPushedDown)
     {
         this.loaderConcurrency = loaderConcurrency;
         checkArgument(loaderConcurrency > 0, "loaderConcurrency must be > 0, found: %s", loaderConcurrency);
         this.executor = requireNonNull(executor, "executor is null");
-        this.partitions = new ConcurrentLazyQueue<>(requireNonNull(partitions, "partitions is null"));
-        this.delegatingPartitionLoader = new DelegatingPartitionLoader(table, infoColumnConstraints, tableBucketInfo, session, hdfsEnvironment, namenodeStats, directoryLister, fileIterators, recursiveDirWalkerEnabled, schedulerUsesHostAddresses, partialAggregationsPushedDown);
+        this.partitions = requireNonNull(partitions, "partitions is null");
+        this.delegatingPartitionLoader = new DelegatingPartitionLoader(table, infoColumnConstraints, tableBucketInfo, session, hdfsEnvironment, namenodeStats, directoryLister, orcStripeSplitter, fileIterators, recursiveDirWalkerEnabled, schedulerUsesHostAddresses, partialAggregationsPushedDown);
     }
 
     @Override
     public void start(HiveSplitSource splitSource)
     {
         this.hiveSplitSource = splitSource;
+        partitions.start(splitSource::getBufferedInternalSplitCount);
         for (int i = 0; i < loaderConcurrency; i++) {
             ResumableTasks.submit(executor, new HiveSplitLoaderTask());
         }
@@ -188,7 +224,8 @@ public class BackgroundHiveSplitLoader
         if (splits == null) {
             HivePartitionMetadata partition = partitions.poll();
             if (partition == null) {
-                return COMPLETED_FUTURE;
+                // the remaining partitions may still be loading
+                return partitions.isBlocked();
             }
             return delegatingPartitionLoader.loadPartition(partition, hiveSplitSource, stopped);
         }
@@ -17,6 +17,7 @@ import com.facebook.presto.common.predicate.Domain;
 import com.facebook.presto.hive.StoragePartitionLoader.BucketSplitInfo;
 import com.facebook.presto.hive.metastore.Partition;
 import com.facebook.presto.hive.metastore.Table;
+import com.facebook.presto.hive.orc.OrcStripeSplitter;
 import com.facebook.presto.spi.ConnectorSession;
 import com.google.common.util.concurrent.ListenableFuture;
 
@@ -45,6 +46,7 @@ public class DelegatingPartitionLoader
             HdfsEnvironment hdfsEnvironment,
             NamenodeStats namenodeStats,
             DirectoryLister directoryLister,
+            OrcStripeSplitter orcStripeSplitter,
             Deque<Iterator<InternalHiveSplit>> fileIterators,
             boolean recursiveDirWalkerEnabled,
             boolean schedulerUsesHostAddresses,
@@ -59,6 +61,7 @@ public class DelegatingPartitionLoader
                 hdfsEnvironment,
                 namenodeStats,
                 directoryLister,
+                orcStripeSplitter,
                 fileIterators,
                 recursiveDirWalkerEnabled,
                 schedulerUsesHostAddresses,
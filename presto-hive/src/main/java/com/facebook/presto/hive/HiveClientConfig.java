@@ -221,6 +221,8 @@ public class HiveClientConfig
     private boolean optimizeParsingOfPartitionValues;
     private int optimizeParsingOfPartitionValuesThreshold = 500;
     private boolean symlinkOptimizedReaderEnabled = true;
+    private boolean pipelinedPartitionLoadingEnabled;
+    private boolean orcStripeAlignedSplitsEnabled;
 
     @Min(0)
     public int getMaxInitialSplits()
@@ -1845,4 +1847,30 @@ public class HiveClientConfig
         this.symlinkOptimizedReaderEnabled = symlinkOptimizedReaderEnabled;
         return this;
     }
+
+    public boolean isPipelinedPartitionLoadingEnabled()
+    {
+        return pipelinedPartitionLoadingEnabled;
+    }
+
+    @Config("hive.pipelined-partition-loading-enabled")
+    @ConfigDescription("Fetch partition metadata from the metastore in the background while splits are generated for the partitions fetched earlier")
+    public HiveClientConfig setPipelinedPartitionLoadingEnabled(boolean pipelinedPartitionLoadingEnabled)
+    {
+        this.pipelinedPartitionLoadingEnabled = pipelinedPartitionLoadingEnabled;
+        return this;
+    }
+
+    public boolean isOrcStripeAlignedSplitsEnabled()
+    {
+        return orcStripeAlignedSplitsEnabled;
+    }
+
+    @Config("hive.orc-stripe-aligned-splits-enabled")
+    @ConfigDescription("Split large ORC and DWRF files at stripe boundaries. The tail of each file larger than the max split size is read synchronously by the split loader")
+    public HiveClientConfig setOrcStripeAlignedSplitsEnabled(boolean orcStripeAlignedSplitsEnabled)
+    {
+        this.orcStripeAlignedSplitsEnabled = orcStripeAlignedSplitsEnabled;
+        return this;
+    }
 }
@@ -18,6 +18,7 @@ import com.facebook.presto.common.RuntimeStats;
 import com.facebook.presto.common.Subfield;
 import com.facebook.presto.common.Subfield.NestedField;
 import com.facebook.presto.common.Subfield.PathElement;
+import com.facebook.presto.common.predicate.BlockedBloomFilter;
 import com.facebook.presto.common.predicate.Domain;
 import com.facebook.presto.common.predicate.NullableValue;
 import com.facebook.presto.common.predicate.TupleDomain;
@@ -373,6 +374,10 @@ public class HivePageSourceProvider
                 .map(filter -> filter.transform(handle -> new Subfield(((HiveColumnHandle) handle).getName())).intersect(layout.getDomainPredicate()))
                 .orElse(layout.getDomainPredicate());
 
+        Map<Subfield, BlockedBloomFilter> dynamicBloomFilters = splitContext.getDynamicBloomFilters().entrySet().stream()
+                .filter(entry -> ((HiveColumnHandle) entry.getKey()).getColumnType() == REGULAR)
+                .collect(toImmutableMap(entry -> new Subfield(((HiveColumnHandle) entry.getKey()).getName()), Map.Entry::getValue));
+
         List<HiveColumnHandle> columnHandles = toColumnHandles(columnMappings, true);
         Optional<byte[]> rowIDPartitionComponent = split.getRowIdPartitionComponent();
         HiveUtil.checkRowIDPartitionComponent(columnHandles, rowIDPartitionComponent);
@@ -388,6 +393,7 @@ public class HivePageSourceProvider
                     bucketAdaptation,
                     outputColumns,
                     domainPredicate,
+                    dynamicBloomFilters,
                     optimizedRemainingPredicate,
                     hiveStorageTimeZone,
                     fileContext,
@@ -136,6 +136,8 @@ public final class HiveSessionProperties
     public static final String LEGACY_TIMESTAMP_BUCKETING = "legacy_timestamp_bucketing";
     public static final String OPTIMIZE_PARSING_OF_PARTITION_VALUES = "optimize_parsing_of_partition_values";
     public static final String OPTIMIZE_PARSING_OF_PARTITION_VALUES_THRESHOLD = "optimize_parsing_of_partition_values_threshold";
+    public static final String PIPELINED_PARTITION_LOADING_ENABLED = "pipelined_partition_loading_enabled";
+    public static final String ORC_STRIPE_ALIGNED_SPLITS_ENABLED = "orc_stripe_aligned_splits_enabled";
 
     public static final String NATIVE_STATS_BASED_FILTER_REORDER_DISABLED = "native_stats_based_filter_reorder_disabled";
 
@@ -672,6 +674,16 @@ public final class HiveSessionProperties
                         "When OPTIMIZE_PARSING_OF_PARTITION_VALUES is set to true, enable this optimizations when number of partitions exceed the threshold here",
                         hiveClientConfig.getOptimizeParsingOfPartitionValuesThreshold(),
                         false),
+                booleanProperty(
+                        PIPELINED_PARTITION_LOADING_ENABLED,
+                        "Fetch partition metadata in the background while splits are generated for the partitions fetched earlier",
+                        hiveClientConfig.isPipelinedPartitionLoadingEnabled(),
+                        false),
+                booleanProperty(
+                        ORC_STRIPE_ALIGNED_SPLITS_ENABLED,
+                        "Split large ORC and DWRF files at stripe boundaries. The tail of each file larger than the max split size is read synchronously by the split loader",
+                        hiveClientConfig.isOrcStripeAlignedSplitsEnabled(),
+                        false),
                 booleanProperty(
                         NATIVE_STATS_BASED_FILTER_REORDER_DISABLED,
                         "Native Execution only. Disable stats based filter reordering.",
@@ -1179,4 +1191,14 @@ public final class HiveSessionProperties
     {
         return session.getProperty(SYMLINK_OPTIMIZED_READER_ENABLED, Boolean.class);
     }
+
+    public static boolean isPipelinedPartitionLoadingEnabled(ConnectorSession session)
+    {
+        return session.getProperty(PIPELINED_PARTITION_LOADING_ENABLED, Boolean.class);
+    }
+
+    public static boolean isOrcStripeAlignedSplitsEnabled(ConnectorSession session)
+    {
+        return session.getProperty(ORC_STRIPE_ALIGNED_SPLITS_ENABLED, Boolean.class);
+    }
 }
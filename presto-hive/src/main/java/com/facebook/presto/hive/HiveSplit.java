@@ -293,6 +293,8 @@ public class HiveSplit
                 .put("path", fileSplit.getPath())
                 .put("start", fileSplit.getStart())
                 .put("length", fileSplit.getLength())
+                .put("fileSize", fileSplit.getFileSize())
+                .put("fileModifiedTime", fileSplit.getFileModifiedTime())
                 .build();
     }
 
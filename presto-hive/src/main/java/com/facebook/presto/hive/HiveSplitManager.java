@@ -37,6 +37,8 @@ import com.facebook.presto.hive.metastore.PartitionStatistics;
 import com.facebook.presto.hive.metastore.SemiTransactionalHiveMetastore;
 import com.facebook.presto.hive.metastore.StorageFormat;
 import com.facebook.presto.hive.metastore.Table;
+import com.facebook.presto.hive.orc.OrcStripeSplitter;
+import com.facebook.presto.orc.cache.StorageOrcFileTailSource;
 import com.facebook.presto.spi.ColumnHandle;
 import com.facebook.presto.spi.ConnectorSession;
 import com.facebook.presto.spi.ConnectorSplitSource;
@@ -77,6 +79,7 @@ import java.util.Set;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -95,6 +98,7 @@ import static com.facebook.presto.hive.HiveSessionProperties.getLeaseDuration;
 import static com.facebook.presto.hive.HiveSessionProperties.isDynamicSplitSizesEnabled;
 import static com.facebook.presto.hive.HiveSessionProperties.isOfflineDataDebugModeEnabled;
 import static com.facebook.presto.hive.HiveSessionProperties.isPartitionStatisticsBasedOptimizationEnabled;
+import static com.facebook.presto.hive.HiveSessionProperties.isPipelinedPartitionLoadingEnabled;
 import static com.facebook.presto.hive.HiveStorageFormat.PARQUET;
 import static com.facebook.presto.hive.HiveStorageFormat.getHiveStorageFormat;
 import static com.facebook.presto.hive.HiveType.getPrimitiveType;
@@ -150,6 +154,7 @@ public class HiveSplitManager
     private final CacheQuotaRequirementProvider cacheQuotaRequirementProvider;
     private final HiveEncryptionInformationProvider encryptionInformationProvider;
     private final PartitionSkippabilityChecker partitionSkippabilityChecker;
+    private final OrcStripeSplitter orcStripeSplitter;
 
     @Inject
     public HiveSplitManager(
@@ -162,7 +167,8 @@ public class HiveSplitManager
             @ForHiveClient ExecutorService executorService,
             CoercionPolicy coercionPolicy,
             HiveEncryptionInformationProvider encryptionInformationProvider,
-            PartitionSkippabilityChecker partitionSkippabilityChecker)
+            PartitionSkippabilityChecker partitionSkippabilityChecker,
+            OrcStripeSplitter orcStripeSplitter)
     {
         this(
                 hiveTransactionManager,
@@ -180,7 +186,8 @@ public class HiveSplitManager
                 hiveClientConfig.getRecursiveDirWalkerEnabled(),
                 cacheQuotaRequirementProvider,
                 encryptionInformationProvider,
-                partitionSkippabilityChecker);
+                partitionSkippabilityChecker,
+                orcStripeSplitter);
     }
 
     public HiveSplitManager(
@@ -200,6 +207,45 @@ public class HiveSplitManager
             CacheQuotaRequirementProvider cacheQuotaRequirementProvider,
             HiveEncryptionInformationProvider encryptionInformationProvider,
             PartitionSkippabilityChecker partitionSkippabilityChecker)
+    {
+        this(
+                hiveTransactionManager,
+                namenodeStats,
+                hdfsEnvironment,
+                directoryLister,
+                executor,
+                coercionPolicy,
+                highMemorySplitSourceCounter,
+                maxOutstandingSplits,
+                maxOutstandingSplitsSize,
+                minPartitionBatchSize,
+                maxPartitionBatchSize,
+                splitLoaderConcurrency,
+                recursiveDfsWalkerEnabled,
+                cacheQuotaRequirementProvider,
+                encryptionInformationProvider,
+                partitionSkippabilityChecker,
+                new OrcStripeSplitter(new StorageOrcFileTailSource(), new FileFormatDataSourceStats()));
+    }
+
+    public HiveSplitManager(
+            HiveTransactionManager hiveTransactionManager,
+            NamenodeStats namenodeStats,
+            HdfsEnvironment hdfsEnvironment,
+            DirectoryLister directoryLister,
+            Executor executor,
+            CoercionPolicy coercionPolicy,
+            CounterStat highMemorySplitSourceCounter,
+            int maxOutstandingSplits,
+            DataSize maxOutstandingSplitsSize,
+            int minPartitionBatchSize,
+            int maxPartitionBatchSize,
+            int splitLoaderConcurrency,
+            boolean recursiveDfsWalkerEnabled,
+            CacheQuotaRequirementProvider cacheQuotaRequirementProvider,
+            HiveEncryptionInformationProvider encryptionInformationProvider,
+            PartitionSkippabilityChecker partitionSkippabilityChecker,
+            OrcStripeSplitter orcStripeSplitter)
     {
         this.hiveTransactionManager = requireNonNull(hiveTransactionManager, "hiveTransactionManager is null");
         this.namenodeStats = requireNonNull(namenodeStats, "namenodeStats is null");
@@ -218,6 +264,7 @@ public class HiveSplitManager
         this.cacheQuotaRequirementProvider = requireNonNull(cacheQuotaRequirementProvider, "cacheQuotaRequirementProvider is null");
         this.encryptionInformationProvider = requireNonNull(encryptionInformationProvider, "encryptionInformationProvider is null");
         this.partitionSkippabilityChecker = requireNonNull(partitionSkippabilityChecker, "partitionSkippabilityChecker is null");
+        this.orcStripeSplitter = requireNonNull(orcStripeSplitter, "orcStripeSplitter is null");
     }
 
     @Override
@@ -286,7 +333,7 @@ public class HiveSplitManager
         // sort partitions
         partitions = Ordering.natural().onResultOf(HivePartition::getPartitionId).reverse().sortedCopy(partitions);
 
-        Iterable<HivePartitionMetadata> hivePartitions = getPartitionMetadata(
+        PartitionMetadataQueue hivePartitions = getPartitionMetadata(
                 metastore,
                 table,
                 tableName,
@@ -309,6 +356,7 @@ public class HiveSplitManager
                 hdfsEnvironment,
                 namenodeStats,
                 directoryLister,
+                orcStripeSplitter,
                 executor,
                 min(splitLoaderConcurrency, partitions.size()), // Avoid over-committing split loader concurrency
                 recursiveDfsWalkerEnabled,
@@ -388,7 +436,8 @@ public class HiveSplitManager
                         hiveSplitLoader,
                         executor,
                         new CounterStat(),
-                        splitScanRatio);
+                        splitScanRatio,
+                        splitSchedulingContext.isFragmentResultCachingEnabled());
                 break;
             case GROUPED_SCHEDULING:
                 splitSource = HiveSplitSource.bucketed(
@@ -402,7 +451,8 @@ public class HiveSplitManager
                         hiveSplitLoader,
                         executor,
                         new CounterStat(),
-                        splitScanRatio);
+                        splitScanRatio,
+                        splitSchedulingContext.isFragmentResultCachingEnabled());
                 break;
             case REWINDABLE_GROUPED_SCHEDULING:
                 splitSource = HiveSplitSource.bucketedRewindable(
@@ -415,7 +465,8 @@ public class HiveSplitManager
                         hiveSplitLoader,
                         executor,
                         new CounterStat(),
-                        splitScanRatio);
+                        splitScanRatio,
+                        splitSchedulingContext.isFragmentResultCachingEnabled());
                 break;
             default:
                 throw new IllegalArgumentException("Unknown splitSchedulingStrategy: " + splitSchedulingContext.getSplitSchedulingStrategy());
@@ -446,7 +497,7 @@ public class HiveSplitManager
         return highMemorySplitSourceCounter;
     }
 
-    private Iterable<HivePartitionMetadata> getPartitionMetadata(
+    private PartitionMetadataQueue getPartitionMetadata(
             SemiTransactionalHiveMetastore metastore,
             Table table,
             SchemaTableName tableName,
@@ -459,7 +510,7 @@ public class HiveSplitManager
             Optional<Map<Subfield, Domain>> domains)
     {
         if (hivePartitions.isEmpty()) {
-            return ImmutableList.of();
+            return PartitionMetadataQueue.lazy(ImmutableList.of());
         }
 
         Optional<Set<HiveColumnHandle>> allRequestedColumns = mergeRequestedAndPredicateColumns(requestedColumns, ImmutableSet.copyOf(predicateColumns.values()));
@@ -467,13 +518,13 @@ public class HiveSplitManager
         if (hivePartitions.size() == 1) {
             HivePartition firstPartition = getOnlyElement(hivePartitions);
             if (firstPartition.getPartitionId().equals(UNPARTITIONED_ID)) {
-                return ImmutableList.of(new HivePartitionMetadata(
+                return PartitionMetadataQueue.lazy(ImmutableList.of(new HivePartitionMetadata(
                         firstPartition,
                         Optional.empty(),
                         TableToPartitionMapping.empty(),
                         encryptionInformationProvider.getReadEncryptionInformation(session, table, allRequestedColumns),
                         ImmutableSet.of(),
-                        Optional.empty()));
+                        Optional.empty())));
             }
         }
 
@@ -490,25 +541,27 @@ public class HiveSplitManager
             resolvedHiveStorageFormat = hiveStorageFormat;
         }
 
-        Iterable<List<HivePartition>> partitionNameBatches = partitionExponentially(hivePartitions, minPartitionBatchSize, maxPartitionBatchSize);
-        Iterable<List<HivePartitionMetadata>> partitionBatches = computePartitionMetadata(partitionNameBatches, session, table, metastore,
+        Function<List<HivePartition>, List<HivePartitionMetadata>> metadataLoader = createPartitionMetadataLoader(session, table, metastore,
                 tableName, predicateColumns, domains, allRequestedColumns, hiveBucketHandle, resolvedHiveStorageFormat, warningCollector);
-        return concat(partitionBatches);
+        if (isPipelinedPartitionLoadingEnabled(session)) {
+            return new PipelinedPartitionMetadataQueue(hivePartitions, metadataLoader, minPartitionBatchSize, maxPartitionBatchSize, executor);
+        }
+        Iterable<List<HivePartition>> partitionNameBatches = partitionExponentially(hivePartitions, minPartitionBatchSize, maxPartitionBatchSize);
+        return PartitionMetadataQueue.lazy(concat(transform(partitionNameBatches, metadataLoader::apply)));
     }
 
-    private Iterable<List<HivePartitionMetadata>> computePartitionMetadata(Iterable<List<HivePartition>> partitionNameBatches,
-                                                                           ConnectorSession session,
-                                                                           Table table,
-                                                                           SemiTransactionalHiveMetastore metastore,
-                                                                           SchemaTableName tableName,
-                                                                           Map<String, HiveColumnHandle> predicateColumns,
-                                                                           Optional<Map<Subfield, Domain>> domains,
-                                                                           Optional<Set<HiveColumnHandle>> allRequestedColumns,
-                                                                           Optional<HiveBucketHandle> hiveBucketHandle,
-                                                                           Optional<HiveStorageFormat> resolvedHiveStorageFormat,
-                                                                           WarningCollector warningCollector)
+    private Function<List<HivePartition>, List<HivePartitionMetadata>> createPartitionMetadataLoader(ConnectorSession session,
+                                                                                                     Table table,
+                                                                                                     SemiTransactionalHiveMetastore metastore,
+                                                                                                     SchemaTableName tableName,
+                                                                                                     Map<String, HiveColumnHandle> predicateColumns,
+                                                                                                     Optional<Map<Subfield, Domain>> domains,
+                                                                                                     Optional<Set<HiveColumnHandle>> allRequestedColumns,
+                                                                                                     Optional<HiveBucketHandle> hiveBucketHandle,
+                                                                                                     Optional<HiveStorageFormat> resolvedHiveStorageFormat,
+                                                                                                     WarningCollector warningCollector)
     {
-        Iterable<List<HivePartitionMetadata>> partitionBatches = transform(partitionNameBatches, partitionBatch -> {
+        return partitionBatch -> {
             Map<String, PartitionSplitInfo> partitionSplitInfo = getPartitionSplitInfo(session, metastore, tableName, partitionBatch, predicateColumns, domains);
             if (partitionBatch.size() != partitionSplitInfo.size()) {
                 throw new PrestoException(GENERIC_INTERNAL_ERROR, format("Expected %s partitions but found %s", partitionBatch.size(), partitionSplitInfo.size()));
@@ -613,8 +666,7 @@ public class HiveSplitManager
                 warningCollector.add(new PrestoWarning(PARTITION_NOT_READABLE, warningMessage.toString()));
             }
             return results.build();
-        });
-        return partitionBatches;
+        };
     }
 
     /**
@@ -65,6 +65,7 @@ import static com.facebook.presto.hive.HiveSplitSource.StateKind.FAILED;
 import static com.facebook.presto.hive.HiveSplitSource.StateKind.INITIAL;
 import static com.facebook.presto.hive.HiveSplitSource.StateKind.NO_MORE_SPLITS;
 import static com.facebook.presto.spi.connector.NotPartitionedPartitionHandle.NOT_PARTITIONED;
+import static com.facebook.presto.spi.schedule.NodeSelectionStrategy.NO_PREFERENCE;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.collect.ImmutableList.toImmutableList;
@@ -102,6 +103,8 @@ class HiveSplitSource
     private final AtomicBoolean loggedHighMemoryWarning = new AtomicBoolean();
     private final HiveSplitWeightProvider splitWeightProvider;
     private final double splitScanRatio;
+    // whether splits scheduled with affinity must not depend on the order in which they are enumerated
+    private final boolean stableAffinitySplits;
     private final long affinitySchedulingFileSectionSizeInBytes;
 
     private HiveSplitSource(
@@ -115,7 +118,8 @@ class HiveSplitSource
             HiveSplitLoader splitLoader,
             CounterStat highMemorySplitSourceCounter,
             boolean useRewindableSplitSource,
-            double splitScanRatio)
+            double splitScanRatio,
+            boolean stableAffinitySplits)
     {
         requireNonNull(session, "session is null");
         this.queryId = session.getQueryId();
@@ -142,6 +146,7 @@ class HiveSplitSource
             splitScanRatio = 1.0;
         }
         this.splitScanRatio = max(min(splitScanRatio, 1.0), 0.1);
+        this.stableAffinitySplits = stableAffinitySplits;
         affinitySchedulingFileSectionSizeInBytes = getAffinitySchedulingFileSectionSize(session).toBytes();
     }
 
@@ -156,7 +161,8 @@ class HiveSplitSource
             HiveSplitLoader splitLoader,
             Executor executor,
             CounterStat highMemorySplitSourceCounter,
-            double splitScanRatio)
+            double splitScanRatio,
+            boolean stableAffinitySplits)
     {
         return new HiveSplitSource(
                 session,
@@ -205,7 +211,8 @@ class HiveSplitSource
                 splitLoader,
                 highMemorySplitSourceCounter,
                 false,
-                splitScanRatio);
+                splitScanRatio,
+                stableAffinitySplits);
     }
 
     public static HiveSplitSource bucketed(
@@ -219,7 +226,8 @@ class HiveSplitSource
             HiveSplitLoader splitLoader,
             Executor executor,
             CounterStat highMemorySplitSourceCounter,
-            double splitScanRatio)
+            double splitScanRatio,
+            boolean stableAffinitySplits)
     {
         return new HiveSplitSource(
                 session,
@@ -288,7 +296,8 @@ class HiveSplitSource
                 splitLoader,
                 highMemorySplitSourceCounter,
                 false,
-                splitScanRatio);
+                splitScanRatio,
+                stableAffinitySplits);
     }
 
     public static HiveSplitSource bucketedRewindable(
@@ -301,7 +310,8 @@ class HiveSplitSource
             HiveSplitLoader splitLoader,
             Executor executor,
             CounterStat highMemorySplitSourceCounter,
-            double splitScanRatio)
+            double splitScanRatio,
+            boolean stableAffinitySplits)
     {
         return new HiveSplitSource(
                 session,
@@ -382,7 +392,8 @@ class HiveSplitSource
                 splitLoader,
                 highMemorySplitSourceCounter,
                 true,
-                splitScanRatio);
+                splitScanRatio,
+                stableAffinitySplits);
     }
 
     /**
@@ -487,7 +498,10 @@ class HiveSplitSource
             int removedEstimatedSizeInBytes = 0;
             for (InternalHiveSplit internalSplit : internalSplits) {
                 long maxSplitBytes = maxSplitSize.toBytes();
-                if (remainingInitialSplits.get() > 0) {
+                // With fragment result caching, splits scheduled with affinity get the same boundaries in every query regardless
+                // of the order in which they are enumerated, so that results cached on the workers for these splits can be reused
+                boolean stableSplit = stableAffinitySplits && internalSplit.getNodeSelectionStrategy() != NO_PREFERENCE;
+                if (!stableSplit && remainingInitialSplits.get() > 0) {
                     if (remainingInitialSplits.getAndDecrement() > 0) {
                         maxSplitBytes = maxInitialSplitSize.toBytes();
                     }
@@ -541,7 +555,7 @@ class HiveSplitSource
                         cacheQuotaRequirement,
                         internalSplit.getEncryptionInformation(),
                         internalSplit.getPartitionInfo().getRedundantColumnDomains(),
-                        splitWeightProvider.weightForSplitSizeInBytes((long) (splitBytes * splitScanRatio)),
+                        splitWeightProvider.weightForSplitSizeInBytes((long) (internalSplit.getWeightedSize().orElse(splitBytes) * splitScanRatio)),
                         internalSplit.getPartitionInfo().getRowIdPartitionComponent()));
 
                 internalSplit.increaseStart(splitBytes);
@@ -25,6 +25,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.OptionalInt;
+import java.util.OptionalLong;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static com.google.common.base.Preconditions.checkArgument;
@@ -58,6 +59,8 @@ public class InternalHiveSplit
     // -1 indicates an absent value
     private final int readBucketNumber;
     private final int tableBucketNumber;
+    // size used for the weight of the whole split, only known for splits aligned to ORC stripes
+    private final long weightedSize;
 
     private final boolean splittable;
     private final NodeSelectionStrategy nodeSelectionStrategy;
@@ -80,6 +83,7 @@ public class InternalHiveSplit
             List<InternalHiveBlock> blocks,
             OptionalInt readBucketNumber,
             OptionalInt tableBucketNumber,
+            OptionalLong weightedSize,
             boolean splittable,
             NodeSelectionStrategy nodeSelectionStrategy,
             boolean s3SelectPushdownEnabled,
@@ -95,6 +99,7 @@ public class InternalHiveSplit
         requireNonNull(path, "path is null");
         requireNonNull(readBucketNumber, "readBucketNumber is null");
         requireNonNull(tableBucketNumber, "tableBucketNumber is null");
+        requireNonNull(weightedSize, "weightedSize is null");
         requireNonNull(nodeSelectionStrategy, "nodeSelectionStrategy is null");
         requireNonNull(partitionInfo, "partitionInfo is null");
         requireNonNull(extraFileInfo, "extraFileInfo is null");
@@ -108,6 +113,7 @@ public class InternalHiveSplit
         this.fileModifiedTime = fileModifiedTime;
         this.readBucketNumber = readBucketNumber.orElse(-1);
         this.tableBucketNumber = tableBucketNumber.orElse(-1);
+        this.weightedSize = weightedSize.orElse(-1);
         this.splittable = splittable;
         this.nodeSelectionStrategy = nodeSelectionStrategy;
         this.s3SelectPushdownEnabled = s3SelectPushdownEnabled;
@@ -180,6 +186,11 @@ public class InternalHiveSplit
         return tableBucketNumber >= 0 ? OptionalInt.of(tableBucketNumber) : OptionalInt.empty();
     }
 
+    public OptionalLong getWeightedSize()
+    {
+        return weightedSize >= 0 ? OptionalLong.of(weightedSize) : OptionalLong.empty();
+    }
+
     public boolean isSplittable()
     {
         return splittable;
@@ -0,0 +1,71 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive;
+
+import com.google.common.util.concurrent.ListenableFuture;
+
+import java.util.function.IntSupplier;
+
+import static com.google.common.util.concurrent.Futures.immediateFuture;
+
+/**
+ * Source of the partitions for which {@link BackgroundHiveSplitLoader} generates splits.
+ */
+interface PartitionMetadataQueue
+{
+    /**
+     * Called before the first partition is polled, with the number of splits buffered in the split source.
+     */
+    default void start(IntSupplier bufferedSplitCount) {}
+
+    /**
+     * Returns true if no partitions are left, including the partitions that are still being loaded.
+     */
+    boolean isEmpty();
+
+    /**
+     * Returns the next partition, or null if no partition is available at the moment.
+     */
+    HivePartitionMetadata poll();
+
+    /**
+     * Returns a future that completes when {@link #poll()} may return a partition again.
+     */
+    ListenableFuture<?> isBlocked();
+
+    static PartitionMetadataQueue lazy(Iterable<HivePartitionMetadata> partitions)
+    {
+        ConcurrentLazyQueue<HivePartitionMetadata> queue = new ConcurrentLazyQueue<>(partitions);
+        return new PartitionMetadataQueue()
+        {
+            @Override
+            public boolean isEmpty()
+            {
+                return queue.isEmpty();
+            }
+
+            @Override
+            public HivePartitionMetadata poll()
+            {
+                return queue.poll();
+            }
+
+            @Override
+            public ListenableFuture<?> isBlocked()
+            {
+                return immediateFuture(null);
+            }
+        };
+    }
+}
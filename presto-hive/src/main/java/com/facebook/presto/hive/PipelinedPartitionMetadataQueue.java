@@ -0,0 +1,168 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.errorprone.annotations.concurrent.GuardedBy;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.IntSupplier;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Throwables.throwIfUnchecked;
+import static com.google.common.util.concurrent.Futures.immediateFuture;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Loads the partition metadata in batches on a background thread, one batch ahead of the split
+ * loader, so that fetching partitions from the metastore overlaps with listing the directories of
+ * the partitions fetched earlier. The batch size starts at {@code minBatchSize} and doubles with each
+ * batch up to {@code maxBatchSize} while the split source has buffered splits. It is halved whenever
+ * the split source runs out of splits, so that the scheduler waits for fewer partitions.
+ */
+class PipelinedPartitionMetadataQueue
+        implements PartitionMetadataQueue
+{
+    private final Function<List<HivePartition>, List<HivePartitionMetadata>> metadataLoader;
+    private final Executor executor;
+    private final int minBatchSize;
+    private final int maxBatchSize;
+
+    @GuardedBy("this")
+    private final Iterator<HivePartition> remainingPartitions;
+    @GuardedBy("this")
+    private final Deque<HivePartitionMetadata> loadedPartitions = new ArrayDeque<>();
+    @GuardedBy("this")
+    private IntSupplier bufferedSplitCount = () -> 0;
+    @GuardedBy("this")
+    private int batchSize;
+    @GuardedBy("this")
+    private SettableFuture<?> loadingFuture;
+    @GuardedBy("this")
+    private Throwable failure;
+
+    public PipelinedPartitionMetadataQueue(
+            List<HivePartition> partitions,
+            Function<List<HivePartition>, List<HivePartitionMetadata>> metadataLoader,
+            int minBatchSize,
+            int maxBatchSize,
+            Executor executor)
+    {
+        checkArgument(minBatchSize > 0, "minBatchSize must be greater than zero");
+        checkArgument(maxBatchSize >= minBatchSize, "maxBatchSize must be at least minBatchSize");
+        this.remainingPartitions = ImmutableList.copyOf(requireNonNull(partitions, "partitions is null")).iterator();
+        this.metadataLoader = requireNonNull(metadataLoader, "metadataLoader is null");
+        this.minBatchSize = minBatchSize;
+        this.maxBatchSize = maxBatchSize;
+        this.executor = requireNonNull(executor, "executor is null");
+        this.batchSize = minBatchSize;
+    }
+
+    @Override
+    public synchronized void start(IntSupplier bufferedSplitCount)
+    {
+        this.bufferedSplitCount = requireNonNull(bufferedSplitCount, "bufferedSplitCount is null");
+        startLoading();
+    }
+
+    @Override
+    public synchronized boolean isEmpty()
+    {
+        return failure == null && loadedPartitions.isEmpty() && loadingFuture == null && !remainingPartitions.hasNext();
+    }
+
+    @Override
+    public synchronized HivePartitionMetadata poll()
+    {
+        if (failure != null) {
+            throwIfUnchecked(failure);
+            throw new RuntimeException(failure);
+        }
+        HivePartitionMetadata partition = loadedPartitions.poll();
+        startLoading();
+        return partition;
+    }
+
+    @Override
+    public synchronized ListenableFuture<?> isBlocked()
+    {
+        if (loadingFuture == null) {
+            return immediateFuture(null);
+        }
+        return loadingFuture;
+    }
+
+    @GuardedBy("this")
+    private void startLoading()
+    {
+        // keep at most one batch loading, and only once the partitions loaded so far run low
+        if (loadingFuture != null || failure != null || !remainingPartitions.hasNext() || loadedPartitions.size() >= batchSize) {
+            return;
+        }
+
+        if (bufferedSplitCount.getAsInt() == 0) {
+            // the scheduler is waiting for splits, so prefer batches which are returned quickly
+            batchSize = max(minBatchSize, batchSize / 2);
+        }
+        else {
+            batchSize = min(maxBatchSize, batchSize * 2);
+        }
+        ImmutableList.Builder<HivePartition> batch = ImmutableList.builder();
+        for (int i = 0; i < batchSize && remainingPartitions.hasNext(); i++) {
+            batch.add(remainingPartitions.next());
+        }
+
+        SettableFuture<?> future = SettableFuture.create();
+        loadingFuture = future;
+        try {
+            executor.execute(() -> loadBatch(batch.build(), future));
+        }
+        catch (RuntimeException e) {
+            loadingFuture = null;
+            failure = e;
+            future.set(null);
+        }
+    }
+
+    private void loadBatch(List<HivePartition> batch, SettableFuture<?> future)
+    {
+        try {
+            List<HivePartitionMetadata> partitions = metadataLoader.apply(batch);
+            synchronized (this) {
+                loadedPartitions.addAll(partitions);
+                loadingFuture = null;
+                startLoading();
+            }
+        }
+        catch (Throwable t) {
+            synchronized (this) {
+                loadingFuture = null;
+                failure = t;
+            }
+        }
+        finally {
+            // the failure is reported by poll, so that it fails the split source from a split loader task
+            future.set(null);
+        }
+    }
+}
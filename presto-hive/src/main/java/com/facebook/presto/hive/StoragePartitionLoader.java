@@ -19,8 +19,11 @@ import com.facebook.presto.hive.filesystem.ExtendedFileSystem;
 import com.facebook.presto.hive.metastore.Partition;
 import com.facebook.presto.hive.metastore.Storage;
 import com.facebook.presto.hive.metastore.Table;
+import com.facebook.presto.hive.orc.OrcStripeSplitter;
+import com.facebook.presto.hive.orc.OrcStripeSplitter.StripeGroup;
 import com.facebook.presto.hive.util.HiveFileIterator;
 import com.facebook.presto.hive.util.InternalHiveSplitFactory;
+import com.facebook.presto.orc.OrcEncoding;
 import com.facebook.presto.spi.ConnectorSession;
 import com.facebook.presto.spi.PrestoException;
 import com.facebook.presto.spi.SchemaTableName;
@@ -52,6 +55,7 @@ import java.util.OptionalInt;
 import java.util.Properties;
 import java.util.function.IntPredicate;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static com.facebook.presto.hive.HiveBucketing.getVirtualBucketNumber;
 import static com.facebook.presto.hive.HiveColumnHandle.pathColumnHandle;
@@ -64,10 +68,12 @@ import static com.facebook.presto.hive.HiveMetadata.shouldCreateFilesForMissingB
 import static com.facebook.presto.hive.HiveSessionProperties.getMaxInitialSplitSize;
 import static com.facebook.presto.hive.HiveSessionProperties.getMaxSplitSize;
 import static com.facebook.presto.hive.HiveSessionProperties.isFileSplittable;
+import static com.facebook.presto.hive.HiveSessionProperties.isOrcStripeAlignedSplitsEnabled;
 import static com.facebook.presto.hive.HiveSessionProperties.isOrderBasedExecutionEnabled;
 import static com.facebook.presto.hive.HiveSessionProperties.isSkipEmptyFilesEnabled;
 import static com.facebook.presto.hive.HiveSessionProperties.isSymlinkOptimizedReaderEnabled;
 import static com.facebook.presto.hive.HiveSessionProperties.isUseListDirectoryCache;
+import static com.facebook.presto.hive.HiveStorageFormat.getHiveStorageFormat;
 import static com.facebook.presto.hive.HiveUtil.buildDirectoryContextProperties;
 import static com.facebook.presto.hive.HiveUtil.getFooterCount;
 import static com.facebook.presto.hive.HiveUtil.getHeaderCount;
@@ -108,6 +114,7 @@ public class StoragePartitionLoader
     private final HdfsContext hdfsContext;
     private final NamenodeStats namenodeStats;
     private final DirectoryLister directoryLister;
+    private final OrcStripeSplitter orcStripeSplitter;
     private final boolean recursiveDirWalkerEnabled;
     private final ConnectorSession session;
     private final Deque<Iterator<InternalHiveSplit>> fileIterators;
@@ -123,6 +130,7 @@ public class StoragePartitionLoader
             HdfsEnvironment hdfsEnvironment,
             NamenodeStats namenodeStats,
             DirectoryLister directoryLister,
+            OrcStripeSplitter orcStripeSplitter,
             Deque<Iterator<InternalHiveSplit>> fileIterators,
             boolean recursiveDirWalkerEnabled,
             boolean schedulerUsesHostAddresses,
@@ -134,6 +142,7 @@ public class StoragePartitionLoader
         this.session = requireNonNull(session, "session is null");
         this.hdfsEnvironment = requireNonNull(hdfsEnvironment, "hdfsEnvironment is null");
         this.namenodeStats = requireNonNull(namenodeStats, "namenodeStats is null");
+        this.orcStripeSplitter = requireNonNull(orcStripeSplitter, "orcStripeSplitter is null");
         this.recursiveDirWalkerEnabled = recursiveDirWalkerEnabled;
         this.hdfsContext = new HdfsContext(session, table.getDatabaseName(), table.getTableName(), table.getStorage().getLocation(), false);
         this.fileIterators = requireNonNull(fileIterators, "fileIterators is null");
@@ -491,7 +500,7 @@ public class StoragePartitionLoader
             return hiveSplitSource.addToQueue(getBucketedSplits(path, fs, splitFactory, tableBucketInfo.get(), bucketConversion, partitionName, partition.getPartition(), splittable));
         }
 
-        fileIterators.addLast(createInternalHiveSplitIterator(path, fs, splitFactory, splittable, partition.getPartition()));
+        fileIterators.addLast(createInternalHiveSplitIterator(path, fs, splitFactory, splittable, getStripeAlignedOrcEncoding(storage, partition, s3SelectPushdownEnabled), partition.getPartition()));
         return COMPLETED_FUTURE;
     }
 
@@ -516,6 +525,7 @@ public class StoragePartitionLoader
             ExtendedFileSystem fileSystem,
             InternalHiveSplitFactory splitFactory,
             boolean splittable,
+            Optional<OrcEncoding> stripeAlignedOrcEncoding,
             Optional<Partition> partition)
     {
         boolean cacheable = isUseListDirectoryCache(session);
@@ -532,12 +542,44 @@ public class StoragePartitionLoader
                 buildDirectoryContextProperties(session),
                 session.getRuntimeStats());
         return stream(directoryLister.list(fileSystem, table, path, partition, namenodeStats, hiveDirectoryContext))
-                .map(hiveFileInfo -> splitFactory.createInternalHiveSplit(hiveFileInfo, splittable))
-                .filter(Optional::isPresent)
-                .map(Optional::get)
+                .flatMap(hiveFileInfo -> createInternalHiveSplits(fileSystem, splitFactory, hiveFileInfo, splittable, stripeAlignedOrcEncoding))
                 .iterator();
     }
 
+    private Optional<OrcEncoding> getStripeAlignedOrcEncoding(Storage storage, HivePartitionMetadata partition, boolean s3SelectPushdownEnabled)
+    {
+        // the footer of encrypted files cannot be read without the keys of the query
+        if (!isOrcStripeAlignedSplitsEnabled(session) || s3SelectPushdownEnabled || partition.getEncryptionInformation().isPresent()) {
+            return Optional.empty();
+        }
+        Optional<HiveStorageFormat> storageFormat = getHiveStorageFormat(storage.getStorageFormat());
+        if (storageFormat.equals(Optional.of(HiveStorageFormat.ORC))) {
+            return Optional.of(OrcEncoding.ORC);
+        }
+        if (storageFormat.equals(Optional.of(HiveStorageFormat.DWRF))) {
+            return Optional.of(OrcEncoding.DWRF);
+        }
+        return Optional.empty();
+    }
+
+    private Stream<InternalHiveSplit> createInternalHiveSplits(
+            ExtendedFileSystem fileSystem,
+            InternalHiveSplitFactory splitFactory,
+            HiveFileInfo hiveFileInfo,
+            boolean splittable,
+            Optional<OrcEncoding> stripeAlignedOrcEncoding)
+    {
+        long maxSplitSize = getMaxSplitSize(session).toBytes();
+        if (splittable && stripeAlignedOrcEncoding.isPresent() && hiveFileInfo.getLength() > maxSplitSize) {
+            // the file tail is read on the split loader thread, unless it is cached by the file tail source
+            Optional<List<StripeGroup>> stripeGroups = orcStripeSplitter.getStripeGroups(session, fileSystem, hiveFileInfo, stripeAlignedOrcEncoding.get(), maxSplitSize);
+            if (stripeGroups.isPresent()) {
+                return splitFactory.createStripeAlignedInternalHiveSplits(hiveFileInfo, stripeGroups.get()).stream();
+            }
+        }
+        return stream(splitFactory.createInternalHiveSplit(hiveFileInfo, splittable));
+    }
+
     private List<InternalHiveSplit> getBucketedSplits(
             Path path,
             ExtendedFileSystem fileSystem,
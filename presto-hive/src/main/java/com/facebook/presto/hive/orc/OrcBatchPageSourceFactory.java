@@ -18,6 +18,7 @@ import com.facebook.presto.common.type.Type;
 import com.facebook.presto.common.type.TypeManager;
 import com.facebook.presto.hive.EncryptionInformation;
 import com.facebook.presto.hive.FileFormatDataSourceStats;
+import com.facebook.presto.hive.ForHiveClient;
 import com.facebook.presto.hive.HdfsEnvironment;
 import com.facebook.presto.hive.HiveBatchPageSourceFactory;
 import com.facebook.presto.hive.HiveClientConfig;
@@ -56,10 +57,13 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.OptionalInt;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 
 import static com.facebook.presto.hive.BaseHiveColumnHandle.ColumnType.REGULAR;
 import static com.facebook.presto.hive.HiveCommonSessionProperties.getOrcMaxMergeDistance;
 import static com.facebook.presto.hive.HiveCommonSessionProperties.getOrcMaxReadBlockSize;
+import static com.facebook.presto.hive.HiveCommonSessionProperties.getOrcStripePrefetchMaxSize;
 import static com.facebook.presto.hive.HiveCommonSessionProperties.getOrcTinyStripeThreshold;
 import static com.facebook.presto.hive.HiveCommonSessionProperties.isOrcBloomFiltersEnabled;
 import static com.facebook.presto.hive.HiveCommonSessionProperties.isOrcZstdJniDecompressionEnabled;
@@ -84,6 +88,7 @@ public class OrcBatchPageSourceFactory
     private final int domainCompactionThreshold;
     private final OrcFileTailSource orcFileTailSource;
     private final StripeMetadataSourceFactory stripeMetadataSourceFactory;
+    private final Optional<Executor> stripePrefetchExecutor;
 
     @Inject
     public OrcBatchPageSourceFactory(
@@ -93,7 +98,8 @@ public class OrcBatchPageSourceFactory
             HdfsEnvironment hdfsEnvironment,
             FileFormatDataSourceStats stats,
             OrcFileTailSource orcFileTailSource,
-            StripeMetadataSourceFactory stripeMetadataSourceFactory)
+            StripeMetadataSourceFactory stripeMetadataSourceFactory,
+            @ForHiveClient ExecutorService executor)
     {
         this(
                 typeManager,
@@ -101,7 +107,8 @@ public class OrcBatchPageSourceFactory
                 stats,
                 config.getDomainCompactionThreshold(),
                 orcFileTailSource,
-                stripeMetadataSourceFactory);
+                stripeMetadataSourceFactory,
+                Optional.of(executor));
     }
 
     public OrcBatchPageSourceFactory(
@@ -111,6 +118,25 @@ public class OrcBatchPageSourceFactory
             int domainCompactionThreshold,
             OrcFileTailSource orcFileTailSource,
             StripeMetadataSourceFactory stripeMetadataSourceFactory)
+    {
+        this(
+                typeManager,
+                hdfsEnvironment,
+                stats,
+                domainCompactionThreshold,
+                orcFileTailSource,
+                stripeMetadataSourceFactory,
+                Optional.empty());
+    }
+
+    public OrcBatchPageSourceFactory(
+            TypeManager typeManager,
+            HdfsEnvironment hdfsEnvironment,
+            FileFormatDataSourceStats stats,
+            int domainCompactionThreshold,
+            OrcFileTailSource orcFileTailSource,
+            StripeMetadataSourceFactory stripeMetadataSourceFactory,
+            Optional<Executor> stripePrefetchExecutor)
     {
         this.typeManager = requireNonNull(typeManager, "typeManager is null");
         this.hdfsEnvironment = requireNonNull(hdfsEnvironment, "hdfsEnvironment is null");
@@ -118,6 +144,7 @@ public class OrcBatchPageSourceFactory
         this.domainCompactionThreshold = domainCompactionThreshold;
         this.orcFileTailSource = requireNonNull(orcFileTailSource, "orcFileTailSource is null");
         this.stripeMetadataSourceFactory = requireNonNull(stripeMetadataSourceFactory, "stripeMetadataSourceFactory is null");
+        this.stripePrefetchExecutor = requireNonNull(stripePrefetchExecutor, "stripePrefetchExecutor is null");
     }
 
     @Override
@@ -144,6 +171,14 @@ public class OrcBatchPageSourceFactory
             return Optional.of(new FixedPageSource(ImmutableList.of()));
         }
 
+        OrcReaderOptions.Builder orcReaderOptions = OrcReaderOptions.builder()
+                .withMaxMergeDistance(getOrcMaxMergeDistance(session))
+                .withTinyStripeThreshold(getOrcTinyStripeThreshold(session))
+                .withMaxBlockSize(getOrcMaxReadBlockSize(session))
+                .withZstdJniDecompressionEnabled(isOrcZstdJniDecompressionEnabled(session))
+                .withMaxStripePrefetchSize(getOrcStripePrefetchMaxSize(session));
+        stripePrefetchExecutor.ifPresent(orcReaderOptions::withStripePrefetchExecutor);
+
         return Optional.of(createOrcPageSource(
                 ORC,
                 hdfsEnvironment,
@@ -160,12 +195,7 @@ public class OrcBatchPageSourceFactory
                 orcFileTailSource,
                 stripeMetadataSourceFactory,
                 hiveFileContext,
-                OrcReaderOptions.builder()
-                        .withMaxMergeDistance(getOrcMaxMergeDistance(session))
-                        .withTinyStripeThreshold(getOrcTinyStripeThreshold(session))
-                        .withMaxBlockSize(getOrcMaxReadBlockSize(session))
-                        .withZstdJniDecompressionEnabled(isOrcZstdJniDecompressionEnabled(session))
-                        .build(),
+                orcReaderOptions.build(),
                 encryptionInformation,
                 NO_ENCRYPTION,
                 session,
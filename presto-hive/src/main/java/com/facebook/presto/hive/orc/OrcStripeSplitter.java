@@ -0,0 +1,249 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.orc;
+
+import com.facebook.airlift.log.Logger;
+import com.facebook.presto.common.RuntimeStats;
+import com.facebook.presto.hive.FileFormatDataSourceStats;
+import com.facebook.presto.hive.HiveFileInfo;
+import com.facebook.presto.hive.HiveOrcAggregatedMemoryContext;
+import com.facebook.presto.hive.filesystem.ExtendedFileSystem;
+import com.facebook.presto.orc.DwrfKeyProvider;
+import com.facebook.presto.orc.OrcDataSourceId;
+import com.facebook.presto.orc.OrcEncoding;
+import com.facebook.presto.orc.OrcReader;
+import com.facebook.presto.orc.OrcReaderOptions;
+import com.facebook.presto.orc.StorageStripeMetadataSource;
+import com.facebook.presto.orc.cache.OrcFileTailSource;
+import com.facebook.presto.orc.metadata.Footer;
+import com.facebook.presto.orc.metadata.StripeInformation;
+import com.facebook.presto.spi.ConnectorSession;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import jakarta.inject.Inject;
+import org.apache.hadoop.fs.Path;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+import static com.facebook.presto.hive.HiveCommonSessionProperties.getOrcLazyReadSmallRanges;
+import static com.facebook.presto.hive.HiveCommonSessionProperties.getOrcMaxBufferSize;
+import static com.facebook.presto.hive.HiveCommonSessionProperties.getOrcMaxMergeDistance;
+import static com.facebook.presto.hive.HiveCommonSessionProperties.getOrcMaxReadBlockSize;
+import static com.facebook.presto.hive.HiveCommonSessionProperties.getOrcStreamBufferSize;
+import static com.facebook.presto.hive.HiveCommonSessionProperties.getOrcTinyStripeThreshold;
+import static com.facebook.presto.orc.DwrfEncryptionProvider.NO_ENCRYPTION;
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.Math.round;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Groups the stripes of an ORC or DWRF file into ranges of up to the max split size, like splits by
+ * byte ranges, but aligned to stripes. Each group is weighted by its compressed size scaled by how
+ * much better or worse it compresses than the file on average, so that groups of highly compressed
+ * stripes, which take longer to process, are weighted accordingly.
+ * The stripe boundaries are read from the file tail, which is cached by the {@link OrcFileTailSource}.
+ */
+public class OrcStripeSplitter
+{
+    private static final Logger log = Logger.get(OrcStripeSplitter.class);
+
+    private final OrcFileTailSource orcFileTailSource;
+    private final FileFormatDataSourceStats stats;
+
+    @Inject
+    public OrcStripeSplitter(OrcFileTailSource orcFileTailSource, FileFormatDataSourceStats stats)
+    {
+        this.orcFileTailSource = requireNonNull(orcFileTailSource, "orcFileTailSource is null");
+        this.stats = requireNonNull(stats, "stats is null");
+    }
+
+    /**
+     * Returns the stripe groups of the file, or empty if the stripes could not be read, in which
+     * case the file should be split by byte ranges.
+     */
+    public Optional<List<StripeGroup>> getStripeGroups(
+            ConnectorSession session,
+            ExtendedFileSystem fileSystem,
+            HiveFileInfo fileInfo,
+            OrcEncoding orcEncoding,
+            long maxSplitSizeInBytes)
+    {
+        Path path = new Path(fileInfo.getPath());
+        try (HdfsOrcDataSource orcDataSource = new HdfsOrcDataSource(
+                new OrcDataSourceId(fileInfo.getPath()),
+                fileInfo.getLength(),
+                getOrcMaxMergeDistance(session),
+                getOrcMaxBufferSize(session),
+                getOrcStreamBufferSize(session),
+                getOrcLazyReadSmallRanges(session),
+                fileSystem.open(path),
+                stats)) {
+            OrcReader reader = new OrcReader(
+                    orcDataSource,
+                    orcEncoding,
+                    orcFileTailSource,
+                    new StorageStripeMetadataSource(),
+                    new HiveOrcAggregatedMemoryContext(),
+                    OrcReaderOptions.builder()
+                            .withMaxMergeDistance(getOrcMaxMergeDistance(session))
+                            .withTinyStripeThreshold(getOrcTinyStripeThreshold(session))
+                            .withMaxBlockSize(getOrcMaxReadBlockSize(session))
+                            .build(),
+                    true,
+                    NO_ENCRYPTION,
+                    DwrfKeyProvider.EMPTY,
+                    new RuntimeStats(),
+                    fileInfo.getFileModifiedTime());
+            List<StripeGroup> stripeGroups = groupStripes(reader.getFooter(), fileInfo.getLength(), maxSplitSizeInBytes);
+            if (stripeGroups.isEmpty()) {
+                return Optional.empty();
+            }
+            return Optional.of(stripeGroups);
+        }
+        catch (IOException | RuntimeException e) {
+            log.debug(e, "Failed to read the stripes of %s", path);
+            return Optional.empty();
+        }
+    }
+
+    @VisibleForTesting
+    static List<StripeGroup> groupStripes(Footer footer, long fileSize, long maxSplitSizeInBytes)
+    {
+        checkArgument(maxSplitSizeInBytes > 0, "maxSplitSizeInBytes must be greater than zero");
+        List<StripeInformation> stripes = footer.getStripes();
+        long fileCompressedSize = 0;
+        long fileUncompressedSize = 0;
+        for (StripeInformation stripe : stripes) {
+            fileCompressedSize += stripe.getTotalLength();
+            fileUncompressedSize += getUncompressedSize(footer, stripe);
+        }
+
+        ImmutableList.Builder<StripeGroup> stripeGroups = ImmutableList.builder();
+        // the first group starts at the beginning of the file and the last group ends at the end of the file,
+        // so that the groups cover the file just like splits by byte ranges do
+        long groupStart = 0;
+        long groupCompressedSize = 0;
+        long groupUncompressedSize = 0;
+        for (int i = 0; i < stripes.size(); i++) {
+            StripeInformation stripe = stripes.get(i);
+            if (i > 0 && groupCompressedSize + stripe.getTotalLength() > maxSplitSizeInBytes) {
+                long length = stripe.getOffset() - groupStart;
+                stripeGroups.add(new StripeGroup(groupStart, length, getWeightedSize(length, groupCompressedSize, groupUncompressedSize, fileCompressedSize, fileUncompressedSize)));
+                groupStart = stripe.getOffset();
+                groupCompressedSize = 0;
+                groupUncompressedSize = 0;
+            }
+            groupCompressedSize += stripe.getTotalLength();
+            groupUncompressedSize += getUncompressedSize(footer, stripe);
+        }
+        if (!stripes.isEmpty()) {
+            long length = fileSize - groupStart;
+            stripeGroups.add(new StripeGroup(groupStart, length, getWeightedSize(length, groupCompressedSize, groupUncompressedSize, fileCompressedSize, fileUncompressedSize)));
+        }
+        return stripeGroups.build();
+    }
+
+    /**
+     * Scales the length of a group by the ratio of its compression ratio to the compression ratio of
+     * the file, so that the weights stay comparable to the compressed sizes used for other splits.
+     */
+    private static long getWeightedSize(long length, long groupCompressedSize, long groupUncompressedSize, long fileCompressedSize, long fileUncompressedSize)
+    {
+        if (groupCompressedSize == 0 || fileUncompressedSize == 0) {
+            return length;
+        }
+        double groupCompressionRatio = (double) groupUncompressedSize / groupCompressedSize;
+        double fileCompressionRatio = (double) fileUncompressedSize / fileCompressedSize;
+        return round(length * groupCompressionRatio / fileCompressionRatio);
+    }
+
+    private static long getUncompressedSize(Footer footer, StripeInformation stripe)
+    {
+        if (stripe.getRawDataSize().isPresent()) {
+            return stripe.getRawDataSize().getAsLong();
+        }
+        if (footer.getRawSize().isPresent() && footer.getNumberOfRows() > 0) {
+            return (long) ((double) footer.getRawSize().getAsLong() * stripe.getNumberOfRows() / footer.getNumberOfRows());
+        }
+        return stripe.getTotalLength();
+    }
+
+    public static class StripeGroup
+    {
+        private final long start;
+        private final long length;
+        // size used for the split weight
+        private final long weightedSize;
+
+        public StripeGroup(long start, long length, long weightedSize)
+        {
+            checkArgument(start >= 0, "start must be non-negative");
+            checkArgument(length >= 0, "length must be non-negative");
+            checkArgument(weightedSize >= 0, "weightedSize must be non-negative");
+            this.start = start;
+            this.length = length;
+            this.weightedSize = weightedSize;
+        }
+
+        public long getStart()
+        {
+            return start;
+        }
+
+        public long getLength()
+        {
+            return length;
+        }
+
+        public long getWeightedSize()
+        {
+            return weightedSize;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            StripeGroup that = (StripeGroup) o;
+            return start == that.start &&
+                    length == that.length &&
+                    weightedSize == that.weightedSize;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(start, length, weightedSize);
+        }
+
+        @Override
+        public String toString()
+        {
+            return toStringHelper(this)
+                    .add("start", start)
+                    .add("length", length)
+                    .add("weightedSize", weightedSize)
+                    .toString();
+        }
+    }
+}
@@ -21,6 +21,7 @@ import com.facebook.presto.hive.HiveFileInfo;
 import com.facebook.presto.hive.HiveSplitPartitionInfo;
 import com.facebook.presto.hive.InternalHiveSplit;
 import com.facebook.presto.hive.InternalHiveSplit.InternalHiveBlock;
+import com.facebook.presto.hive.orc.OrcStripeSplitter.StripeGroup;
 import com.facebook.presto.hive.s3select.S3SelectPushdown;
 import com.facebook.presto.spi.HostAddress;
 import com.facebook.presto.spi.schedule.NodeSelectionStrategy;
@@ -35,6 +36,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.OptionalInt;
+import java.util.OptionalLong;
 
 import static com.facebook.presto.hive.BlockLocation.fromHiveBlockLocations;
 import static com.facebook.presto.hive.HiveColumnHandle.FILE_MODIFIED_TIME_COLUMN_INDEX;
@@ -110,11 +112,39 @@ public class InternalHiveSplitFactory
                 hiveFileInfo.getFileModifiedTime(),
                 readBucketNumber,
                 tableBucketNumber,
+                OptionalLong.empty(),
                 splittable,
                 hiveFileInfo.getExtraFileInfo(),
                 hiveFileInfo.getCustomSplitInfo());
     }
 
+    /**
+     * Creates a split for each group of stripes of an ORC file. The splits are not split further,
+     * and are weighted by the compressed size of their stripes, scaled by their compression ratio.
+     */
+    public List<InternalHiveSplit> createStripeAlignedInternalHiveSplits(HiveFileInfo hiveFileInfo, List<StripeGroup> stripeGroups)
+    {
+        BlockLocation[] blockLocations = hiveFileInfo.getBlockLocations().toArray(new BlockLocation[0]);
+        ImmutableList.Builder<InternalHiveSplit> splits = ImmutableList.builder();
+        for (StripeGroup stripeGroup : stripeGroups) {
+            createInternalHiveSplit(
+                    hiveFileInfo.getPath(),
+                    blockLocations,
+                    stripeGroup.getStart(),
+                    stripeGroup.getLength(),
+                    hiveFileInfo.getLength(),
+                    hiveFileInfo.getFileModifiedTime(),
+                    OptionalInt.empty(),
+                    OptionalInt.empty(),
+                    OptionalLong.of(stripeGroup.getWeightedSize()),
+                    false,
+                    hiveFileInfo.getExtraFileInfo(),
+                    hiveFileInfo.getCustomSplitInfo())
+                    .ifPresent(splits::add);
+        }
+        return splits.build();
+    }
+
     public Optional<InternalHiveSplit> createInternalHiveSplit(FileSplit split)
             throws IOException
     {
@@ -129,6 +159,7 @@ public class InternalHiveSplitFactory
                 file.getModificationTime(),
                 OptionalInt.empty(),
                 OptionalInt.empty(),
+                OptionalLong.empty(),
                 false,
                 Optional.empty(),
                 customSplitInfo);
@@ -143,6 +174,7 @@ public class InternalHiveSplitFactory
             long fileModificationTime,
             OptionalInt readBucketNumber,
             OptionalInt tableBucketNumber,
+            OptionalLong weightedSize,
             boolean splittable,
             Optional<byte[]> extraFileInfo,
             Map<String, String> customSplitInfo)
@@ -209,6 +241,7 @@ public class InternalHiveSplitFactory
                 blocks,
                 readBucketNumber,
                 tableBucketNumber,
+                weightedSize,
                 splittable,
                 forceLocalScheduling && allBlocksHaveRealAddress(blocks) ? HARD_AFFINITY : nodeSelectionStrategy,
                 s3SelectPushdownEnabled && S3SelectPushdown.isCompressionCodecSupported(inputFormat, path),
@@ -642,7 +642,8 @@ public class TestBackgroundHiveSplitLoader
                 backgroundHiveSplitLoader,
                 EXECUTOR,
                 new CounterStat(),
-                1);
+                1,
+                false);
     }
 
     private static Table table(
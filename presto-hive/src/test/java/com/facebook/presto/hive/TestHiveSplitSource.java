@@ -47,6 +47,7 @@ import static com.facebook.presto.hive.CacheQuotaScope.PARTITION;
 import static com.facebook.presto.hive.CacheQuotaScope.TABLE;
 import static com.facebook.presto.hive.HiveCommonSessionProperties.getAffinitySchedulingFileSectionSize;
 import static com.facebook.presto.hive.HiveSessionProperties.getMaxInitialSplitSize;
+import static com.facebook.presto.hive.HiveSessionProperties.getMaxSplitSize;
 import static com.facebook.presto.hive.HiveTestUtils.SESSION;
 import static com.facebook.presto.spi.connector.NotPartitionedPartitionHandle.NOT_PARTITIONED;
 import static com.facebook.presto.spi.schedule.NodeSelectionStrategy.NO_PREFERENCE;
@@ -80,7 +81,8 @@ public class TestHiveSplitSource
                 new TestingHiveSplitLoader(),
                 EXECUTOR,
                 new CounterStat(),
-                1);
+                1,
+                false);
 
         // add 10 splits
         for (int i = 0; i < 10; i++) {
@@ -116,7 +118,8 @@ public class TestHiveSplitSource
                 new TestingHiveSplitLoader(),
                 EXECUTOR,
                 new CounterStat(),
-                1);
+                1,
+                false);
 
         // One byte larger than the initial split max size
         DataSize fileSize = new DataSize(initialSplitSize.toBytes() + 1, BYTE);
@@ -145,7 +148,8 @@ public class TestHiveSplitSource
                 new TestingHiveSplitLoader(),
                 EXECUTOR,
                 new CounterStat(),
-                1);
+                1,
+                false);
 
         // larger than the section size
         DataSize fileSize = new DataSize(sectionSize.toBytes() * 3, BYTE);
@@ -163,6 +167,47 @@ public class TestHiveSplitSource
         assertEquals(getAffinitySchedulingKey(splits.get(splits.size() - 1)), "path/test-relative-path#2");
     }
 
+    @Test
+    public void testAffinitySplitsIgnoreInitialSplitSize()
+    {
+        DataSize splitSize = getMaxSplitSize(SESSION);
+
+        // with fragment result caching, only splits without affinity use the initial split size
+        HiveSplitSource hiveSplitSource = createAffinitySplitSource(true);
+        hiveSplitSource.addToQueue(new TestSplit("/test-relative-path", 1, OptionalInt.empty(), splitSize, SOFT_AFFINITY));
+        hiveSplitSource.addToQueue(new TestSplit("/test-relative-path", 2, OptionalInt.empty(), splitSize, NO_PREFERENCE));
+
+        HiveSplit affinitySplit = (HiveSplit) getSplits(hiveSplitSource, 1).get(0);
+        assertEquals(affinitySplit.getFileSplit().getLength(), splitSize.toBytes());
+
+        HiveSplit initialSplit = (HiveSplit) getSplits(hiveSplitSource, 1).get(0);
+        assertEquals(initialSplit.getFileSplit().getLength(), splitSize.toBytes() / 2);
+
+        // otherwise, splits with affinity use it as well
+        hiveSplitSource = createAffinitySplitSource(false);
+        hiveSplitSource.addToQueue(new TestSplit("/test-relative-path", 1, OptionalInt.empty(), splitSize, SOFT_AFFINITY));
+
+        affinitySplit = (HiveSplit) getSplits(hiveSplitSource, 1).get(0);
+        assertEquals(affinitySplit.getFileSplit().getLength(), splitSize.toBytes() / 2);
+    }
+
+    private static HiveSplitSource createAffinitySplitSource(boolean fragmentResultCachingEnabled)
+    {
+        return HiveSplitSource.allAtOnce(
+                SESSION,
+                "database",
+                "table",
+                new CacheQuotaRequirement(TABLE, DEFAULT_QUOTA_SIZE),
+                10,
+                10,
+                new DataSize(1, MEGABYTE),
+                new TestingHiveSplitLoader(),
+                EXECUTOR,
+                new CounterStat(),
+                1,
+                fragmentResultCachingEnabled);
+    }
+
     private static String getAffinitySchedulingKey(HiveSplit split)
     {
         AtomicReference<String> reference = new AtomicReference<>();
@@ -189,7 +234,8 @@ public class TestHiveSplitSource
                 new TestingHiveSplitLoader(),
                 EXECUTOR,
                 new CounterStat(),
-                1);
+                1,
+                false);
 
         // add 10 splits
         for (int i = 0; i < 10; i++) {
@@ -214,7 +260,8 @@ public class TestHiveSplitSource
                 new TestingHiveSplitLoader(),
                 EXECUTOR,
                 new CounterStat(),
-                1);
+                1,
+                false);
 
         // add 10 splits
         for (int i = 0; i < 10; i++) {
@@ -242,7 +289,8 @@ public class TestHiveSplitSource
                 new TestingHiveSplitLoader(),
                 EXECUTOR,
                 new CounterStat(),
-                1);
+                1,
+                false);
 
         // add some splits
         for (int i = 0; i < 5; i++) {
@@ -301,7 +349,8 @@ public class TestHiveSplitSource
                 new TestingHiveSplitLoader(),
                 EXECUTOR,
                 new CounterStat(),
-                1);
+                1,
+                false);
 
         SettableFuture<ConnectorSplit> splits = SettableFuture.create();
 
@@ -356,7 +405,8 @@ public class TestHiveSplitSource
                 new TestingHiveSplitLoader(),
                 EXECUTOR,
                 new CounterStat(),
-                1);
+                1,
+                false);
 
         TestSplit testSplit = new TestSplit(0);
         int testSplitSizeInBytes = testSplit.getEstimatedSizeInBytes() + testSplit.getPartitionInfo().getEstimatedSizeInBytes();
@@ -396,7 +446,8 @@ public class TestHiveSplitSource
                 new TestingHiveSplitLoader(),
                 EXECUTOR,
                 new CounterStat(),
-                1);
+                1,
+                false);
         hiveSplitSource.addToQueue(new TestSplit(0, OptionalInt.of(2)));
         hiveSplitSource.noMoreSplits();
         assertEquals(getSplits(hiveSplitSource, OptionalInt.of(0), 10).size(), 0);
@@ -419,7 +470,8 @@ public class TestHiveSplitSource
                 new TestingHiveSplitLoader(),
                 EXECUTOR,
                 new CounterStat(),
-                1);
+                1,
+                false);
         for (int i = 0; i < 10; i++) {
             hiveSplitSource.addToQueue(new TestSplit(i, OptionalInt.of(0)));
             assertEquals(hiveSplitSource.getBufferedInternalSplitCount(), i + 1);
@@ -479,7 +531,8 @@ public class TestHiveSplitSource
                 new TestingHiveSplitLoader(),
                 EXECUTOR,
                 new CounterStat(),
-                1);
+                1,
+                false);
         for (int i = 0; i < 10; i++) {
             hiveSplitSource.addToQueue(new TestSplit(i, OptionalInt.of(0)));
             assertEquals(hiveSplitSource.getBufferedInternalSplitCount(), i + 1);
@@ -516,7 +569,8 @@ public class TestHiveSplitSource
                 new TestingHiveSplitLoader(),
                 EXECUTOR,
                 new CounterStat(),
-                1);
+                1,
+                false);
         for (int i = 0; i < 10; i++) {
             hiveSplitSource.addToQueue(new TestSplit(i, OptionalInt.of(1)));
             hiveSplitSource.addToQueue(new TestSplit(i, OptionalInt.of(2)));
@@ -0,0 +1,140 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive;
+
+import com.facebook.presto.spi.PrestoException;
+import com.facebook.presto.spi.SchemaTableName;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ListenableFuture;
+import org.testng.annotations.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.facebook.presto.spi.StandardErrorCode.GENERIC_INTERNAL_ERROR;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static java.lang.String.format;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+public class TestPipelinedPartitionMetadataQueue
+{
+    private static final SchemaTableName TABLE_NAME = new SchemaTableName("test_schema", "test_table");
+
+    @Test
+    public void testLoadAhead()
+    {
+        Queue<Runnable> tasks = new ArrayDeque<>();
+        List<Integer> batchSizes = new ArrayList<>();
+        PipelinedPartitionMetadataQueue queue = new PipelinedPartitionMetadataQueue(
+                createPartitions(10),
+                batch -> {
+                    batchSizes.add(batch.size());
+                    return toMetadata(batch);
+                },
+                2,
+                4,
+                tasks::add);
+        AtomicInteger bufferedSplitCount = new AtomicInteger();
+        queue.start(bufferedSplitCount::get);
+
+        // the first batch is loading
+        assertFalse(queue.isEmpty());
+        assertNull(queue.poll());
+        ListenableFuture<?> blocked = queue.isBlocked();
+        assertFalse(blocked.isDone());
+        assertEquals(tasks.size(), 1);
+
+        tasks.poll().run();
+        assertTrue(blocked.isDone());
+        assertEquals(queue.poll().getHivePartition().getPartitionId().getPartitionName(), "p0");
+
+        // the next batch is loaded while the previous one is consumed
+        assertEquals(tasks.size(), 1);
+        bufferedSplitCount.set(100);
+        tasks.poll().run();
+        assertEquals(queue.poll().getHivePartition().getPartitionId().getPartitionName(), "p1");
+        assertEquals(queue.poll().getHivePartition().getPartitionId().getPartitionName(), "p2");
+
+        // batches grow while the split source has buffered splits, and shrink when it is drained
+        tasks.poll().run();
+        bufferedSplitCount.set(0);
+        List<String> partitionNames = new ArrayList<>();
+        while (!queue.isEmpty()) {
+            HivePartitionMetadata partition = queue.poll();
+            if (partition != null) {
+                partitionNames.add(partition.getHivePartition().getPartitionId().getPartitionName());
+            }
+            else {
+                tasks.poll().run();
+            }
+        }
+        assertEquals(partitionNames, ImmutableList.of("p3", "p4", "p5", "p6", "p7", "p8", "p9"));
+        assertEquals(batchSizes, ImmutableList.of(2, 2, 4, 2));
+        assertTrue(tasks.isEmpty());
+    }
+
+    @Test
+    public void testFailure()
+    {
+        Queue<Runnable> tasks = new ArrayDeque<>();
+        PipelinedPartitionMetadataQueue queue = new PipelinedPartitionMetadataQueue(
+                createPartitions(10),
+                batch -> {
+                    throw new PrestoException(GENERIC_INTERNAL_ERROR, "test failure");
+                },
+                2,
+                4,
+                tasks::add);
+        queue.start(() -> 0);
+
+        ListenableFuture<?> blocked = queue.isBlocked();
+        tasks.poll().run();
+        assertTrue(blocked.isDone());
+        assertFalse(queue.isEmpty());
+        try {
+            queue.poll();
+            fail("expected exception");
+        }
+        catch (PrestoException e) {
+            assertEquals(e.getMessage(), "test failure");
+        }
+        assertTrue(tasks.isEmpty());
+    }
+
+    private static List<HivePartition> createPartitions(int count)
+    {
+        ImmutableList.Builder<HivePartition> partitions = ImmutableList.builder();
+        for (int i = 0; i < count; i++) {
+            partitions.add(new HivePartition(TABLE_NAME, new PartitionNameWithVersion(format("p%s", i), Optional.empty()), ImmutableMap.of()));
+        }
+        return partitions.build();
+    }
+
+    private static List<HivePartitionMetadata> toMetadata(List<HivePartition> partitions)
+    {
+        return partitions.stream()
+                .map(partition -> new HivePartitionMetadata(partition, Optional.empty(), TableToPartitionMapping.empty(), Optional.empty(), ImmutableSet.of(), Optional.empty()))
+                .collect(toImmutableList());
+    }
+}
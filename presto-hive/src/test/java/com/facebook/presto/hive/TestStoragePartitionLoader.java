@@ -16,6 +16,8 @@ package com.facebook.presto.hive;
 import com.facebook.airlift.units.DataSize;
 import com.facebook.airlift.units.Duration;
 import com.facebook.presto.hive.TestBackgroundHiveSplitLoader.TestingHdfsEnvironment;
+import com.facebook.presto.hive.orc.OrcStripeSplitter;
+import com.facebook.presto.orc.cache.StorageOrcFileTailSource;
 import com.facebook.presto.spi.ConnectorSession;
 import com.facebook.presto.testing.TestingConnectorSession;
 import com.google.common.collect.ImmutableList;
@@ -148,6 +150,7 @@ public class TestStoragePartitionLoader
                 new TestingHdfsEnvironment(files),
                 new NamenodeStats(),
                 directoryLister,
+                new OrcStripeSplitter(new StorageOrcFileTailSource(), new FileFormatDataSourceStats()),
                 new ConcurrentLinkedDeque<>(),
                 false,
                 false,
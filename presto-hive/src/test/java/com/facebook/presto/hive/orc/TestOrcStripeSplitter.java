@@ -0,0 +1,84 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.orc;
+
+import com.facebook.presto.hive.orc.OrcStripeSplitter.StripeGroup;
+import com.facebook.presto.orc.metadata.Footer;
+import com.facebook.presto.orc.metadata.StripeInformation;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.testng.annotations.Test;
+
+import java.util.Optional;
+import java.util.OptionalLong;
+
+import static com.facebook.presto.hive.orc.OrcStripeSplitter.groupStripes;
+import static org.testng.Assert.assertEquals;
+
+public class TestOrcStripeSplitter
+{
+    private static final long FILE_SIZE = 420;
+
+    @Test
+    public void testGroupStripesByCompressedSize()
+    {
+        Footer footer = createFooter(OptionalLong.empty());
+        assertEquals(
+                groupStripes(footer, FILE_SIZE, 200),
+                ImmutableList.of(new StripeGroup(0, 203, 203), new StripeGroup(203, 217, 217)));
+
+        // a stripe larger than the max split size is never divided
+        assertEquals(
+                groupStripes(footer, FILE_SIZE, 50),
+                ImmutableList.of(new StripeGroup(0, 103, 103), new StripeGroup(103, 100, 100), new StripeGroup(203, 100, 100), new StripeGroup(303, 117, 117)));
+
+        assertEquals(groupStripes(footer, FILE_SIZE, 10000), ImmutableList.of(new StripeGroup(0, FILE_SIZE, FILE_SIZE)));
+    }
+
+    @Test
+    public void testWeightByRawDataSize()
+    {
+        // the file compresses 4:1 on average, the first two stripes 1:1 and the last two 7:1
+        Footer footer = createFooter(OptionalLong.empty(), 100, 100, 700, 700);
+        assertEquals(
+                groupStripes(footer, FILE_SIZE, 200),
+                ImmutableList.of(new StripeGroup(0, 203, 51), new StripeGroup(203, 217, 380)));
+
+        // groups which compress like the file are weighted by their compressed size
+        footer = createFooter(OptionalLong.empty(), 400, 400, 400, 400);
+        assertEquals(
+                groupStripes(footer, FILE_SIZE, 200),
+                ImmutableList.of(new StripeGroup(0, 203, 203), new StripeGroup(203, 217, 217)));
+    }
+
+    @Test
+    public void testWeightByFileRawSize()
+    {
+        // the raw size of the file is prorated by the number of rows in the stripes
+        Footer footer = createFooter(OptionalLong.of(4000));
+        assertEquals(
+                groupStripes(footer, FILE_SIZE, 200),
+                ImmutableList.of(new StripeGroup(0, 203, 203), new StripeGroup(203, 217, 217)));
+    }
+
+    private static Footer createFooter(OptionalLong rawSize, long... stripeRawDataSizes)
+    {
+        ImmutableList.Builder<StripeInformation> stripes = ImmutableList.builder();
+        for (int i = 0; i < 4; i++) {
+            OptionalLong stripeRawDataSize = stripeRawDataSizes.length == 0 ? OptionalLong.empty() : OptionalLong.of(stripeRawDataSizes[i]);
+            stripes.add(new StripeInformation(10, 3 + i * 100, 10, 80, 10, stripeRawDataSize, ImmutableList.of()));
+        }
+        return new Footer(40, 10000, rawSize, stripes.build(), ImmutableList.of(), ImmutableList.of(), ImmutableMap.of(), Optional.empty(), Optional.empty());
+    }
+}
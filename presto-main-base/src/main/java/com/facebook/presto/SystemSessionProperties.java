@@ -181,6 +181,7 @@ public final class SystemSessionProperties
     public static final String PARTIAL_AGGREGATION_BYTE_REDUCTION_THRESHOLD = "partial_aggregation_byte_reduction_threshold";
     public static final String ADAPTIVE_PARTIAL_AGGREGATION = "adaptive_partial_aggregation";
     public static final String ADAPTIVE_PARTIAL_AGGREGATION_ROWS_REDUCTION_RATIO_THRESHOLD = "adaptive_partial_aggregation_unique_rows_ratio_threshold";
+    public static final String ADAPTIVE_PARTIAL_AGGREGATION_BY_KEY_GROUP = "adaptive_partial_aggregation_by_key_group";
     public static final String OPTIMIZE_TOP_N_ROW_NUMBER = "optimize_top_n_row_number";
     public static final String OPTIMIZE_CASE_EXPRESSION_PREDICATE = "optimize_case_expression_predicate";
     public static final String MAX_GROUPING_SETS = "max_grouping_sets";
@@ -219,7 +220,9 @@ public final class SystemSessionProperties
     public static final String DYNAMIC_FILTERING_MAX_PER_DRIVER_ROW_COUNT = "dynamic_filtering_max_per_driver_row_count";
     public static final String DYNAMIC_FILTERING_MAX_PER_DRIVER_SIZE = "dynamic_filtering_max_per_driver_size";
     public static final String DYNAMIC_FILTERING_RANGE_ROW_LIMIT_PER_DRIVER = "dynamic_filtering_range_row_limit_per_driver";
+    public static final String DYNAMIC_FILTERING_BLOOM_FILTER_SIZE = "dynamic_filtering_bloom_filter_size";
     public static final String FRAGMENT_RESULT_CACHING_ENABLED = "fragment_result_caching_enabled";
+    public static final String SHARED_SCAN_ENABLED = "shared_scan_enabled";
     public static final String INLINE_SQL_FUNCTIONS = "inline_sql_functions";
     public static final String REMOTE_FUNCTIONS_ENABLED = "remote_functions_enabled";
     public static final String CHECK_ACCESS_CONTROL_ON_UTILIZED_COLUMNS_ONLY = "check_access_control_on_utilized_columns_only";
@@ -241,6 +244,7 @@ public final class SystemSessionProperties
     public static final String PARTIAL_RESULTS_MAX_EXECUTION_TIME_MULTIPLIER = "partial_results_max_execution_time_multiplier";
     public static final String OFFSET_CLAUSE_ENABLED = "offset_clause_enabled";
     public static final String VERBOSE_EXCEEDED_MEMORY_LIMIT_ERRORS_ENABLED = "verbose_exceeded_memory_limit_errors_enabled";
+    public static final String OPERATOR_ALLOCATION_PROFILING_ENABLED = "operator_allocation_profiling_enabled";
     public static final String MATERIALIZED_VIEW_DATA_CONSISTENCY_ENABLED = "materialized_view_data_consistency_enabled";
     public static final String CONSIDER_QUERY_FILTERS_FOR_MATERIALIZED_VIEW_PARTITIONS = "consider-query-filters-for-materialized-view-partitions";
     public static final String QUERY_OPTIMIZATION_WITH_MATERIALIZED_VIEW_ENABLED = "query_optimization_with_materialized_view_enabled";
@@ -281,6 +285,7 @@ public final class SystemSessionProperties
     public static final String LEAF_NODE_LIMIT_ENABLED = "leaf_node_limit_enabled";
     public static final String PUSH_REMOTE_EXCHANGE_THROUGH_GROUP_ID = "push_remote_exchange_through_group_id";
     public static final String OPTIMIZE_MULTIPLE_APPROX_PERCENTILE_ON_SAME_FIELD = "optimize_multiple_approx_percentile_on_same_field";
+    public static final String OPTIMIZE_MULTIPLE_JSON_EXTRACT_SCALAR_ON_SAME_FIELD = "optimize_multiple_json_extract_scalar_on_same_field";
     public static final String RANDOMIZE_OUTER_JOIN_NULL_KEY = "randomize_outer_join_null_key";
     public static final String RANDOMIZE_OUTER_JOIN_NULL_KEY_STRATEGY = "randomize_outer_join_null_key_strategy";
     public static final String RANDOMIZE_OUTER_JOIN_NULL_KEY_NULL_RATIO_THRESHOLD = "randomize_outer_join_null_key_null_ratio_threshold";
@@ -975,6 +980,11 @@ public final class SystemSessionProperties
                         "Rows reduction ratio threshold at which to adaptively disable partial aggregation",
                         featuresConfig.getAdaptivePartialAggregationRowsReductionRatioThreshold(),
                         false),
+                booleanProperty(
+                        ADAPTIVE_PARTIAL_AGGREGATION_BY_KEY_GROUP,
+                        "Adaptively disable partial aggregation separately for groups of grouping keys, instead of for all rows",
+                        featuresConfig.isAdaptivePartialAggregationByKeyGroupEnabled(),
+                        false),
                 booleanProperty(
                         OPTIMIZE_TOP_N_ROW_NUMBER,
                         "Use top N row number optimization",
@@ -1218,11 +1228,25 @@ public final class SystemSessionProperties
                         "Maximum number of build-side rows per driver up to which min and max values will be collected for dynamic filtering",
                         featuresConfig.getDynamicFilteringRangeRowLimitPerDriver(),
                         false),
+                new PropertyMetadata<>(
+                        DYNAMIC_FILTERING_BLOOM_FILTER_SIZE,
+                        "Size of the per-driver bloom filter built for integral join keys once they exceed the exact dynamic filter limits. Zero disables bloom filters",
+                        VARCHAR,
+                        DataSize.class,
+                        featuresConfig.getDynamicFilteringBloomFilterSize(),
+                        false,
+                        value -> DataSize.valueOf((String) value),
+                        DataSize::toString),
                 booleanProperty(
                         FRAGMENT_RESULT_CACHING_ENABLED,
                         "Enable fragment result caching and read/write leaf fragment result pages from/to cache when applicable",
                         featuresConfig.isFragmentResultCachingEnabled(),
                         false),
+                booleanProperty(
+                        SHARED_SCAN_ENABLED,
+                        "Share the pages of a split between concurrent scans of the same table layout and columns",
+                        featuresConfig.isSharedScanEnabled(),
+                        false),
                 booleanProperty(
                         SKIP_REDUNDANT_SORT,
                         "Skip redundant sort operations",
@@ -1340,6 +1364,11 @@ public final class SystemSessionProperties
                         "When enabled the error message for exceeded memory limit errors will contain additional operator memory allocation details",
                         nodeMemoryConfig.isVerboseExceededMemoryLimitErrorsEnabled(),
                         false),
+                booleanProperty(
+                        OPERATOR_ALLOCATION_PROFILING_ENABLED,
+                        "Track bytes allocated by each operator and projection of the query, regardless of the task allocation tracking configuration",
+                        false,
+                        false),
                 booleanProperty(
                         MATERIALIZED_VIEW_DATA_CONSISTENCY_ENABLED,
                         "When enabled and reading from materialized view, partition stitching is applied to achieve data consistency",
@@ -1608,6 +1637,11 @@ public final class SystemSessionProperties
                         "Combine individual approx_percentile calls on individual field to evaluation on an array",
                         featuresConfig.isOptimizeMultipleApproxPercentileOnSameFieldEnabled(),
                         false),
+                booleanProperty(
+                        OPTIMIZE_MULTIPLE_JSON_EXTRACT_SCALAR_ON_SAME_FIELD,
+                        "Combine json_extract_scalar calls with different paths on the same field into one call that parses the JSON once",
+                        featuresConfig.isOptimizeMultipleJsonExtractScalarOnSameFieldEnabled(),
+                        false),
                 booleanProperty(
                         NATIVE_AGGREGATION_SPILL_ALL,
                         "Native Execution only. If true and spilling has been triggered during the input " +
@@ -2550,6 +2584,11 @@ public final class SystemSessionProperties
         return session.getSystemProperty(ADAPTIVE_PARTIAL_AGGREGATION_ROWS_REDUCTION_RATIO_THRESHOLD, Double.class);
     }
 
+    public static boolean isAdaptivePartialAggregationByKeyGroupEnabled(Session session)
+    {
+        return session.getSystemProperty(ADAPTIVE_PARTIAL_AGGREGATION_BY_KEY_GROUP, Boolean.class);
+    }
+
     public static boolean isOptimizeTopNRowNumber(Session session)
     {
         return session.getSystemProperty(OPTIMIZE_TOP_N_ROW_NUMBER, Boolean.class);
@@ -2790,11 +2829,21 @@ public final class SystemSessionProperties
         return session.getSystemProperty(DYNAMIC_FILTERING_RANGE_ROW_LIMIT_PER_DRIVER, Integer.class);
     }
 
+    public static DataSize getDynamicFilteringBloomFilterSize(Session session)
+    {
+        return session.getSystemProperty(DYNAMIC_FILTERING_BLOOM_FILTER_SIZE, DataSize.class);
+    }
+
     public static boolean isFragmentResultCachingEnabled(Session session)
     {
         return session.getSystemProperty(FRAGMENT_RESULT_CACHING_ENABLED, Boolean.class);
     }
 
+    public static boolean isSharedScanEnabled(Session session)
+    {
+        return session.getSystemProperty(SHARED_SCAN_ENABLED, Boolean.class);
+    }
+
     public static boolean isInlineSqlFunctions(Session session)
     {
         return session.getSystemProperty(INLINE_SQL_FUNCTIONS, Boolean.class);
@@ -2880,6 +2929,11 @@ public final class SystemSessionProperties
         return session.getSystemProperty(VERBOSE_EXCEEDED_MEMORY_LIMIT_ERRORS_ENABLED, Boolean.class);
     }
 
+    public static boolean isOperatorAllocationProfilingEnabled(Session session)
+    {
+        return session.getSystemProperty(OPERATOR_ALLOCATION_PROFILING_ENABLED, Boolean.class);
+    }
+
     public static boolean isMaterializedViewDataConsistencyEnabled(Session session)
     {
         return session.getSystemProperty(MATERIALIZED_VIEW_DATA_CONSISTENCY_ENABLED, Boolean.class);
@@ -2965,6 +3019,11 @@ public final class SystemSessionProperties
         return session.getSystemProperty(OPTIMIZE_MULTIPLE_APPROX_PERCENTILE_ON_SAME_FIELD, Boolean.class);
     }
 
+    public static boolean isCombineJsonExtractScalarEnabled(Session session)
+    {
+        return session.getSystemProperty(OPTIMIZE_MULTIPLE_JSON_EXTRACT_SCALAR_ON_SAME_FIELD, Boolean.class);
+    }
+
     public static AggregationIfToFilterRewriteStrategy getAggregationIfToFilterRewriteStrategy(Session session)
     {
         return session.getSystemProperty(AGGREGATION_IF_TO_FILTER_REWRITE_STRATEGY, AggregationIfToFilterRewriteStrategy.class);
@@ -33,6 +33,7 @@ import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.Executor;
 
+import static com.facebook.presto.SystemSessionProperties.isOperatorAllocationProfilingEnabled;
 import static com.facebook.presto.SystemSessionProperties.isVerboseExceededMemoryLimitErrorsEnabled;
 import static com.facebook.presto.execution.SqlTaskExecution.createSqlTaskExecution;
 import static com.google.common.base.Throwables.throwIfUnchecked;
@@ -87,6 +88,7 @@ public class SqlTaskExecutionFactory
             List<TaskSource> sources,
             TableWriteInfo tableWriteInfo)
     {
+        boolean allocationProfilingEnabled = isOperatorAllocationProfilingEnabled(session);
         TaskContext taskContext = queryContext.addTaskContext(
                 taskStateMachine,
                 session,
@@ -94,8 +96,8 @@ public class SqlTaskExecutionFactory
                 isVerboseExceededMemoryLimitErrorsEnabled(session) ? Optional.of(fragment.getRoot()) : Optional.empty(),
                 perOperatorCpuTimerEnabled,
                 cpuTimerEnabled,
-                perOperatorAllocationTrackingEnabled,
-                allocationTrackingEnabled,
+                perOperatorAllocationTrackingEnabled || allocationProfilingEnabled,
+                allocationTrackingEnabled || allocationProfilingEnabled,
                 legacyLifespanCompletionCondition);
 
         LocalExecutionPlan localExecutionPlan;
@@ -18,21 +18,19 @@ import com.facebook.presto.execution.TaskManagerConfig;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 import com.google.errorprone.annotations.ThreadSafe;
-import com.google.errorprone.annotations.concurrent.GuardedBy;
 import jakarta.inject.Inject;
 import org.weakref.jmx.Managed;
 import org.weakref.jmx.Nested;
 
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.PriorityQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReentrantLock;
 
 import static com.google.common.base.Preconditions.checkArgument;
-import static com.google.common.base.Preconditions.checkState;
 import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
@@ -42,38 +40,57 @@ public class MultilevelSplitQueue
     static final int[] LEVEL_THRESHOLD_SECONDS = {0, 1, 10, 60, 300};
     static final long LEVEL_CONTRIBUTION_CAP = SECONDS.toNanos(30);
 
-    @GuardedBy("lock")
-    private final List<PriorityQueue<PrioritizedSplitRunner>> levelWaitingSplits;
+    // with more than one shard, every this many takes the next split is chosen across all shards
+    private static final int GLOBAL_FAIRNESS_INTERVAL = 64;
+
+    private final Shard[] shards;
+
+    // number of waiting splits per level across all shards, maintained outside of the shard locks
+    private final AtomicInteger[] levelWaitingSplitCounts = new AtomicInteger[LEVEL_THRESHOLD_SECONDS.length];
+    // one permit per offered split; permits of removed splits are discarded by take()
+    private final Semaphore availableSplits = new Semaphore(0);
+    private final AtomicInteger nextOfferShard = new AtomicInteger();
+    private final AtomicLong takeCount = new AtomicLong();
 
     private final AtomicLong[] levelScheduledTime = new AtomicLong[LEVEL_THRESHOLD_SECONDS.length];
+    // serializes offers to an empty level, so that the scheduled time of the level is reset only once
+    private final ReentrantLock[] levelResetLocks = new ReentrantLock[LEVEL_THRESHOLD_SECONDS.length];
 
     private final AtomicLong[] levelMinPriority;
     private final List<CounterStat> selectedLevelCounters;
 
-    private final ReentrantLock lock = new ReentrantLock();
-    private final Condition notEmpty = lock.newCondition();
-
     private final double levelTimeMultiplier;
 
     @Inject
     public MultilevelSplitQueue(TaskManagerConfig taskManagerConfig)
     {
-        this(taskManagerConfig.getLevelTimeMultiplier().doubleValue());
+        this(taskManagerConfig.getLevelTimeMultiplier().doubleValue(), taskManagerConfig.getSplitQueueShards());
     }
 
     public MultilevelSplitQueue(double levelTimeMultiplier)
     {
+        this(levelTimeMultiplier, 1);
+    }
+
+    public MultilevelSplitQueue(double levelTimeMultiplier, int shardCount)
+    {
+        checkArgument(shardCount > 0, "shardCount must be positive");
         this.levelMinPriority = new AtomicLong[LEVEL_THRESHOLD_SECONDS.length];
-        this.levelWaitingSplits = new ArrayList<>(LEVEL_THRESHOLD_SECONDS.length);
         ImmutableList.Builder<CounterStat> counters = ImmutableList.builder();
 
         for (int i = 0; i < LEVEL_THRESHOLD_SECONDS.length; i++) {
             levelScheduledTime[i] = new AtomicLong();
             levelMinPriority[i] = new AtomicLong(-1);
-            levelWaitingSplits.add(new PriorityQueue<>());
+            levelWaitingSplitCounts[i] = new AtomicInteger();
+            levelResetLocks[i] = new ReentrantLock();
             counters.add(new CounterStat());
         }
 
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard();
+        }
+
         this.selectedLevelCounters = counters.build();
 
         this.levelTimeMultiplier = levelTimeMultiplier;
@@ -100,52 +117,59 @@ public class MultilevelSplitQueue
 
         split.setReady();
         int level = split.getPriority().getLevel();
-        lock.lock();
-        try {
-            if (levelWaitingSplits.get(level).isEmpty()) {
-                // Accesses to levelScheduledTime are not synchronized, so we have a data race
-                // here - our level time math will be off. However, the staleness is bounded by
-                // the fact that only running splits that complete during this computation
-                // can update the level time. Therefore, this is benign.
-                long level0Time = getLevel0TargetTime();
-                long levelExpectedTime = (long) (level0Time / Math.pow(levelTimeMultiplier, level));
-                long delta = levelExpectedTime - levelScheduledTime[level].get();
-                levelScheduledTime[level].addAndGet(delta);
+        if (levelWaitingSplitCounts[level].get() == 0) {
+            ReentrantLock resetLock = levelResetLocks[level];
+            resetLock.lock();
+            try {
+                // check again, as a concurrent offer might have added a split to the level
+                if (levelWaitingSplitCounts[level].get() == 0) {
+                    // Running splits that complete during this computation still update the level
+                    // time without the lock, so our level time math can be off. However, the
+                    // staleness is bounded, so this is benign.
+                    long level0Time = getLevel0TargetTime();
+                    long levelExpectedTime = (long) (level0Time / Math.pow(levelTimeMultiplier, level));
+                    long delta = levelExpectedTime - levelScheduledTime[level].get();
+                    levelScheduledTime[level].addAndGet(delta);
+                }
+                // the split is counted before the lock is released, so that later offers see a non-empty level
+                addSplit(level, split);
             }
-
-            levelWaitingSplits.get(level).offer(split);
-            notEmpty.signal();
-        }
-        finally {
-            lock.unlock();
+            finally {
+                resetLock.unlock();
+            }
+            return;
         }
+        addSplit(level, split);
+    }
+
+    private void addSplit(int level, PrioritizedSplitRunner split)
+    {
+        shards[Math.floorMod(nextOfferShard.getAndIncrement(), shards.length)].offer(level, split);
+        levelWaitingSplitCounts[level].incrementAndGet();
+        availableSplits.release();
     }
 
     public PrioritizedSplitRunner take()
             throws InterruptedException
     {
         while (true) {
-            lock.lockInterruptibly();
-            try {
-                PrioritizedSplitRunner result;
-                while ((result = pollSplit()) == null) {
-                    notEmpty.await();
-                }
+            availableSplits.acquire();
+            PrioritizedSplitRunner result = pollSplit();
+            if (result == null) {
+                // the permit belonged to a split that has been removed from the queue
+                continue;
+            }
 
-                if (result.updateLevelPriority()) {
-                    offer(result);
-                    continue;
-                }
+            if (result.updateLevelPriority()) {
+                offer(result);
+                continue;
+            }
 
-                int selectedLevel = result.getPriority().getLevel();
-                levelMinPriority[selectedLevel].set(result.getPriority().getLevelPriority());
-                selectedLevelCounters.get(selectedLevel).update(1);
+            int selectedLevel = result.getPriority().getLevel();
+            levelMinPriority[selectedLevel].set(result.getPriority().getLevelPriority());
+            selectedLevelCounters.get(selectedLevel).update(1);
 
-                return result;
-            }
-            finally {
-                lock.unlock();
-            }
+            return result;
         }
     }
 
@@ -156,15 +180,19 @@ public class MultilevelSplitQueue
      * This function selects the level that has the lowest ratio of actual to the target time
      * with the objective of minimizing deviation from the target scheduled time. From this level,
      * we pick the split with the lowest priority.
+     * <p>
+     * When the queue is sharded, the split is taken from the shard of the calling thread if that
+     * shard has one at the selected level, and stolen from another shard otherwise. Periodically
+     * the lowest priority split of the level across all shards is taken instead, which bounds how
+     * long a split can be passed over because it was queued in a busy shard.
      */
-    @GuardedBy("lock")
     private PrioritizedSplitRunner pollSplit()
     {
         long targetScheduledTime = getLevel0TargetTime();
         double worstRatio = 1;
         int selectedLevel = -1;
         for (int level = 0; level < LEVEL_THRESHOLD_SECONDS.length; level++) {
-            if (!levelWaitingSplits.get(level).isEmpty()) {
+            if (levelWaitingSplitCounts[level].get() > 0) {
                 long levelTime = levelScheduledTime[level].get();
                 double ratio = levelTime == 0 ? 0 : targetScheduledTime / (1.0 * levelTime);
                 if (selectedLevel == -1 || ratio > worstRatio) {
@@ -176,17 +204,74 @@ public class MultilevelSplitQueue
             targetScheduledTime /= levelTimeMultiplier;
         }
 
-        if (selectedLevel == -1) {
-            return null;
+        if (selectedLevel != -1) {
+            PrioritizedSplitRunner result = pollLevel(selectedLevel);
+            if (result != null) {
+                return result;
+            }
         }
 
-        PrioritizedSplitRunner result = levelWaitingSplits.get(selectedLevel).poll();
-        checkState(result != null, "pollSplit cannot return null");
+        // level counts are updated outside of the shard locks, so they can briefly disagree with the shards
+        for (int level = 0; level < LEVEL_THRESHOLD_SECONDS.length; level++) {
+            PrioritizedSplitRunner result = pollLevel(level);
+            if (result != null) {
+                return result;
+            }
+        }
+        return null;
+    }
+
+    private PrioritizedSplitRunner pollLevel(int level)
+    {
+        PrioritizedSplitRunner result;
+        if (shards.length == 1) {
+            result = shards[0].poll(level);
+        }
+        else if (takeCount.incrementAndGet() % GLOBAL_FAIRNESS_INTERVAL == 0) {
+            result = pollLowestPriority(level);
+        }
+        else {
+            int homeShard = (int) (Thread.currentThread().getId() % shards.length);
+            result = null;
+            for (int i = 0; i < shards.length && result == null; i++) {
+                result = shards[(homeShard + i) % shards.length].poll(level);
+            }
+        }
 
+        if (result != null) {
+            levelWaitingSplitCounts[level].decrementAndGet();
+        }
         return result;
     }
 
-    @GuardedBy("lock")
+    private PrioritizedSplitRunner pollLowestPriority(int level)
+    {
+        Shard selectedShard = null;
+        PrioritizedSplitRunner lowest = null;
+        for (Shard shard : shards) {
+            PrioritizedSplitRunner head = shard.peek(level);
+            if (head != null && (lowest == null || head.compareTo(lowest) < 0)) {
+                lowest = head;
+                selectedShard = shard;
+            }
+        }
+        if (selectedShard == null) {
+            return null;
+        }
+        // the head may have been taken concurrently, in which case the next split of the same shard is used
+        PrioritizedSplitRunner result = selectedShard.poll(level);
+        if (result != null) {
+            return result;
+        }
+        for (Shard shard : shards) {
+            result = shard.poll(level);
+            if (result != null) {
+                return result;
+            }
+        }
+        return null;
+    }
+
     private long getLevel0TargetTime()
     {
         long level0TargetTime = levelScheduledTime[0].get();
@@ -246,27 +331,15 @@ public class MultilevelSplitQueue
     public void remove(PrioritizedSplitRunner split)
     {
         checkArgument(split != null, "split is null");
-        lock.lock();
-        try {
-            for (PriorityQueue<PrioritizedSplitRunner> level : levelWaitingSplits) {
-                level.remove(split);
-            }
-        }
-        finally {
-            lock.unlock();
+        for (Shard shard : shards) {
+            shard.removeAll(ImmutableList.of(split));
         }
     }
 
     public void removeAll(Collection<PrioritizedSplitRunner> splits)
     {
-        lock.lock();
-        try {
-            for (PriorityQueue<PrioritizedSplitRunner> level : levelWaitingSplits) {
-                level.removeAll(splits);
-            }
-        }
-        finally {
-            lock.unlock();
+        for (Shard shard : shards) {
+            shard.removeAll(splits);
         }
     }
 
@@ -278,17 +351,11 @@ public class MultilevelSplitQueue
 
     public int size()
     {
-        lock.lock();
-        try {
-            int total = 0;
-            for (PriorityQueue<PrioritizedSplitRunner> level : levelWaitingSplits) {
-                total += level.size();
-            }
-            return total;
-        }
-        finally {
-            lock.unlock();
+        int total = 0;
+        for (Shard shard : shards) {
+            total += shard.size();
         }
+        return total;
     }
 
     public static int computeLevel(long threadUsageNanos)
@@ -373,4 +440,87 @@ public class MultilevelSplitQueue
     {
         return selectedLevelCounters.get(4);
     }
+
+    /**
+     * A set of per-level priority queues guarded by its own lock. Offers are spread over
+     * the shards so that runner threads rarely contend on the same lock.
+     */
+    private class Shard
+    {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final List<PriorityQueue<PrioritizedSplitRunner>> levelWaitingSplits;
+
+        private Shard()
+        {
+            ImmutableList.Builder<PriorityQueue<PrioritizedSplitRunner>> levels = ImmutableList.builder();
+            for (int i = 0; i < LEVEL_THRESHOLD_SECONDS.length; i++) {
+                levels.add(new PriorityQueue<>());
+            }
+            this.levelWaitingSplits = levels.build();
+        }
+
+        public void offer(int level, PrioritizedSplitRunner split)
+        {
+            lock.lock();
+            try {
+                levelWaitingSplits.get(level).offer(split);
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+
+        public PrioritizedSplitRunner peek(int level)
+        {
+            lock.lock();
+            try {
+                return levelWaitingSplits.get(level).peek();
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+
+        public PrioritizedSplitRunner poll(int level)
+        {
+            lock.lock();
+            try {
+                return levelWaitingSplits.get(level).poll();
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+
+        public void removeAll(Collection<PrioritizedSplitRunner> splits)
+        {
+            lock.lock();
+            try {
+                for (int level = 0; level < levelWaitingSplits.size(); level++) {
+                    PriorityQueue<PrioritizedSplitRunner> queue = levelWaitingSplits.get(level);
+                    int sizeBefore = queue.size();
+                    queue.removeAll(splits);
+                    levelWaitingSplitCounts[level].addAndGet(queue.size() - sizeBefore);
+                }
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+
+        public int size()
+        {
+            lock.lock();
+            try {
+                int total = 0;
+                for (PriorityQueue<PrioritizedSplitRunner> level : levelWaitingSplits) {
+                    total += level.size();
+                }
+                return total;
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+    }
 }
@@ -17,10 +17,12 @@ import com.facebook.airlift.units.DataSize;
 import com.facebook.presto.common.Page;
 import com.facebook.presto.common.block.Block;
 import com.facebook.presto.common.block.BlockBuilder;
+import com.facebook.presto.common.predicate.BlockedBloomFilter;
 import com.facebook.presto.common.predicate.Domain;
 import com.facebook.presto.common.predicate.TupleDomain;
 import com.facebook.presto.common.predicate.ValueSet;
 import com.facebook.presto.common.type.Type;
+import com.facebook.presto.memory.context.LocalMemoryContext;
 import com.facebook.presto.operator.aggregation.TypedSet;
 import com.facebook.presto.spi.plan.PlanNodeId;
 import com.google.common.collect.ImmutableList;
@@ -28,12 +30,18 @@ import com.google.common.collect.ImmutableMap;
 import jakarta.annotation.Nullable;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.function.Consumer;
 
 import static com.facebook.presto.common.predicate.Range.range;
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.common.type.DateType.DATE;
 import static com.facebook.presto.common.type.DoubleType.DOUBLE;
+import static com.facebook.presto.common.type.IntegerType.INTEGER;
 import static com.facebook.presto.common.type.RealType.REAL;
+import static com.facebook.presto.common.type.SmallintType.SMALLINT;
+import static com.facebook.presto.common.type.TinyintType.TINYINT;
 import static com.facebook.presto.common.type.TypeUtils.isFloatingPointNaN;
 import static com.facebook.presto.common.type.TypeUtils.readNativeValue;
 import static com.google.common.base.Preconditions.checkState;
@@ -46,11 +54,14 @@ import static java.util.stream.Collectors.toSet;
  * The collected pages' value are used for creating a run-time filtering constraint (for probe-side table scan in an inner join).
  * We record all values for the run-time filter only for small build-side pages (which should be the case when using "broadcast" join).
  * For large inputs on build side, we can optionally record the min and max values per channel for orderable types (except Double and Real).
+ * Integral and date channels can additionally be summarized by a bloom filter once the exact values no longer fit,
+ * which lets probe-side scans drop rows whose keys fall inside the min/max range but do not appear on the build side.
  */
 public class DynamicFilterSourceOperator
         implements Operator
 {
     private static final int EXPECTED_BLOCK_BUILDER_SIZE = 8;
+    private static final List<Type> BLOOM_FILTER_TYPES = ImmutableList.of(BIGINT, INTEGER, SMALLINT, TINYINT, DATE);
 
     public static class Channel
     {
@@ -87,10 +98,12 @@ public class DynamicFilterSourceOperator
         private final int operatorId;
         private final PlanNodeId planNodeId;
         private final Consumer<TupleDomain<String>> dynamicPredicateConsumer;
+        private final Consumer<Map<String, BlockedBloomFilter>> bloomFilterConsumer;
         private final List<Channel> channels;
         private final int maxFilterPositionsCount;
         private final DataSize maxFilterSize;
         private final int minMaxCollectionLimit;
+        private final DataSize bloomFilterSize;
         private final boolean useNewNanDefinition;
 
         private boolean closed;
@@ -99,15 +112,18 @@ public class DynamicFilterSourceOperator
                 int operatorId,
                 PlanNodeId planNodeId,
                 Consumer<TupleDomain<String>> dynamicPredicateConsumer,
+                Consumer<Map<String, BlockedBloomFilter>> bloomFilterConsumer,
                 List<Channel> channels,
                 int maxFilterPositionsCount,
                 DataSize maxFilterSize,
                 int minMaxCollectionLimit,
+                DataSize bloomFilterSize,
                 boolean useNewNanDefinition)
         {
             this.operatorId = operatorId;
             this.planNodeId = requireNonNull(planNodeId, "planNodeId is null");
             this.dynamicPredicateConsumer = requireNonNull(dynamicPredicateConsumer, "dynamicPredicateConsumer is null");
+            this.bloomFilterConsumer = requireNonNull(bloomFilterConsumer, "bloomFilterConsumer is null");
             this.channels = requireNonNull(channels, "channels is null");
             verify(
                     channels.stream().map(channel -> channel.getFilterId()).collect(toSet()).size() == channels.size(),
@@ -118,6 +134,7 @@ public class DynamicFilterSourceOperator
             this.maxFilterPositionsCount = maxFilterPositionsCount;
             this.maxFilterSize = maxFilterSize;
             this.minMaxCollectionLimit = minMaxCollectionLimit;
+            this.bloomFilterSize = requireNonNull(bloomFilterSize, "bloomFilterSize is null");
             this.useNewNanDefinition = useNewNanDefinition;
         }
 
@@ -128,11 +145,13 @@ public class DynamicFilterSourceOperator
             return new DynamicFilterSourceOperator(
                     driverContext.addOperatorContext(operatorId, planNodeId, DynamicFilterSourceOperator.class.getSimpleName()),
                     dynamicPredicateConsumer,
+                    bloomFilterConsumer,
                     channels,
                     planNodeId,
                     maxFilterPositionsCount,
                     maxFilterSize,
                     minMaxCollectionLimit,
+                    bloomFilterSize,
                     useNewNanDefinition);
         }
 
@@ -151,15 +170,21 @@ public class DynamicFilterSourceOperator
     }
 
     private final OperatorContext context;
+    private final LocalMemoryContext bloomFilterMemoryContext;
     private final Consumer<TupleDomain<String>> dynamicPredicateConsumer;
+    private final Consumer<Map<String, BlockedBloomFilter>> bloomFilterConsumer;
     private final int maxFilterPositionsCount;
     private final long maxFilterSizeInBytes;
     private final List<Channel> channels;
     private final List<Integer> minMaxChannels;
+    private final List<Integer> bloomFilterChannels;
+    private final long bloomFilterSizeInBytes;
     private final boolean useNewNanDefinition;
 
     private boolean finished;
     private Page current;
+    // Set when the probe side has to read all values but reporting is deferred until the bloom filters are complete.
+    private boolean predicateIsAll;
 
     // May be dropped if the predicate becomes too large.
     @Nullable
@@ -173,32 +198,45 @@ public class DynamicFilterSourceOperator
     @Nullable
     private Block[] maxValues;
 
+    // Created once the exact values became too large; null entries for channels without a bloom filter.
+    @Nullable
+    private BlockedBloomFilter[] bloomFilters;
+
     private DynamicFilterSourceOperator(
             OperatorContext context,
             Consumer<TupleDomain<String>> dynamicPredicateConsumer,
+            Consumer<Map<String, BlockedBloomFilter>> bloomFilterConsumer,
             List<Channel> channels,
             PlanNodeId planNodeId,
             int maxFilterPositionsCount,
             DataSize maxFilterSize,
             int minMaxCollectionLimit,
+            DataSize bloomFilterSize,
             boolean useNewNanDefinition)
     {
         this.context = requireNonNull(context, "context is null");
+        this.bloomFilterMemoryContext = context.localUserMemoryContext();
         this.maxFilterPositionsCount = maxFilterPositionsCount;
         this.maxFilterSizeInBytes = maxFilterSize.toBytes();
+        this.bloomFilterSizeInBytes = bloomFilterSize.toBytes();
 
         this.dynamicPredicateConsumer = requireNonNull(dynamicPredicateConsumer, "dynamicPredicateConsumer is null");
+        this.bloomFilterConsumer = requireNonNull(bloomFilterConsumer, "bloomFilterConsumer is null");
         this.channels = requireNonNull(channels, "channels is null");
 
         this.blockBuilders = new BlockBuilder[channels.size()];
         this.valueSets = new TypedSet[channels.size()];
         ImmutableList.Builder<Integer> minMaxChannelsBuilder = ImmutableList.builder();
+        ImmutableList.Builder<Integer> bloomFilterChannelsBuilder = ImmutableList.builder();
         for (int channelIndex = 0; channelIndex < channels.size(); ++channelIndex) {
             Type type = channels.get(channelIndex).getType();
             // Skipping DOUBLE and REAL in collectMinMaxValues to avoid dealing with NaN values
             if (minMaxCollectionLimit > 0 && type.isOrderable() && !type.equals(DOUBLE) && !type.equals(REAL)) {
                 minMaxChannelsBuilder.add(channelIndex);
             }
+            if (bloomFilterSizeInBytes > 0 && BLOOM_FILTER_TYPES.contains(type)) {
+                bloomFilterChannelsBuilder.add(channelIndex);
+            }
             this.blockBuilders[channelIndex] = type.createBlockBuilder(null, EXPECTED_BLOCK_BUILDER_SIZE);
             this.valueSets[channelIndex] = new TypedSet(
                     type,
@@ -210,6 +248,7 @@ public class DynamicFilterSourceOperator
         }
         this.minMaxCollectionLimit = minMaxCollectionLimit;
         minMaxChannels = minMaxChannelsBuilder.build();
+        bloomFilterChannels = bloomFilterChannelsBuilder.build();
         if (!minMaxChannels.isEmpty()) {
             minValues = new Block[channels.size()];
             maxValues = new Block[channels.size()];
@@ -236,6 +275,11 @@ public class DynamicFilterSourceOperator
         current = page;
         if (valueSets == null) {
             // the exact predicate became too large.
+            if (bloomFilters != null) {
+                for (Integer channelIndex : bloomFilterChannels) {
+                    addToBloomFilter(page.getBlock(channels.get(channelIndex).getIndex()), channelIndex);
+                }
+            }
             if (minValues == null) {
                 // there are too many rows to collect min/max range
                 return;
@@ -275,9 +319,23 @@ public class DynamicFilterSourceOperator
     private void handleTooLargePredicate()
     {
         // The resulting predicate is too large
+        if (!bloomFilterChannels.isEmpty()) {
+            // summarize the values collected so far, later pages are added as they arrive
+            bloomFilters = new BlockedBloomFilter[channels.size()];
+            long bloomFiltersSizeInBytes = 0;
+            for (Integer channelIndex : bloomFilterChannels) {
+                bloomFilters[channelIndex] = BlockedBloomFilter.create(bloomFilterSizeInBytes);
+                bloomFiltersSizeInBytes += bloomFilters[channelIndex].getRetainedSizeInBytes();
+            }
+            // the bloom filters are held until they are handed off in finish()
+            bloomFilterMemoryContext.setBytes(bloomFiltersSizeInBytes);
+            for (Integer channelIndex : bloomFilterChannels) {
+                addToBloomFilter(blockBuilders[channelIndex].build(), channelIndex);
+            }
+        }
         if (minMaxChannels.isEmpty()) {
             // allow all probe-side values to be read.
-            dynamicPredicateConsumer.accept(TupleDomain.all());
+            acceptAllValues();
         }
         else {
             if (minMaxCollectionLimit < 0) {
@@ -300,12 +358,35 @@ public class DynamicFilterSourceOperator
     private void handleMinMaxCollectionLimitExceeded()
     {
         // allow all probe-side values to be read.
-        dynamicPredicateConsumer.accept(TupleDomain.all());
+        acceptAllValues();
         // Drop references to collected values.
         minValues = null;
         maxValues = null;
     }
 
+    private void acceptAllValues()
+    {
+        if (bloomFilters != null) {
+            // the predicate is reported in finish(), after the bloom filters, so that both arrive for every partition
+            predicateIsAll = true;
+            return;
+        }
+        dynamicPredicateConsumer.accept(TupleDomain.all());
+    }
+
+    private void addToBloomFilter(Block block, int channelIndex)
+    {
+        checkState(bloomFilters != null);
+        BlockedBloomFilter bloomFilter = bloomFilters[channelIndex];
+        Type type = channels.get(channelIndex).getType();
+        for (int position = 0; position < block.getPositionCount(); ++position) {
+            // Inner and right join doesn't match rows with null key column values.
+            if (!block.isNull(position)) {
+                bloomFilter.putLong(type.getLong(block, position));
+            }
+        }
+    }
+
     private void updateMinMaxValues(Block block, int channelIndex)
     {
         checkState(minValues != null && maxValues != null);
@@ -366,6 +447,19 @@ public class DynamicFilterSourceOperator
             return;
         }
         finished = true;
+        if (bloomFilters != null) {
+            ImmutableMap.Builder<String, BlockedBloomFilter> bloomFiltersBuilder = ImmutableMap.builder();
+            for (Integer channelIndex : bloomFilterChannels) {
+                bloomFiltersBuilder.put(channels.get(channelIndex).getFilterId(), bloomFilters[channelIndex]);
+            }
+            bloomFilters = null;
+            bloomFilterConsumer.accept(bloomFiltersBuilder.build());
+            bloomFilterMemoryContext.setBytes(0);
+        }
+        if (predicateIsAll) {
+            dynamicPredicateConsumer.accept(TupleDomain.all());
+            return;
+        }
         ImmutableMap.Builder<String, Domain> domainsBuilder = ImmutableMap.builder();
         if (valueSets == null) {
             if (minValues == null) {
@@ -427,4 +521,11 @@ public class DynamicFilterSourceOperator
     {
         return current == null && finished;
     }
+
+    @Override
+    public void close()
+    {
+        bloomFilters = null;
+        bloomFilterMemoryContext.setBytes(0);
+    }
 }
@@ -53,6 +53,10 @@ public class FilterAndProjectOperator
         this.outputMemoryContext = operatorContext.localSystemMemoryContext();
         this.mergingOutput = requireNonNull(mergingOutput, "mergingOutput is null");
         this.sqlFunctionProperties = operatorContext.getSession().getSqlFunctionProperties();
+        DriverContext driverContext = operatorContext.getDriverContext();
+        if (driverContext.isAllocationTrackingEnabled() && driverContext.isPerOperatorAllocationTrackingEnabled()) {
+            processor.enableProjectionAllocationTracking();
+        }
     }
 
     @Override
@@ -102,7 +106,9 @@ public class FilterAndProjectOperator
     @Override
     public final Page getOutput()
     {
-        return mergingOutput.getOutput();
+        Page output = mergingOutput.getOutput();
+        processor.recordProjectionAllocations(operatorContext.getRuntimeStats());
+        return output;
     }
 
     public static class FilterAndProjectOperatorFactory
@@ -37,6 +37,7 @@ import com.google.common.collect.ImmutableSet;
 import com.google.common.primitives.Ints;
 import com.google.common.util.concurrent.ListenableFuture;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.OptionalInt;
@@ -45,6 +46,7 @@ import java.util.stream.Collectors;
 
 import static com.facebook.airlift.units.DataSize.Unit.MEGABYTE;
 import static com.facebook.presto.operator.aggregation.builder.InMemoryHashAggregationBuilder.toTypes;
+import static com.facebook.presto.operator.aggregation.partial.PartialAggregationController.KEY_GROUP_COUNT;
 import static com.facebook.presto.sql.planner.PlannerUtils.INITIAL_HASH_VALUE;
 import static com.facebook.presto.type.TypeUtils.NULL_HASH_CODE;
 import static com.google.common.base.Preconditions.checkArgument;
@@ -317,6 +319,14 @@ public class HashAggregationOperator
     private long inputRowsProcessed;
     private long uniqueRowsProduced;
 
+    // present if partial aggregation is decided per key group; see PartialAggregationController
+    private final Optional<HashGenerator> inputKeyGroupHashGenerator;
+    private final Optional<HashGenerator> outputKeyGroupHashGenerator;
+    private final long[] keyGroupRowsProcessed;
+    private final long[] keyGroupUniqueRowsProduced;
+    // rows of skipped key groups of the last input page, which are output without aggregation
+    private Page passThroughOutput;
+
     public HashAggregationOperator(
             OperatorContext operatorContext,
             List<Type> groupByTypes,
@@ -367,6 +377,26 @@ public class HashAggregationOperator
         operatorContext.setInfoSupplier(hashCollisionsCounter);
         this.useSystemMemory = useSystemMemory;
 
+        if (partialAggregationController.isPresent() && partialAggregationController.get().isKeyGroupAggregationEnabled() && !groupByChannels.isEmpty() && preGroupedChannels.isEmpty()) {
+            // the aggregation output has the group by columns first, followed by the hash column if present
+            if (hashChannel.isPresent()) {
+                this.inputKeyGroupHashGenerator = Optional.of(new PrecomputedHashGenerator(hashChannel.get()));
+                this.outputKeyGroupHashGenerator = Optional.of(new PrecomputedHashGenerator(groupByChannels.size()));
+            }
+            else {
+                this.inputKeyGroupHashGenerator = Optional.of(new InterpretedHashGenerator(groupByTypes, groupByChannels));
+                this.outputKeyGroupHashGenerator = Optional.of(InterpretedHashGenerator.createPositionalWithTypes(groupByTypes));
+            }
+            this.keyGroupRowsProcessed = new long[KEY_GROUP_COUNT];
+            this.keyGroupUniqueRowsProduced = new long[KEY_GROUP_COUNT];
+        }
+        else {
+            this.inputKeyGroupHashGenerator = Optional.empty();
+            this.outputKeyGroupHashGenerator = Optional.empty();
+            this.keyGroupRowsProcessed = null;
+            this.keyGroupUniqueRowsProduced = null;
+        }
+
         checkState(ImmutableSet.copyOf(groupByChannels).containsAll(preGroupedChannels), "groupByChannels must include all channels in preGroupedChannels");
         this.preGroupedHashStrategy = preGroupedChannels.isEmpty()
                 ? Optional.empty()
@@ -399,6 +429,7 @@ public class HashAggregationOperator
     // - 3. Aggregation builder has not been triggered or has finished processing.
     // - 4. If this is partial aggregation then it must have not reached the memory limit.
     // - 5. If running in segmented aggregation mode, there must be no remaining page to process.
+    // - 6. Rows of the previous page that are not aggregated have been output.
     @Override
     public boolean needsInput()
     {
@@ -406,7 +437,8 @@ public class HashAggregationOperator
                 && unfinishedWork == null
                 && outputPages == null
                 && !partialAggregationReachedMemoryLimit()
-                && remainingPageForSegmentedAggregation == null;
+                && remainingPageForSegmentedAggregation == null
+                && passThroughOutput == null;
     }
 
     @Override
@@ -418,6 +450,14 @@ public class HashAggregationOperator
         inputProcessed = true;
 
         initializeAggregationBuilderIfNeeded();
+        inputBytesProcessed += page.getSizeInBytes();
+        inputRowsProcessed += page.getPositionCount();
+        if (inputKeyGroupHashGenerator.isPresent()) {
+            page = splitSkippedKeyGroups(page);
+            if (page.getPositionCount() == 0) {
+                return;
+            }
+        }
         processInputPage(page);
 
         // process the current page; save the unfinished work if we are waiting for memory
@@ -426,8 +466,40 @@ public class HashAggregationOperator
         }
 
         aggregationBuilder.updateMemory();
-        inputBytesProcessed += page.getSizeInBytes();
-        inputRowsProcessed += page.getPositionCount();
+    }
+
+    /**
+     * Sets {@link #passThroughOutput} to the rows of {@code page} in skipped key groups, and returns the other rows.
+     */
+    private Page splitSkippedKeyGroups(Page page)
+    {
+        HashGenerator hashGenerator = inputKeyGroupHashGenerator.get();
+        long skippedKeyGroups = partialAggregationController.get().getSkippedKeyGroups();
+        int positionCount = page.getPositionCount();
+        int[] aggregatedPositions = new int[positionCount];
+        int[] skippedPositions = new int[positionCount];
+        int aggregatedCount = 0;
+        int skippedCount = 0;
+        for (int position = 0; position < positionCount; position++) {
+            int keyGroup = hashGenerator.getPartition(KEY_GROUP_COUNT, position, page);
+            if ((skippedKeyGroups & (1L << keyGroup)) != 0) {
+                skippedPositions[skippedCount++] = position;
+            }
+            else {
+                aggregatedPositions[aggregatedCount++] = position;
+                keyGroupRowsProcessed[keyGroup]++;
+            }
+        }
+
+        if (skippedCount == 0) {
+            return page;
+        }
+        SkipAggregationBuilder skipAggregationBuilder = new SkipAggregationBuilder(groupByChannels, hashChannel, accumulatorFactories, operatorContext.localUserMemoryContext());
+        skipAggregationBuilder.processPage(page.getPositions(skippedPositions, 0, skippedCount));
+        WorkProcessor<Page> skippedOutput = skipAggregationBuilder.buildResult();
+        verify(skippedOutput.process(), "skip aggregation did not produce output");
+        passThroughOutput = skippedOutput.getResult();
+        return page.getPositions(aggregatedPositions, 0, aggregatedCount);
     }
 
     @Override
@@ -454,6 +526,12 @@ public class HashAggregationOperator
             return null;
         }
 
+        if (passThroughOutput != null) {
+            Page result = passThroughOutput;
+            passThroughOutput = null;
+            return result;
+        }
+
         // process unfinished work if one exists
         if (unfinishedWork != null) {
             boolean workDone = unfinishedWork.process();
@@ -497,6 +575,11 @@ public class HashAggregationOperator
 
         Page result = outputPages.getResult();
         uniqueRowsProduced += result.getPositionCount();
+        if (outputKeyGroupHashGenerator.isPresent()) {
+            for (int position = 0; position < result.getPositionCount(); position++) {
+                keyGroupUniqueRowsProduced[outputKeyGroupHashGenerator.get().getPartition(KEY_GROUP_COUNT, position, result)]++;
+            }
+        }
         return result;
     }
 
@@ -561,12 +644,19 @@ public class HashAggregationOperator
 
     private void closeAggregationBuilder()
     {
-        partialAggregationController.ifPresent(
-                controller -> controller.onFlush(
-                        inputBytesProcessed,
-                        inputRowsProcessed,
-                        // Empty uniqueRowsProduced indicates to PartialAggregationController that partial agg is disabled
-                        aggregationBuilder instanceof SkipAggregationBuilder ? OptionalLong.empty() : OptionalLong.of(uniqueRowsProduced)));
+        if (inputKeyGroupHashGenerator.isPresent()) {
+            partialAggregationController.get().onKeyGroupFlush(inputBytesProcessed, keyGroupRowsProcessed, keyGroupUniqueRowsProduced);
+            Arrays.fill(keyGroupRowsProcessed, 0);
+            Arrays.fill(keyGroupUniqueRowsProduced, 0);
+        }
+        else {
+            partialAggregationController.ifPresent(
+                    controller -> controller.onFlush(
+                            inputBytesProcessed,
+                            inputRowsProcessed,
+                            // Empty uniqueRowsProduced indicates to PartialAggregationController that partial agg is disabled
+                            aggregationBuilder instanceof SkipAggregationBuilder ? OptionalLong.empty() : OptionalLong.of(uniqueRowsProduced)));
+        }
         inputBytesProcessed = 0;
         inputRowsProcessed = 0;
         uniqueRowsProduced = 0;
@@ -26,6 +26,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.primitives.Ints;
 import com.google.common.util.concurrent.ListenableFuture;
 
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
@@ -38,6 +39,7 @@ import static com.google.common.base.Verify.verify;
 import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.collect.Iterators.transform;
 import static com.google.common.util.concurrent.Futures.immediateFuture;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 import static java.util.Objects.requireNonNull;
 
 public class OrderByOperator
@@ -56,6 +58,7 @@ public class OrderByOperator
         private final PagesIndex.Factory pagesIndexFactory;
         private final boolean spillEnabled;
         private final Optional<SpillerFactory> spillerFactory;
+        private final int spillMergeFanIn;
         private final OrderingCompiler orderingCompiler;
 
         private boolean closed;
@@ -71,6 +74,7 @@ public class OrderByOperator
                 PagesIndex.Factory pagesIndexFactory,
                 boolean spillEnabled,
                 Optional<SpillerFactory> spillerFactory,
+                int spillMergeFanIn,
                 OrderingCompiler orderingCompiler)
         {
             this.operatorId = operatorId;
@@ -84,8 +88,10 @@ public class OrderByOperator
             this.pagesIndexFactory = requireNonNull(pagesIndexFactory, "pagesIndexFactory is null");
             this.spillEnabled = spillEnabled;
             this.spillerFactory = requireNonNull(spillerFactory, "spillerFactory is null");
+            this.spillMergeFanIn = spillMergeFanIn;
             this.orderingCompiler = requireNonNull(orderingCompiler, "orderingCompiler is null");
             checkArgument(!spillEnabled || spillerFactory.isPresent(), "Spiller Factory is not present when spill is enabled");
+            checkArgument(spillMergeFanIn >= 2, "spillMergeFanIn must be at least 2");
         }
 
         @Override
@@ -104,6 +110,7 @@ public class OrderByOperator
                     pagesIndexFactory,
                     spillEnabled,
                     spillerFactory,
+                    spillMergeFanIn,
                     orderingCompiler);
         }
 
@@ -127,6 +134,7 @@ public class OrderByOperator
                     pagesIndexFactory,
                     spillEnabled,
                     spillerFactory,
+                    spillMergeFanIn,
                     orderingCompiler);
         }
     }
@@ -151,10 +159,14 @@ public class OrderByOperator
 
     private final boolean spillEnabled;
     private final Optional<SpillerFactory> spillerFactory;
+    private final int spillMergeFanIn;
     private final OrderingCompiler orderingCompiler;
 
-    private Optional<Spiller> spiller = Optional.empty();
+    // each spiller holds exactly one sorted run, so runs can be merged and released independently
+    private final List<Spiller> spilledRuns = new ArrayList<>();
     private ListenableFuture<?> spillInProgress = immediateFuture(null);
+    // merge of spilled runs into a new run, memory revokes are refused while it runs
+    private ListenableFuture<?> mergeInProgress = immediateFuture(null);
     private Runnable finishMemoryRevoke = () -> {};
 
     private Iterator<Optional<Page>> sortedPages;
@@ -171,6 +183,7 @@ public class OrderByOperator
             PagesIndex.Factory pagesIndexFactory,
             boolean spillEnabled,
             Optional<SpillerFactory> spillerFactory,
+            int spillMergeFanIn,
             OrderingCompiler orderingCompiler)
     {
         requireNonNull(pagesIndexFactory, "pagesIndexFactory is null");
@@ -186,8 +199,10 @@ public class OrderByOperator
         this.pageIndex = pagesIndexFactory.newPagesIndex(sourceTypes, expectedPositions);
         this.spillEnabled = spillEnabled;
         this.spillerFactory = requireNonNull(spillerFactory, "spillerFactory is null");
+        this.spillMergeFanIn = spillMergeFanIn;
         this.orderingCompiler = requireNonNull(orderingCompiler, "orderingCompiler is null");
         checkArgument(!spillEnabled || spillerFactory.isPresent(), "Spiller Factory is not present when spill is enabled");
+        checkArgument(spillMergeFanIn >= 2, "spillMergeFanIn must be at least 2");
     }
 
     @Override
@@ -199,12 +214,21 @@ public class OrderByOperator
     @Override
     public void finish()
     {
-        if (!spillInProgress.isDone()) {
+        if (!spillInProgress.isDone() || !mergeInProgress.isDone()) {
             return;
         }
         checkSpillSucceeded(spillInProgress);
+        checkSpillSucceeded(mergeInProgress);
 
         if (state == State.NEEDS_INPUT) {
+            // The in-memory pages form one more run in the final merge. If there are too many
+            // spilled runs, merge the oldest ones into a single new run first. Each pass runs
+            // on the spill executor, and the driver is blocked until it has completed.
+            if (spilledRuns.size() >= spillMergeFanIn) {
+                mergeInProgress = mergeSpilledRuns();
+                return;
+            }
+
             state = State.HAS_OUTPUT;
 
             // Convert revocable memory to user memory as sortedPages holds on to memory so we no longer can revoke.
@@ -235,6 +259,12 @@ public class OrderByOperator
         }
     }
 
+    @Override
+    public ListenableFuture<?> isBlocked()
+    {
+        return mergeInProgress;
+    }
+
     @Override
     public boolean isFinished()
     {
@@ -288,6 +318,11 @@ public class OrderByOperator
     public ListenableFuture<?> startMemoryRevoke()
     {
         verify(state == State.NEEDS_INPUT || revocableMemoryContext.getBytes() == 0, "Cannot spill in state: %s", state);
+        if (!mergeInProgress.isDone()) {
+            // the in-memory pages are spilled once the merge has completed, if still needed
+            finishMemoryRevoke = () -> {};
+            return immediateFuture(null);
+        }
         return spillToDisk();
     }
 
@@ -303,15 +338,11 @@ public class OrderByOperator
 
         // TODO try pageIndex.compact(); before spilling, as in com.facebook.presto.operator.HashBuilderOperator.startMemoryRevoke
 
-        if (!spiller.isPresent()) {
-            spiller = Optional.of(spillerFactory.get().create(
-                    sourceTypes,
-                    operatorContext.getSpillContext(),
-                    operatorContext.aggregateSystemMemoryContext()));
-        }
+        Spiller spiller = createSpiller();
+        spilledRuns.add(spiller);
 
         pageIndex.sort(sortChannels, sortOrder);
-        spillInProgress = spiller.get().spill(pageIndex.getSortedPages());
+        spillInProgress = spiller.spill(pageIndex.getSortedPages());
         finishMemoryRevoke = () -> {
             pageIndex.clear();
             updateMemoryUsage();
@@ -327,13 +358,44 @@ public class OrderByOperator
         finishMemoryRevoke = () -> {};
     }
 
-    private List<WorkProcessor<Page>> getSpilledPages()
+    private Spiller createSpiller()
     {
-        if (!spiller.isPresent()) {
-            return ImmutableList.of();
-        }
+        return spillerFactory.get().create(
+                sourceTypes,
+                operatorContext.getSpillContext(),
+                operatorContext.aggregateSystemMemoryContext());
+    }
+
+    private ListenableFuture<?> mergeSpilledRuns()
+    {
+        List<Spiller> mergedRuns = ImmutableList.copyOf(spilledRuns.subList(0, spillMergeFanIn));
+        spilledRuns.subList(0, spillMergeFanIn).clear();
 
-        return spiller.get().getSpills().stream()
+        List<WorkProcessor<Page>> sortedStreams = mergedRuns.stream()
+                .flatMap(spiller -> spiller.getSpills().stream())
+                .map(WorkProcessor::fromIterator)
+                .collect(toImmutableList());
+
+        // the merged stream is consumed by the spill executor, so it must never yield
+        Iterator<Page> mergedPages = mergeSortedPages(
+                sortedStreams,
+                orderingCompiler.compilePageWithPositionComparator(sourceTypes, sortChannels, sortOrder),
+                sourceTypes,
+                operatorContext.aggregateSystemMemoryContext(),
+                new DriverYieldSignal())
+                .iterator();
+
+        Spiller spiller = createSpiller();
+        spilledRuns.add(spiller);
+        ListenableFuture<?> mergeInProgress = spiller.spill(mergedPages);
+        mergeInProgress.addListener(() -> mergedRuns.forEach(Spiller::close), directExecutor());
+        return mergeInProgress;
+    }
+
+    private List<WorkProcessor<Page>> getSpilledPages()
+    {
+        return spilledRuns.stream()
+                .flatMap(spiller -> spiller.getSpills().stream())
                 .map(WorkProcessor::fromIterator)
                 .collect(toImmutableList());
     }
@@ -379,6 +441,6 @@ public class OrderByOperator
     {
         pageIndex.clear();
         sortedPages = null;
-        spiller.ifPresent(Spiller::close);
+        spilledRuns.forEach(Spiller::close);
     }
 }
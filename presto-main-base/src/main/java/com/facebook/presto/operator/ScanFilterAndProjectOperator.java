@@ -121,6 +121,11 @@ public class ScanFilterAndProjectOperator
         this.mergingOutput = requireNonNull(mergingOutput, "mergingOutput is null");
 
         this.pageBuilder = new PageBuilder(ImmutableList.copyOf(requireNonNull(types, "types is null")));
+
+        DriverContext driverContext = operatorContext.getDriverContext();
+        if (driverContext.isAllocationTrackingEnabled() && driverContext.isPerOperatorAllocationTrackingEnabled()) {
+            pageProcessor.enableProjectionAllocationTracking();
+        }
     }
 
     @Override
@@ -314,6 +319,7 @@ public class ScanFilterAndProjectOperator
         }
 
         Page result = mergingOutput.getOutput();
+        pageProcessor.recordProjectionAllocations(operatorContext.getRuntimeStats());
         outputMemoryContext.setBytes(mergingOutput.getRetainedSizeInBytes() + pageProcessorMemoryContext.getBytes());
         return result;
     }
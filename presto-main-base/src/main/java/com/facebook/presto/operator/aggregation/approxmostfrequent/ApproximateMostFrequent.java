@@ -68,7 +68,10 @@ public final class ApproximateMostFrequent
             streamSummary = new StreamSummary(type, toIntExact(buckets), toIntExact(capacity));
             state.setStateSummary(streamSummary);
         }
+        // the summary grows as distinct values are added
+        long previousSize = streamSummary.estimatedInMemorySize();
         streamSummary.add(valueBlock, valueIndex, 1L);
+        state.addMemoryUsage(streamSummary.estimatedInMemorySize() - previousSize);
     }
 
     @CombineFunction
@@ -81,7 +84,9 @@ public final class ApproximateMostFrequent
             state.setStateSummary(otherState.getStateSummary());
         }
         else {
+            long previousSize = streamSummary.estimatedInMemorySize();
             streamSummary.merge(otherState.getStateSummary());
+            state.addMemoryUsage(streamSummary.estimatedInMemorySize() - previousSize);
         }
     }
 
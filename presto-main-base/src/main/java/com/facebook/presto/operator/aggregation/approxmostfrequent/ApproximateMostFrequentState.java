@@ -24,4 +24,6 @@ public interface ApproximateMostFrequentState
     StreamSummary getStateSummary();
 
     void setStateSummary(StreamSummary value);
+
+    void addMemoryUsage(long memory);
 }
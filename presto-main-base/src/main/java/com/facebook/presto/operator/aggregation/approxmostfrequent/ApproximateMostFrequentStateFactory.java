@@ -64,6 +64,12 @@ public class ApproximateMostFrequentStateFactory
             size = histogram.estimatedInMemorySize();
         }
 
+        @Override
+        public void addMemoryUsage(long memory)
+        {
+            size += memory;
+        }
+
         @Override
         public long getEstimatedSize()
         {
@@ -96,6 +102,12 @@ public class ApproximateMostFrequentStateFactory
             size += histogram.estimatedInMemorySize();
         }
 
+        @Override
+        public void addMemoryUsage(long memory)
+        {
+            size += memory;
+        }
+
         @Override
         public void ensureCapacity(long size)
         {
@@ -26,7 +26,9 @@ public class IndexedPriorityQueue
 {
     private static final int INSTANCE_SIZE = ClassLayout.parseClass(IndexedPriorityQueue.class).instanceSize();
     public static final int MIN_POSITION = 0;
-    private final StreamDataEntity[] minHeap;
+    private static final int INITIAL_CAPACITY = 16;
+    // grows up to the heap capacity as entries are added
+    private StreamDataEntity[] minHeap;
     private final int heapCapacity;
     private final PriorityQueueDataChangeListener heapDataChangeListener;
     private final Comparator<StreamDataEntity> heapDataComparator;
@@ -34,7 +36,7 @@ public class IndexedPriorityQueue
 
     public IndexedPriorityQueue(int heapCapacity, Comparator<StreamDataEntity> heapDataComparator, PriorityQueueDataChangeListener heapDataChangeListener)
     {
-        this.minHeap = new StreamDataEntity[heapCapacity];
+        this.minHeap = new StreamDataEntity[Math.min(heapCapacity, INITIAL_CAPACITY)];
         this.heapCapacity = heapCapacity;
         this.heapDataChangeListener = heapDataChangeListener;
         this.heapDataComparator = heapDataComparator;
@@ -47,6 +49,9 @@ public class IndexedPriorityQueue
 
     public void add(StreamDataEntity data)
     {
+        if (positionCount == minHeap.length) {
+            minHeap = Arrays.copyOf(minHeap, (int) Math.min((long) minHeap.length * 2, heapCapacity));
+        }
         minHeap[positionCount++] = data;
         percolateUp(positionCount - 1);
     }
@@ -42,6 +42,9 @@ public class StreamSummary
     private static final int COMPACT_THRESHOLD_RATIO = 3;
     private static final int EMPTY = -1;
     private static final int DELETE_MARKER = -2;
+    // the structures are sized for this many entries at first and grow up to the heap capacity,
+    // so that summaries which only see a few distinct values stay small regardless of the capacity
+    private static final int DEFAULT_EXPECTED_SIZE = 64;
     private final Type type;
     private final int heapCapacity;
     private final int maxBuckets;
@@ -59,6 +62,15 @@ public class StreamSummary
             Type type,
             int maxBuckets,
             int heapCapacity)
+    {
+        this(type, maxBuckets, heapCapacity, DEFAULT_EXPECTED_SIZE);
+    }
+
+    private StreamSummary(
+            Type type,
+            int maxBuckets,
+            int heapCapacity,
+            int expectedSize)
     {
         this.type = type;
         this.maxBuckets = maxBuckets;
@@ -66,9 +78,9 @@ public class StreamSummary
         this.blockPositionToCount = new LongBigArray();
         this.blockToHeapIndex = new IntBigArray();
         this.hashToBlockPosition = new IntBigArray(EMPTY);
-        this.hashCapacity = arraySize(heapCapacity, FILL_RATIO);
+        this.hashCapacity = arraySize(Math.max(Math.min(heapCapacity, expectedSize), 1), FILL_RATIO);
         this.hashToBlockPosition.ensureCapacity(hashCapacity);
-        this.heapBlockBuilder = type.createBlockBuilder(null, heapCapacity);
+        this.heapBlockBuilder = type.createBlockBuilder(null, Math.min(heapCapacity, expectedSize));
         this.minHeap = new IndexedPriorityQueue(heapCapacity, this::compare, this);
         this.mask = hashCapacity - 1;
         this.maxFill = calculateMaxFill(hashCapacity);
@@ -156,7 +168,7 @@ public class StreamSummary
         BlockBuilder newHeapBlockBuilder = type.createBlockBuilder(null, heapBlockBuilder.getPositionCount());
         //since block positions are changed, we need to update all data structures which are using block position as reference
         LongBigArray newBlockPositionToCount = new LongBigArray();
-        hashCapacity = arraySize(heapCapacity, FILL_RATIO);
+        hashCapacity = arraySize(getHeapSize(), FILL_RATIO);
         maxFill = calculateMaxFill(hashCapacity);
         newBlockPositionToCount.ensureCapacity(hashCapacity);
         IntBigArray newBlockToHeapIndex = new IntBigArray();
@@ -303,10 +315,12 @@ public class StreamSummary
         int maxBuckets = toIntExact(BIGINT.getLong(block, currentPosition++));
         int heapCapacity = toIntExact(BIGINT.getLong(block, currentPosition++));
 
-        StreamSummary streamSummary = new StreamSummary(type, maxBuckets, heapCapacity);
         Block keysBlock = new ArrayType(type).getObject(block, currentPosition++);
         Block valuesBlock = new ArrayType(BIGINT).getObject(block, currentPosition);
 
+        // the serialized summary only holds the top buckets, so size the summary for them rather than for the full capacity
+        StreamSummary streamSummary = new StreamSummary(type, maxBuckets, heapCapacity, keysBlock.getPositionCount());
+
         for (int position = 0; position < keysBlock.getPositionCount(); position++) {
             streamSummary.add(keysBlock, position, valuesBlock.getLong(position));
         }
@@ -316,7 +330,7 @@ public class StreamSummary
     public long estimatedInMemorySize()
     {
         return INSTANCE_SIZE + heapBlockBuilder.getRetainedSizeInBytes() + minHeap.estimatedInMemorySize() + blockPositionToCount.sizeOf() +
-                hashToBlockPosition.sizeOf();
+                hashToBlockPosition.sizeOf() + blockToHeapIndex.sizeOf();
     }
 
     private static int calculateMaxFill(int hashSize)
@@ -15,8 +15,10 @@ package com.facebook.presto.operator.aggregation.partial;
 
 import com.facebook.airlift.units.DataSize;
 
+import java.util.Arrays;
 import java.util.OptionalLong;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static java.util.Objects.requireNonNull;
 
 public class PartialAggregationController
@@ -33,18 +35,40 @@ public class PartialAggregationController
      */
     private static final double ENABLE_AGGREGATION_BUFFER_SIZE_TO_INPUT_BYTES_RATIO = DISABLE_AGGREGATION_BUFFER_SIZE_TO_INPUT_BYTES_RATIO * 200;
 
+    /**
+     * Number of groups the grouping keys are hashed into when partial aggregation is decided per key group.
+     * Each key group is one bit of {@link #getSkippedKeyGroups()}.
+     */
+    public static final int KEY_GROUP_COUNT = Long.SIZE;
+    /**
+     * Minimum number of rows of a key group to aggregate before considering to skip aggregating it.
+     */
+    private static final long MIN_KEY_GROUP_ROWS = 1_000;
+
     private final DataSize maxPartialAggregationMemorySize;
     private final double uniqueRowsRatioThreshold;
+    private final boolean keyGroupAggregationEnabled;
 
     private volatile boolean partialAggregationDisabled;
     private long totalBytesProcessed;
     private long totalRowsProcessed;
     private long totalUniqueRowsProduced;
 
+    // bit i is set if rows of key group i are passed through without aggregation
+    private volatile long skippedKeyGroups;
+    private final long[] keyGroupRowsProcessed = new long[KEY_GROUP_COUNT];
+    private final long[] keyGroupUniqueRowsProduced = new long[KEY_GROUP_COUNT];
+
     public PartialAggregationController(DataSize maxPartialAggregationMemorySize, double uniqueRowsRatioThreshold)
+    {
+        this(maxPartialAggregationMemorySize, uniqueRowsRatioThreshold, false);
+    }
+
+    public PartialAggregationController(DataSize maxPartialAggregationMemorySize, double uniqueRowsRatioThreshold, boolean keyGroupAggregationEnabled)
     {
         this.maxPartialAggregationMemorySize = requireNonNull(maxPartialAggregationMemorySize, "maxPartialMemory is null");
         this.uniqueRowsRatioThreshold = uniqueRowsRatioThreshold;
+        this.keyGroupAggregationEnabled = keyGroupAggregationEnabled;
     }
 
     public boolean isPartialAggregationDisabled()
@@ -52,6 +76,23 @@ public class PartialAggregationController
         return partialAggregationDisabled;
     }
 
+    /**
+     * If set, partial aggregation is enabled or disabled for each key group separately, based on
+     * {@link #onKeyGroupFlush} stats, instead of for all rows based on {@link #onFlush} stats.
+     */
+    public boolean isKeyGroupAggregationEnabled()
+    {
+        return keyGroupAggregationEnabled;
+    }
+
+    /**
+     * Returns the key groups whose rows should not be aggregated, as a bit mask.
+     */
+    public long getSkippedKeyGroups()
+    {
+        return skippedKeyGroups;
+    }
+
     public synchronized void onFlush(long bytesProcessed, long rowsProcessed, OptionalLong uniqueRowsProduced)
     {
         if (!partialAggregationDisabled && !uniqueRowsProduced.isPresent()) {
@@ -75,6 +116,39 @@ public class PartialAggregationController
         }
     }
 
+    /**
+     * Records the rows aggregated and the unique rows produced for each key group, which excludes the
+     * rows of skipped key groups, and the bytes of all input rows.
+     */
+    public synchronized void onKeyGroupFlush(long bytesProcessed, long[] rowsProcessed, long[] uniqueRowsProduced)
+    {
+        checkArgument(rowsProcessed.length == KEY_GROUP_COUNT && uniqueRowsProduced.length == KEY_GROUP_COUNT, "expected stats for %s key groups", KEY_GROUP_COUNT);
+        totalBytesProcessed += bytesProcessed;
+
+        long skipped = skippedKeyGroups;
+        for (int keyGroup = 0; keyGroup < KEY_GROUP_COUNT; keyGroup++) {
+            if ((skipped & (1L << keyGroup)) != 0) {
+                continue;
+            }
+            keyGroupRowsProcessed[keyGroup] += rowsProcessed[keyGroup];
+            keyGroupUniqueRowsProduced[keyGroup] += uniqueRowsProduced[keyGroup];
+            if (totalBytesProcessed >= maxPartialAggregationMemorySize.toBytes() * DISABLE_AGGREGATION_BUFFER_SIZE_TO_INPUT_BYTES_RATIO
+                    && keyGroupRowsProcessed[keyGroup] >= MIN_KEY_GROUP_ROWS
+                    && ((double) keyGroupUniqueRowsProduced[keyGroup] / keyGroupRowsProcessed[keyGroup]) > uniqueRowsRatioThreshold) {
+                skipped |= 1L << keyGroup;
+            }
+        }
+
+        // Aggregate all key groups again periodically, in case the distribution of the keys has changed
+        if (skipped != 0 && totalBytesProcessed >= maxPartialAggregationMemorySize.toBytes() * ENABLE_AGGREGATION_BUFFER_SIZE_TO_INPUT_BYTES_RATIO) {
+            totalBytesProcessed = 0;
+            Arrays.fill(keyGroupRowsProcessed, 0);
+            Arrays.fill(keyGroupUniqueRowsProduced, 0);
+            skipped = 0;
+        }
+        skippedKeyGroups = skipped;
+    }
+
     private boolean shouldDisablePartialAggregation()
     {
         return totalBytesProcessed >= maxPartialAggregationMemorySize.toBytes() * DISABLE_AGGREGATION_BUFFER_SIZE_TO_INPUT_BYTES_RATIO
@@ -83,6 +157,6 @@ public class PartialAggregationController
 
     public PartialAggregationController duplicate()
     {
-        return new PartialAggregationController(maxPartialAggregationMemorySize, uniqueRowsRatioThreshold);
+        return new PartialAggregationController(maxPartialAggregationMemorySize, uniqueRowsRatioThreshold, keyGroupAggregationEnabled);
     }
 }
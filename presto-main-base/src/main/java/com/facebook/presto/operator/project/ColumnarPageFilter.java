@@ -0,0 +1,196 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator.project;
+
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.function.SqlFunctionProperties;
+import com.facebook.presto.common.type.Type;
+import com.google.common.collect.ImmutableList;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Filter for a conjunction of range predicates on fixed width columns, which evaluates one
+ * predicate at a time over the positions selected by the previous predicates, instead of
+ * evaluating the whole conjunction for each position.
+ * <p>
+ * The predicates are reordered by their observed selectivity, so that the most selective
+ * predicate is evaluated first.
+ */
+public class ColumnarPageFilter
+        implements PageFilter
+{
+    // reorder predicates after this many pages
+    private static final int REORDER_INTERVAL = 16;
+
+    private final InputChannels inputChannels;
+    private final RangePredicate[] predicates;
+    private final long[] inputPositions;
+    private final long[] selectedPositions;
+    private final Integer[] order;
+
+    private int pageCount;
+
+    public ColumnarPageFilter(InputChannels inputChannels, List<RangePredicate> predicates)
+    {
+        this.inputChannels = requireNonNull(inputChannels, "inputChannels is null");
+        requireNonNull(predicates, "predicates is null");
+        checkArgument(!predicates.isEmpty(), "predicates is empty");
+        this.predicates = predicates.toArray(new RangePredicate[0]);
+        this.inputPositions = new long[predicates.size()];
+        this.selectedPositions = new long[predicates.size()];
+        this.order = new Integer[predicates.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+    }
+
+    @Override
+    public boolean isDeterministic()
+    {
+        return true;
+    }
+
+    @Override
+    public InputChannels getInputChannels()
+    {
+        return inputChannels;
+    }
+
+    @Override
+    public SelectedPositions filter(SqlFunctionProperties properties, Page page)
+    {
+        int positionCount = page.getPositionCount();
+        // null until the first predicate has been evaluated, which means all positions are selected
+        int[] positions = null;
+        int selectedCount = positionCount;
+        for (int index : order) {
+            if (selectedCount == 0) {
+                break;
+            }
+            RangePredicate predicate = predicates[index];
+            Block block = page.getBlock(predicate.getChannel()).getLoadedBlock();
+            if (positions == null) {
+                positions = new int[positionCount];
+            }
+            int inputCount = selectedCount;
+            selectedCount = predicate.filter(block, positions, inputCount, inputCount == positionCount);
+            inputPositions[index] += inputCount;
+            selectedPositions[index] += selectedCount;
+        }
+
+        if (++pageCount % REORDER_INTERVAL == 0) {
+            reorderPredicates();
+        }
+
+        if (selectedCount == positionCount) {
+            return SelectedPositions.positionsRange(0, positionCount);
+        }
+        return SelectedPositions.positionsList(positions, 0, selectedCount);
+    }
+
+    private void reorderPredicates()
+    {
+        Arrays.sort(order, Comparator.comparingDouble(this::getSelectivity));
+    }
+
+    private double getSelectivity(int index)
+    {
+        if (inputPositions[index] == 0) {
+            return 1;
+        }
+        return (double) selectedPositions[index] / inputPositions[index];
+    }
+
+    /**
+     * Selects the non-null values of a column that are in {@code [low, high]}, or not in it
+     * if the predicate is negated. Comparisons of bigint, integer, smallint, tinyint and date
+     * columns with constants can all be expressed with one such range.
+     */
+    public static class RangePredicate
+    {
+        private final int channel;
+        private final Type type;
+        private final long low;
+        private final long high;
+        private final boolean negated;
+
+        public RangePredicate(int channel, Type type, long low, long high, boolean negated)
+        {
+            checkArgument(channel >= 0, "channel is negative");
+            this.type = requireNonNull(type, "type is null");
+            checkArgument(type.getJavaType() == long.class, "type must be backed by a long: %s", type);
+            this.channel = channel;
+            this.low = low;
+            this.high = high;
+            this.negated = negated;
+        }
+
+        public int getChannel()
+        {
+            return channel;
+        }
+
+        /**
+         * Keeps the positions that match this predicate out of the first {@code positionCount}
+         * entries of {@code positions}, or out of the positions {@code [0, positionCount)} if
+         * {@code allPositions} is set, and returns the number of positions kept.
+         */
+        private int filter(Block block, int[] positions, int positionCount, boolean allPositions)
+        {
+            // positions are written at or before the position being read, so the array can be filtered in place
+            int selectedCount = 0;
+            boolean mayHaveNull = block.mayHaveNull();
+            for (int i = 0; i < positionCount; i++) {
+                int position = allPositions ? i : positions[i];
+                positions[selectedCount] = position;
+                if (mayHaveNull && block.isNull(position)) {
+                    continue;
+                }
+                long value = type.getLong(block, position);
+                // evaluate both bounds without short-circuiting, so the loop does not branch on the data
+                boolean matches = (value >= low & value <= high) != negated;
+                selectedCount += matches ? 1 : 0;
+            }
+            return selectedCount;
+        }
+
+        @Override
+        public String toString()
+        {
+            return toStringHelper(this)
+                    .add("channel", channel)
+                    .add("type", type)
+                    .add("low", low)
+                    .add("high", high)
+                    .add("negated", negated)
+                    .toString();
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("predicates", ImmutableList.copyOf(predicates))
+                .toString();
+    }
+}
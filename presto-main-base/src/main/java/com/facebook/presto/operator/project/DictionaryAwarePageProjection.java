@@ -24,6 +24,8 @@ import com.facebook.presto.operator.DriverYieldSignal;
 import com.facebook.presto.operator.Work;
 import jakarta.annotation.Nullable;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.List;
 import java.util.Optional;
 import java.util.function.Function;
@@ -36,12 +38,14 @@ import static java.util.Objects.requireNonNull;
 public class DictionaryAwarePageProjection
         implements PageProjection
 {
+    // number of distinct input dictionaries whose results are kept, so that pages alternating between a few dictionaries do not recompute them
+    private static final int MAX_CACHED_DICTIONARIES = 4;
+
     private final PageProjection projection;
     private final Function<DictionaryBlock, DictionaryId> sourceIdFunction;
 
-    private Block lastInputDictionary;
-    private Optional<List<Block>> lastOutputDictionary;
-    private long lastDictionaryUsageCount;
+    // most recently used first
+    private final Deque<DictionaryState> dictionaryStates = new ArrayDeque<>(MAX_CACHED_DICTIONARIES);
 
     public DictionaryAwarePageProjection(PageProjection projection, Function<DictionaryBlock, DictionaryId> sourceIdFunction)
     {
@@ -76,6 +80,8 @@ public class DictionaryAwarePageProjection
         private final DriverYieldSignal yieldSignal;
         private final Block block;
         private final SelectedPositions selectedPositions;
+        // null unless the block is a dictionary block
+        private final DictionaryState dictionaryState;
 
         private List<Block> results;
         // if the block is RLE or dictionary block, we may use dictionary processing
@@ -92,16 +98,19 @@ public class DictionaryAwarePageProjection
             this.block = block;
             this.selectedPositions = requireNonNull(selectedPositions, "selectedPositions is null");
 
-            Optional<Block> dictionary = Optional.empty();
+            // Try use dictionary processing first; if it fails, fall back to the generic case
             if (block instanceof RunLengthEncodedBlock) {
-                dictionary = Optional.of(((RunLengthEncodedBlock) block).getValue());
+                dictionaryState = null;
+                dictionaryProcessingProjectionWork = projection.project(properties, yieldSignal, new Page(((RunLengthEncodedBlock) block).getValue()), SelectedPositions.positionsRange(0, 1));
             }
             else if (block instanceof DictionaryBlock) {
-                dictionary = Optional.of(((DictionaryBlock) block).getDictionary());
+                dictionaryState = getDictionaryState(((DictionaryBlock) block).getDictionary());
+                dictionaryProcessingProjectionWork = createDictionaryBlockProjection(dictionaryState);
+            }
+            else {
+                dictionaryState = null;
+                dictionaryProcessingProjectionWork = null;
             }
-
-            // Try use dictionary processing first; if it fails, fall back to the generic case
-            dictionaryProcessingProjectionWork = createDictionaryBlockProjection(dictionary);
             fallbackProcessingProjectionWork = null;
         }
 
@@ -125,22 +134,26 @@ public class DictionaryAwarePageProjection
                         return false;
                     }
                     dictionaryOutput = Optional.of(dictionaryProcessingProjectionWork.getResult());
-                    lastOutputDictionary = dictionaryOutput;
+                    if (dictionaryState != null) {
+                        dictionaryState.outputDictionary = dictionaryOutput;
+                    }
                 }
                 catch (Exception ignored) {
                     // Processing of dictionary failed, but we ignore the exception here
                     // and force reprocessing of the whole block using the normal code.
                     // The second pass may not fail due to filtering.
                     // todo dictionary processing should be able to tolerate failures of unused elements
-                    lastOutputDictionary = Optional.empty();
+                    if (dictionaryState != null) {
+                        dictionaryState.outputDictionary = Optional.empty();
+                    }
                     dictionaryProcessingProjectionWork = null;
                 }
             }
 
-            if (block instanceof DictionaryBlock) {
+            if (dictionaryState != null) {
                 // Record the usage count regardless of dictionary processing choice, so we have stats for next time.
                 // This guarantees recording will happen once and only once regardless of whether dictionary processing was attempted and whether it succeeded.
-                lastDictionaryUsageCount += selectedPositions.size();
+                dictionaryState.usageCount += selectedPositions.size();
             }
 
             if (dictionaryOutput.isPresent()) {
@@ -184,36 +197,70 @@ public class DictionaryAwarePageProjection
             return results;
         }
 
-        private Work<List<Block>> createDictionaryBlockProjection(Optional<Block> dictionary)
+        private Work<List<Block>> createDictionaryBlockProjection(DictionaryState state)
         {
-            if (!dictionary.isPresent()) {
-                lastOutputDictionary = Optional.empty();
-                return null;
-            }
-
-            if (lastInputDictionary == dictionary.get()) {
-                // we must have fallen back last time if lastOutputDictionary is null
-                return lastOutputDictionary.<Work<List<Block>>>map(CompletedWork::new).orElse(null);
+            if (state.outputDictionary != null) {
+                // the dictionary has already been processed, or we fell back when processing it
+                return state.outputDictionary.<Work<List<Block>>>map(CompletedWork::new).orElse(null);
             }
 
             // Process dictionary if:
             //   there is only one entry in the dictionary
-            //   this is the first block
-            //   the last dictionary was used for more positions than were in the dictionary
-            boolean shouldProcessDictionary = dictionary.get().getPositionCount() == 1 || lastInputDictionary == null || lastDictionaryUsageCount >= lastInputDictionary.getPositionCount();
-
-            // record the usage count regardless of dictionary processing choice, so we have stats for next time
-            lastDictionaryUsageCount = 0;
-            lastInputDictionary = dictionary.get();
-            lastOutputDictionary = Optional.empty();
-
-            if (shouldProcessDictionary) {
-                return projection.project(properties, yieldSignal, new Page(lastInputDictionary), SelectedPositions.positionsRange(0, lastInputDictionary.getPositionCount()));
+            //   the dictionary has been used for more positions than it has entries, which happens when
+            //     its pages were processed without it before
+            //   it is the first dictionary, or the previous dictionary was used for more positions than it has entries
+            if (state.dictionary.getPositionCount() == 1 || state.usageCount >= state.dictionary.getPositionCount() || state.processOnFirstUse) {
+                return projection.project(properties, yieldSignal, new Page(state.dictionary), SelectedPositions.positionsRange(0, state.dictionary.getPositionCount()));
             }
             return null;
         }
     }
 
+    /**
+     * Returns the cached state for {@code dictionary}. Dictionaries are matched by identity: a
+     * {@link DictionaryId} only identifies the ids of a dictionary block, and blocks with the same
+     * source id can have different dictionaries (see {@link DictionaryBlock#appendNull()}).
+     */
+    private DictionaryState getDictionaryState(Block dictionary)
+    {
+        DictionaryState previous = dictionaryStates.peekFirst();
+        if (previous != null && previous.dictionary == dictionary) {
+            return previous;
+        }
+        for (DictionaryState state : dictionaryStates) {
+            if (state.dictionary == dictionary) {
+                dictionaryStates.remove(state);
+                dictionaryStates.addFirst(state);
+                return state;
+            }
+        }
+
+        boolean processOnFirstUse = previous == null || previous.usageCount >= previous.dictionary.getPositionCount();
+        DictionaryState state = new DictionaryState(dictionary, processOnFirstUse);
+        if (dictionaryStates.size() == MAX_CACHED_DICTIONARIES) {
+            dictionaryStates.removeLast();
+        }
+        dictionaryStates.addFirst(state);
+        return state;
+    }
+
+    private static class DictionaryState
+    {
+        private final Block dictionary;
+        private final boolean processOnFirstUse;
+
+        // null until the dictionary is processed; empty if processing failed
+        @Nullable
+        private Optional<List<Block>> outputDictionary;
+        private long usageCount;
+
+        private DictionaryState(Block dictionary, boolean processOnFirstUse)
+        {
+            this.dictionary = requireNonNull(dictionary, "dictionary is null");
+            this.processOnFirstUse = processOnFirstUse;
+        }
+    }
+
     private static int[] filterDictionaryIds(DictionaryBlock dictionaryBlock, SelectedPositions selectedPositions)
     {
         int[] outputIds = new int[selectedPositions.size()];
@@ -15,6 +15,7 @@ package com.facebook.presto.operator.project;
 
 import com.facebook.airlift.concurrent.NotThreadSafe;
 import com.facebook.presto.common.Page;
+import com.facebook.presto.common.RuntimeStats;
 import com.facebook.presto.common.array.ReferenceCountMap;
 import com.facebook.presto.common.block.Block;
 import com.facebook.presto.common.block.DictionaryBlock;
@@ -28,8 +29,10 @@ import com.facebook.presto.operator.WorkProcessor;
 import com.facebook.presto.operator.WorkProcessor.ProcessState;
 import com.facebook.presto.sql.gen.ExpressionProfiler;
 import com.google.common.annotations.VisibleForTesting;
+import com.sun.management.ThreadMXBean;
 import io.airlift.slice.SizeOf;
 
+import java.lang.management.ManagementFactory;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -40,6 +43,8 @@ import java.util.OptionalInt;
 import java.util.function.Function;
 import java.util.stream.IntStream;
 
+import static com.facebook.presto.common.RuntimeMetricName.PROJECTION_ALLOCATED_BYTES;
+import static com.facebook.presto.common.RuntimeUnit.BYTE;
 import static com.facebook.presto.common.block.DictionaryId.randomDictionaryId;
 import static com.facebook.presto.operator.WorkProcessor.ProcessState.finished;
 import static com.facebook.presto.operator.WorkProcessor.ProcessState.ofResult;
@@ -48,6 +53,7 @@ import static com.facebook.presto.operator.project.SelectedPositions.positionsRa
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Verify.verify;
 import static com.google.common.collect.ImmutableList.toImmutableList;
+import static java.lang.Math.max;
 import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
 import static java.util.function.Function.identity;
@@ -59,6 +65,8 @@ public class PageProcessor
     static final int MAX_PAGE_SIZE_IN_BYTES = 4 * 1024 * 1024;
     static final int MIN_PAGE_SIZE_IN_BYTES = 1024 * 1024;
 
+    private static final ThreadMXBean THREAD_MX_BEAN = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+
     private final ExpressionProfiler expressionProfiler;
     private final DictionarySourceIdFunction dictionarySourceIdFunction = new DictionarySourceIdFunction();
     private final Optional<PageFilter> filter;
@@ -66,6 +74,9 @@ public class PageProcessor
     private final int outputCount;
 
     private int projectBatchSize;
+    // bytes allocated by each projection since the last call to recordProjectionAllocations, or null if not tracked
+    private long[] projectionAllocatedBytes;
+    private String[] projectionAllocationMetricNames;
 
     @VisibleForTesting
     public PageProcessor(Optional<PageFilter> filter, List<PageProjectionWithOutputs> projections, OptionalInt initialBatchSize)
@@ -109,6 +120,37 @@ public class PageProcessor
         this(filter, projections, OptionalInt.of(1));
     }
 
+    /**
+     * Tracks the bytes allocated by the current thread while evaluating each projection.
+     * This costs two {@link ThreadMXBean#getThreadAllocatedBytes(long)} calls per projected batch,
+     * so it should only be enabled when allocation tracking was requested for the task.
+     */
+    public void enableProjectionAllocationTracking()
+    {
+        if (projectionAllocatedBytes == null) {
+            projectionAllocatedBytes = new long[projections.size()];
+            projectionAllocationMetricNames = new String[projections.size()];
+            for (int i = 0; i < projections.size(); i++) {
+                projectionAllocationMetricNames[i] = PROJECTION_ALLOCATED_BYTES + "." + projections.get(i).getOutputChannels()[0];
+            }
+        }
+    }
+
+    /**
+     * Adds the bytes allocated by each projection since the previous call to {@code runtimeStats}.
+     * Metrics are keyed by the first output channel of the projection.
+     */
+    public void recordProjectionAllocations(RuntimeStats runtimeStats)
+    {
+        if (projectionAllocatedBytes == null) {
+            return;
+        }
+        for (int i = 0; i < projectionAllocatedBytes.length; i++) {
+            runtimeStats.addMetricValueIgnoreZero(projectionAllocationMetricNames[i], BYTE, projectionAllocatedBytes[i]);
+            projectionAllocatedBytes[i] = 0;
+        }
+    }
+
     public Iterator<Optional<Page>> process(SqlFunctionProperties properties, DriverYieldSignal yieldSignal, LocalMemoryContext memoryContext, Page page)
     {
         WorkProcessor<Page> processor = createWorkProcessor(properties, yieldSignal, memoryContext, page);
@@ -302,7 +344,8 @@ public class PageProcessor
 
             int pageSize = 0;
             SelectedPositions positionsBatch = selectedPositions.subRange(0, batchSize);
-            for (PageProjectionWithOutputs projection : projections) {
+            for (int projectionIndex = 0; projectionIndex < projections.size(); projectionIndex++) {
+                PageProjectionWithOutputs projection = projections.get(projectionIndex);
                 if (yieldSignal.isSet()) {
                     return ProcessBatchResult.processBatchYield();
                 }
@@ -321,12 +364,17 @@ public class PageProcessor
                     }
                 }
                 else {
+                    long allocationStart = projectionAllocatedBytes == null ? 0 : currentThreadAllocation();
                     if (pageProjectWork == null) {
                         expressionProfiler.start();
                         pageProjectWork = projection.project(properties, yieldSignal, projection.getPageProjection().getInputChannels().getInputChannels(page), positionsBatch);
                         expressionProfiler.stop(positionsBatch.size());
                     }
-                    if (!pageProjectWork.process()) {
+                    boolean projected = pageProjectWork.process();
+                    if (projectionAllocatedBytes != null) {
+                        projectionAllocatedBytes[projectionIndex] += max(0, currentThreadAllocation() - allocationStart);
+                    }
+                    if (!projected) {
                         return ProcessBatchResult.processBatchYield();
                     }
                     List<Block> projectionOutputs = pageProjectWork.getResult();
@@ -349,6 +397,11 @@ public class PageProcessor
         return projections;
     }
 
+    private static long currentThreadAllocation()
+    {
+        return THREAD_MX_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
     private static boolean isNotLoadedLazyBlock(Block block)
     {
         return (block instanceof LazyBlock) && !((LazyBlock) block).isLoaded();
@@ -31,6 +31,10 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import static com.facebook.presto.spi.StandardErrorCode.INVALID_FUNCTION_ARGUMENT;
 import static com.facebook.presto.util.JsonUtil.createJsonGenerator;
@@ -387,6 +391,195 @@ public final class JsonExtract
         }
     }
 
+    /**
+     * Extracts the scalar values of several JSON paths with a single pass over the input. The
+     * result of each path is the same as the one of {@link ScalarValueJsonExtractor}: the paths
+     * are merged into a tree that is walked while tokenizing the input once, and the walk stops
+     * as soon as every path has been resolved.
+     */
+    public static class MultiScalarJsonExtractor
+    {
+        private final PathNode root = new PathNode(0);
+        private final int pathCount;
+        private int nodeCount = 1;
+        private int treePathCount;
+        // paths that are not supported by the Presto tokenizer, or that cannot share the tree, are evaluated one at a time
+        private final Map<Integer, JsonExtractor<Slice>> fallbackExtractors = new HashMap<>();
+
+        public MultiScalarJsonExtractor(List<String> paths)
+        {
+            for (int output = 0; output < paths.size(); output++) {
+                String path = requireNonNull(paths.get(output), "path is null");
+                List<String> tokens;
+                try {
+                    tokens = ImmutableList.copyOf(new JsonPathTokenizer(path));
+                }
+                catch (PrestoException e) {
+                    if (e.getErrorCode() != INVALID_FUNCTION_ARGUMENT.toErrorCode()) {
+                        throw e;
+                    }
+                    fallbackExtractors.put(output, JsonPath.build(path).getScalarExtractor());
+                    continue;
+                }
+
+                if (addPath(tokens, output)) {
+                    treePathCount++;
+                }
+                else {
+                    fallbackExtractors.put(output, generateExtractor(path, new ScalarValueJsonExtractor()));
+                }
+            }
+            this.pathCount = paths.size();
+        }
+
+        private boolean addPath(List<String> tokens, int output)
+        {
+            PathNode node = root;
+            for (String token : tokens) {
+                PathNode child = node.fieldChildren.get(token);
+                if (child == null) {
+                    int index = tryParseInt(token, -1);
+                    if (index >= 0 && node.indexChildren.containsKey(index)) {
+                        // a different spelling of an existing array index, e.g. "01" and "1"
+                        return false;
+                    }
+                    child = new PathNode(nodeCount++);
+                    node.fieldChildren.put(token, child);
+                    if (index >= 0) {
+                        node.indexChildren.put(index, child);
+                    }
+                }
+                node = child;
+            }
+            node.outputs.add(output);
+            return true;
+        }
+
+        /**
+         * Returns the scalar value of each path, in the order the paths were given, with null for
+         * the paths that do not resolve to a non-null scalar value.
+         */
+        public Slice[] extract(Slice jsonInput, SqlFunctionProperties properties)
+        {
+            requireNonNull(jsonInput, "jsonInput is null");
+            Slice[] results = new Slice[pathCount];
+            if (treePathCount > 0) {
+                try (JsonParser jsonParser = createJsonParser(JSON_FACTORY, jsonInput.getInput())) {
+                    if (jsonParser.nextToken() != null) {
+                        walk(jsonParser, root, results, new boolean[nodeCount], treePathCount);
+                    }
+                }
+                catch (JsonParseException e) {
+                    // paths resolved before the malformed part of the input keep their values,
+                    // as they would when extracted on their own
+                }
+                catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            for (Map.Entry<Integer, JsonExtractor<Slice>> entry : fallbackExtractors.entrySet()) {
+                results[entry.getKey()] = JsonExtract.extract(jsonInput, entry.getValue(), properties);
+            }
+            return results;
+        }
+
+        /**
+         * Resolves the paths of the given node and its descendants. The parser must be on the first
+         * token of the value of the node, and is on the last token of that value when the method
+         * returns, unless every path has been resolved.
+         *
+         * @return the number of paths that remain unresolved
+         */
+        private static int walk(JsonParser jsonParser, PathNode node, Slice[] results, boolean[] visited, int remaining)
+                throws IOException
+        {
+            JsonToken token = jsonParser.getCurrentToken();
+            if (token == null) {
+                throw new JsonParseException(jsonParser, "Unexpected end of value");
+            }
+            if (!node.outputs.isEmpty()) {
+                Slice value = token.isScalarValue() && token != VALUE_NULL ? utf8Slice(jsonParser.getText()) : null;
+                for (int output : node.outputs) {
+                    results[output] = value;
+                }
+                remaining -= node.outputs.size();
+                if (remaining == 0) {
+                    return 0;
+                }
+            }
+
+            if (node.fieldChildren.isEmpty()) {
+                jsonParser.skipChildren();
+                return remaining;
+            }
+
+            if (token == START_OBJECT) {
+                while (true) {
+                    token = jsonParser.nextToken();
+                    if (token == null) {
+                        throw new JsonParseException(jsonParser, "Unexpected end of object");
+                    }
+                    if (token == END_OBJECT) {
+                        return remaining;
+                    }
+                    PathNode child = node.fieldChildren.get(jsonParser.getCurrentName());
+                    jsonParser.nextToken();
+                    // only the first occurrence of a field is considered
+                    if (child != null && !visited[child.id]) {
+                        visited[child.id] = true;
+                        remaining = walk(jsonParser, child, results, visited, remaining);
+                        if (remaining == 0) {
+                            return 0;
+                        }
+                    }
+                    else {
+                        jsonParser.skipChildren();
+                    }
+                }
+            }
+
+            if (token == START_ARRAY) {
+                int index = 0;
+                while (true) {
+                    token = jsonParser.nextToken();
+                    if (token == null) {
+                        throw new JsonParseException(jsonParser, "Unexpected end of array");
+                    }
+                    if (token == END_ARRAY) {
+                        return remaining;
+                    }
+                    PathNode child = node.indexChildren.get(index);
+                    index++;
+                    if (child != null) {
+                        remaining = walk(jsonParser, child, results, visited, remaining);
+                        if (remaining == 0) {
+                            return 0;
+                        }
+                    }
+                    else {
+                        jsonParser.skipChildren();
+                    }
+                }
+            }
+
+            // the paths below this node cannot be resolved on a scalar value
+            return remaining;
+        }
+
+        private static class PathNode
+        {
+            private final int id;
+            private final List<Integer> outputs = new ArrayList<>();
+            private final Map<String, PathNode> fieldChildren = new HashMap<>();
+            private final Map<Integer, PathNode> indexChildren = new HashMap<>();
+
+            private PathNode(int id)
+            {
+                this.id = id;
+            }
+        }
+    }
+
     private static int tryParseInt(String fieldName, int defaultValue)
     {
         int index = defaultValue;
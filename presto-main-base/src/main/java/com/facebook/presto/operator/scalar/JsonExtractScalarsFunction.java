@@ -0,0 +1,88 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator.scalar;
+
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.block.BlockBuilder;
+import com.facebook.presto.common.function.SqlFunctionProperties;
+import com.facebook.presto.common.type.StandardTypes;
+import com.facebook.presto.operator.scalar.JsonExtract.MultiScalarJsonExtractor;
+import com.facebook.presto.spi.function.Description;
+import com.facebook.presto.spi.function.LiteralParameters;
+import com.facebook.presto.spi.function.ScalarFunction;
+import com.facebook.presto.spi.function.SqlType;
+import com.google.common.collect.ImmutableList;
+import io.airlift.slice.Slice;
+
+import static com.facebook.presto.common.type.VarcharType.VARCHAR;
+import static com.facebook.presto.spi.function.SqlFunctionVisibility.HIDDEN;
+
+/**
+ * Evaluates {@code json_extract_scalar} for several paths on the same JSON value while parsing
+ * the value only once. Calls are introduced by {@link com.facebook.presto.sql.planner.iterative.rule.CombineJsonExtractScalarFunctions}
+ * with a constant array of paths, so the parsed paths are cached across invocations.
+ */
+@ScalarFunction(value = JsonExtractScalarsFunction.NAME, visibility = HIDDEN)
+@Description("Extracts the scalar values of several JSON paths")
+public class JsonExtractScalarsFunction
+{
+    public static final String NAME = "$internal$json_extract_scalars";
+
+    private Block cachedPaths;
+    private MultiScalarJsonExtractor cachedExtractor;
+
+    public JsonExtractScalarsFunction() {}
+
+    @LiteralParameters("x")
+    @SqlType("array(varchar(x))")
+    public Block varcharJsonExtractScalars(SqlFunctionProperties properties, @SqlType("varchar(x)") Slice json, @SqlType("array(varchar)") Block paths)
+    {
+        return extractScalars(properties, json, paths);
+    }
+
+    @SqlType("array(varchar)")
+    public Block jsonExtractScalars(SqlFunctionProperties properties, @SqlType(StandardTypes.JSON) Slice json, @SqlType("array(varchar)") Block paths)
+    {
+        return extractScalars(properties, json, paths);
+    }
+
+    private Block extractScalars(SqlFunctionProperties properties, Slice json, Block paths)
+    {
+        Slice[] values = getExtractor(paths).extract(json, properties);
+        BlockBuilder blockBuilder = VARCHAR.createBlockBuilder(null, values.length);
+        for (Slice value : values) {
+            if (value == null) {
+                blockBuilder.appendNull();
+            }
+            else {
+                VARCHAR.writeSlice(blockBuilder, value);
+            }
+        }
+        return blockBuilder.build();
+    }
+
+    private MultiScalarJsonExtractor getExtractor(Block paths)
+    {
+        // the paths are a constant, so the same block is passed on every invocation
+        if (paths != cachedPaths) {
+            ImmutableList.Builder<String> pathStrings = ImmutableList.builder();
+            for (int position = 0; position < paths.getPositionCount(); position++) {
+                pathStrings.add(VARCHAR.getSlice(paths, position).toStringUtf8());
+            }
+            cachedExtractor = new MultiScalarJsonExtractor(pathStrings.build());
+            cachedPaths = paths;
+        }
+        return cachedExtractor;
+    }
+}
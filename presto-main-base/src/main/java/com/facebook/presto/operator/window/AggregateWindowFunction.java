@@ -28,19 +28,26 @@ import java.util.List;
 import java.util.Optional;
 
 import static com.facebook.presto.operator.aggregation.GenericAccumulatorFactory.generateAccumulatorFactory;
+import static com.facebook.presto.operator.window.AggregationSegmentTree.isBoundedState;
 import static com.google.common.base.Preconditions.checkState;
 import static java.util.Objects.requireNonNull;
 
 public class AggregateWindowFunction
         implements WindowFunction
 {
+    // frames shorter than this are cheaper to re-accumulate than to answer from the segment tree
+    private static final int SEGMENT_TREE_MIN_FRAME_SIZE = 256;
+    private static final int SEGMENT_TREE_LEAF_SIZE = 32;
+
     private final List<Integer> argumentChannels;
     private final AccumulatorFactory accumulatorFactory;
+    private final boolean segmentTreeSupported;
 
     private WindowIndex windowIndex;
     private Accumulator accumulator;
     private int currentStart;
     private int currentEnd;
+    private AggregationSegmentTree segmentTree;
 
     private AggregateWindowFunction(AggregationFunctionImplementation function, List<Integer> argumentChannels)
     {
@@ -48,12 +55,16 @@ public class AggregateWindowFunction
         BuiltInAggregationFunctionImplementation builtinFunction = (BuiltInAggregationFunctionImplementation) function;
         this.argumentChannels = ImmutableList.copyOf(argumentChannels);
         this.accumulatorFactory = generateAccumulatorFactory(builtinFunction, createArgs(builtinFunction), Optional.empty());
+        // window functions have no memory context to charge the segment tree to, so it is only used
+        // when its size is bounded by the partition size, which is the case for bounded states
+        this.segmentTreeSupported = builtinFunction.isDecomposable() && isBoundedState(builtinFunction.getIntermediateType());
     }
 
     @Override
     public void reset(WindowIndex windowIndex)
     {
         this.windowIndex = windowIndex;
+        this.segmentTree = null;
         resetAccumulator();
     }
 
@@ -69,6 +80,15 @@ public class AggregateWindowFunction
             accumulate(currentEnd + 1, frameEnd);
             currentEnd = frameEnd;
         }
+        else if (segmentTreeSupported && (frameEnd - frameStart + 1) >= SEGMENT_TREE_MIN_FRAME_SIZE) {
+            // sliding frame: combine precomputed partial states instead of re-accumulating the whole frame
+            if (segmentTree == null) {
+                segmentTree = new AggregationSegmentTree(accumulatorFactory, argumentChannels, windowIndex, SEGMENT_TREE_LEAF_SIZE);
+            }
+            accumulator = segmentTree.aggregate(frameStart, frameEnd);
+            currentStart = frameStart;
+            currentEnd = frameEnd;
+        }
         else {
             // different frame
             resetAccumulator();
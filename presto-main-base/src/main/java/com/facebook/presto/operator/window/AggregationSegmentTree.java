@@ -0,0 +1,173 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator.window;
+
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.block.BlockBuilder;
+import com.facebook.presto.common.type.FixedWidthType;
+import com.facebook.presto.common.type.RowType;
+import com.facebook.presto.common.type.Type;
+import com.facebook.presto.operator.UpdateMemory;
+import com.facebook.presto.operator.aggregation.AccumulatorFactory;
+import com.facebook.presto.spi.function.WindowIndex;
+import com.facebook.presto.spi.function.aggregation.Accumulator;
+import com.google.common.collect.ImmutableList;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.Math.min;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Segment tree of aggregation intermediate states over a window partition.
+ * <p>
+ * Rows are grouped into leaves of {@code leafSize} consecutive positions; each
+ * tree level stores one intermediate state per node in a single block. An
+ * arbitrary frame is then evaluated by feeding the raw rows of the partially
+ * covered leaves plus O(log n) intermediate states into a fresh accumulator,
+ * so sliding frames cost O(leafSize + log n) per row instead of O(frame size).
+ * States are always combined left to right, which keeps order sensitive
+ * aggregations such as {@code array_agg} correct.
+ * <p>
+ * The tree is not accounted in the memory context of the window operator, so it
+ * must only be used for bounded intermediate states, where it retains less than
+ * {@code 2 / leafSize} states per row of the partition. Bounded states are fixed
+ * width states, such as the state of {@code sum}, and rows of bounded states,
+ * such as the states of {@code avg} and {@code variance}.
+ */
+final class AggregationSegmentTree
+{
+    private final AccumulatorFactory accumulatorFactory;
+    private final List<Integer> argumentChannels;
+    private final WindowIndex windowIndex;
+    private final int leafSize;
+    private final List<Block> levels;
+
+    AggregationSegmentTree(AccumulatorFactory accumulatorFactory, List<Integer> argumentChannels, WindowIndex windowIndex, int leafSize)
+    {
+        checkArgument(leafSize > 0, "leafSize must be positive");
+        this.accumulatorFactory = requireNonNull(accumulatorFactory, "accumulatorFactory is null");
+        this.argumentChannels = ImmutableList.copyOf(requireNonNull(argumentChannels, "argumentChannels is null"));
+        this.windowIndex = requireNonNull(windowIndex, "windowIndex is null");
+        this.leafSize = leafSize;
+        this.levels = buildLevels();
+    }
+
+    /**
+     * Creates an accumulator holding the aggregation of rows {@code start} through
+     * {@code end} (inclusive) of the partition.
+     */
+    public Accumulator aggregate(int start, int end)
+    {
+        checkArgument(start >= 0 && start <= end && end < windowIndex.size(), "invalid frame [%s, %s]", start, end);
+        Accumulator accumulator = newAccumulator();
+
+        int firstLeaf = (start + leafSize - 1) / leafSize;
+        int lastLeaf = ((end + 1) / leafSize) - 1;
+        if (firstLeaf > lastLeaf) {
+            accumulator.addInput(windowIndex, argumentChannels, start, end);
+            return accumulator;
+        }
+
+        int leadingEnd = firstLeaf * leafSize - 1;
+        if (start <= leadingEnd) {
+            accumulator.addInput(windowIndex, argumentChannels, start, leadingEnd);
+        }
+
+        // standard bottom-up walk; right hand nodes are collected and added in reverse to keep input order
+        List<Block> trailingStates = new ArrayList<>();
+        int left = firstLeaf;
+        int right = lastLeaf;
+        for (int level = 0; left <= right; level++) {
+            Block states = levels.get(level);
+            if ((left & 1) == 1) {
+                accumulator.addIntermediate(states.getRegion(left, 1));
+                left++;
+            }
+            if ((right & 1) == 0 && left <= right) {
+                trailingStates.add(states.getRegion(right, 1));
+                right--;
+            }
+            left >>= 1;
+            right >>= 1;
+        }
+        for (int i = trailingStates.size() - 1; i >= 0; i--) {
+            accumulator.addIntermediate(trailingStates.get(i));
+        }
+
+        int trailingStart = (lastLeaf + 1) * leafSize;
+        if (trailingStart <= end) {
+            accumulator.addInput(windowIndex, argumentChannels, trailingStart, end);
+        }
+        return accumulator;
+    }
+
+    /**
+     * Returns whether the states of the given intermediate type have a bounded size.
+     */
+    static boolean isBoundedState(Type intermediateType)
+    {
+        if (intermediateType instanceof FixedWidthType) {
+            return true;
+        }
+        if (intermediateType instanceof RowType) {
+            return intermediateType.getTypeParameters().stream().allMatch(AggregationSegmentTree::isBoundedState);
+        }
+        return false;
+    }
+
+    private List<Block> buildLevels()
+    {
+        Type intermediateType = newAccumulator().getIntermediateType();
+        checkArgument(isBoundedState(intermediateType), "intermediate type must be bounded: %s", intermediateType);
+        ImmutableList.Builder<Block> levels = ImmutableList.builder();
+
+        int leafCount = windowIndex.size() / leafSize;
+        if (leafCount == 0) {
+            return levels.build();
+        }
+
+        BlockBuilder leaves = intermediateType.createBlockBuilder(null, leafCount);
+        for (int leaf = 0; leaf < leafCount; leaf++) {
+            Accumulator accumulator = newAccumulator();
+            int leafStart = leaf * leafSize;
+            accumulator.addInput(windowIndex, argumentChannels, leafStart, leafStart + leafSize - 1);
+            accumulator.evaluateIntermediate(leaves);
+        }
+        Block level = leaves.build();
+        levels.add(level);
+
+        while (level.getPositionCount() > 1) {
+            int parentCount = (level.getPositionCount() + 1) / 2;
+            BlockBuilder parents = intermediateType.createBlockBuilder(null, parentCount);
+            for (int parent = 0; parent < parentCount; parent++) {
+                int firstChild = parent * 2;
+                Accumulator accumulator = newAccumulator();
+                accumulator.addIntermediate(level.getRegion(firstChild, min(2, level.getPositionCount() - firstChild)));
+                accumulator.evaluateIntermediate(parents);
+            }
+            level = parents.build();
+            levels.add(level);
+        }
+        return levels.build();
+    }
+
+    private Accumulator newAccumulator()
+    {
+        // window functions do not support distinct and ordering accumulators, so no memory callback is needed
+        return accumulatorFactory.createAccumulator(UpdateMemory.NOOP);
+    }
+}
@@ -23,7 +23,6 @@ import com.facebook.presto.spi.plan.WindowNode.Frame.BoundType;
 import com.facebook.presto.sql.tree.SortItem.Ordering;
 import com.google.common.collect.ImmutableList;
 
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
@@ -48,6 +47,8 @@ import static java.util.Objects.requireNonNull;
 
 public final class WindowPartition
 {
+    private static final Range EMPTY_RANGE = new Range(-1, -1);
+
     private final PagesIndex pagesIndex;
     private final int partitionStart;
     private final int partitionEnd;
@@ -62,9 +63,12 @@ public final class WindowPartition
     // This approach is efficient in case when frame offset values are constant. It was chosen
     // based on the assumption that in most use cases frame offset is constant rather than
     // row-dependent.
-    private final Map<Integer, Range> recentRanges;
+    // All per-function state is kept in arrays indexed by function position, so the per-row
+    // frame computation does no map lookups or allocations of lookup keys.
+    private final Range[] recentRanges;
     private final PagesHashStrategy peerGroupHashStrategy;
-    private final Map<FrameBoundKey, PagesIndexComparator> frameBoundComparators;
+    private final PagesIndexComparator[] frameStartComparators;
+    private final PagesIndexComparator[] frameEndComparators;
 
     // Recently computed frames for functions with frame type GROUPS.
     // Along frame start and frame end, they also capture indexes of peer groups
@@ -72,7 +76,7 @@ public final class WindowPartition
     // This information is used as the starting point when processing the next row.
     // This approach is efficient in case when group offset values are constant,
     // which is assumed to be the most common use case.
-    private final Map<Integer, GroupsFrame> recentGroupsFrames;
+    private final GroupsFrame[] recentGroupsFrames;
 
     private int peerGroupStart;
     private int peerGroupEnd;
@@ -99,7 +103,12 @@ public final class WindowPartition
         this.outputChannels = outputChannels;
         this.windowFunctions = ImmutableList.copyOf(windowFunctions);
         this.peerGroupHashStrategy = peerGroupHashStrategy;
-        this.frameBoundComparators = frameBoundComparators;
+        this.frameStartComparators = new PagesIndexComparator[windowFunctions.size()];
+        this.frameEndComparators = new PagesIndexComparator[windowFunctions.size()];
+        for (int i = 0; i < windowFunctions.size(); i++) {
+            frameStartComparators[i] = frameBoundComparators.get(new FrameBoundKey(i, START));
+            frameEndComparators[i] = frameBoundComparators.get(new FrameBoundKey(i, END));
+        }
 
         // reset functions for new partition
         WindowIndex windowIndex = new PagesWindowIndex(pagesIndex, partitionStart, partitionEnd);
@@ -131,19 +140,19 @@ public final class WindowPartition
         };
     }
 
-    private static Map<Integer, Range> initializeRangeCache(int partitionStart, int partitionEnd, int peerGroupEnd, List<FramedWindowFunction> windowFunctions)
+    private static Range[] initializeRangeCache(int partitionStart, int partitionEnd, int peerGroupEnd, List<FramedWindowFunction> windowFunctions)
     {
-        Map<Integer, Range> ranges = new HashMap<>();
+        Range[] ranges = new Range[windowFunctions.size()];
         Range initialPeerRange = new Range(0, peerGroupEnd - partitionStart - 1);
         Range initialUnboundedRange = new Range(0, partitionEnd - partitionStart - 1);
         for (int i = 0; i < windowFunctions.size(); i++) {
             FrameInfo frame = windowFunctions.get(i).getFrame();
             if (frame.getType() == RANGE) {
                 if (frame.getEndType() == UNBOUNDED_FOLLOWING) {
-                    ranges.put(i, initialUnboundedRange);
+                    ranges[i] = initialUnboundedRange;
                 }
                 else {
-                    ranges.put(i, initialPeerRange);
+                    ranges[i] = initialPeerRange;
                 }
             }
         }
@@ -151,14 +160,14 @@ public final class WindowPartition
         return ranges;
     }
 
-    private static Map<Integer, GroupsFrame> initializeGroupsFrameCache(int partitionStart, int peerGroupEnd, List<FramedWindowFunction> windowFunctions)
+    private static GroupsFrame[] initializeGroupsFrameCache(int partitionStart, int peerGroupEnd, List<FramedWindowFunction> windowFunctions)
     {
-        Map<Integer, GroupsFrame> frames = new HashMap<>();
+        GroupsFrame[] frames = new GroupsFrame[windowFunctions.size()];
         GroupsFrame initialPeerFrame = new GroupsFrame(0, 0, peerGroupEnd - partitionStart - 1, 0);
         for (int i = 0; i < windowFunctions.size(); i++) {
             FrameInfo frame = windowFunctions.get(i).getFrame();
             if (frame.getType() == GROUPS) {
-                frames.put(i, initialPeerFrame);
+                frames[i] = initialPeerFrame;
             }
         }
 
@@ -251,26 +260,26 @@ public final class WindowPartition
             case RANGE:
                 Range range = getFrameRange(
                         frameInfo,
-                        recentRanges.get(functionIndex),
-                        frameBoundComparators.get(new FrameBoundKey(functionIndex, START)),
-                        frameBoundComparators.get(new FrameBoundKey(functionIndex, END)));
+                        recentRanges[functionIndex],
+                        frameStartComparators[functionIndex],
+                        frameEndComparators[functionIndex]);
                 // handle empty frame. If the frame is out of partition bounds, record the nearest valid frame as the 'recentRange' for the next row.
                 if (emptyFrame(range)) {
-                    recentRanges.put(functionIndex, nearestValidFrame(range));
-                    return new Range(-1, -1);
+                    recentRanges[functionIndex] = nearestValidFrame(range);
+                    return EMPTY_RANGE;
                 }
-                recentRanges.put(functionIndex, range);
+                recentRanges[functionIndex] = range;
                 return range;
             case ROWS:
                 return getFrameRange(frameInfo);
             case GROUPS:
-                GroupsFrame frame = getFrameRange(frameInfo, recentGroupsFrames.get(functionIndex));
+                GroupsFrame frame = getFrameRange(frameInfo, recentGroupsFrames[functionIndex]);
                 // handle empty frame. If the frame is out of partition bounds, record the nearest valid frame as the 'recentFrame' for the next row.
                 if (emptyFrame(frame.getRange())) {
-                    recentGroupsFrames.put(functionIndex, nearestValidFrame(frame));
-                    return new Range(-1, -1);
+                    recentGroupsFrames[functionIndex] = nearestValidFrame(frame);
+                    return EMPTY_RANGE;
                 }
-                recentGroupsFrames.put(functionIndex, frame);
+                recentGroupsFrames[functionIndex] = frame;
                 return frame.getRange();
             default:
                 throw new IllegalArgumentException("Unsupported frame type: " + frameInfo.getType());
@@ -284,7 +293,7 @@ public final class WindowPartition
 
         // handle empty frame
         if (emptyFrame(frameInfo, rowPosition, endPosition)) {
-            return new Range(-1, -1);
+            return EMPTY_RANGE;
         }
 
         int frameStart;
@@ -332,8 +341,8 @@ public final class WindowPartition
         if ((frameInfo.getStartType() == CURRENT_ROW && frameInfo.getEndType() == CURRENT_ROW) ||
                 (frameInfo.getStartType() == CURRENT_ROW && frameInfo.getEndType() == UNBOUNDED_FOLLOWING) ||
                 (frameInfo.getStartType() == UNBOUNDED_PRECEDING && frameInfo.getEndType() == CURRENT_ROW)) {
-            // same peer group as recent row
-            if (currentPosition == partitionStart || pagesIndex.positionEqualsPosition(peerGroupHashStrategy, currentPosition - 1, currentPosition)) {
+            // same peer group as recent row; peer group bounds are already known, so no key comparison is needed
+            if (currentPosition != peerGroupStart || currentPosition == partitionStart) {
                 return recentRange;
             }
             // next peer group
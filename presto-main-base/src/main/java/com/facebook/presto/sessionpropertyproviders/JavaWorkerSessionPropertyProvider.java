@@ -15,6 +15,7 @@ package com.facebook.presto.sessionpropertyproviders;
 
 import com.facebook.airlift.units.DataSize;
 import com.facebook.presto.Session;
+import com.facebook.presto.spi.PrestoException;
 import com.facebook.presto.spi.session.PropertyMetadata;
 import com.facebook.presto.spi.session.WorkerSessionPropertyProvider;
 import com.facebook.presto.spiller.NodeSpillConfig;
@@ -26,9 +27,12 @@ import com.google.inject.Inject;
 import java.util.List;
 
 import static com.facebook.presto.SystemSessionProperties.isSpillEnabled;
+import static com.facebook.presto.common.type.IntegerType.INTEGER;
 import static com.facebook.presto.common.type.VarcharType.VARCHAR;
+import static com.facebook.presto.spi.StandardErrorCode.INVALID_SESSION_PROPERTY;
 import static com.facebook.presto.spi.session.PropertyMetadata.booleanProperty;
 import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
 
 public class JavaWorkerSessionPropertyProvider
@@ -43,6 +47,7 @@ public class JavaWorkerSessionPropertyProvider
     public static final String ORDER_BY_AGGREGATION_SPILL_ENABLED = "order_by_aggregation_spill_enabled";
     public static final String WINDOW_SPILL_ENABLED = "window_spill_enabled";
     public static final String ORDER_BY_SPILL_ENABLED = "order_by_spill_enabled";
+    public static final String ORDER_BY_SPILL_MERGE_FAN_IN = "order_by_spill_merge_fan_in";
     public static final String AGGREGATION_OPERATOR_UNSPILL_MEMORY_LIMIT = "aggregation_operator_unspill_memory_limit";
     public static final String TOPN_OPERATOR_UNSPILL_MEMORY_LIMIT = "topn_operator_unspill_memory_limit";
     public static final String TEMP_STORAGE_SPILLER_BUFFER_SIZE = "temp_storage_spiller_buffer_size";
@@ -102,6 +107,21 @@ public class JavaWorkerSessionPropertyProvider
                         "Enable order by spilling if spill_enabled",
                         javaFeaturesConfig.isOrderBySpillEnabled(),
                         nativeExecution),
+                new PropertyMetadata<>(
+                        ORDER_BY_SPILL_MERGE_FAN_IN,
+                        "Maximum number of sorted runs merged at once when order by spills",
+                        INTEGER,
+                        Integer.class,
+                        javaFeaturesConfig.getOrderBySpillMergeFanIn(),
+                        nativeExecution,
+                        value -> {
+                            int intValue = ((Number) requireNonNull(value, "value is null")).intValue();
+                            if (intValue < 2) {
+                                throw new PrestoException(INVALID_SESSION_PROPERTY, format("%s must be greater than or equal to 2: %s", ORDER_BY_SPILL_MERGE_FAN_IN, intValue));
+                            }
+                            return intValue;
+                        },
+                        value -> value),
                 new PropertyMetadata<>(
                         AGGREGATION_OPERATOR_UNSPILL_MEMORY_LIMIT,
                         "Experimental: How much memory can should be allocated per aggregation operator in unspilling process",
@@ -182,6 +202,11 @@ public class JavaWorkerSessionPropertyProvider
         return session.getSystemProperty(ORDER_BY_SPILL_ENABLED, Boolean.class) && isSpillEnabled(session);
     }
 
+    public static int getOrderBySpillMergeFanIn(Session session)
+    {
+        return session.getSystemProperty(ORDER_BY_SPILL_MERGE_FAN_IN, Integer.class);
+    }
+
     public static DataSize getAggregationOperatorUnspillMemoryLimit(Session session)
     {
         DataSize memoryLimitForMerge = session.getSystemProperty(AGGREGATION_OPERATOR_UNSPILL_MEMORY_LIMIT, DataSize.class);
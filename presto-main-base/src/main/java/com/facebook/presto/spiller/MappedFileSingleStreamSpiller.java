@@ -0,0 +1,377 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.spiller;
+
+import com.facebook.airlift.concurrent.NotThreadSafe;
+import com.facebook.presto.common.Page;
+import com.facebook.presto.memory.context.LocalMemoryContext;
+import com.facebook.presto.operator.SpillContext;
+import com.facebook.presto.spi.PrestoException;
+import com.facebook.presto.spi.page.PagesSerde;
+import com.facebook.presto.spi.page.SerializedPage;
+import com.facebook.presto.spi.spiller.SpillCipher;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.Closer;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.errorprone.annotations.concurrent.GuardedBy;
+import io.airlift.slice.SliceOutput;
+import io.airlift.slice.Slices;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+
+import static com.facebook.airlift.concurrent.MoreFutures.getFutureValue;
+import static com.facebook.presto.common.block.PageBuilderStatus.DEFAULT_MAX_PAGE_SIZE_IN_BYTES;
+import static com.facebook.presto.execution.buffer.PageSplitterUtil.splitPage;
+import static com.facebook.presto.spi.StandardErrorCode.GENERIC_SPILL_FAILURE;
+import static com.facebook.presto.spi.page.PagesSerdeUtil.PAGE_METADATA_SIZE;
+import static com.facebook.presto.spi.page.PagesSerdeUtil.readSerializedPages;
+import static com.facebook.presto.spi.page.PagesSerdeUtil.writeSerializedPageMetadata;
+import static com.facebook.presto.spiller.FileSingleStreamSpillerFactory.SPILL_FILE_PREFIX;
+import static com.facebook.presto.spiller.FileSingleStreamSpillerFactory.SPILL_FILE_SUFFIX;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static java.lang.String.format;
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Spills pages into a sequence of segment files without intermediate stream buffers.
+ * <p>
+ * Serialized pages are written with gathering {@link FileChannel} writes, so page data goes
+ * from the serialized slice to the file without being copied into an output buffer. A new
+ * segment is started once the current one would exceed the segment size, which keeps every
+ * segment small enough to be memory mapped. On read, each segment is mapped and pages are
+ * deserialized straight from the mapping, while the next segment is mapped and loaded on the
+ * spiller executor.
+ */
+@NotThreadSafe
+public class MappedFileSingleStreamSpiller
+        implements SingleStreamSpiller
+{
+    @VisibleForTesting
+    static final int MAX_GATHERED_PAGES = 64;
+    @VisibleForTesting
+    static final int HEADER_BUFFER_SIZE = MAX_GATHERED_PAGES * PAGE_METADATA_SIZE;
+    // a gathering write is flushed once the retained size of its pages reaches this limit
+    @VisibleForTesting
+    static final long MAX_GATHERED_BYTES = 1024 * 1024;
+
+    private final Path spillPath;
+    private final long segmentSize;
+    private final List<FileHolder> segments = new ArrayList<>();
+    private final Closer closer = Closer.create();
+    private final PagesSerde serde;
+    private final SpillerStats spillerStats;
+    private final SpillContext localSpillContext;
+    private final LocalMemoryContext memoryContext;
+
+    private final ListeningExecutorService executor;
+
+    // page headers of a single gathering write, reused across writes
+    private final byte[] headers = new byte[HEADER_BUFFER_SIZE];
+    private final List<ByteBuffer> gatheredBuffers = new ArrayList<>();
+    private int gatheredPages;
+    private long gatheredBytes;
+    private long currentSegmentLength;
+
+    private boolean writable = true;
+    private boolean committed;
+    @GuardedBy("this")
+    private boolean closed;
+    private volatile long spilledPagesInMemorySize;
+    private ListenableFuture<?> spillInProgress = Futures.immediateFuture(null);
+
+    public MappedFileSingleStreamSpiller(
+            PagesSerde serde,
+            ListeningExecutorService executor,
+            Path spillPath,
+            long segmentSize,
+            SpillerStats spillerStats,
+            SpillContext spillContext,
+            LocalMemoryContext memoryContext,
+            Optional<SpillCipher> spillCipher)
+    {
+        checkArgument(segmentSize > 0 && segmentSize <= Integer.MAX_VALUE, "segmentSize must be positive and fit in a single mapping");
+        this.serde = requireNonNull(serde, "serde is null");
+        this.executor = requireNonNull(executor, "executor is null");
+        this.spillPath = requireNonNull(spillPath, "spillPath is null");
+        this.segmentSize = segmentSize;
+        this.spillerStats = requireNonNull(spillerStats, "spillerStats is null");
+        this.localSpillContext = spillContext.newLocalSpillContext();
+        this.memoryContext = requireNonNull(memoryContext, "memoryContext is null");
+        requireNonNull(spillCipher, "spillCipher is null");
+        checkState(!spillCipher.isPresent() || !spillCipher.get().isDestroyed(), "spillCipher is already destroyed");
+        spillCipher.ifPresent(cipher -> closer.register(cipher::destroy));
+        // Reserved up front and released in close() for the same reason as in FileSingleStreamSpiller:
+        // writePages() runs on the spiller executor and may race with close().
+        this.memoryContext.setBytes(HEADER_BUFFER_SIZE);
+        startSegment();
+    }
+
+    @Override
+    public ListenableFuture<?> spill(Iterator<Page> pageIterator)
+    {
+        requireNonNull(pageIterator, "pageIterator is null");
+        checkNoSpillInProgress();
+        spillInProgress = executor.submit(() -> writePages(pageIterator));
+        return spillInProgress;
+    }
+
+    @Override
+    public long getSpilledPagesInMemorySize()
+    {
+        return spilledPagesInMemorySize;
+    }
+
+    @Override
+    public Iterator<Page> getSpilledPages()
+    {
+        checkNoSpillInProgress();
+        return readPages();
+    }
+
+    @Override
+    public ListenableFuture<List<Page>> getAllSpilledPages()
+    {
+        return executor.submit(() -> ImmutableList.copyOf(getSpilledPages()));
+    }
+
+    @Override
+    public void commit()
+    {
+        committed = true;
+    }
+
+    @VisibleForTesting
+    int getSegmentCount()
+    {
+        return segments.size();
+    }
+
+    private void writePages(Iterator<Page> pageIterator)
+    {
+        checkState(writable, "Spilling no longer allowed. The spiller has been made non-writable on first read for subsequent reads to be consistent");
+        checkState(!committed, "Spilling no longer allowed. Spill file is already committed");
+        FileChannel channel = null;
+        Throwable failure = null;
+        try {
+            channel = currentSegment().newFileChannel(APPEND);
+            while (pageIterator.hasNext()) {
+                Page page = pageIterator.next();
+                spilledPagesInMemorySize += page.getSizeInBytes();
+                // page serialization requires  page.getSizeInBytes() + Integer.BYTES to fit in an integer
+                for (Page splitPage : splitPage(page, DEFAULT_MAX_PAGE_SIZE_IN_BYTES)) {
+                    SerializedPage serializedPage = serde.serialize(splitPage);
+                    long pageSize = serializedPage.getSizeInBytes();
+                    long entrySize = PAGE_METADATA_SIZE + pageSize;
+                    if (currentSegmentLength > 0 && currentSegmentLength + entrySize > segmentSize) {
+                        flush(channel);
+                        channel.close();
+                        startSegment();
+                        channel = currentSegment().newFileChannel(APPEND);
+                    }
+                    gather(serializedPage);
+                    currentSegmentLength += entrySize;
+                    localSpillContext.updateBytes(pageSize);
+                    spillerStats.addToTotalSpilledBytes(pageSize);
+                    if (gatheredPages == MAX_GATHERED_PAGES || gatheredBytes >= MAX_GATHERED_BYTES) {
+                        flush(channel);
+                    }
+                }
+            }
+            flush(channel);
+        }
+        catch (IOException e) {
+            PrestoException exception = new PrestoException(GENERIC_SPILL_FAILURE, format("Failed to spill pages: %s", e.getMessage()), e);
+            failure = exception;
+            throw exception;
+        }
+        catch (RuntimeException | Error e) {
+            failure = e;
+            throw e;
+        }
+        finally {
+            gatheredBuffers.clear();
+            gatheredPages = 0;
+            gatheredBytes = 0;
+            updateMemoryReservation();
+            if (channel != null) {
+                closeChannel(channel, failure);
+            }
+        }
+    }
+
+    /**
+     * Closes the channel of a segment, without masking the failure of the spill if there is one.
+     */
+    private static void closeChannel(FileChannel channel, Throwable failure)
+    {
+        try {
+            channel.close();
+        }
+        catch (IOException e) {
+            if (failure != null) {
+                failure.addSuppressed(e);
+                return;
+            }
+            throw new PrestoException(GENERIC_SPILL_FAILURE, format("Failed to close spill file: %s", e.getMessage()), e);
+        }
+    }
+
+    private void gather(SerializedPage serializedPage)
+    {
+        int headerOffset = gatheredPages * PAGE_METADATA_SIZE;
+        SliceOutput headerOutput = Slices.wrappedBuffer(headers, headerOffset, PAGE_METADATA_SIZE).getOutput();
+        writeSerializedPageMetadata(headerOutput, serializedPage);
+        gatheredBuffers.add(ByteBuffer.wrap(headers, headerOffset, PAGE_METADATA_SIZE));
+        gatheredBuffers.add(serializedPage.getSlice().toByteBuffer());
+        gatheredPages++;
+        gatheredBytes += serializedPage.getRetainedSizeInBytes();
+        updateMemoryReservation();
+    }
+
+    private void flush(FileChannel channel)
+            throws IOException
+    {
+        ByteBuffer[] buffers = gatheredBuffers.toArray(new ByteBuffer[0]);
+        long remaining = 0;
+        for (ByteBuffer buffer : buffers) {
+            remaining += buffer.remaining();
+        }
+        while (remaining > 0) {
+            remaining -= channel.write(buffers);
+        }
+        gatheredBuffers.clear();
+        gatheredPages = 0;
+        gatheredBytes = 0;
+        updateMemoryReservation();
+    }
+
+    /**
+     * The gathered pages are accounted on the spiller executor, which may race with close(),
+     * so the reservation is only updated while the spiller is open.
+     */
+    private synchronized void updateMemoryReservation()
+    {
+        if (!closed) {
+            memoryContext.setBytes(HEADER_BUFFER_SIZE + gatheredBytes);
+        }
+    }
+
+    private FileHolder currentSegment()
+    {
+        return segments.get(segments.size() - 1);
+    }
+
+    private void startSegment()
+    {
+        try {
+            segments.add(closer.register(new FileHolder(Files.createTempFile(spillPath, SPILL_FILE_PREFIX, SPILL_FILE_SUFFIX))));
+            currentSegmentLength = 0;
+        }
+        catch (IOException e) {
+            throw new PrestoException(GENERIC_SPILL_FAILURE, format("Failed to create spill file: %s", e.getMessage()), e);
+        }
+    }
+
+    private Iterator<Page> readPages()
+    {
+        checkState(writable, "Repeated reads are disallowed to prevent potential resource leaks");
+        writable = false;
+
+        if (!committed) {
+            commit();
+        }
+
+        checkState(committed, "Cannot read pages since spill file is not committed");
+        spillerStats.addToTotalSpilledBytesRead(getSpilledPagesInMemorySize());
+        return new AbstractIterator<Page>()
+        {
+            private int nextSegment;
+            private ListenableFuture<MappedByteBuffer> nextMapping = Futures.immediateFuture(mapSegment(segments.get(0)));
+            private Iterator<SerializedPage> currentPages = ImmutableList.<SerializedPage>of().iterator();
+
+            @Override
+            protected Page computeNext()
+            {
+                while (!currentPages.hasNext()) {
+                    if (nextSegment == segments.size()) {
+                        return endOfData();
+                    }
+                    MappedByteBuffer mapping = getFutureValue(nextMapping);
+                    nextSegment++;
+                    if (nextSegment < segments.size()) {
+                        // read ahead the next segment while this one is being deserialized
+                        FileHolder segment = segments.get(nextSegment);
+                        nextMapping = executor.submit(() -> mapSegment(segment).load());
+                    }
+                    currentPages = readSerializedPages(Slices.wrappedBuffer(mapping).getInput());
+                }
+                // variable width blocks are deserialized as views of the mapping, and their retained size is
+                // the size of the whole mapping, which is only unmapped once it is garbage collected, so the
+                // pages are compacted to copy those blocks out of the mapping
+                return serde.deserialize(currentPages.next()).compact();
+            }
+        };
+    }
+
+    private static MappedByteBuffer mapSegment(FileHolder segment)
+    {
+        try (FileChannel channel = segment.newFileChannel(READ)) {
+            // the mapping stays valid after the channel is closed
+            return channel.map(READ_ONLY, 0, channel.size());
+        }
+        catch (IOException e) {
+            throw new PrestoException(GENERIC_SPILL_FAILURE, format("Failed to read spilled pages: %s", e.getMessage()), e);
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        closer.register(localSpillContext);
+        closer.register(() -> {
+            synchronized (this) {
+                closed = true;
+                memoryContext.setBytes(0);
+            }
+        });
+        try {
+            closer.close();
+        }
+        catch (IOException e) {
+            throw new PrestoException(GENERIC_SPILL_FAILURE, format("Failed to close spiller: %s", e.getMessage()), e);
+        }
+    }
+
+    private void checkNoSpillInProgress()
+    {
+        checkState(spillInProgress.isDone(), "spill in progress");
+    }
+}
@@ -15,6 +15,8 @@ package com.facebook.presto.spiller;
 
 import com.facebook.airlift.configuration.Config;
 import com.facebook.airlift.units.DataSize;
+import com.facebook.airlift.units.MaxDataSize;
+import com.facebook.airlift.units.MinDataSize;
 import com.facebook.presto.CompressionCodec;
 import jakarta.validation.constraints.NotNull;
 
@@ -27,6 +29,8 @@ public class NodeSpillConfig
 
     private CompressionCodec spillCompressionCodec = CompressionCodec.NONE;
     private boolean spillEncryptionEnabled;
+    private boolean spillMemoryMappedIoEnabled;
+    private DataSize spillSegmentSize = new DataSize(64, DataSize.Unit.MEGABYTE);
 
     @NotNull
     public DataSize getMaxSpillPerNode()
@@ -103,4 +107,31 @@ public class NodeSpillConfig
         this.tempStorageBufferSize = tempStorageBufferSize;
         return this;
     }
+
+    public boolean isSpillMemoryMappedIoEnabled()
+    {
+        return spillMemoryMappedIoEnabled;
+    }
+
+    @Config("experimental.spill-memory-mapped-io-enabled")
+    public NodeSpillConfig setSpillMemoryMappedIoEnabled(boolean spillMemoryMappedIoEnabled)
+    {
+        this.spillMemoryMappedIoEnabled = spillMemoryMappedIoEnabled;
+        return this;
+    }
+
+    @NotNull
+    @MinDataSize("1MB")
+    @MaxDataSize("1GB")
+    public DataSize getSpillSegmentSize()
+    {
+        return spillSegmentSize;
+    }
+
+    @Config("experimental.spill-segment-size")
+    public NodeSpillConfig setSpillSegmentSize(DataSize spillSegmentSize)
+    {
+        this.spillSegmentSize = spillSegmentSize;
+        return this;
+    }
 }
@@ -25,14 +25,21 @@ import com.facebook.presto.spi.FixedPageSource;
 import com.facebook.presto.spi.SplitContext;
 import com.facebook.presto.spi.TableHandle;
 import com.facebook.presto.spi.connector.ConnectorPageSourceProvider;
+import com.facebook.presto.split.SharedScanManager.ScanKey;
+import com.facebook.presto.sql.analyzer.FeaturesConfig;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import jakarta.inject.Inject;
 
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
+import static com.facebook.presto.SystemSessionProperties.isSharedScanEnabled;
+import static com.facebook.presto.common.plan.PlanCanonicalizationStrategy.DEFAULT;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static java.util.Objects.requireNonNull;
@@ -41,6 +48,18 @@ public class PageSourceManager
         implements PageSourceProvider
 {
     private final ConcurrentMap<ConnectorId, ConnectorPageSourceProvider> pageSourceProviders = new ConcurrentHashMap<>();
+    private final SharedScanManager sharedScanManager;
+
+    public PageSourceManager()
+    {
+        this(new FeaturesConfig());
+    }
+
+    @Inject
+    public PageSourceManager(FeaturesConfig featuresConfig)
+    {
+        this.sharedScanManager = new SharedScanManager(requireNonNull(featuresConfig, "featuresConfig is null").getSharedScanMaxBufferedSize());
+    }
 
     public void addConnectorPageSourceProvider(ConnectorId connectorId, ConnectorPageSourceProvider pageSourceProvider)
     {
@@ -73,19 +92,36 @@ public class PageSourceManager
                     split.getTransactionHandle(),
                     split.getConnectorSplit(),
                     split.getLifespan(),
-                    new SplitContext(split.getSplitContext().isCacheable(), dynamicFilter.get().get()));
+                    new SplitContext(
+                            split.getSplitContext().isCacheable(),
+                            dynamicFilter.get().get(),
+                            table.getDynamicBloomFilters().map(Supplier::get).orElse(ImmutableMap.of())));
         }
 
         ConnectorSession connectorSession = session.toConnectorSession(split.getConnectorId());
         if (table.getLayout().isPresent()) {
-            return getPageSourceProvider(split).createPageSource(
-                    split.getTransactionHandle(),
+            Split layoutSplit = split;
+            Function<RuntimeStats, ConnectorPageSource> pageSourceFactory = pageSourceRuntimeStats -> getPageSourceProvider(layoutSplit).createPageSource(
+                    layoutSplit.getTransactionHandle(),
                     connectorSession,
-                    split.getConnectorSplit(),
+                    layoutSplit.getConnectorSplit(),
                     table.getLayout().get(),
                     columns,
-                    split.getSplitContext(),
-                    runtimeStats);
+                    layoutSplit.getSplitContext(),
+                    pageSourceRuntimeStats);
+
+            // dynamic filters are specific to the query, so scans with dynamic filters are not shared
+            if (isSharedScanEnabled(session) && !dynamicFilter.isPresent()) {
+                ScanKey key = new ScanKey(
+                        split.getSplitIdentifier(),
+                        table.getLayout().get().getIdentifier(Optional.of(split.getConnectorSplit()), DEFAULT),
+                        columns,
+                        session.getIdentity().getUser(),
+                        session.getIdentity().getExtraCredentials(),
+                        session.getConnectorProperties(split.getConnectorId()));
+                return sharedScanManager.createPageSource(key, runtimeStats, pageSourceFactory);
+            }
+            return pageSourceFactory.apply(runtimeStats);
         }
         return getPageSourceProvider(split).createPageSource(split.getTransactionHandle(), connectorSession, split.getConnectorSplit(), columns, split.getSplitContext());
     }
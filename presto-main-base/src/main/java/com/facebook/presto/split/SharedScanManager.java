@@ -0,0 +1,728 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.split;
+
+import com.facebook.airlift.units.DataSize;
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.RuntimeStats;
+import com.facebook.presto.metadata.Split.SplitIdentifier;
+import com.facebook.presto.spi.ColumnHandle;
+import com.facebook.presto.spi.ConnectorPageSource;
+import com.facebook.presto.spi.RecordPageSource;
+import com.facebook.presto.spi.UpdatablePageSource;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.errorprone.annotations.ThreadSafe;
+import com.google.errorprone.annotations.concurrent.GuardedBy;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+import static com.facebook.presto.spi.ConnectorPageSource.NOT_BLOCKED;
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Throwables.throwIfUnchecked;
+import static java.lang.Math.toIntExact;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Shares the pages of a split between concurrent scans of the same split, table layout and columns,
+ * for the same user and connector session properties, such as the scans of queries which read the
+ * same table at the same time.
+ * <p>
+ * The first scan creates the page source of the split, and later scans attach to it as long as none
+ * of its pages have been released. Pages are loaded and buffered until all attached scans consumed
+ * them, and each scan applies its own filter and projections. The buffered pages of a shared scan are
+ * bounded by {@code maxBufferedSize}. The scan which is ahead is never blocked by slower scans; once the
+ * limit is reached, the slowest scans detach with the pages they have not consumed yet, and continue on
+ * a page source of their own which skips the rows the shared page source produced so far. This relies
+ * on page sources producing the rows of a split in the same order.
+ * <p>
+ * The page source is opened in the transaction of the first scan, so it is only used while that scan
+ * runs. When the first scan is closed, the other scans detach and continue on page sources opened in
+ * their own transactions.
+ * <p>
+ * Each scan reports the rows it consumed, and the bytes and read time of the pages it read from the
+ * page source, so the input of the shared page source is reported once. The memory of the buffered
+ * pages is reported by one of the attached scans only.
+ */
+@ThreadSafe
+public class SharedScanManager
+{
+    private final long maxBufferedBytes;
+    private final ConcurrentMap<ScanKey, SharedScan> scans = new ConcurrentHashMap<>();
+
+    public SharedScanManager(DataSize maxBufferedSize)
+    {
+        this.maxBufferedBytes = requireNonNull(maxBufferedSize, "maxBufferedSize is null").toBytes();
+        checkArgument(maxBufferedBytes > 0, "maxBufferedSize must be positive");
+    }
+
+    /**
+     * Returns a page source for the scan, which records its runtime stats in {@code runtimeStats}.
+     * The factory creates a page source of the split which records its runtime stats in the given object.
+     */
+    public ConnectorPageSource createPageSource(ScanKey key, RuntimeStats runtimeStats, Function<RuntimeStats, ConnectorPageSource> pageSourceFactory)
+    {
+        requireNonNull(key, "key is null");
+        requireNonNull(runtimeStats, "runtimeStats is null");
+        requireNonNull(pageSourceFactory, "pageSourceFactory is null");
+
+        Optional<ConnectorPageSource> attached = attach(key, runtimeStats, pageSourceFactory);
+        if (attached.isPresent()) {
+            return attached.get();
+        }
+
+        // the stats of the shared page source are handed to the scans which read from it
+        RuntimeStats sharedRuntimeStats = new RuntimeStats();
+        ConnectorPageSource pageSource = pageSourceFactory.apply(sharedRuntimeStats);
+        if (pageSource instanceof UpdatablePageSource || pageSource instanceof RecordPageSource) {
+            // the scan operators handle these page sources specially
+            runtimeStats.mergeWith(sharedRuntimeStats);
+            return pageSource;
+        }
+
+        SharedScan scan = new SharedScan(key, pageSource, sharedRuntimeStats);
+        ConnectorPageSource consumer = scan.attach(runtimeStats, pageSourceFactory).orElseThrow(() -> new IllegalStateException("new shared scan does not accept consumers"));
+        SharedScan existing = scans.putIfAbsent(key, scan);
+        if (existing != null) {
+            // another scan of the split was started concurrently
+            Optional<ConnectorPageSource> existingConsumer = existing.attach(runtimeStats, pageSourceFactory);
+            if (existingConsumer.isPresent()) {
+                closeQuietly(consumer);
+                return existingConsumer.get();
+            }
+            scans.replace(key, existing, scan);
+        }
+        return consumer;
+    }
+
+    @VisibleForTesting
+    int getActiveScanCount()
+    {
+        return scans.size();
+    }
+
+    private Optional<ConnectorPageSource> attach(ScanKey key, RuntimeStats runtimeStats, Function<RuntimeStats, ConnectorPageSource> pageSourceFactory)
+    {
+        SharedScan scan = scans.get(key);
+        if (scan == null) {
+            return Optional.empty();
+        }
+        Optional<ConnectorPageSource> consumer = scan.attach(runtimeStats, pageSourceFactory);
+        if (!consumer.isPresent()) {
+            scans.remove(key, scan);
+        }
+        return consumer;
+    }
+
+    private static void closeQuietly(ConnectorPageSource pageSource)
+    {
+        try {
+            pageSource.close();
+        }
+        catch (IOException | RuntimeException ignored) {
+        }
+    }
+
+    public static final class ScanKey
+    {
+        private final SplitIdentifier splitIdentifier;
+        private final Object tableLayoutIdentifier;
+        private final List<ColumnHandle> columns;
+        // the page source is opened with the session of the first scan, so only scans of the
+        // same user and connector session properties can share it
+        private final String user;
+        private final Map<String, String> extraCredentials;
+        private final Map<String, String> connectorProperties;
+
+        public ScanKey(
+                SplitIdentifier splitIdentifier,
+                Object tableLayoutIdentifier,
+                List<ColumnHandle> columns,
+                String user,
+                Map<String, String> extraCredentials,
+                Map<String, String> connectorProperties)
+        {
+            this.splitIdentifier = requireNonNull(splitIdentifier, "splitIdentifier is null");
+            this.tableLayoutIdentifier = requireNonNull(tableLayoutIdentifier, "tableLayoutIdentifier is null");
+            this.columns = ImmutableList.copyOf(requireNonNull(columns, "columns is null"));
+            this.user = requireNonNull(user, "user is null");
+            this.extraCredentials = ImmutableMap.copyOf(requireNonNull(extraCredentials, "extraCredentials is null"));
+            this.connectorProperties = ImmutableMap.copyOf(requireNonNull(connectorProperties, "connectorProperties is null"));
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            ScanKey that = (ScanKey) o;
+            return Objects.equals(splitIdentifier, that.splitIdentifier) &&
+                    Objects.equals(tableLayoutIdentifier, that.tableLayoutIdentifier) &&
+                    Objects.equals(columns, that.columns) &&
+                    Objects.equals(user, that.user) &&
+                    Objects.equals(extraCredentials, that.extraCredentials) &&
+                    Objects.equals(connectorProperties, that.connectorProperties);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(splitIdentifier, tableLayoutIdentifier, columns, user, extraCredentials, connectorProperties);
+        }
+
+        @Override
+        public String toString()
+        {
+            return toStringHelper(this)
+                    .add("splitIdentifier", splitIdentifier.getSplitIdentifier())
+                    .add("columns", columns)
+                    .add("user", user)
+                    .toString();
+        }
+    }
+
+    @ThreadSafe
+    private final class SharedScan
+    {
+        private final ScanKey key;
+        private final ConnectorPageSource pageSource;
+        // only accessed by the consumer which reads the next page from the page source
+        private final RuntimeStats runtimeStats;
+
+        // the consumer in whose transaction the page source was opened
+        @GuardedBy("this")
+        private SharedScanPageSource owner;
+        @GuardedBy("this")
+        private final List<SharedScanPageSource> consumers = new ArrayList<>();
+        @GuardedBy("this")
+        private final List<Page> pages = new ArrayList<>();
+        // sequence number of the first buffered page
+        @GuardedBy("this")
+        private long firstSequence;
+        @GuardedBy("this")
+        private long bufferedBytes;
+        // number of rows produced by the page source
+        @GuardedBy("this")
+        private long producedPositions;
+        // a consumer is reading the next page from the page source
+        @GuardedBy("this")
+        private boolean producing;
+        @GuardedBy("this")
+        private boolean finished;
+        @GuardedBy("this")
+        private boolean closed;
+        @GuardedBy("this")
+        private Throwable failure;
+        @GuardedBy("this")
+        private CompletableFuture<?> stateChanged = new CompletableFuture<>();
+
+        public SharedScan(ScanKey key, ConnectorPageSource pageSource, RuntimeStats runtimeStats)
+        {
+            this.key = requireNonNull(key, "key is null");
+            this.pageSource = requireNonNull(pageSource, "pageSource is null");
+            this.runtimeStats = requireNonNull(runtimeStats, "runtimeStats is null");
+        }
+
+        public synchronized Optional<ConnectorPageSource> attach(RuntimeStats runtimeStats, Function<RuntimeStats, ConnectorPageSource> pageSourceFactory)
+        {
+            // consumers start at the first page, so they can only attach before any page is released
+            if (closed || failure != null || firstSequence > 0) {
+                return Optional.empty();
+            }
+            SharedScanPageSource consumer = new SharedScanPageSource(this, runtimeStats, pageSourceFactory);
+            if (owner == null) {
+                owner = consumer;
+            }
+            consumers.add(consumer);
+            return Optional.of(consumer);
+        }
+
+        public Page getNextPage(SharedScanPageSource consumer)
+        {
+            Page page;
+            CompletableFuture<?> changed;
+            synchronized (this) {
+                throwIfFailed();
+                if (consumer.isDetached()) {
+                    // the consumer was detached concurrently, it continues on its own page source
+                    return null;
+                }
+                page = pollBufferedPage(consumer);
+                if (page == null) {
+                    if (finished || producing) {
+                        return null;
+                    }
+                    producing = true;
+                    // the consumer is ahead of all other consumers, so it only waits for the
+                    // slower consumers to detach rather than for them to catch up
+                    changed = detachSlowestConsumers();
+                }
+                else {
+                    changed = releaseConsumedPages();
+                }
+            }
+
+            if (changed != null) {
+                changed.complete(null);
+            }
+            if (page == null) {
+                // the page source is read outside of the lock, other consumers wait for the page
+                return produceNextPage(consumer);
+            }
+            return page;
+        }
+
+        private Page produceNextPage(SharedScanPageSource consumer)
+        {
+            Page page;
+            boolean pageSourceFinished;
+            try {
+                long startCompletedBytes = pageSource.getCompletedBytes();
+                long startReadTimeNanos = pageSource.getReadTimeNanos();
+                page = pageSource.getNextPage();
+                if (page != null) {
+                    // lazy blocks can only be loaded while the page source is positioned at the page
+                    page = page.getLoadedPage();
+                }
+                pageSourceFinished = pageSource.isFinished();
+
+                // the input is reported by the consumer which read it
+                consumer.recordInput(pageSource.getCompletedBytes() - startCompletedBytes, pageSource.getReadTimeNanos() - startReadTimeNanos);
+                consumer.getRuntimeStats().mergeWith(runtimeStats);
+                runtimeStats.reset();
+            }
+            catch (RuntimeException | Error e) {
+                CompletableFuture<?> changed;
+                boolean closePageSource;
+                synchronized (this) {
+                    failure = e;
+                    producing = false;
+                    closePageSource = closed;
+                    changed = swapStateChanged();
+                }
+                changed.complete(null);
+                if (closePageSource) {
+                    closeQuietly(pageSource);
+                }
+                throw e;
+            }
+
+            CompletableFuture<?> changed;
+            boolean closePageSource = false;
+            synchronized (this) {
+                producing = false;
+                changed = null;
+                if (closed) {
+                    // the scan was closed while the page was read, the consumer was detached and
+                    // reads the page from its own page source
+                    closePageSource = true;
+                    page = null;
+                }
+                else {
+                    finished = pageSourceFinished;
+                    if (page != null) {
+                        pages.add(page);
+                        bufferedBytes += page.getRetainedSizeInBytes();
+                        producedPositions += page.getPositionCount();
+                        page = pollBufferedPage(consumer);
+                        changed = releaseConsumedPages();
+                    }
+                }
+                if (changed == null) {
+                    changed = swapStateChanged();
+                }
+            }
+            changed.complete(null);
+            if (closePageSource) {
+                closePageSource();
+            }
+            return page;
+        }
+
+        public synchronized CompletableFuture<?> isBlocked(SharedScanPageSource consumer)
+        {
+            if (failure != null || finished || hasBufferedPage(consumer)) {
+                return NOT_BLOCKED;
+            }
+            if (producing) {
+                return stateChanged;
+            }
+            return pageSource.isBlocked();
+        }
+
+        public synchronized boolean isFinished(SharedScanPageSource consumer)
+        {
+            return finished && !hasBufferedPage(consumer);
+        }
+
+        public synchronized long getSystemMemoryUsage(SharedScanPageSource consumer)
+        {
+            // the memory is shared by all consumers, so it is reported by the first consumer only
+            if (consumers.isEmpty() || consumers.get(0) != consumer) {
+                return 0;
+            }
+            return bufferedBytes + pageSource.getSystemMemoryUsage();
+        }
+
+        public void close(SharedScanPageSource consumer)
+        {
+            CompletableFuture<?> changed;
+            boolean closePageSource = false;
+            synchronized (this) {
+                if (!consumers.remove(consumer)) {
+                    return;
+                }
+                if (consumer == owner || consumers.isEmpty()) {
+                    // the page source is not used outside of the transaction of its owner
+                    for (SharedScanPageSource remaining : consumers) {
+                        remaining.detach(pages, producedPositions, finished);
+                    }
+                    consumers.clear();
+                    closed = true;
+                    // a consumer which is reading the next page closes the page source once it is done
+                    closePageSource = !producing;
+                    pages.clear();
+                    bufferedBytes = 0;
+                    scans.remove(key, this);
+                    changed = swapStateChanged();
+                }
+                else {
+                    changed = releaseConsumedPages();
+                }
+            }
+            if (changed != null) {
+                changed.complete(null);
+            }
+            if (closePageSource) {
+                closePageSource();
+            }
+        }
+
+        private void closePageSource()
+        {
+            try {
+                pageSource.close();
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @GuardedBy("this")
+        private Page pollBufferedPage(SharedScanPageSource consumer)
+        {
+            if (!hasBufferedPage(consumer)) {
+                return null;
+            }
+            Page page = pages.get(toIntExact(consumer.getNextSequence() - firstSequence));
+            consumer.setNextSequence(consumer.getNextSequence() + 1);
+            return page;
+        }
+
+        @GuardedBy("this")
+        private boolean hasBufferedPage(SharedScanPageSource consumer)
+        {
+            return consumer.getNextSequence() < firstSequence + pages.size();
+        }
+
+        /**
+         * Detaches the consumers which hold back the oldest buffered page until the buffered pages
+         * are within the limit. Returns the future to complete if pages were released.
+         */
+        @GuardedBy("this")
+        private CompletableFuture<?> detachSlowestConsumers()
+        {
+            CompletableFuture<?> changed = null;
+            while (bufferedBytes >= maxBufferedBytes && !pages.isEmpty()) {
+                Iterator<SharedScanPageSource> iterator = consumers.iterator();
+                while (iterator.hasNext()) {
+                    SharedScanPageSource consumer = iterator.next();
+                    if (consumer.getNextSequence() == firstSequence) {
+                        consumer.detach(pages, producedPositions, false);
+                        iterator.remove();
+                    }
+                }
+                CompletableFuture<?> released = releaseConsumedPages();
+                if (released != null) {
+                    changed = released;
+                }
+            }
+            return changed;
+        }
+
+        /**
+         * Releases the pages consumed by all consumers. Returns the future to complete if pages were released.
+         */
+        @GuardedBy("this")
+        private CompletableFuture<?> releaseConsumedPages()
+        {
+            long minSequence = firstSequence + pages.size();
+            for (SharedScanPageSource consumer : consumers) {
+                minSequence = Math.min(minSequence, consumer.getNextSequence());
+            }
+            if (minSequence == firstSequence) {
+                return null;
+            }
+            while (firstSequence < minSequence) {
+                Page page = pages.remove(0);
+                bufferedBytes -= page.getRetainedSizeInBytes();
+                firstSequence++;
+            }
+            // consumers can no longer attach
+            scans.remove(key, this);
+            return swapStateChanged();
+        }
+
+        @GuardedBy("this")
+        private CompletableFuture<?> swapStateChanged()
+        {
+            CompletableFuture<?> changed = stateChanged;
+            stateChanged = new CompletableFuture<>();
+            return changed;
+        }
+
+        @GuardedBy("this")
+        private void throwIfFailed()
+        {
+            if (failure != null) {
+                throwIfUnchecked(failure);
+                throw new RuntimeException(failure);
+            }
+        }
+    }
+
+    private static final class SharedScanPageSource
+            implements ConnectorPageSource
+    {
+        private final SharedScan scan;
+        private final RuntimeStats runtimeStats;
+        private final Function<RuntimeStats, ConnectorPageSource> pageSourceFactory;
+
+        // guarded by the shared scan
+        private long nextSequence;
+        // guarded by the shared scan, set when the consumer fell too far behind the other consumers
+        // or the shared scan was closed
+        private boolean detached;
+        // guarded by the shared scan
+        private final Deque<Page> detachedPages = new ArrayDeque<>();
+        // guarded by the shared scan
+        private long detachedPagesBytes;
+        // guarded by the shared scan, set when the shared page source produced all rows before the consumer detached
+        private boolean detachedAfterFinish;
+
+        // only accessed by the driver of the consumer
+        private long completedBytes;
+        private long readTimeNanos;
+        private long completedPositions;
+        // only accessed by the driver of the consumer once it is detached
+        private ConnectorPageSource ownPageSource;
+        private long positionsToSkip;
+
+        public SharedScanPageSource(SharedScan scan, RuntimeStats runtimeStats, Function<RuntimeStats, ConnectorPageSource> pageSourceFactory)
+        {
+            this.scan = requireNonNull(scan, "scan is null");
+            this.runtimeStats = requireNonNull(runtimeStats, "runtimeStats is null");
+            this.pageSourceFactory = requireNonNull(pageSourceFactory, "pageSourceFactory is null");
+        }
+
+        @Override
+        public long getCompletedBytes()
+        {
+            return completedBytes + (ownPageSource == null ? 0 : ownPageSource.getCompletedBytes());
+        }
+
+        @Override
+        public long getCompletedPositions()
+        {
+            return completedPositions;
+        }
+
+        @Override
+        public long getReadTimeNanos()
+        {
+            return readTimeNanos + (ownPageSource == null ? 0 : ownPageSource.getReadTimeNanos());
+        }
+
+        @Override
+        public boolean isFinished()
+        {
+            synchronized (scan) {
+                if (!detached) {
+                    return scan.isFinished(this);
+                }
+                if (!detachedPages.isEmpty()) {
+                    return false;
+                }
+                if (detachedAfterFinish) {
+                    return true;
+                }
+            }
+            return ownPageSource != null && positionsToSkip == 0 && ownPageSource.isFinished();
+        }
+
+        @Override
+        public Page getNextPage()
+        {
+            Page page = readNextPage();
+            if (page != null) {
+                completedPositions += page.getPositionCount();
+            }
+            return page;
+        }
+
+        private Page readNextPage()
+        {
+            boolean attached;
+            synchronized (scan) {
+                attached = !detached;
+                Page page = detachedPages.poll();
+                if (page != null) {
+                    detachedPagesBytes -= page.getRetainedSizeInBytes();
+                    return page;
+                }
+                if (detachedAfterFinish) {
+                    return null;
+                }
+            }
+            if (attached) {
+                // the shared page source is read outside of the lock
+                return scan.getNextPage(this);
+            }
+            if (ownPageSource == null) {
+                ownPageSource = pageSourceFactory.apply(runtimeStats);
+            }
+            // skip the rows which were produced by the shared page source
+            while (positionsToSkip > 0) {
+                Page page = ownPageSource.getNextPage();
+                if (page == null) {
+                    return null;
+                }
+                if (page.getPositionCount() > positionsToSkip) {
+                    int skipped = toIntExact(positionsToSkip);
+                    positionsToSkip = 0;
+                    return page.getRegion(skipped, page.getPositionCount() - skipped);
+                }
+                positionsToSkip -= page.getPositionCount();
+            }
+            return ownPageSource.getNextPage();
+        }
+
+        @Override
+        public long getSystemMemoryUsage()
+        {
+            synchronized (scan) {
+                if (!detached) {
+                    return scan.getSystemMemoryUsage(this);
+                }
+                return detachedPagesBytes + (ownPageSource == null ? 0 : ownPageSource.getSystemMemoryUsage());
+            }
+        }
+
+        @Override
+        public CompletableFuture<?> isBlocked()
+        {
+            synchronized (scan) {
+                if (!detached) {
+                    return scan.isBlocked(this);
+                }
+                if (!detachedPages.isEmpty() || detachedAfterFinish) {
+                    return NOT_BLOCKED;
+                }
+            }
+            return ownPageSource == null ? NOT_BLOCKED : ownPageSource.isBlocked();
+        }
+
+        @Override
+        public RuntimeStats getRuntimeStats()
+        {
+            return runtimeStats;
+        }
+
+        @Override
+        public void close()
+                throws IOException
+        {
+            boolean closeOwnPageSource;
+            synchronized (scan) {
+                closeOwnPageSource = detached;
+                detachedPages.clear();
+                detachedPagesBytes = 0;
+            }
+            if (!closeOwnPageSource) {
+                scan.close(this);
+            }
+            else if (ownPageSource != null) {
+                ownPageSource.close();
+            }
+        }
+
+        private void recordInput(long bytes, long nanos)
+        {
+            completedBytes += bytes;
+            readTimeNanos += nanos;
+        }
+
+        /**
+         * Continues the scan on a page source of its own, starting with the given buffered pages
+         * which the consumer did not read yet, followed by the rows after {@code producedPositions}
+         * unless the shared page source already produced all rows.
+         */
+        @GuardedBy("scan")
+        private void detach(List<Page> bufferedPages, long producedPositions, boolean sharedScanFinished)
+        {
+            for (Page page : bufferedPages.subList(toIntExact(nextSequence - scan.firstSequence), bufferedPages.size())) {
+                detachedPages.add(page);
+                detachedPagesBytes += page.getRetainedSizeInBytes();
+            }
+            positionsToSkip = producedPositions;
+            detachedAfterFinish = sharedScanFinished;
+            detached = true;
+        }
+
+        @GuardedBy("scan")
+        private boolean isDetached()
+        {
+            return detached;
+        }
+
+        private long getNextSequence()
+        {
+            return nextSequence;
+        }
+
+        private void setNextSequence(long nextSequence)
+        {
+            this.nextSequence = nextSequence;
+        }
+    }
+}
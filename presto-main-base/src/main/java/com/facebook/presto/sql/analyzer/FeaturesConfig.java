@@ -40,6 +40,7 @@ import java.nio.file.Paths;
 import java.util.List;
 import java.util.stream.Stream;
 
+import static com.facebook.airlift.units.DataSize.Unit.BYTE;
 import static com.facebook.airlift.units.DataSize.Unit.KILOBYTE;
 import static com.facebook.airlift.units.DataSize.Unit.MEGABYTE;
 import static com.facebook.presto.spi.StandardErrorCode.INVALID_SESSION_PROPERTY;
@@ -162,6 +163,7 @@ public class FeaturesConfig
     private double partialAggregationByteReductionThreshold = 0.5;
     private boolean adaptivePartialAggregationEnabled;
     private double adaptivePartialAggregationRowsReductionRatioThreshold = 0.8;
+    private boolean adaptivePartialAggregationByKeyGroupEnabled;
     private boolean optimizeTopNRowNumber = true;
     private boolean pushLimitThroughOuterJoin = true;
     private boolean optimizeConstantGroupingKeys = true;
@@ -172,8 +174,11 @@ public class FeaturesConfig
     private int dynamicFilteringMaxPerDriverRowCount = 100;
     private DataSize dynamicFilteringMaxPerDriverSize = new DataSize(10, KILOBYTE);
     private int dynamicFilteringRangeRowLimitPerDriver;
+    private DataSize dynamicFilteringBloomFilterSize = new DataSize(0, BYTE);
 
     private boolean fragmentResultCachingEnabled;
+    private boolean sharedScanEnabled;
+    private DataSize sharedScanMaxBufferedSize = new DataSize(16, MEGABYTE);
 
     private DataSize filterAndProjectMinOutputPageSize = new DataSize(500, KILOBYTE);
     private int filterAndProjectMinOutputPageRowCount = 256;
@@ -246,6 +251,7 @@ public class FeaturesConfig
 
     private boolean pushRemoteExchangeThroughGroupId;
     private boolean isOptimizeMultipleApproxPercentileOnSameFieldEnabled = true;
+    private boolean isOptimizeMultipleJsonExtractScalarOnSameFieldEnabled;
     private boolean nativeExecutionEnabled;
     private boolean disableTimeStampWithTimeZoneForNative;
     private boolean disableIPAddressForNative;
@@ -1136,6 +1142,19 @@ public class FeaturesConfig
         return this;
     }
 
+    public boolean isAdaptivePartialAggregationByKeyGroupEnabled()
+    {
+        return adaptivePartialAggregationByKeyGroupEnabled;
+    }
+
+    @Config("experimental.adaptive-partial-aggregation-by-key-group")
+    @ConfigDescription("Decide whether to partially aggregate rows separately for groups of grouping keys, instead of for all rows")
+    public FeaturesConfig setAdaptivePartialAggregationByKeyGroupEnabled(boolean adaptivePartialAggregationByKeyGroupEnabled)
+    {
+        this.adaptivePartialAggregationByKeyGroupEnabled = adaptivePartialAggregationByKeyGroupEnabled;
+        return this;
+    }
+
     public boolean isOptimizeTopNRowNumber()
     {
         return optimizeTopNRowNumber;
@@ -1534,6 +1553,20 @@ public class FeaturesConfig
         return this;
     }
 
+    @MaxDataSize("16MB")
+    public DataSize getDynamicFilteringBloomFilterSize()
+    {
+        return dynamicFilteringBloomFilterSize;
+    }
+
+    @Config("dynamic-filtering-bloom-filter-size")
+    @ConfigDescription("Size of the per-driver bloom filter that summarizes build-side join keys once they exceed the exact values limit. Zero disables bloom filters")
+    public FeaturesConfig setDynamicFilteringBloomFilterSize(DataSize dynamicFilteringBloomFilterSize)
+    {
+        this.dynamicFilteringBloomFilterSize = dynamicFilteringBloomFilterSize;
+        return this;
+    }
+
     public boolean isFragmentResultCachingEnabled()
     {
         return fragmentResultCachingEnabled;
@@ -1548,6 +1581,33 @@ public class FeaturesConfig
         return this;
     }
 
+    public boolean isSharedScanEnabled()
+    {
+        return sharedScanEnabled;
+    }
+
+    @Config("shared-scan.enabled")
+    @ConfigDescription("Share the pages of a split between concurrent scans of the same table layout and columns")
+    public FeaturesConfig setSharedScanEnabled(boolean sharedScanEnabled)
+    {
+        this.sharedScanEnabled = sharedScanEnabled;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getSharedScanMaxBufferedSize()
+    {
+        return sharedScanMaxBufferedSize;
+    }
+
+    @Config("shared-scan.max-buffered-size")
+    @ConfigDescription("Maximum size of the pages of a shared scan which are buffered until all scans consumed them")
+    public FeaturesConfig setSharedScanMaxBufferedSize(DataSize sharedScanMaxBufferedSize)
+    {
+        this.sharedScanMaxBufferedSize = sharedScanMaxBufferedSize;
+        return this;
+    }
+
     public boolean isOptimizeMixedDistinctAggregations()
     {
         return optimizeMixedDistinctAggregations;
@@ -2383,6 +2443,19 @@ public class FeaturesConfig
         return this;
     }
 
+    public boolean isOptimizeMultipleJsonExtractScalarOnSameFieldEnabled()
+    {
+        return isOptimizeMultipleJsonExtractScalarOnSameFieldEnabled;
+    }
+
+    @Config("optimizer.optimize-multiple-json-extract-scalar-on-same-field")
+    @ConfigDescription("Enable combining json_extract_scalar calls with different paths on the same field into one call that parses the JSON once")
+    public FeaturesConfig setOptimizeMultipleJsonExtractScalarOnSameFieldEnabled(boolean isOptimizeMultipleJsonExtractScalarOnSameFieldEnabled)
+    {
+        this.isOptimizeMultipleJsonExtractScalarOnSameFieldEnabled = isOptimizeMultipleJsonExtractScalarOnSameFieldEnabled;
+        return this;
+    }
+
     @Config("native-execution-enabled")
     @ConfigDescription("Enable execution on native engine")
     public FeaturesConfig setNativeExecutionEnabled(boolean nativeExecutionEnabled)
@@ -16,6 +16,7 @@ package com.facebook.presto.sql.analyzer;
 import com.facebook.airlift.configuration.Config;
 import com.facebook.airlift.configuration.ConfigDescription;
 import com.facebook.airlift.units.DataSize;
+import jakarta.validation.constraints.Min;
 
 import static com.facebook.airlift.units.DataSize.Unit.MEGABYTE;
 
@@ -28,6 +29,7 @@ public class JavaFeaturesConfig
     private boolean distinctAggregationLargeBlockSpillEnabled;
     private boolean orderByAggregationSpillEnabled = true;
     private boolean orderBySpillEnabled = true;
+    private int orderBySpillMergeFanIn = 64;
     private boolean windowSpillEnabled = true;
     private DataSize distinctAggregationLargeBlockSizeThreshold = new DataSize(50, MEGABYTE);
     private DataSize topNOperatorUnspillMemoryLimit = new DataSize(4, MEGABYTE);
@@ -46,6 +48,20 @@ public class JavaFeaturesConfig
         return this;
     }
 
+    @Min(2)
+    public int getOrderBySpillMergeFanIn()
+    {
+        return orderBySpillMergeFanIn;
+    }
+
+    @Config("experimental.order-by-spill-merge-fan-in")
+    @ConfigDescription("Maximum number of sorted runs merged at once by a spilling Order-by Operator")
+    public JavaFeaturesConfig setOrderBySpillMergeFanIn(int orderBySpillMergeFanIn)
+    {
+        this.orderBySpillMergeFanIn = orderBySpillMergeFanIn;
+        return this;
+    }
+
     public boolean isWindowSpillEnabled()
     {
         return windowSpillEnabled;
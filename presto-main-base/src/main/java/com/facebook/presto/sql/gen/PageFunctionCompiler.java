@@ -29,9 +29,13 @@ import com.facebook.presto.bytecode.control.IfStatement;
 import com.facebook.presto.common.Page;
 import com.facebook.presto.common.block.Block;
 import com.facebook.presto.common.block.BlockBuilder;
+import com.facebook.presto.common.function.OperatorType;
 import com.facebook.presto.common.function.SqlFunctionProperties;
+import com.facebook.presto.common.type.Type;
 import com.facebook.presto.metadata.Metadata;
 import com.facebook.presto.operator.Work;
+import com.facebook.presto.operator.project.ColumnarPageFilter;
+import com.facebook.presto.operator.project.ColumnarPageFilter.RangePredicate;
 import com.facebook.presto.operator.project.ConstantPageProjection;
 import com.facebook.presto.operator.project.GeneratedPageProjection;
 import com.facebook.presto.operator.project.InputChannels;
@@ -63,6 +67,7 @@ import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.primitives.Primitives;
 import com.google.common.util.concurrent.UncheckedExecutionException;
 import jakarta.annotation.Nullable;
@@ -98,6 +103,17 @@ import static com.facebook.presto.bytecode.expression.BytecodeExpressions.invoke
 import static com.facebook.presto.bytecode.expression.BytecodeExpressions.lessThan;
 import static com.facebook.presto.bytecode.expression.BytecodeExpressions.newArray;
 import static com.facebook.presto.bytecode.expression.BytecodeExpressions.not;
+import static com.facebook.presto.common.function.OperatorType.BETWEEN;
+import static com.facebook.presto.common.function.OperatorType.GREATER_THAN;
+import static com.facebook.presto.common.function.OperatorType.GREATER_THAN_OR_EQUAL;
+import static com.facebook.presto.common.function.OperatorType.LESS_THAN;
+import static com.facebook.presto.common.function.OperatorType.LESS_THAN_OR_EQUAL;
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.common.type.DateType.DATE;
+import static com.facebook.presto.common.type.IntegerType.INTEGER;
+import static com.facebook.presto.common.type.SmallintType.SMALLINT;
+import static com.facebook.presto.common.type.TinyintType.TINYINT;
+import static com.facebook.presto.expressions.LogicalRowExpressions.extractConjuncts;
 import static com.facebook.presto.operator.project.PageFieldsToInputParametersRewriter.rewritePageFieldsToInputParameters;
 import static com.facebook.presto.spi.StandardErrorCode.COMPILER_ERROR;
 import static com.facebook.presto.sql.gen.BytecodeUtils.boxPrimitiveIfNecessary;
@@ -130,9 +146,12 @@ public class PageFunctionCompiler
     // spent in evaluate. The root cause is not well understood. Maybe when the function is too large JIT has problem optimizing it. Empirical evidence shows that when there
     // are less than 10 projections performance is generally better with common sub-expressions. So we set an upper limit on how many projections we would compile together here.
     private static final int MAX_PROJECTION_GROUP_SIZE = 10;
+    // types whose values are stored as longs and ordered by their long value
+    private static final Set<Type> RANGE_PREDICATE_TYPES = ImmutableSet.of(BIGINT, INTEGER, SMALLINT, TINYINT, DATE);
 
     private final Metadata metadata;
     private final DeterminismEvaluator determinismEvaluator;
+    private final boolean columnarFilterEvaluationEnabled;
 
     private final LoadingCache<CacheKey, Supplier<PageProjection>> projectionCache;
     private final LoadingCache<CacheKey, Supplier<PageFilter>> filterCache;
@@ -143,13 +162,19 @@ public class PageFunctionCompiler
     @Inject
     public PageFunctionCompiler(Metadata metadata, CompilerConfig config)
     {
-        this(metadata, requireNonNull(config, "config is null").getExpressionCacheSize());
+        this(metadata, requireNonNull(config, "config is null").getExpressionCacheSize(), config.isColumnarFilterEvaluationEnabled());
     }
 
     public PageFunctionCompiler(Metadata metadata, int expressionCacheSize)
+    {
+        this(metadata, expressionCacheSize, false);
+    }
+
+    public PageFunctionCompiler(Metadata metadata, int expressionCacheSize, boolean columnarFilterEvaluationEnabled)
     {
         this.metadata = requireNonNull(metadata, "metadata is null");
         this.determinismEvaluator = new RowExpressionDeterminismEvaluator(metadata.getFunctionAndTypeManager());
+        this.columnarFilterEvaluationEnabled = columnarFilterEvaluationEnabled;
 
         if (expressionCacheSize > 0) {
             projectionCache = CacheBuilder.newBuilder()
@@ -674,6 +699,15 @@ public class PageFunctionCompiler
 
         PageFieldsToInputParametersRewriter.Result result = rewritePageFieldsToInputParameters(filter);
 
+        if (columnarFilterEvaluationEnabled) {
+            Optional<List<RangePredicate>> rangePredicates = extractRangePredicates(result.getRewrittenExpression());
+            if (rangePredicates.isPresent()) {
+                InputChannels inputChannels = result.getInputChannels();
+                List<RangePredicate> predicates = rangePredicates.get();
+                return () -> new ColumnarPageFilter(inputChannels, predicates);
+            }
+        }
+
         CallSiteBinder callSiteBinder = new CallSiteBinder();
         ClassDefinition classDefinition = defineFilterClass(
                 sqlFunctionProperties,
@@ -705,6 +739,109 @@ public class PageFunctionCompiler
         };
     }
 
+    /**
+     * Returns the range predicates equivalent to {@code filter}, if it is a conjunction of comparisons
+     * of columns with constants, and the columns have a type whose values are ordered as longs.
+     */
+    private Optional<List<RangePredicate>> extractRangePredicates(RowExpression filter)
+    {
+        ImmutableList.Builder<RangePredicate> predicates = ImmutableList.builder();
+        for (RowExpression conjunct : extractConjuncts(filter)) {
+            Optional<RangePredicate> predicate = toRangePredicate(conjunct);
+            if (!predicate.isPresent()) {
+                return Optional.empty();
+            }
+            predicates.add(predicate.get());
+        }
+        return Optional.of(predicates.build());
+    }
+
+    private Optional<RangePredicate> toRangePredicate(RowExpression expression)
+    {
+        if (!(expression instanceof CallExpression)) {
+            return Optional.empty();
+        }
+        CallExpression call = (CallExpression) expression;
+        Optional<OperatorType> operatorType = metadata.getFunctionAndTypeManager().getFunctionMetadata(call.getFunctionHandle()).getOperatorType();
+        if (!operatorType.isPresent() || call.getArguments().isEmpty() || !call.getArguments().stream().allMatch(argument -> argument.getType().equals(call.getArguments().get(0).getType()))) {
+            return Optional.empty();
+        }
+        List<RowExpression> arguments = call.getArguments();
+        Type type = arguments.get(0).getType();
+        if (!RANGE_PREDICATE_TYPES.contains(type)) {
+            return Optional.empty();
+        }
+
+        if (operatorType.get() == BETWEEN) {
+            if (!(arguments.get(0) instanceof InputReferenceExpression) || !isNonNullConstant(arguments.get(1)) || !isNonNullConstant(arguments.get(2))) {
+                return Optional.empty();
+            }
+            int channel = ((InputReferenceExpression) arguments.get(0)).getField();
+            return Optional.of(new RangePredicate(channel, type, getLongValue(arguments.get(1)), getLongValue(arguments.get(2)), false));
+        }
+
+        if (arguments.size() != 2) {
+            return Optional.empty();
+        }
+        OperatorType comparison = operatorType.get();
+        RowExpression column = arguments.get(0);
+        RowExpression constant = arguments.get(1);
+        if (column instanceof ConstantExpression) {
+            // normalize "constant < column" to "column > constant"
+            column = arguments.get(1);
+            constant = arguments.get(0);
+            comparison = flipComparison(comparison);
+        }
+        if (!(column instanceof InputReferenceExpression) || !isNonNullConstant(constant)) {
+            return Optional.empty();
+        }
+        int channel = ((InputReferenceExpression) column).getField();
+        long value = getLongValue(constant);
+        switch (comparison) {
+            case EQUAL:
+                return Optional.of(new RangePredicate(channel, type, value, value, false));
+            case NOT_EQUAL:
+                return Optional.of(new RangePredicate(channel, type, value, value, true));
+            case LESS_THAN:
+                // an empty range when the constant is the minimum value
+                return Optional.of(value == Long.MIN_VALUE ? new RangePredicate(channel, type, 0, -1, false) : new RangePredicate(channel, type, Long.MIN_VALUE, value - 1, false));
+            case LESS_THAN_OR_EQUAL:
+                return Optional.of(new RangePredicate(channel, type, Long.MIN_VALUE, value, false));
+            case GREATER_THAN:
+                return Optional.of(value == Long.MAX_VALUE ? new RangePredicate(channel, type, 0, -1, false) : new RangePredicate(channel, type, value + 1, Long.MAX_VALUE, false));
+            case GREATER_THAN_OR_EQUAL:
+                return Optional.of(new RangePredicate(channel, type, value, Long.MAX_VALUE, false));
+            default:
+                return Optional.empty();
+        }
+    }
+
+    private static OperatorType flipComparison(OperatorType operatorType)
+    {
+        switch (operatorType) {
+            case LESS_THAN:
+                return GREATER_THAN;
+            case LESS_THAN_OR_EQUAL:
+                return GREATER_THAN_OR_EQUAL;
+            case GREATER_THAN:
+                return LESS_THAN;
+            case GREATER_THAN_OR_EQUAL:
+                return LESS_THAN_OR_EQUAL;
+            default:
+                return operatorType;
+        }
+    }
+
+    private static boolean isNonNullConstant(RowExpression expression)
+    {
+        return expression instanceof ConstantExpression && !((ConstantExpression) expression).isNull();
+    }
+
+    private static long getLongValue(RowExpression constant)
+    {
+        return (Long) ((ConstantExpression) constant).getValue();
+    }
+
     private static ParameterizedType generateFilterClassName(Optional<String> classNameSuffix)
     {
         return makeClassName(PageFilter.class.getSimpleName(), classNameSuffix);
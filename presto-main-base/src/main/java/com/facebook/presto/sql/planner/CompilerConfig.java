@@ -25,6 +25,7 @@ public class CompilerConfig
     private int expressionCacheSize = 10_000;
     private int leafNodeLimit = 10_000;
     private boolean leafNodeLimitEnabled;
+    private boolean columnarFilterEvaluationEnabled;
 
     @Min(0)
     public int getExpressionCacheSize()
@@ -65,4 +66,17 @@ public class CompilerConfig
         this.leafNodeLimitEnabled = enabled;
         return this;
     }
+
+    public boolean isColumnarFilterEvaluationEnabled()
+    {
+        return columnarFilterEvaluationEnabled;
+    }
+
+    @Config("compiler.columnar-filter-evaluation-enabled")
+    @ConfigDescription("Evaluate conjunctions of comparisons of integer and date columns with constants one predicate at a time, in order of selectivity")
+    public CompilerConfig setColumnarFilterEvaluationEnabled(boolean columnarFilterEvaluationEnabled)
+    {
+        this.columnarFilterEvaluationEnabled = columnarFilterEvaluationEnabled;
+        return this;
+    }
 }
@@ -13,7 +13,9 @@
  */
 package com.facebook.presto.sql.planner;
 
+import com.facebook.presto.common.predicate.BlockedBloomFilter;
 import com.facebook.presto.common.predicate.Domain;
+import com.facebook.presto.common.predicate.Range;
 import com.facebook.presto.common.predicate.TupleDomain;
 import com.facebook.presto.expressions.DynamicFilters.DynamicFilterExtractResult;
 import com.facebook.presto.expressions.DynamicFilters.DynamicFilterPlaceholder;
@@ -29,12 +31,14 @@ import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Consumer;
 
+import static com.facebook.presto.common.function.OperatorType.EQUAL;
 import static com.facebook.presto.expressions.DynamicFilters.extractDynamicFilters;
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static com.google.common.base.Verify.verify;
@@ -51,12 +55,18 @@ public class LocalDynamicFilter
 
     private final SettableFuture<TupleDomain<VariableReferenceExpression>> resultFuture;
 
+    // Completed before resultFuture, so that the bloom filters are in place once the predicate is applied.
+    private final SettableFuture<Map<VariableReferenceExpression, BlockedBloomFilter>> bloomFilterResultFuture;
+
     // Number of build-side partitions to be collected.
     private final int partitionCount;
 
     // The resulting predicates from each build-side partition.
     private final List<TupleDomain<String>> partitions;
 
+    // The union of the bloom filters reported by build-side partitions, by dynamic filter ID.
+    private final Map<String, BlockedBloomFilter> bloomFilters = new HashMap<>();
+
     public LocalDynamicFilter(Multimap<String, DynamicFilterPlaceholder> probeVariables, Map<String, Integer> buildChannels, int partitionCount)
     {
         this.probeVariables = requireNonNull(probeVariables, "probeVariables is null");
@@ -64,6 +74,7 @@ public class LocalDynamicFilter
         verify(probeVariables.keySet().equals(buildChannels.keySet()), "probeVariables and buildChannels must have same keys");
 
         this.resultFuture = SettableFuture.create();
+        this.bloomFilterResultFuture = SettableFuture.create();
 
         this.partitionCount = partitionCount;
         this.partitions = new ArrayList<>(partitionCount);
@@ -79,10 +90,73 @@ public class LocalDynamicFilter
         if (partitions.size() == partitionCount) {
             // No more partitions are left to be processed.
             TupleDomain<VariableReferenceExpression> result = convertTupleDomain(TupleDomain.columnWiseUnion(partitions));
+            verify(bloomFilterResultFuture.set(convertBloomFilters()), "dynamic filter bloom filters are provided more than once");
             verify(resultFuture.set(result), "dynamic filter result is provided more than once");
         }
     }
 
+    private synchronized void addBloomFilters(Map<String, BlockedBloomFilter> partitionBloomFilters)
+    {
+        // Called by DynamicFilterSourceOperator instances which exceeded the exact values limit, before they report their predicate.
+        verify(partitions.size() < partitionCount);
+        for (Map.Entry<String, BlockedBloomFilter> entry : partitionBloomFilters.entrySet()) {
+            BlockedBloomFilter bloomFilter = bloomFilters.get(entry.getKey());
+            if (bloomFilter == null) {
+                bloomFilters.put(entry.getKey(), entry.getValue());
+            }
+            else {
+                bloomFilter.merge(entry.getValue());
+            }
+        }
+    }
+
+    private Map<VariableReferenceExpression, BlockedBloomFilter> convertBloomFilters()
+    {
+        ImmutableMap.Builder<VariableReferenceExpression, BlockedBloomFilter> builder = ImmutableMap.builder();
+        for (Map.Entry<String, BlockedBloomFilter> entry : bloomFilters.entrySet()) {
+            if (!addExactValues(entry.getKey(), entry.getValue())) {
+                continue;
+            }
+            for (DynamicFilterPlaceholder placeholder : probeVariables.get(entry.getKey())) {
+                // Bloom filters only answer equality lookups
+                if (placeholder.getOperator() == EQUAL) {
+                    builder.put((VariableReferenceExpression) placeholder.getInput(), entry.getValue());
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Partitions which did not exceed the exact values limit report discrete values instead of a bloom filter.
+     * Those values have to be added as well, otherwise the bloom filter would reject matching probe rows.
+     * Any other predicate comes from a partition which has also reported a bloom filter.
+     */
+    private boolean addExactValues(String filterId, BlockedBloomFilter bloomFilter)
+    {
+        for (TupleDomain<String> partition : partitions) {
+            if (partition.isNone()) {
+                continue;
+            }
+            Domain domain = partition.getDomains().get().get(filterId);
+            if (domain == null || domain.getValues().isNone() || domain.getValues().isAll()) {
+                continue;
+            }
+            List<Range> ranges = domain.getValues().getRanges().getOrderedRanges();
+            if (!ranges.stream().allMatch(Range::isSingleValue)) {
+                continue;
+            }
+            for (Range range : ranges) {
+                Object value = range.getSingleValue();
+                if (!(value instanceof Long)) {
+                    return false;
+                }
+                bloomFilter.putLong((Long) value);
+            }
+        }
+        return true;
+    }
+
     private TupleDomain<VariableReferenceExpression> convertTupleDomain(TupleDomain<String> result)
     {
         if (result.isNone()) {
@@ -156,11 +230,21 @@ public class LocalDynamicFilter
         return resultFuture;
     }
 
+    public ListenableFuture<Map<VariableReferenceExpression, BlockedBloomFilter>> getBloomFilterResultFuture()
+    {
+        return bloomFilterResultFuture;
+    }
+
     public Consumer<TupleDomain<String>> getTupleDomainConsumer()
     {
         return this::addPartition;
     }
 
+    public Consumer<Map<String, BlockedBloomFilter>> getBloomFilterConsumer()
+    {
+        return this::addBloomFilters;
+    }
+
     @Override
     public String toString()
     {
@@ -169,6 +253,7 @@ public class LocalDynamicFilter
                 .add("buildChannels", buildChannels)
                 .add("partitionCount", partitionCount)
                 .add("partitions", partitions)
+                .add("bloomFilters", bloomFilters.keySet())
                 .toString();
     }
 }
@@ -0,0 +1,203 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.sql.planner.iterative.rule;
+
+import com.facebook.presto.Session;
+import com.facebook.presto.common.QualifiedObjectName;
+import com.facebook.presto.common.block.BlockBuilder;
+import com.facebook.presto.common.type.ArrayType;
+import com.facebook.presto.common.type.VarcharType;
+import com.facebook.presto.expressions.DefaultRowExpressionTraversalVisitor;
+import com.facebook.presto.expressions.RowExpressionRewriter;
+import com.facebook.presto.expressions.RowExpressionTreeRewriter;
+import com.facebook.presto.matching.Captures;
+import com.facebook.presto.matching.Pattern;
+import com.facebook.presto.metadata.FunctionAndTypeManager;
+import com.facebook.presto.operator.scalar.JsonExtractScalarsFunction;
+import com.facebook.presto.spi.plan.Assignments;
+import com.facebook.presto.spi.plan.ProjectNode;
+import com.facebook.presto.spi.relation.CallExpression;
+import com.facebook.presto.spi.relation.ConstantExpression;
+import com.facebook.presto.spi.relation.RowExpression;
+import com.facebook.presto.spi.relation.VariableReferenceExpression;
+import com.facebook.presto.sql.planner.iterative.Rule;
+import com.facebook.presto.sql.relational.FunctionResolution;
+import com.google.common.collect.ImmutableList;
+import io.airlift.slice.Slice;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.facebook.presto.SystemSessionProperties.isCombineJsonExtractScalarEnabled;
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.common.type.VarcharType.VARCHAR;
+import static com.facebook.presto.metadata.BuiltInTypeAndFunctionNamespaceManager.JAVA_BUILTIN_NAMESPACE;
+import static com.facebook.presto.sql.planner.plan.Patterns.project;
+import static com.facebook.presto.sql.relational.Expressions.call;
+import static com.facebook.presto.sql.relational.Expressions.constant;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * For multiple json_extract_scalar() calls on the same column with different constant paths, extract all paths
+ * with one call that parses each JSON value once.
+ * <p>
+ * From:
+ * <pre>
+ * - Project (a <- json_extract_scalar(payload, '$.a'), b <- CAST(json_extract_scalar(payload, '$.b') AS bigint))
+ * </pre>
+ * To:
+ * <pre>
+ * - Project (a <- element_at(extracted, 1), b <- CAST(element_at(extracted, 2) AS bigint))
+ *   - Project (payload <- payload, extracted <- $internal$json_extract_scalars(payload, ARRAY['$.a', '$.b']))
+ * </pre>
+ */
+public class CombineJsonExtractScalarFunctions
+        implements Rule<ProjectNode>
+{
+    private static final QualifiedObjectName JSON_EXTRACT_SCALAR = QualifiedObjectName.valueOf(JAVA_BUILTIN_NAMESPACE, "json_extract_scalar");
+    private static final String ELEMENT_AT = "element_at";
+    // Same limit as for the array constructor, which bounds the number of elements of an array literal.
+    private static final int MAX_PATHS = 254;
+
+    private static final Pattern<ProjectNode> PATTERN = project();
+
+    private final FunctionAndTypeManager functionAndTypeManager;
+    private final FunctionResolution functionResolution;
+
+    public CombineJsonExtractScalarFunctions(FunctionAndTypeManager functionAndTypeManager)
+    {
+        this.functionAndTypeManager = requireNonNull(functionAndTypeManager, "functionAndTypeManager is null");
+        this.functionResolution = new FunctionResolution(functionAndTypeManager.getFunctionAndTypeResolver());
+    }
+
+    @Override
+    public Pattern<ProjectNode> getPattern()
+    {
+        return PATTERN;
+    }
+
+    @Override
+    public boolean isEnabled(Session session)
+    {
+        return isCombineJsonExtractScalarEnabled(session);
+    }
+
+    @Override
+    public Result apply(ProjectNode node, Captures captures, Context context)
+    {
+        // Group the distinct json_extract_scalar calls by the column they extract from, keeping the path of each call
+        Map<VariableReferenceExpression, Map<CallExpression, Slice>> callsByColumn = new LinkedHashMap<>();
+        DefaultRowExpressionTraversalVisitor<Void> collector = new DefaultRowExpressionTraversalVisitor<Void>()
+        {
+            @Override
+            public Void visitCall(CallExpression call, Void context)
+            {
+                Optional<Slice> path = getConstantPath(call);
+                if (path.isPresent()) {
+                    Map<CallExpression, Slice> calls = callsByColumn.computeIfAbsent((VariableReferenceExpression) call.getArguments().get(0), column -> new LinkedHashMap<>());
+                    if (calls.size() < MAX_PATHS) {
+                        calls.putIfAbsent(call, path.get());
+                    }
+                    return null;
+                }
+                return super.visitCall(call, context);
+            }
+        };
+        node.getAssignments().getExpressions().forEach(expression -> expression.accept(collector, null));
+
+        Assignments.Builder sourceAssignments = Assignments.builder();
+        Map<CallExpression, RowExpression> replacements = new HashMap<>();
+        for (Map.Entry<VariableReferenceExpression, Map<CallExpression, Slice>> entry : callsByColumn.entrySet()) {
+            Map<CallExpression, Slice> calls = entry.getValue();
+            if (calls.size() < 2) {
+                continue;
+            }
+
+            BlockBuilder paths = VARCHAR.createBlockBuilder(null, calls.size());
+            calls.values().forEach(path -> VARCHAR.writeSlice(paths, path));
+            // the result elements have the type of json_extract_scalar, which is varchar(x) for a varchar(x) column
+            ArrayType resultType = new ArrayType(calls.keySet().iterator().next().getType());
+            CallExpression extractAll = call(
+                    functionAndTypeManager,
+                    JsonExtractScalarsFunction.NAME,
+                    resultType,
+                    ImmutableList.of(entry.getKey(), constant(paths.build(), new ArrayType(VARCHAR))));
+            VariableReferenceExpression extracted = context.getVariableAllocator().newVariable(extractAll);
+            sourceAssignments.put(extracted, extractAll);
+
+            long index = 1;
+            for (CallExpression call : calls.keySet()) {
+                replacements.put(call, call(
+                        functionAndTypeManager,
+                        ELEMENT_AT,
+                        call.getType(),
+                        ImmutableList.of(extracted, constant(index, BIGINT))));
+                index++;
+            }
+        }
+
+        if (replacements.isEmpty()) {
+            return Result.empty();
+        }
+
+        node.getSource().getOutputVariables().forEach(variable -> sourceAssignments.put(variable, variable));
+
+        Assignments.Builder assignments = Assignments.builder();
+        node.getAssignments().forEach((variable, expression) -> assignments.put(variable, RowExpressionTreeRewriter.rewriteWith(new RowExpressionRewriter<Void>()
+        {
+            @Override
+            public RowExpression rewriteCall(CallExpression call, Void context, RowExpressionTreeRewriter<Void> treeRewriter)
+            {
+                return replacements.get(call);
+            }
+        }, expression)));
+
+        return Result.ofPlanNode(new ProjectNode(
+                node.getSourceLocation(),
+                node.getId(),
+                new ProjectNode(
+                        node.getSourceLocation(),
+                        context.getIdAllocator().getNextId(),
+                        node.getSource(),
+                        sourceAssignments.build(),
+                        node.getLocality()),
+                assignments.build(),
+                node.getLocality()));
+    }
+
+    /**
+     * Returns the path of a json_extract_scalar call on a column with a constant path.
+     */
+    private Optional<Slice> getConstantPath(CallExpression call)
+    {
+        if (call.getArguments().size() != 2
+                || !(call.getArguments().get(0) instanceof VariableReferenceExpression)
+                || !functionAndTypeManager.getFunctionMetadata(call.getFunctionHandle()).getName().equals(JSON_EXTRACT_SCALAR)) {
+            return Optional.empty();
+        }
+        // the path literal is coerced to JsonPath, which is not a literal type, so the cast is not folded by the planner
+        RowExpression path = call.getArguments().get(1);
+        if (!(path instanceof CallExpression) || !functionResolution.isCastFunction(((CallExpression) path).getFunctionHandle())) {
+            return Optional.empty();
+        }
+        RowExpression pathLiteral = ((CallExpression) path).getArguments().get(0);
+        if (!(pathLiteral instanceof ConstantExpression) || !(pathLiteral.getType() instanceof VarcharType) || ((ConstantExpression) pathLiteral).isNull()) {
+            return Optional.empty();
+        }
+        return Optional.of((Slice) ((ConstantExpression) pathLiteral).getValue());
+    }
+}
@@ -47,6 +47,7 @@ public class HashCollisionPlanNodeStats
             long planNodeOutputPositions,
             DataSize planNodeOutputDataSize,
             DataSize planNodePeakMemorySize,
+            DataSize planNodeAllocation,
             Map<String, OperatorInputStats> operatorInputStats,
             long planNodeNullJoinBuildKeyCount,
             long planNodeJoinBuildKeyCount,
@@ -57,7 +58,7 @@ public class HashCollisionPlanNodeStats
     {
         super(planNodeId, planNodeScheduledTime, planNodeCpuTime, planNodeBlockedWallTime, planNodeAddInputWallTime, planNodeGetOutputWallTime, planNodeFinishWallTime,
                 planNodeInputPositions, planNodeInputDataSize, planNodeRawInputPositions, planNodeRawInputDataSize, planNodeOutputPositions, planNodeOutputDataSize,
-                planNodePeakMemorySize, operatorInputStats, planNodeNullJoinBuildKeyCount, planNodeJoinBuildKeyCount, planNodeNullJoinProbeKeyCount, planNodeJoinProbeKeyCount, dynamicFilterStats);
+                planNodePeakMemorySize, planNodeAllocation, operatorInputStats, planNodeNullJoinBuildKeyCount, planNodeJoinBuildKeyCount, planNodeNullJoinProbeKeyCount, planNodeJoinProbeKeyCount, dynamicFilterStats);
         this.operatorHashCollisionsStats = requireNonNull(operatorHashCollisionsStats, "operatorHashCollisionsStats is null");
     }
 
@@ -117,6 +118,7 @@ public class HashCollisionPlanNodeStats
                 merged.getPlanNodeOutputPositions(),
                 merged.getPlanNodeOutputDataSize(),
                 merged.getPlanNodePeakMemorySize(),
+                merged.getPlanNodeAllocation(),
                 merged.operatorInputStats,
                 merged.getPlanNodeNullJoinBuildKeyCount(),
                 merged.getPlanNodeJoinBuildKeyCount(),
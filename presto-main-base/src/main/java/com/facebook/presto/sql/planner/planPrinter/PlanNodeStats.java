@@ -54,6 +54,7 @@ public class PlanNodeStats
     private final DataSize planNodeOutputDataSize;
 
     private final DataSize planNodePeakMemorySize;
+    private final DataSize planNodeAllocation;
     protected final Map<String, OperatorInputStats> operatorInputStats;
     private final long planNodeNullJoinBuildKeyCount;
     private final long planNodeJoinBuildKeyCount;
@@ -77,6 +78,7 @@ public class PlanNodeStats
             @JsonProperty("planNodeOutputPositions") long planNodeOutputPositions,
             @JsonProperty("planNodeOutputDataSize") DataSize planNodeOutputDataSize,
             @JsonProperty("planNodePeakMemorySize") DataSize planNodePeakMemorySize,
+            @JsonProperty("planNodeAllocation") DataSize planNodeAllocation,
             @JsonProperty("operatorInputStats") Map<String, OperatorInputStats> operatorInputStats,
             @JsonProperty("planNodeNullJoinBuildKeyCount") long planNodeNullJoinBuildKeyCount,
             @JsonProperty("planNodeJoinBuildKeyCount") long planNodeJoinBuildKeyCount,
@@ -101,6 +103,8 @@ public class PlanNodeStats
 
         this.operatorInputStats = requireNonNull(operatorInputStats, "operatorInputStats is null");
         this.planNodePeakMemorySize = planNodePeakMemorySize;
+        // stats serialized before the allocation was tracked do not have it
+        this.planNodeAllocation = planNodeAllocation == null ? succinctBytes(0) : planNodeAllocation;
         this.planNodeNullJoinBuildKeyCount = planNodeNullJoinBuildKeyCount;
         this.planNodeJoinBuildKeyCount = planNodeJoinBuildKeyCount;
         this.planNodeNullJoinProbeKeyCount = planNodeNullJoinProbeKeyCount;
@@ -231,6 +235,12 @@ public class PlanNodeStats
         return planNodePeakMemorySize;
     }
 
+    @JsonProperty
+    public DataSize getPlanNodeAllocation()
+    {
+        return planNodeAllocation;
+    }
+
     @JsonProperty
     public long getPlanNodeNullJoinBuildKeyCount()
     {
@@ -286,6 +296,7 @@ public class PlanNodeStats
         long planNodeOutputPositions = this.planNodeOutputPositions + other.planNodeOutputPositions;
         DataSize planNodeOutputDataSize = succinctBytes((long) ((double) this.planNodeOutputDataSize.toBytes() + (double) other.planNodeOutputDataSize.toBytes()));
         DataSize planNodePeakMemorySize = succinctBytes(Math.max(this.planNodePeakMemorySize.toBytes(), other.planNodePeakMemorySize.toBytes()));
+        DataSize planNodeAllocation = succinctBytes(this.planNodeAllocation.toBytes() + other.planNodeAllocation.toBytes());
 
         Map<String, OperatorInputStats> operatorInputStats = mergeMaps(this.operatorInputStats, other.operatorInputStats, OperatorInputStats::merge);
         long planNodeNullJoinBuildKeyCount = this.planNodeNullJoinBuildKeyCount + other.planNodeNullJoinBuildKeyCount;
@@ -306,6 +317,7 @@ public class PlanNodeStats
                 planNodeRawInputPositions, planNodeRawInputDataSize,
                 planNodeOutputPositions, planNodeOutputDataSize,
                 planNodePeakMemorySize,
+                planNodeAllocation,
                 operatorInputStats,
 
                 planNodeNullJoinBuildKeyCount,
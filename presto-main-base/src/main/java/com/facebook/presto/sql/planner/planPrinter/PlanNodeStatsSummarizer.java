@@ -83,6 +83,7 @@ public class PlanNodeStatsSummarizer
         Map<PlanNodeId, Long> planNodeScheduledMillis = new HashMap<>();
         Map<PlanNodeId, Long> planNodeCpuMillis = new HashMap<>();
         Map<PlanNodeId, Long> planNodePeakMemory = new HashMap<>();
+        Map<PlanNodeId, Long> planNodeAllocation = new HashMap<>();
         Map<PlanNodeId, Long> planNodeBlockedMillis = new HashMap<>();
         Map<PlanNodeId, Long> planNodeAddInputMillis = new HashMap<>();
         Map<PlanNodeId, Long> planNodeGetOutputMillis = new HashMap<>();
@@ -124,6 +125,8 @@ public class PlanNodeStatsSummarizer
                 planNodeFinishMillis.merge(planNodeId, operatorStats.getFinishWall().toMillis(), Long::sum);
                 planNodeGetOutputMillis.merge(planNodeId, operatorStats.getGetOutputWall().toMillis(), Long::sum);
                 planNodePeakMemory.merge(planNodeId, operatorStats.getPeakTotalMemoryReservationInBytes(), Math::max);
+                long allocation = operatorStats.getAddInputAllocationInBytes() + operatorStats.getGetOutputAllocationInBytes() + operatorStats.getFinishAllocationInBytes();
+                planNodeAllocation.merge(planNodeId, allocation, Long::sum);
 
                 // A pipeline like hash build before join might link to another "internal" pipelines which provide actual input for this plan node
                 if (operatorStats.getPlanNodeId().equals(inputPlanNode) && !pipelineStats.isInputPipeline()) {
@@ -233,6 +236,7 @@ public class PlanNodeStatsSummarizer
                         outputPositions,
                         succinctDataSize(planNodeOutputBytes.getOrDefault(planNodeId, 0L), BYTE),
                         succinctDataSize(planNodePeakMemory.get(planNodeId), BYTE),
+                        succinctDataSize(planNodeAllocation.get(planNodeId), BYTE),
                         operatorInputStats.get(planNodeId),
                         planNodeNullJoinBuildKeyCount.get(planNodeId),
                         planNodeJoinBuildKeyCount.get(planNodeId),
@@ -257,6 +261,7 @@ public class PlanNodeStatsSummarizer
                         outputPositions,
                         succinctDataSize(planNodeOutputBytes.getOrDefault(planNodeId, 0L), BYTE),
                         succinctDataSize(planNodePeakMemory.get(planNodeId), BYTE),
+                        succinctDataSize(planNodeAllocation.get(planNodeId), BYTE),
                         operatorInputStats.get(planNodeId),
                         planNodeNullJoinBuildKeyCount.get(planNodeId),
                         planNodeJoinBuildKeyCount.get(planNodeId),
@@ -281,6 +286,7 @@ public class PlanNodeStatsSummarizer
                         outputPositions,
                         succinctDataSize(planNodeOutputBytes.getOrDefault(planNodeId, 0L), BYTE),
                         succinctDataSize(planNodePeakMemory.get(planNodeId), BYTE),
+                        succinctDataSize(planNodeAllocation.get(planNodeId), BYTE),
                         operatorInputStats.get(planNodeId),
                         planNodeNullJoinBuildKeyCount.get(planNodeId),
                         planNodeJoinBuildKeyCount.get(planNodeId),
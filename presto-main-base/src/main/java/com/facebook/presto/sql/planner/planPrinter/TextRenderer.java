@@ -132,6 +132,11 @@ public class TextRenderer
                 nodeStats.getPlanNodeScheduledTime().convertToMostSuccinctTimeUnit(),
                 formatDouble(scheduledTimeFraction)));
 
+        if (nodeStats.getPlanNodeAllocation().toBytes() > 0) {
+            // only collected when allocation tracking is enabled for the task
+            output.append(format(", Allocated: %s", nodeStats.getPlanNodeAllocation()));
+        }
+
         output.append(format(", Output: %s (%s)%n", formatPositions(nodeStats.getPlanNodeOutputPositions()), nodeStats.getPlanNodeOutputDataSize().toString()));
 
         printDistributions(output, nodeStats);
@@ -0,0 +1,207 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.execution.buffer;
+
+import com.facebook.presto.CompressionCodec;
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.block.BlockEncodingManager;
+import com.facebook.presto.spi.page.PagesSerde;
+import com.facebook.presto.spi.page.SerializedPage;
+import io.airlift.slice.DynamicSliceOutput;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+import org.testng.annotations.Test;
+
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+import static com.facebook.presto.block.BlockAssertions.assertBlockEquals;
+import static com.facebook.presto.block.BlockAssertions.createRandomDictionaryBlock;
+import static com.facebook.presto.block.BlockAssertions.createRandomLongsBlock;
+import static com.facebook.presto.block.BlockAssertions.createRandomStringBlock;
+import static com.facebook.presto.block.BlockAssertions.createRleBlockWithRandomValue;
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.common.type.VarcharType.VARCHAR;
+import static com.facebook.presto.spi.page.PagesSerdeUtil.readSerializedPages;
+import static com.facebook.presto.spi.page.PagesSerdeUtil.writeSerializedPage;
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Measures the exchange and spill serialization path: block encodings, compression and checksums.
+ * <p>
+ * Run with the GC profiler (see {@link #main}) to get allocated bytes per operation; the
+ * {@code bytes} counters report uncompressed page bytes, so their rate is the serde throughput.
+ */
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(2)
+@Warmup(iterations = 10, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 10, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@BenchmarkMode(Mode.Throughput)
+public class BenchmarkPagesSerde
+{
+    private static final int POSITIONS_PER_PAGE = 10_000;
+    private static final int MAX_STRING_LENGTH = 32;
+
+    @Benchmark
+    public SerializedPage serialize(BenchmarkData data, ThroughputCounters counters)
+    {
+        counters.bytes += data.page.getSizeInBytes();
+        return data.serde.serialize(data.page);
+    }
+
+    @Benchmark
+    public Page deserialize(BenchmarkData data, ThroughputCounters counters)
+    {
+        counters.bytes += data.page.getSizeInBytes();
+        return data.serde.deserialize(data.serializedPage);
+    }
+
+    @Benchmark
+    public Page roundTrip(BenchmarkData data, ThroughputCounters counters)
+    {
+        counters.bytes += data.page.getSizeInBytes();
+        DynamicSliceOutput output = new DynamicSliceOutput(data.serializedPage.getSizeInBytes());
+        writeSerializedPage(output, data.serde.serialize(data.page));
+        Iterator<SerializedPage> pages = readSerializedPages(output.slice().getInput());
+        return data.serde.deserialize(pages.next());
+    }
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class ThroughputCounters
+    {
+        public long bytes;
+
+        @Setup(Level.Iteration)
+        public void reset()
+        {
+            bytes = 0;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class BenchmarkData
+    {
+        @Param({"LONG", "VARIABLE_WIDTH", "DICTIONARY", "RUN_LENGTH"})
+        private BlockKind blockKind = BlockKind.LONG;
+
+        @Param({"0", "0.1", "0.5"})
+        private float nullRate;
+
+        @Param({"16", "1024"})
+        private int dictionarySize = 16;
+
+        @Param({"NONE", "LZ4", "ZSTD", "SNAPPY"})
+        private CompressionCodec codec = CompressionCodec.NONE;
+
+        @Param({"false", "true"})
+        private boolean checksumEnabled;
+
+        private PagesSerde serde;
+        private Page page;
+        private SerializedPage serializedPage;
+
+        @Setup
+        public void setup()
+        {
+            serde = new PagesSerdeFactory(new BlockEncodingManager(), codec, checksumEnabled).createPagesSerde();
+            page = new Page(blockKind.createBlock(nullRate, dictionarySize));
+            serializedPage = serde.serialize(page);
+        }
+    }
+
+    public enum BlockKind
+    {
+        LONG {
+            @Override
+            Block createBlock(float nullRate, int dictionarySize)
+            {
+                return createRandomLongsBlock(POSITIONS_PER_PAGE, nullRate);
+            }
+        },
+        VARIABLE_WIDTH {
+            @Override
+            Block createBlock(float nullRate, int dictionarySize)
+            {
+                return createRandomStringBlock(POSITIONS_PER_PAGE, nullRate, MAX_STRING_LENGTH);
+            }
+        },
+        DICTIONARY {
+            @Override
+            Block createBlock(float nullRate, int dictionarySize)
+            {
+                return createRandomDictionaryBlock(createRandomStringBlock(dictionarySize, nullRate, MAX_STRING_LENGTH), POSITIONS_PER_PAGE);
+            }
+        },
+        RUN_LENGTH {
+            @Override
+            Block createBlock(float nullRate, int dictionarySize)
+            {
+                return createRleBlockWithRandomValue(createRandomLongsBlock(dictionarySize, nullRate), POSITIONS_PER_PAGE);
+            }
+        };
+
+        abstract Block createBlock(float nullRate, int dictionarySize);
+    }
+
+    @Test
+    public void verifyRoundTrip()
+    {
+        for (BlockKind blockKind : BlockKind.values()) {
+            for (CompressionCodec codec : new CompressionCodec[] {CompressionCodec.NONE, CompressionCodec.LZ4, CompressionCodec.ZSTD, CompressionCodec.SNAPPY}) {
+                BenchmarkData data = new BenchmarkData();
+                data.blockKind = blockKind;
+                data.nullRate = 0.1f;
+                data.codec = codec;
+                data.checksumEnabled = true;
+                data.setup();
+
+                Page page = roundTrip(data, new ThroughputCounters());
+                assertEquals(page.getPositionCount(), POSITIONS_PER_PAGE);
+                assertBlockEquals(blockKind == BlockKind.LONG || blockKind == BlockKind.RUN_LENGTH ? BIGINT : VARCHAR, page.getBlock(0), data.page.getBlock(0));
+            }
+        }
+    }
+
+    public static void main(String[] args)
+            throws RunnerException
+    {
+        Options options = new OptionsBuilder()
+                .verbosity(VerboseMode.NORMAL)
+                .include(".*" + BenchmarkPagesSerde.class.getSimpleName() + ".*")
+                .addProfiler(GCProfiler.class)
+                .jvmArgs("-Xmx4g")
+                .build();
+        new Runner(options).run();
+    }
+}
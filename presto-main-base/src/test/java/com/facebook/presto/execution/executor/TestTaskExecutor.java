@@ -377,6 +377,32 @@ public class TestTaskExecutor
         }
     }
 
+    @Test(timeOut = 30_000)
+    public void testShardedSplitQueue()
+            throws Exception
+    {
+        MultilevelSplitQueue splitQueue = new MultilevelSplitQueue(2, 4);
+        TestingTicker ticker = new TestingTicker();
+        TaskExecutor taskExecutor = new TaskExecutor(8, 16, 1, 16, QUERY_FAIR, splitQueue, ticker);
+        taskExecutor.start();
+        try {
+            TaskHandle testTaskHandle = taskExecutor.addTask(new TaskId("test", 0, 0, 0, 0), () -> 0, 10, new Duration(1, MILLISECONDS), OptionalInt.empty());
+
+            // every split runs several quanta, so splits are re-offered to the queue and taken by different runners
+            ImmutableList.Builder<TestingJob> splits = ImmutableList.builder();
+            for (int i = 0; i < 64; i++) {
+                splits.add(new TestingJob(ticker, new Phaser(), new Phaser(), new Phaser(), 5, 10));
+            }
+            List<ListenableFuture<?>> futures = taskExecutor.enqueueSplits(testTaskHandle, false, splits.build());
+            Futures.allAsList(futures).get();
+
+            assertEquals(splitQueue.size(), 0);
+        }
+        finally {
+            taskExecutor.stop();
+        }
+    }
+
     @Test(timeOut = 30_000)
     public void testMinMaxDriversPerTask()
     {
@@ -17,6 +17,7 @@ import com.facebook.airlift.units.DataSize;
 import com.facebook.presto.common.Page;
 import com.facebook.presto.common.block.Block;
 import com.facebook.presto.common.block.BlockBuilder;
+import com.facebook.presto.common.predicate.BlockedBloomFilter;
 import com.facebook.presto.common.predicate.Domain;
 import com.facebook.presto.common.predicate.TupleDomain;
 import com.facebook.presto.common.predicate.ValueSet;
@@ -25,6 +26,7 @@ import com.facebook.presto.spi.plan.PlanNodeId;
 import com.facebook.presto.testing.MaterializedResult;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
@@ -32,16 +34,19 @@ import org.testng.annotations.Test;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.stream.IntStream;
 
 import static com.facebook.airlift.concurrent.Threads.daemonThreadsNamed;
+import static com.facebook.airlift.units.DataSize.Unit.BYTE;
 import static com.facebook.airlift.units.DataSize.Unit.KILOBYTE;
 import static com.facebook.presto.SessionTestUtils.TEST_SESSION;
 import static com.facebook.presto.block.BlockAssertions.createBlockOfReals;
 import static com.facebook.presto.block.BlockAssertions.createBooleansBlock;
 import static com.facebook.presto.block.BlockAssertions.createColorSequenceBlock;
+import static com.facebook.presto.block.BlockAssertions.createDateSequenceBlock;
 import static com.facebook.presto.block.BlockAssertions.createDoubleRepeatBlock;
 import static com.facebook.presto.block.BlockAssertions.createDoubleSequenceBlock;
 import static com.facebook.presto.block.BlockAssertions.createDoublesBlock;
@@ -53,6 +58,7 @@ import static com.facebook.presto.block.BlockAssertions.createStringsBlock;
 import static com.facebook.presto.common.predicate.Range.range;
 import static com.facebook.presto.common.type.BigintType.BIGINT;
 import static com.facebook.presto.common.type.BooleanType.BOOLEAN;
+import static com.facebook.presto.common.type.DateType.DATE;
 import static com.facebook.presto.common.type.DoubleType.DOUBLE;
 import static com.facebook.presto.common.type.DoubleType.OLD_NAN_DOUBLE;
 import static com.facebook.presto.common.type.IntegerType.INTEGER;
@@ -71,6 +77,7 @@ import static io.airlift.slice.Slices.utf8Slice;
 import static java.lang.Float.floatToRawIntBits;
 import static java.util.concurrent.Executors.newCachedThreadPool;
 import static java.util.concurrent.Executors.newScheduledThreadPool;
+import static org.testng.Assert.assertTrue;
 
 @Test(singleThreaded = true)
 public class TestDynamicFilterSourceOperator
@@ -80,6 +87,7 @@ public class TestDynamicFilterSourceOperator
     private PipelineContext pipelineContext;
 
     private ImmutableList.Builder<TupleDomain<String>> partitions;
+    private ImmutableList.Builder<Map<String, BlockedBloomFilter>> bloomFilters;
 
     @BeforeMethod
     public void setUp()
@@ -90,6 +98,7 @@ public class TestDynamicFilterSourceOperator
                 .addPipelineContext(0, true, true, false);
 
         partitions = ImmutableList.builder();
+        bloomFilters = ImmutableList.builder();
     }
 
     @AfterMethod(alwaysRun = true)
@@ -129,15 +138,28 @@ public class TestDynamicFilterSourceOperator
             int minMaxCollectionLimit,
             Iterable<DynamicFilterSourceOperator.Channel> buildChannels,
             boolean useNewNanDefinition)
+    {
+        return createOperatorFactory(maxFilterPositionsCount, maxFilterSize, minMaxCollectionLimit, new DataSize(0, BYTE), buildChannels, useNewNanDefinition);
+    }
+
+    private OperatorFactory createOperatorFactory(
+            int maxFilterPositionsCount,
+            DataSize maxFilterSize,
+            int minMaxCollectionLimit,
+            DataSize bloomFilterSize,
+            Iterable<DynamicFilterSourceOperator.Channel> buildChannels,
+            boolean useNewNanDefinition)
     {
         return new DynamicFilterSourceOperator.DynamicFilterSourceOperatorFactory(
                 0,
                 new PlanNodeId("PLAN_NODE_ID"),
                 this::consumePredicate,
+                this::consumeBloomFilters,
                 ImmutableList.copyOf(buildChannels),
                 maxFilterPositionsCount,
                 maxFilterSize,
                 minMaxCollectionLimit,
+                bloomFilterSize,
                 useNewNanDefinition);
     }
 
@@ -146,6 +168,11 @@ public class TestDynamicFilterSourceOperator
         partitions.add(partitionPredicate);
     }
 
+    private void consumeBloomFilters(Map<String, BlockedBloomFilter> partitionBloomFilters)
+    {
+        bloomFilters.add(partitionBloomFilters);
+    }
+
     private Operator createOperator(OperatorFactory operatorFactory)
     {
         return operatorFactory.createOperator(pipelineContext.addDriverContext());
@@ -582,4 +609,92 @@ public class TestDynamicFilterSourceOperator
                         new Page(createLongSequenceBlock(0, maxPositionsCount + 1))),
                 ImmutableList.of(TupleDomain.all()));
     }
+
+    @Test
+    public void testCollectBloomFilterWhenTooManyPositions()
+    {
+        int maxPositionsCount = 100;
+        OperatorFactory operatorFactory = createOperatorFactory(
+                maxPositionsCount,
+                new DataSize(10, KILOBYTE),
+                0,
+                new DataSize(64, KILOBYTE),
+                ImmutableList.of(channel(0, BIGINT), channel(1, VARCHAR)),
+                true);
+        verifyPassthrough(createOperator(operatorFactory),
+                ImmutableList.of(BIGINT, VARCHAR),
+                new Page(createLongSequenceBlock(0, 50), createStringsBlock(Collections.nCopies(50, "a"))),
+                new Page(createLongsBlock(Collections.nCopies(20, null)), createStringsBlock(Collections.nCopies(20, "b"))),
+                new Page(createLongSequenceBlock(1000, 1100), createStringsBlock(Collections.nCopies(100, "c"))));
+        operatorFactory.noMoreOperators();
+
+        // min/max collection is disabled, so the predicate allows all values and only the bloom filter remains
+        assertEquals(partitions.build(), ImmutableList.of(TupleDomain.all()));
+        List<Map<String, BlockedBloomFilter>> reportedBloomFilters = bloomFilters.build();
+        assertEquals(reportedBloomFilters.size(), 1);
+        assertEquals(reportedBloomFilters.get(0).keySet(), ImmutableSet.of("0"));
+
+        BlockedBloomFilter bloomFilter = reportedBloomFilters.get(0).get("0");
+        for (long value = 0; value < 50; value++) {
+            assertTrue(bloomFilter.mightContainLong(value));
+        }
+        for (long value = 1000; value < 1100; value++) {
+            assertTrue(bloomFilter.mightContainLong(value));
+        }
+        int falsePositives = 0;
+        for (long value = 50; value < 1000; value++) {
+            if (bloomFilter.mightContainLong(value)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 10, "too many false positives: " + falsePositives);
+    }
+
+    @Test
+    public void testBloomFilterMemoryIsAccounted()
+    {
+        OperatorFactory operatorFactory = createOperatorFactory(
+                100,
+                new DataSize(10, KILOBYTE),
+                0,
+                new DataSize(64, KILOBYTE),
+                ImmutableList.of(channel(0, BIGINT), channel(1, DATE)),
+                true);
+        Operator operator = createOperator(operatorFactory);
+        operatorFactory.noMoreOperators();
+
+        operator.addInput(new Page(createLongSequenceBlock(0, 50), createDateSequenceBlock(0, 50)));
+        operator.getOutput();
+        assertEquals(operator.getOperatorContext().getOperatorMemoryContext().getUserMemory(), 0L);
+
+        // both bloom filters are held by the operator until they are handed off
+        operator.addInput(new Page(createLongSequenceBlock(0, 100), createDateSequenceBlock(0, 100)));
+        operator.getOutput();
+        assertTrue(operator.getOperatorContext().getOperatorMemoryContext().getUserMemory() >= 2 * 64 * 1024);
+
+        operator.finish();
+        assertEquals(bloomFilters.build().size(), 1);
+        assertEquals(operator.getOperatorContext().getOperatorMemoryContext().getUserMemory(), 0L);
+    }
+
+    @Test
+    public void testNoBloomFilterForSmallBuildSide()
+    {
+        OperatorFactory operatorFactory = createOperatorFactory(
+                100,
+                new DataSize(10, KILOBYTE),
+                1_000_000,
+                new DataSize(64, KILOBYTE),
+                ImmutableList.of(channel(0, BIGINT)),
+                true);
+        verifyPassthrough(createOperator(operatorFactory),
+                ImmutableList.of(BIGINT),
+                new Page(createLongsBlock(1, 2, 3)));
+        operatorFactory.noMoreOperators();
+
+        assertEquals(partitions.build(), ImmutableList.of(
+                TupleDomain.withColumnDomains(ImmutableMap.of(
+                        "0", Domain.multipleValues(BIGINT, ImmutableList.of(1L, 2L, 3L))))));
+        assertEquals(bloomFilters.build(), ImmutableList.of());
+    }
 }
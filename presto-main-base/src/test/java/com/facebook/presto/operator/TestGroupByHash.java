@@ -37,12 +37,16 @@ import java.util.Optional;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.IntStream;
 
+import static com.facebook.presto.block.BlockAssertions.createBooleansBlock;
+import static com.facebook.presto.block.BlockAssertions.createIntsBlock;
 import static com.facebook.presto.block.BlockAssertions.createLongSequenceBlock;
 import static com.facebook.presto.block.BlockAssertions.createLongsBlock;
 import static com.facebook.presto.block.BlockAssertions.createStringSequenceBlock;
 import static com.facebook.presto.common.block.DictionaryId.randomDictionaryId;
 import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.common.type.BooleanType.BOOLEAN;
 import static com.facebook.presto.common.type.DoubleType.DOUBLE;
+import static com.facebook.presto.common.type.IntegerType.INTEGER;
 import static com.facebook.presto.common.type.VarcharType.VARCHAR;
 import static com.facebook.presto.operator.GroupByHash.createGroupByHash;
 import static com.facebook.presto.type.TypeUtils.getHashBlock;
@@ -232,6 +236,63 @@ public class TestGroupByHash
         assertTrue(groupByHash.contains(0, new Page(testValuesBlock, testStringValuesBlock, testHashBlock), hashChannels));
     }
 
+    @Test
+    public void testFixedWidthMultipleColumns()
+    {
+        List<Long> bigints = new ArrayList<>();
+        List<Integer> ints = new ArrayList<>();
+        List<Boolean> booleans = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            bigints.add(i % 10 == 0 ? null : (long) (i % 50));
+            ints.add(i % 7 == 0 ? null : i % 5);
+            booleans.add(i % 2 == 0);
+        }
+        Block bigintBlock = createLongsBlock(bigints);
+        Block intBlock = createIntsBlock(ints);
+        Block booleanBlock = createBooleansBlock(booleans);
+        List<Type> hashTypes = ImmutableList.of(BIGINT, INTEGER, BOOLEAN);
+        Block hashBlock = getHashBlock(hashTypes, bigintBlock, intBlock, booleanBlock);
+        Page page = new Page(bigintBlock, intBlock, booleanBlock, hashBlock);
+        int[] hashChannels = {0, 1, 2};
+
+        GroupByHash fixedWidthHash = createGroupByHash(TEST_SESSION, hashTypes, hashChannels, Optional.of(3), 4, JOIN_COMPILER);
+        assertTrue(fixedWidthHash instanceof FixedWidthGroupByHash);
+        GroupByHash multiChannelHash = new MultiChannelGroupByHash(hashTypes, hashChannels, Optional.of(3), 4, false, JOIN_COMPILER, UpdateMemory.NOOP);
+
+        Work<GroupByIdBlock> fixedWidthWork = fixedWidthHash.getGroupIds(page);
+        assertTrue(fixedWidthWork.process());
+        Work<GroupByIdBlock> multiChannelWork = multiChannelHash.getGroupIds(page);
+        assertTrue(multiChannelWork.process());
+
+        // both implementations assign group ids in order of first appearance
+        GroupByIdBlock fixedWidthGroupIds = fixedWidthWork.getResult();
+        GroupByIdBlock multiChannelGroupIds = multiChannelWork.getResult();
+        assertEquals(fixedWidthHash.getGroupCount(), multiChannelHash.getGroupCount());
+        for (int position = 0; position < page.getPositionCount(); position++) {
+            assertEquals(fixedWidthGroupIds.getGroupId(position), multiChannelGroupIds.getGroupId(position));
+            assertTrue(fixedWidthHash.contains(position, page, hashChannels));
+        }
+
+        PageBuilder fixedWidthPageBuilder = new PageBuilder(fixedWidthHash.getTypes());
+        PageBuilder multiChannelPageBuilder = new PageBuilder(multiChannelHash.getTypes());
+        for (int groupId = 0; groupId < fixedWidthHash.getGroupCount(); groupId++) {
+            fixedWidthPageBuilder.declarePosition();
+            fixedWidthHash.appendValuesTo(groupId, fixedWidthPageBuilder, 0);
+            multiChannelPageBuilder.declarePosition();
+            multiChannelHash.appendValuesTo(groupId, multiChannelPageBuilder, 0);
+            assertEquals(fixedWidthHash.getRawHash(groupId), multiChannelHash.getRawHash(groupId));
+        }
+        Page fixedWidthPage = fixedWidthPageBuilder.build();
+        Page multiChannelPage = multiChannelPageBuilder.build();
+        assertEquals(fixedWidthHash.getTypes(), multiChannelHash.getTypes());
+        for (int channel = 0; channel < fixedWidthHash.getTypes().size(); channel++) {
+            BlockAssertions.assertBlockEquals(fixedWidthHash.getTypes().get(channel), fixedWidthPage.getBlock(channel), multiChannelPage.getBlock(channel));
+        }
+
+        Page missingPage = new Page(createLongsBlock(1L), createIntsBlock(7), createBooleansBlock(true));
+        assertFalse(fixedWidthHash.contains(0, missingPage, hashChannels));
+    }
+
     @Test
     public void testForceRehash()
     {
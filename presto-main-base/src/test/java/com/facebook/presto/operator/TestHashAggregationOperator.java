@@ -50,8 +50,10 @@ import org.testng.annotations.Test;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
@@ -902,6 +904,78 @@ public class TestHashAggregationOperator
         assertFalse(partialAggregationController.isPartialAggregationDisabled());
     }
 
+    @Test
+    public void testAdaptivePartialAggregationByKeyGroup()
+    {
+        List<Integer> hashChannels = Ints.asList(0);
+        // large enough for the first page to be over the minimum input size to skip key groups, and small enough not to re-enable them
+        DataSize maxPartialMemory = new DataSize(1, MEGABYTE);
+        PartialAggregationController partialAggregationController = new PartialAggregationController(maxPartialMemory, 0.8, true);
+        HashAggregationOperatorFactory operatorFactory = new HashAggregationOperatorFactory(
+                0,
+                new PlanNodeId("test"),
+                ImmutableList.of(BIGINT),
+                hashChannels,
+                ImmutableList.of(),
+                ImmutableList.of(),
+                Step.PARTIAL,
+                false,
+                ImmutableList.of(generateAccumulatorFactory(COUNT, ImmutableList.of(0), Optional.empty())),
+                Optional.empty(),
+                Optional.empty(),
+                100,
+                Optional.of(maxPartialMemory),
+                false,
+                Optional.of(partialAggregationController),
+                new DataSize(0, MEGABYTE),
+                new DataSize(0, MEGABYTE),
+                new FailingSpillerFactory(),
+                joinCompiler,
+                false);
+
+        // the first page has distinct keys, except for a skewed key which repeats for half of the rows
+        long skewedKey = 7;
+        BlockBuilder firstPage = BIGINT.createBlockBuilder(null, 200_000);
+        for (long key = 0; key < 100_000; key++) {
+            BIGINT.writeLong(firstPage, key + 1_000);
+            BIGINT.writeLong(firstPage, skewedKey);
+        }
+        List<Page> input = ImmutableList.of(new Page(firstPage.build()));
+        DriverContext driverContext = createTaskContext(executor, scheduledExecutor, TEST_SESSION)
+                .addPipelineContext(0, true, true, false)
+                .addDriverContext();
+        assertEquals(sumCounts(toPages(operatorFactory, driverContext, input)).get(skewedKey).longValue(), 100_000);
+
+        // only the key group of the skewed key is still aggregated
+        int skewedKeyGroup = new InterpretedHashGenerator(ImmutableList.of(BIGINT), new int[] {0})
+                .getPartition(PartialAggregationController.KEY_GROUP_COUNT, 0, new Page(createLongsBlock(skewedKey)));
+        assertEquals(partialAggregationController.getSkippedKeyGroups(), ~(1L << skewedKeyGroup));
+
+        input = ImmutableList.of(new Page(createLongsBlock(skewedKey, 1, 2, skewedKey, 3, skewedKey)));
+        driverContext = createTaskContext(executor, scheduledExecutor, TEST_SESSION)
+                .addPipelineContext(0, true, true, false)
+                .addDriverContext();
+        List<Page> output = toPages(operatorFactory, driverContext, input);
+        Map<Long, Long> counts = sumCounts(output);
+        assertEquals(counts.get(skewedKey).longValue(), 3);
+        assertEquals(counts.get(1L).longValue(), 1);
+        assertEquals(counts.get(2L).longValue(), 1);
+        assertEquals(counts.get(3L).longValue(), 1);
+        // the skewed key is output once, and the other keys are passed through
+        assertEquals(output.stream().mapToInt(Page::getPositionCount).sum(), 4);
+    }
+
+    private static Map<Long, Long> sumCounts(List<Page> pages)
+    {
+        Map<Long, Long> counts = new HashMap<>();
+        for (Page page : pages) {
+            for (int position = 0; position < page.getPositionCount(); position++) {
+                counts.merge(BIGINT.getLong(page.getBlock(0), position), BIGINT.getLong(page.getBlock(1), position), Long::sum);
+            }
+        }
+        return counts;
+    }
+
     @Test
     public void testAdaptivePartialAggregationIsTriggeredOnlyOnFlush()
     {
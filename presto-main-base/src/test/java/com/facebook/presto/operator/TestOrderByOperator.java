@@ -16,18 +16,25 @@ package com.facebook.presto.operator;
 import com.facebook.airlift.units.DataSize;
 import com.facebook.airlift.units.DataSize.Unit;
 import com.facebook.presto.ExceededMemoryLimitException;
+import com.facebook.presto.RowPagesBuilder;
 import com.facebook.presto.common.Page;
 import com.facebook.presto.operator.OrderByOperator.OrderByOperatorFactory;
 import com.facebook.presto.spi.plan.PlanNodeId;
+import com.facebook.presto.spiller.Spiller;
+import com.facebook.presto.spiller.SpillerFactory;
 import com.facebook.presto.sql.gen.OrderingCompiler;
 import com.facebook.presto.testing.MaterializedResult;
 import com.facebook.presto.testing.TestingTaskContext;
 import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.ExecutorService;
@@ -52,10 +59,14 @@ import static java.lang.String.format;
 import static java.util.concurrent.Executors.newCachedThreadPool;
 import static java.util.concurrent.Executors.newScheduledThreadPool;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
 
 @Test(singleThreaded = true)
 public class TestOrderByOperator
 {
+    private static final int SPILL_MERGE_FAN_IN = 64;
+
     private ExecutorService executor;
     private ScheduledExecutorService scheduledExecutor;
     private DummySpillerFactory spillerFactory;
@@ -107,6 +118,7 @@ public class TestOrderByOperator
                 new PagesIndex.TestingFactory(false),
                 spillEnabled,
                 Optional.of(spillerFactory),
+                SPILL_MERGE_FAN_IN,
                 new OrderingCompiler());
 
         DriverContext driverContext = createDriverContext(memoryLimit);
@@ -150,6 +162,7 @@ public class TestOrderByOperator
                 new PagesIndex.TestingFactory(false),
                 spillEnabled,
                 Optional.of(spillerFactory),
+                SPILL_MERGE_FAN_IN,
                 new OrderingCompiler());
 
         DriverContext driverContext = createDriverContext(memoryLimit);
@@ -185,6 +198,7 @@ public class TestOrderByOperator
                 new PagesIndex.TestingFactory(false),
                 spillEnabled,
                 Optional.of(spillerFactory),
+                SPILL_MERGE_FAN_IN,
                 new OrderingCompiler());
 
         DriverContext driverContext = createDriverContext(memoryLimit);
@@ -220,6 +234,7 @@ public class TestOrderByOperator
                 new PagesIndex.TestingFactory(false),
                 spillEnabled,
                 Optional.of(spillerFactory),
+                SPILL_MERGE_FAN_IN,
                 new OrderingCompiler());
 
         DriverContext driverContext = createDriverContext(memoryLimit);
@@ -233,6 +248,137 @@ public class TestOrderByOperator
         assertOperatorEquals(operatorFactory, driverContext, input, expected, revokeMemoryWhenAddingPages);
     }
 
+    @Test
+    public void testMultiPassSpillMerge()
+    {
+        RowPagesBuilder inputBuilder = rowPagesBuilder(BIGINT);
+        for (int page = 0; page < 9; page++) {
+            for (long value = page; value < 90; value += 9) {
+                inputBuilder.row(value);
+            }
+            inputBuilder.pageBreak();
+        }
+        List<Page> input = inputBuilder.build();
+
+        // every page is spilled as a separate run, so a fan-in of 2 requires several intermediate merge passes
+        OrderByOperatorFactory operatorFactory = new OrderByOperatorFactory(
+                0,
+                new PlanNodeId("test"),
+                ImmutableList.of(BIGINT),
+                ImmutableList.of(0),
+                10,
+                ImmutableList.of(0),
+                ImmutableList.of(ASC_NULLS_LAST),
+                new PagesIndex.TestingFactory(false),
+                true,
+                Optional.of(spillerFactory),
+                2,
+                new OrderingCompiler());
+
+        DriverContext driverContext = createDriverContext(8);
+        MaterializedResult.Builder expectedBuilder = resultBuilder(driverContext.getSession(), BIGINT);
+        for (long value = 0; value < 90; value++) {
+            expectedBuilder.row(value);
+        }
+
+        assertOperatorEquals(operatorFactory, driverContext, input, expectedBuilder.build(), true);
+        assertGreaterThan(spillerFactory.getSpillsCount(), 9L, "Expected intermediate merge runs to be spilled");
+    }
+
+    @Test
+    public void testMemoryRevokeDuringSpillMerge()
+            throws Exception
+    {
+        List<SettableFuture<?>> pendingSpills = new ArrayList<>();
+        SpillerFactory blockingSpillerFactory = (types, spillContext, memoryContext) -> {
+            Spiller spiller = spillerFactory.create(types, spillContext, memoryContext);
+            return new Spiller()
+            {
+                @Override
+                public ListenableFuture<?> spill(Iterator<Page> pageIterator)
+                {
+                    spiller.spill(pageIterator);
+                    SettableFuture<?> future = SettableFuture.create();
+                    pendingSpills.add(future);
+                    return future;
+                }
+
+                @Override
+                public List<Iterator<Page>> getSpills()
+                {
+                    return spiller.getSpills();
+                }
+
+                @Override
+                public void commit()
+                {
+                    spiller.commit();
+                }
+
+                @Override
+                public void close()
+                {
+                    spiller.close();
+                }
+            };
+        };
+
+        OrderByOperatorFactory operatorFactory = new OrderByOperatorFactory(
+                0,
+                new PlanNodeId("test"),
+                ImmutableList.of(BIGINT),
+                ImmutableList.of(0),
+                10,
+                ImmutableList.of(0),
+                ImmutableList.of(ASC_NULLS_LAST),
+                new PagesIndex.TestingFactory(false),
+                true,
+                Optional.of(blockingSpillerFactory),
+                2,
+                new OrderingCompiler());
+
+        DriverContext driverContext = createDriverContext(new DataSize(1, Unit.MEGABYTE).toBytes());
+        Operator operator = operatorFactory.createOperator(driverContext);
+
+        // spill two runs, so finishing requires a merge pass
+        for (long value = 0; value < 2; value++) {
+            operator.addInput(rowPagesBuilder(BIGINT).row(value).build().get(0));
+            ListenableFuture<?> revoke = operator.startMemoryRevoke();
+            pendingSpills.get(pendingSpills.size() - 1).set(null);
+            revoke.get();
+            operator.finishMemoryRevoke();
+        }
+        operator.addInput(rowPagesBuilder(BIGINT).row(2L).build().get(0));
+
+        operator.finish();
+        assertEquals(pendingSpills.size(), 3);
+        ListenableFuture<?> blocked = operator.isBlocked();
+        assertFalse(blocked.isDone());
+
+        // memory revokes are refused while the merge is running
+        assertTrue(operator.startMemoryRevoke().isDone());
+        operator.finishMemoryRevoke();
+        assertEquals(pendingSpills.size(), 3);
+
+        pendingSpills.get(2).set(null);
+        assertTrue(blocked.isDone());
+        operator.finish();
+        assertTrue(operator.isBlocked().isDone());
+
+        MaterializedResult.Builder expected = resultBuilder(driverContext.getSession(), BIGINT);
+        List<Page> output = new ArrayList<>();
+        while (!operator.isFinished()) {
+            Page page = operator.getOutput();
+            if (page != null) {
+                output.add(page);
+            }
+        }
+        assertEquals(
+                toMaterializedResult(driverContext.getSession(), ImmutableList.of(BIGINT), output).getMaterializedRows(),
+                expected.row(0L).row(1L).row(2L).build().getMaterializedRows());
+        operator.close();
+    }
+
     @Test(expectedExceptions = ExceededMemoryLimitException.class, expectedExceptionsMessageRegExp = "Query exceeded per-node user memory limit of 10B.*")
     public void testMemoryLimit()
     {
@@ -259,6 +405,7 @@ public class TestOrderByOperator
                 new PagesIndex.TestingFactory(false),
                 false,
                 Optional.of(spillerFactory),
+                SPILL_MERGE_FAN_IN,
                 new OrderingCompiler());
 
         toPages(operatorFactory, driverContext, input);
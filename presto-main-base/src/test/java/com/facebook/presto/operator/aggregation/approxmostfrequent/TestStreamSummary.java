@@ -35,6 +35,7 @@ import static com.facebook.presto.common.type.VarcharType.VARCHAR;
 import static com.facebook.presto.util.StructuralTestUtil.mapType;
 import static io.airlift.slice.Slices.utf8Slice;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
 
 public class TestStreamSummary
 {
@@ -137,6 +138,31 @@ public class TestStreamSummary
         assertEquals(buckets, ImmutableMap.of(1L, 2L, 2L, 1L, 3L, 1L));
     }
 
+    @Test
+    public void testGrowth()
+    {
+        Long[] values = new Long[1000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (long) (i % 200);
+        }
+        Block longsBlock = createLongsBlock(values);
+        StreamSummary streamSummary = new StreamSummary(BIGINT, 3, 100_000);
+        long initialSize = streamSummary.estimatedInMemorySize();
+        for (int pos = 0; pos < values.length; pos++) {
+            streamSummary.add(longsBlock, pos, pos < 3 ? 10 : 1);
+        }
+        assertEquals(streamSummary.getHeapSize(), 200);
+        assertEquals(getMapForLongType(streamSummary), ImmutableMap.of(0L, 14L, 1L, 14L, 2L, 14L));
+        assertTrue(streamSummary.estimatedInMemorySize() > initialSize);
+
+        // the deserialized summary is sized for the serialized buckets rather than for the capacity
+        BlockBuilder blockBuilder = INT_SERIALIZED_TYPE.createBlockBuilder(null, 10);
+        streamSummary.serialize(blockBuilder);
+        StreamSummary deserialized = StreamSummary.deserialize(BIGINT, (Block) INT_SERIALIZED_TYPE.getObject(blockBuilder, 0));
+        assertEquals(getMapForLongType(deserialized), ImmutableMap.of(0L, 14L, 1L, 14L, 2L, 14L));
+        assertTrue(deserialized.estimatedInMemorySize() < initialSize);
+    }
+
     private StreamSummary buildStreamSummary(Type type, int maxBuckets, int hashCapacity)
     {
         StreamSummary histogram = new StreamSummary(type, maxBuckets, hashCapacity)
@@ -143,18 +143,37 @@ public class TestDictionaryAwarePageProjection
         // last dictionary not effective, so dictionary processing is disabled
         DictionaryBlock effectiveBlock = createDictionaryBlock(10, 100);
         testProjectRange(effectiveBlock, LongArrayBlock.class, projection, forceYield);
-        testProjectList(effectiveBlock, LongArrayBlock.class, projection, forceYield);
+        // the dictionary has now been used for as many positions as it has entries, so it is processed
+        testProjectList(effectiveBlock, DictionaryBlock.class, projection, forceYield);
+        testProjectFastReturnIgnoreYield(effectiveBlock, projection);
 
-        // last dictionary effective, so dictionary processing is enabled again
-        testProjectRange(ineffectiveBlock, DictionaryBlock.class, projection, forceYield);
+        // both dictionaries are cached, so neither is processed again
         testProjectFastReturnIgnoreYield(ineffectiveBlock, projection);
-        // dictionary processing can reuse the last dictionary
-        // in this case, we don't even check yield signal; make yieldForce to false
         testProjectList(ineffectiveBlock, DictionaryBlock.class, projection, false);
+        testProjectFastReturnIgnoreYield(effectiveBlock, projection);
+        testProjectList(effectiveBlock, DictionaryBlock.class, projection, false);
+    }
 
-        // last dictionary not effective, so dictionary processing is disabled again
-        testProjectRange(effectiveBlock, LongArrayBlock.class, projection, forceYield);
-        testProjectList(effectiveBlock, LongArrayBlock.class, projection, forceYield);
+    @Test
+    public void testDictionaryProcessingAfterFallback()
+    {
+        DictionaryAwarePageProjection projection = createProjection();
+
+        // the first dictionary is processed, but it is not effective
+        DictionaryBlock ineffectiveBlock = createDictionaryBlock(100, 20);
+        testProjectRange(ineffectiveBlock, DictionaryBlock.class, projection, false);
+
+        // later pages of the large dictionary fall back until it has been used for as many positions as it has entries
+        DictionaryBlock largeBlock = createDictionaryBlock(50, 100);
+        for (int i = 0; i < 5; i++) {
+            testProjectRange(largeBlock, LongArrayBlock.class, projection, false);
+        }
+        testProjectRange(largeBlock, DictionaryBlock.class, projection, false);
+        testProjectFastReturnIgnoreYield(largeBlock, projection);
+
+        // a different block over the same dictionary reuses the result
+        DictionaryBlock sameDictionaryBlock = new DictionaryBlock(largeBlock.getDictionary(), new int[] {49, 48, 47, 46, 45, 44, 43, 42, 41, 40, 39, 38, 37, 36, 35});
+        testProjectFastReturnIgnoreYield(sameDictionaryBlock, projection);
     }
 
     private static DictionaryBlock createDictionaryBlock(int dictionarySize, int blockSize)
@@ -17,6 +17,7 @@ import com.facebook.airlift.testing.TestingTicker;
 import com.facebook.airlift.units.Duration;
 import com.facebook.presto.block.BlockAssertions;
 import com.facebook.presto.common.Page;
+import com.facebook.presto.common.RuntimeStats;
 import com.facebook.presto.common.block.Block;
 import com.facebook.presto.common.block.LazyBlock;
 import com.facebook.presto.common.block.VariableWidthBlock;
@@ -53,6 +54,7 @@ import static com.facebook.presto.block.BlockAssertions.createLongSequenceBlock;
 import static com.facebook.presto.block.BlockAssertions.createMapType;
 import static com.facebook.presto.block.BlockAssertions.createSlicesBlock;
 import static com.facebook.presto.block.BlockAssertions.createStringsBlock;
+import static com.facebook.presto.common.RuntimeMetricName.PROJECTION_ALLOCATED_BYTES;
 import static com.facebook.presto.common.function.OperatorType.ADD;
 import static com.facebook.presto.common.type.BigintType.BIGINT;
 import static com.facebook.presto.common.type.BooleanType.BOOLEAN;
@@ -142,6 +144,32 @@ public class TestPageProcessor
         assertPageEquals(ImmutableList.of(BIGINT), outputPages.get(0).orElse(null), new Page(createLongSequenceBlock(25, 75)));
     }
 
+    @Test
+    public void testProjectionAllocationTracking()
+    {
+        PageProcessor pageProcessor = new PageProcessor(
+                Optional.of(new TestingPageFilter(positionsList(IntStream.range(0, 100).filter(position -> position % 3 == 0).toArray(), 0, 34))),
+                ImmutableList.of(createInputPageProjectionWithOutputs(0, BIGINT, 0), createInputPageProjectionWithOutputs(0, BIGINT, 1)),
+                OptionalInt.of(MAX_BATCH_SIZE));
+        pageProcessor.enableProjectionAllocationTracking();
+
+        Page inputPage = new Page(createLongSequenceBlock(0, 100));
+        LocalMemoryContext memoryContext = newSimpleAggregatedMemoryContext().newLocalMemoryContext(PageProcessor.class.getSimpleName());
+        List<Optional<Page>> outputPages = ImmutableList.copyOf(pageProcessor.process(SESSION.getSqlFunctionProperties(), new DriverYieldSignal(), memoryContext, inputPage));
+        assertEquals(outputPages.size(), 1);
+
+        RuntimeStats runtimeStats = new RuntimeStats();
+        pageProcessor.recordProjectionAllocations(runtimeStats);
+        // each projection allocates a dictionary block over the selected positions
+        assertTrue(runtimeStats.getMetric(PROJECTION_ALLOCATED_BYTES + ".0").getSum() > 0);
+        assertTrue(runtimeStats.getMetric(PROJECTION_ALLOCATED_BYTES + ".1").getSum() > 0);
+
+        // allocations are only reported once
+        RuntimeStats nextRuntimeStats = new RuntimeStats();
+        pageProcessor.recordProjectionAllocations(nextRuntimeStats);
+        assertTrue(nextRuntimeStats.getMetrics().isEmpty());
+    }
+
     @Test
     public void testPartialFilterAsList()
     {
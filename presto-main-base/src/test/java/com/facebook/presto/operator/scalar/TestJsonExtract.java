@@ -28,6 +28,7 @@ import static com.facebook.presto.common.type.TimeZoneKey.UTC_KEY;
 import static com.facebook.presto.common.type.VarcharType.VARCHAR;
 import static com.facebook.presto.operator.scalar.JsonExtract.JsonExtractor;
 import static com.facebook.presto.operator.scalar.JsonExtract.JsonValueJsonExtractor;
+import static com.facebook.presto.operator.scalar.JsonExtract.MultiScalarJsonExtractor;
 import static com.facebook.presto.operator.scalar.JsonExtract.ObjectFieldJsonExtractor;
 import static com.facebook.presto.operator.scalar.JsonExtract.ScalarValueJsonExtractor;
 import static com.facebook.presto.operator.scalar.JsonExtract.generateExtractor;
@@ -472,6 +473,38 @@ public class TestJsonExtract
         assertInvalidCanonicalizedExtract("{ \"store\": { \"book\": [{ \"title\": \"title\" }] } }", "$.store.book[", "Invalid JSON path: '$.store.book['");
     }
 
+    @Test
+    public void testMultiScalarExtract()
+    {
+        List<String> paths = ImmutableList.of("$", "$.fuu", "$.fuu[1]", "$.fuu[1][1]", "$[\"fuu\"][0]", "$.bar", "$.bar.1", "$.bar.01", "$.baz", "$.fuu.missing");
+        MultiScalarJsonExtractor extractor = new MultiScalarJsonExtractor(paths);
+
+        List<String> inputs = ImmutableList.of(
+                "{}",
+                "123",
+                "[0, 1, 2]",
+                "{\"fuu\": [0, [100, 101], 2], \"bar\": {\"1\": \"one\", \"01\": \"zero one\"}, \"baz\": null}",
+                "{\"fuu\": [\"a\", \"b\"], \"fuu\": [\"c\"], \"bar\": [true, false]}",
+                "{\"bar\": {\"1\": 2}, \"fuu\": [1, 2, 3] \"baz\": 1}",
+                "{\"fuu\": [1, 2, 3], \"bar\": {\"1\": ",
+                "");
+
+        for (String input : inputs) {
+            Slice[] values = extractor.extract(Slices.utf8Slice(input), PROPERTIES_CANONICALIZED_EXTRACT_DISABLED);
+            assertEquals(values.length, paths.size());
+            for (int i = 0; i < paths.size(); i++) {
+                assertEquals(values[i] == null ? null : values[i].toStringUtf8(), doScalarExtractLegacy(input, paths.get(i)), input + " " + paths.get(i));
+            }
+        }
+
+        // paths which are not supported by the Presto tokenizer are extracted with Jayway
+        extractor = new MultiScalarJsonExtractor(ImmutableList.of("$.fuu[0]", "$.fuu[*]", "$..bar"));
+        Slice[] values = extractor.extract(Slices.utf8Slice("{\"fuu\": [1], \"x\": {\"bar\": \"abc\"}}"), PROPERTIES_CANONICALIZED_EXTRACT_DISABLED);
+        assertEquals(values[0].toStringUtf8(), "1");
+        assertNull(values[1]);
+        assertNull(values[2]);
+    }
+
     @Test
     public void testNoAutomaticEncodingDetection()
     {
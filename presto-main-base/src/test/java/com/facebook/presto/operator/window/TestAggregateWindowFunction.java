@@ -14,14 +14,22 @@
 package com.facebook.presto.operator.window;
 
 import com.facebook.presto.testing.MaterializedResult;
+import com.facebook.presto.testing.MaterializedRow;
 import org.intellij.lang.annotations.Language;
 import org.testng.annotations.Test;
 
+import java.util.List;
+import java.util.stream.LongStream;
+
 import static com.facebook.presto.SessionTestUtils.TEST_SESSION;
 import static com.facebook.presto.common.type.BigintType.BIGINT;
 import static com.facebook.presto.common.type.IntegerType.INTEGER;
 import static com.facebook.presto.common.type.VarcharType.VARCHAR;
 import static com.facebook.presto.testing.MaterializedResult.resultBuilder;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static org.testng.Assert.assertEquals;
 
 public class TestAggregateWindowFunction
         extends AbstractTestWindowFunction
@@ -530,4 +538,64 @@ public class TestAggregateWindowFunction
                         .row(null, null, null)
                         .build());
     }
+
+    @Test
+    public void testLargeSlidingFrames()
+    {
+        // frames are large enough to be answered from the aggregation segment tree, except for
+        // array_agg, which has a variable width state and re-accumulates the frame
+        MaterializedResult actual = queryRunner.execute("" +
+                "SELECT x, " +
+                "sum(x) OVER (ORDER BY x ROWS BETWEEN 300 PRECEDING AND CURRENT ROW), " +
+                "max((x * 37) % 1000) OVER (ORDER BY x ROWS BETWEEN 300 PRECEDING AND 20 FOLLOWING), " +
+                "array_agg(x) OVER (ORDER BY x ROWS BETWEEN 299 PRECEDING AND CURRENT ROW) " +
+                "FROM UNNEST(sequence(1, 2000)) t(x) " +
+                "ORDER BY x");
+
+        List<MaterializedRow> rows = actual.getMaterializedRows();
+        assertEquals(rows.size(), 2000);
+        for (MaterializedRow row : rows) {
+            long x = (long) row.getField(0);
+
+            long expectedSum = 0;
+            for (long value = max(1, x - 300); value <= x; value++) {
+                expectedSum += value;
+            }
+            assertEquals(row.getField(1), expectedSum);
+
+            long expectedMax = Long.MIN_VALUE;
+            for (long value = max(1, x - 300); value <= min(2000, x + 20); value++) {
+                expectedMax = max(expectedMax, (value * 37) % 1000);
+            }
+            assertEquals(row.getField(2), expectedMax);
+
+            List<Long> expectedArray = LongStream.rangeClosed(max(1, x - 299), x).boxed().collect(toImmutableList());
+            assertEquals(row.getField(3), expectedArray);
+        }
+    }
+
+    @Test
+    public void testLargeSlidingFramesWithRowStates()
+    {
+        // avg and variance have row states of fixed width fields, so the frames are answered from the segment tree
+        MaterializedResult actual = queryRunner.execute("" +
+                "SELECT x, " +
+                "avg(x) OVER (ORDER BY x ROWS BETWEEN 300 PRECEDING AND CURRENT ROW), " +
+                "var_samp(x) OVER (ORDER BY x ROWS BETWEEN 299 PRECEDING AND 20 FOLLOWING) " +
+                "FROM UNNEST(sequence(1, 2000)) t(x) " +
+                "ORDER BY x");
+
+        List<MaterializedRow> rows = actual.getMaterializedRows();
+        assertEquals(rows.size(), 2000);
+        for (MaterializedRow row : rows) {
+            long x = (long) row.getField(0);
+
+            long first = max(1, x - 300);
+            assertEquals(row.getField(1), (first + x) / 2.0);
+
+            // the sample variance of n consecutive integers is n * (n + 1) / 12
+            long count = min(2000, x + 20) - max(1, x - 299) + 1;
+            assertEquals((double) row.getField(2), count * (count + 1) / 12.0, 1e-6);
+        }
+    }
 }
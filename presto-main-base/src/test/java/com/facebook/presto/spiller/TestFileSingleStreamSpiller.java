@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.spiller;
 
+import com.facebook.airlift.units.DataSize;
 import com.facebook.presto.CompressionCodec;
 import com.facebook.presto.common.Page;
 import com.facebook.presto.common.block.BlockBuilder;
@@ -38,6 +39,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.UUID;
 
+import static com.facebook.airlift.units.DataSize.Unit.BYTE;
 import static com.facebook.presto.common.type.BigintType.BIGINT;
 import static com.facebook.presto.common.type.DoubleType.DOUBLE;
 import static com.facebook.presto.common.type.VarbinaryType.VARBINARY;
@@ -150,6 +152,47 @@ public class TestFileSingleStreamSpiller
         assertEquals(memoryContext.getBytes(), 0);
     }
 
+    @Test(dataProvider = "testCompressionCodec")
+    public void testMemoryMappedSpill(CompressionCodec codec)
+            throws Exception
+    {
+        File spillPath = new File(tempDirectory, UUID.randomUUID().toString());
+        FileSingleStreamSpillerFactory spillerFactory = new FileSingleStreamSpillerFactory(
+                executor,
+                new BlockEncodingManager(),
+                new SpillerStats(),
+                ImmutableList.of(spillPath.toPath()),
+                1.0,
+                codec,
+                true,
+                true,
+                // every page goes to its own segment
+                new DataSize(1, BYTE));
+        LocalMemoryContext memoryContext = newSimpleAggregatedMemoryContext().newLocalMemoryContext("test");
+        SingleStreamSpiller singleStreamSpiller = spillerFactory.create(TYPES, new TestingSpillContext(), memoryContext);
+        assertTrue(singleStreamSpiller instanceof MappedFileSingleStreamSpiller);
+        MappedFileSingleStreamSpiller spiller = (MappedFileSingleStreamSpiller) singleStreamSpiller;
+
+        Page page = buildPage();
+        assertEquals(memoryContext.getBytes(), MappedFileSingleStreamSpiller.HEADER_BUFFER_SIZE);
+        spiller.spill(page).get();
+        spiller.spill(Iterators.forArray(page, page, page)).get();
+        // the gathered pages are released once they are written
+        assertEquals(memoryContext.getBytes(), MappedFileSingleStreamSpiller.HEADER_BUFFER_SIZE);
+        assertEquals(spiller.getSegmentCount(), 4);
+        assertEquals(listFiles(spillPath.toPath()).size(), 4);
+
+        List<Page> spilledPages = spiller.getAllSpilledPages().get();
+        assertEquals(spilledPages.size(), 4);
+        for (Page spilledPage : spilledPages) {
+            PageAssertions.assertPageEquals(TYPES, page, spilledPage);
+        }
+
+        spiller.close();
+        assertEquals(listFiles(spillPath.toPath()).size(), 0);
+        assertEquals(memoryContext.getBytes(), 0);
+    }
+
     private Page buildPage()
     {
         BlockBuilder col1 = BIGINT.createBlockBuilder(null, 1);
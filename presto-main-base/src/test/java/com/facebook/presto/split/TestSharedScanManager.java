@@ -0,0 +1,223 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.split;
+
+import com.facebook.airlift.units.DataSize;
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.RuntimeStats;
+import com.facebook.presto.metadata.Split.SplitIdentifier;
+import com.facebook.presto.spi.ConnectorId;
+import com.facebook.presto.spi.ConnectorPageSource;
+import com.facebook.presto.spi.FixedPageSource;
+import com.facebook.presto.split.SharedScanManager.ScanKey;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static com.facebook.airlift.units.DataSize.Unit.BYTE;
+import static com.facebook.airlift.units.DataSize.Unit.MEGABYTE;
+import static com.facebook.presto.block.BlockAssertions.createLongSequenceBlock;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+public class TestSharedScanManager
+{
+    private static final ScanKey KEY = new ScanKey(
+            new SplitIdentifier(new ConnectorId("test"), "split"),
+            "layout",
+            ImmutableList.of(),
+            "user",
+            ImmutableMap.of(),
+            ImmutableMap.of());
+
+    private final List<Page> pages = ImmutableList.of(
+            new Page(createLongSequenceBlock(0, 10)),
+            new Page(createLongSequenceBlock(10, 20)),
+            new Page(createLongSequenceBlock(20, 30)));
+
+    @Test
+    public void testSharedPages()
+            throws IOException
+    {
+        SharedScanManager manager = new SharedScanManager(new DataSize(1, MEGABYTE));
+        AtomicInteger createdPageSources = new AtomicInteger();
+        Function<RuntimeStats, ConnectorPageSource> factory = runtimeStats -> {
+            createdPageSources.incrementAndGet();
+            return new FixedPageSource(pages);
+        };
+
+        ConnectorPageSource first = manager.createPageSource(KEY, new RuntimeStats(), factory);
+        ConnectorPageSource second = manager.createPageSource(KEY, new RuntimeStats(), factory);
+        assertEquals(createdPageSources.get(), 1);
+
+        // both scans receive the same pages
+        assertSame(first.getNextPage(), pages.get(0));
+        assertSame(first.getNextPage(), pages.get(1));
+        assertSame(second.getNextPage(), pages.get(0));
+
+        // scans can no longer attach once a page is released
+        assertEquals(manager.getActiveScanCount(), 0);
+        ConnectorPageSource third = manager.createPageSource(KEY, new RuntimeStats(), factory);
+        assertEquals(createdPageSources.get(), 2);
+        assertEquals(manager.getActiveScanCount(), 1);
+        third.close();
+        assertEquals(manager.getActiveScanCount(), 0);
+
+        assertSame(second.getNextPage(), pages.get(1));
+        assertSame(second.getNextPage(), pages.get(2));
+        assertTrue(second.isFinished());
+        assertFalse(first.isFinished());
+        assertSame(first.getNextPage(), pages.get(2));
+        assertTrue(first.isFinished());
+
+        first.close();
+        second.close();
+    }
+
+    @Test
+    public void testBufferLimit()
+            throws IOException
+    {
+        SharedScanManager manager = new SharedScanManager(new DataSize(1, BYTE));
+        AtomicInteger createdPageSources = new AtomicInteger();
+        Function<RuntimeStats, ConnectorPageSource> factory = runtimeStats -> {
+            createdPageSources.incrementAndGet();
+            return new FixedPageSource(pages);
+        };
+        ConnectorPageSource first = manager.createPageSource(KEY, new RuntimeStats(), factory);
+        ConnectorPageSource second = manager.createPageSource(KEY, new RuntimeStats(), factory);
+
+        // the scan which is ahead is not blocked by the slower scan, which is detached instead
+        assertSame(first.getNextPage(), pages.get(0));
+        assertTrue(first.isBlocked().isDone());
+        assertSame(first.getNextPage(), pages.get(1));
+        assertEquals(createdPageSources.get(), 1);
+
+        // the detached scan reads the pages it did not consume yet, then continues on its own page source
+        assertSame(second.getNextPage(), pages.get(0));
+        assertEquals(createdPageSources.get(), 1);
+        assertSame(second.getNextPage(), pages.get(1));
+        assertEquals(createdPageSources.get(), 2);
+        assertSame(second.getNextPage(), pages.get(2));
+        assertTrue(second.isFinished());
+        second.close();
+
+        assertSame(first.getNextPage(), pages.get(2));
+        assertTrue(first.isFinished());
+        first.close();
+    }
+
+    @Test
+    public void testMemoryUsage()
+            throws IOException
+    {
+        SharedScanManager manager = new SharedScanManager(new DataSize(1, MEGABYTE));
+        ConnectorPageSource first = manager.createPageSource(KEY, new RuntimeStats(), runtimeStats -> new FixedPageSource(pages));
+        ConnectorPageSource second = manager.createPageSource(KEY, new RuntimeStats(), runtimeStats -> new FixedPageSource(pages));
+
+        // the buffered pages are reported by one scan only
+        assertSame(first.getNextPage(), pages.get(0));
+        long memoryUsage = first.getSystemMemoryUsage();
+        assertTrue(memoryUsage >= pages.get(0).getRetainedSizeInBytes());
+        assertEquals(second.getSystemMemoryUsage(), 0);
+
+        // the scan which did not consume the buffered page yet keeps it once it is detached
+        first.close();
+        assertEquals(second.getSystemMemoryUsage(), pages.get(0).getRetainedSizeInBytes());
+        second.close();
+    }
+
+    @Test
+    public void testClose()
+            throws IOException
+    {
+        SharedScanManager manager = new SharedScanManager(new DataSize(1, MEGABYTE));
+        FixedPageSource pageSource = new FixedPageSource(pages);
+        ConnectorPageSource first = manager.createPageSource(KEY, new RuntimeStats(), runtimeStats -> pageSource);
+        ConnectorPageSource second = manager.createPageSource(KEY, new RuntimeStats(), runtimeStats -> new FixedPageSource(pages));
+
+        // the page source is closed with the scan which opened it, the other scans continue on their own page sources
+        first.close();
+        assertTrue(pageSource.isFinished());
+        assertEquals(manager.getActiveScanCount(), 0);
+        assertSame(second.getNextPage(), pages.get(0));
+        assertSame(second.getNextPage(), pages.get(1));
+        assertSame(second.getNextPage(), pages.get(2));
+        assertTrue(second.isFinished());
+        second.close();
+    }
+
+    @Test
+    public void testCloseAfterFinish()
+            throws IOException
+    {
+        SharedScanManager manager = new SharedScanManager(new DataSize(1, MEGABYTE));
+        AtomicInteger createdPageSources = new AtomicInteger();
+        Function<RuntimeStats, ConnectorPageSource> factory = runtimeStats -> {
+            createdPageSources.incrementAndGet();
+            return new FixedPageSource(pages);
+        };
+        ConnectorPageSource first = manager.createPageSource(KEY, new RuntimeStats(), factory);
+        ConnectorPageSource second = manager.createPageSource(KEY, new RuntimeStats(), factory);
+        for (Page page : pages) {
+            assertSame(first.getNextPage(), page);
+        }
+        assertNull(first.getNextPage());
+        assertTrue(first.isFinished());
+        first.close();
+
+        // the scan reads the buffered pages without opening a page source of its own
+        for (Page page : pages) {
+            assertSame(second.getNextPage(), page);
+        }
+        assertTrue(second.isFinished());
+        assertEquals(createdPageSources.get(), 1);
+        second.close();
+    }
+
+    @Test
+    public void testStatsOfEachScan()
+            throws IOException
+    {
+        SharedScanManager manager = new SharedScanManager(new DataSize(1, MEGABYTE));
+        RuntimeStats firstStats = new RuntimeStats();
+        RuntimeStats secondStats = new RuntimeStats();
+        ConnectorPageSource first = manager.createPageSource(KEY, firstStats, runtimeStats -> new FixedPageSource(pages));
+        ConnectorPageSource second = manager.createPageSource(KEY, secondStats, runtimeStats -> new FixedPageSource(pages));
+        assertSame(first.getRuntimeStats(), firstStats);
+        assertSame(second.getRuntimeStats(), secondStats);
+
+        // the input is reported by the scan which read it from the page source
+        assertSame(first.getNextPage(), pages.get(0));
+        assertSame(second.getNextPage(), pages.get(0));
+        assertSame(second.getNextPage(), pages.get(1));
+        assertEquals(first.getCompletedBytes(), pages.get(0).getSizeInBytes());
+        assertEquals(second.getCompletedBytes(), pages.get(1).getSizeInBytes());
+
+        // each scan reports the rows it consumed
+        assertEquals(first.getCompletedPositions(), 10);
+        assertEquals(second.getCompletedPositions(), 20);
+
+        first.close();
+        second.close();
+    }
+}
@@ -16,12 +16,14 @@ package com.facebook.presto.sql.analyzer;
 import com.facebook.airlift.configuration.testing.ConfigAssertions;
 import com.facebook.airlift.units.DataSize;
 import com.google.common.collect.ImmutableMap;
+import jakarta.validation.constraints.Min;
 import org.testng.annotations.Test;
 
 import java.util.Map;
 
 import static com.facebook.airlift.configuration.testing.ConfigAssertions.assertFullMapping;
 import static com.facebook.airlift.configuration.testing.ConfigAssertions.assertRecordedDefaults;
+import static com.facebook.airlift.testing.ValidationAssertions.assertFailsValidation;
 
 public class TestJavaFeaturesConfig
 {
@@ -37,6 +39,7 @@ public class TestJavaFeaturesConfig
                 .setOrderByAggregationSpillEnabled(true)
                 .setWindowSpillEnabled(true)
                 .setOrderBySpillEnabled(true)
+                .setOrderBySpillMergeFanIn(64)
                 .setTopNSpillEnabled(true)
                 .setAggregationOperatorUnspillMemoryLimit(DataSize.valueOf("4MB"))
                 .setTopNOperatorUnspillMemoryLimit(DataSize.valueOf("4MB")));
@@ -54,6 +57,7 @@ public class TestJavaFeaturesConfig
                 .put("experimental.order-by-aggregation-spill-enabled", "false")
                 .put("experimental.window-spill-enabled", "false")
                 .put("experimental.order-by-spill-enabled", "false")
+                .put("experimental.order-by-spill-merge-fan-in", "16")
                 .put("experimental.topn-spill-enabled", "false")
                 .put("experimental.aggregation-operator-unspill-memory-limit", "100MB")
                 .put("experimental.topn-operator-unspill-memory-limit", "100MB")
@@ -68,9 +72,16 @@ public class TestJavaFeaturesConfig
                 .setOrderByAggregationSpillEnabled(false)
                 .setWindowSpillEnabled(false)
                 .setOrderBySpillEnabled(false)
+                .setOrderBySpillMergeFanIn(16)
                 .setTopNSpillEnabled(false)
                 .setAggregationOperatorUnspillMemoryLimit(DataSize.valueOf("100MB"))
                 .setTopNOperatorUnspillMemoryLimit(DataSize.valueOf("100MB"));
         assertFullMapping(properties, expected);
     }
+
+    @Test
+    public void testValidation()
+    {
+        assertFailsValidation(new JavaFeaturesConfig().setOrderBySpillMergeFanIn(1), "orderBySpillMergeFanIn", "must be greater than or equal to 2", Min.class);
+    }
 }
@@ -16,9 +16,11 @@ package com.facebook.presto.sql.gen;
 import com.facebook.presto.common.Page;
 import com.facebook.presto.common.block.Block;
 import com.facebook.presto.common.block.BlockBuilder;
+import com.facebook.presto.common.function.OperatorType;
 import com.facebook.presto.metadata.FunctionAndTypeManager;
 import com.facebook.presto.operator.DriverYieldSignal;
 import com.facebook.presto.operator.Work;
+import com.facebook.presto.operator.project.ColumnarPageFilter;
 import com.facebook.presto.operator.project.PageFilter;
 import com.facebook.presto.operator.project.PageProjection;
 import com.facebook.presto.operator.project.PageProjectionWithOutputs;
@@ -30,14 +32,19 @@ import com.facebook.presto.spi.relation.SpecialFormExpression;
 import com.google.common.collect.ImmutableList;
 import org.testng.annotations.Test;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Random;
 import java.util.function.Supplier;
 import java.util.stream.IntStream;
 
 import static com.facebook.presto.common.function.OperatorType.ADD;
+import static com.facebook.presto.common.function.OperatorType.BETWEEN;
 import static com.facebook.presto.common.function.OperatorType.GREATER_THAN;
+import static com.facebook.presto.common.function.OperatorType.GREATER_THAN_OR_EQUAL;
 import static com.facebook.presto.common.function.OperatorType.LESS_THAN;
+import static com.facebook.presto.common.function.OperatorType.NOT_EQUAL;
 import static com.facebook.presto.common.type.BigintType.BIGINT;
 import static com.facebook.presto.common.type.BooleanType.BOOLEAN;
 import static com.facebook.presto.metadata.MetadataManager.createTestMetadataManager;
@@ -51,6 +58,7 @@ import static com.facebook.presto.sql.relational.Expressions.field;
 import static com.facebook.presto.testing.TestingConnectorSession.SESSION;
 import static com.google.common.collect.ImmutableList.toImmutableList;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotSame;
 import static org.testng.Assert.assertSame;
 import static org.testng.Assert.assertTrue;
@@ -239,6 +247,81 @@ public class TestPageFunctionCompiler
         assertEquals(positions.getPositions(), new int[] {2, 3, 4});
     }
 
+    @Test
+    public void testColumnarFilter()
+    {
+        RowExpression filter = new SpecialFormExpression(
+                AND,
+                BOOLEAN,
+                new SpecialFormExpression(
+                        AND,
+                        BOOLEAN,
+                        comparison(GREATER_THAN_OR_EQUAL, field(0, BIGINT), constant(10L, BIGINT)),
+                        comparison(GREATER_THAN, constant(90L, BIGINT), field(0, BIGINT))),
+                new SpecialFormExpression(
+                        AND,
+                        BOOLEAN,
+                        comparison(BETWEEN, field(1, BIGINT), constant(5L, BIGINT), constant(40L, BIGINT)),
+                        comparison(NOT_EQUAL, field(0, BIGINT), constant(20L, BIGINT))));
+
+        PageFilter columnarFilter = new PageFunctionCompiler(createTestMetadataManager(), 0, true)
+                .compileFilter(SESSION.getSqlFunctionProperties(), filter, false, Optional.empty())
+                .get();
+        assertTrue(columnarFilter instanceof ColumnarPageFilter);
+        PageFilter generatedFilter = new PageFunctionCompiler(createTestMetadataManager(), 0, false)
+                .compileFilter(SESSION.getSqlFunctionProperties(), filter, false, Optional.empty())
+                .get();
+
+        // enough pages for the predicates to be reordered
+        Random random = new Random(42);
+        for (int page = 0; page < 40; page++) {
+            Page input = new Page(createRandomLongBlock(random, 1000), createRandomLongBlock(random, 1000));
+            SelectedPositions expected = filter(generatedFilter, input);
+            SelectedPositions actual = filter(columnarFilter, input);
+            assertEquals(actual.size(), expected.size());
+            for (int i = 0; i < actual.size(); i++) {
+                assertEquals(getPosition(actual, i), getPosition(expected, i));
+            }
+        }
+
+        // filters on expressions are not evaluated by column
+        PageFilter expressionFilter = new PageFunctionCompiler(createTestMetadataManager(), 0, true)
+                .compileFilter(SESSION.getSqlFunctionProperties(), ADD_X_Y_GREATER_THAN_2, false, Optional.empty())
+                .get();
+        assertFalse(expressionFilter instanceof ColumnarPageFilter);
+    }
+
+    private static CallExpression comparison(OperatorType operatorType, RowExpression... arguments)
+    {
+        return call(
+                operatorType.name(),
+                FUNCTION_MANAGER.resolveOperator(operatorType, fromTypes(Arrays.stream(arguments).map(RowExpression::getType).collect(toImmutableList()))),
+                BOOLEAN,
+                arguments);
+    }
+
+    private static Block createRandomLongBlock(Random random, int positionCount)
+    {
+        BlockBuilder builder = BIGINT.createFixedSizeBlockBuilder(positionCount);
+        for (int i = 0; i < positionCount; i++) {
+            if (random.nextInt(10) == 0) {
+                builder.appendNull();
+            }
+            else {
+                BIGINT.writeLong(builder, random.nextInt(100));
+            }
+        }
+        return builder.build();
+    }
+
+    private static int getPosition(SelectedPositions positions, int index)
+    {
+        if (positions.isList()) {
+            return positions.getPositions()[positions.getOffset() + index];
+        }
+        return positions.getOffset() + index;
+    }
+
     private void checkBlockEqual(Block a, Block b)
     {
         assertEquals(a.getPositionCount(), b.getPositionCount());
@@ -15,8 +15,10 @@
 package com.facebook.presto.sql.planner;
 
 import com.facebook.presto.Session;
+import com.facebook.presto.common.predicate.BlockedBloomFilter;
 import com.facebook.presto.common.predicate.Domain;
 import com.facebook.presto.common.predicate.TupleDomain;
+import com.facebook.presto.common.predicate.ValueSet;
 import com.facebook.presto.expressions.DynamicFilters.DynamicFilterPlaceholder;
 import com.facebook.presto.spi.plan.JoinNode;
 import com.facebook.presto.spi.relation.VariableReferenceExpression;
@@ -26,6 +28,7 @@ import com.facebook.presto.sql.planner.optimizations.PlanNodeSearcher;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableMultimap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.util.concurrent.ListenableFuture;
 import org.testng.annotations.Test;
@@ -41,11 +44,13 @@ import static com.facebook.presto.SystemSessionProperties.ENABLE_DYNAMIC_FILTERI
 import static com.facebook.presto.SystemSessionProperties.FORCE_SINGLE_NODE_OUTPUT;
 import static com.facebook.presto.SystemSessionProperties.JOIN_DISTRIBUTION_TYPE;
 import static com.facebook.presto.common.function.OperatorType.EQUAL;
+import static com.facebook.presto.common.predicate.Range.range;
 import static com.facebook.presto.common.type.BigintType.BIGINT;
 import static com.facebook.presto.common.type.IntegerType.INTEGER;
 import static com.facebook.presto.testing.assertions.Assert.assertEquals;
 import static com.google.common.collect.ImmutableList.toImmutableList;
 import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
 
 public class TestLocalDynamicFilter
         extends BasePlanTest
@@ -123,6 +128,43 @@ public class TestLocalDynamicFilter
                 new VariableReferenceExpression(Optional.empty(), "a", INTEGER), Domain.multipleValues(INTEGER, ImmutableList.of(10L, 20L)))));
     }
 
+    @Test
+    public void testBloomFilterWithExactPartition()
+            throws ExecutionException, InterruptedException
+    {
+        VariableReferenceExpression probeVariable = new VariableReferenceExpression(Optional.empty(), "a", BIGINT);
+        LocalDynamicFilter filter = new LocalDynamicFilter(
+                ImmutableMultimap.of("123", new DynamicFilterPlaceholder("123", probeVariable, EQUAL)),
+                ImmutableMap.of("123", 0),
+                2);
+        ListenableFuture<Map<VariableReferenceExpression, BlockedBloomFilter>> bloomFilterResult = filter.getBloomFilterResultFuture();
+        ListenableFuture<TupleDomain<VariableReferenceExpression>> result = filter.getResultFuture();
+
+        // the first partition exceeded the exact values limit and reported a bloom filter and a range
+        BlockedBloomFilter partitionBloomFilter = BlockedBloomFilter.create(1024);
+        for (long value = 100; value < 200; value++) {
+            partitionBloomFilter.putLong(value);
+        }
+        filter.getBloomFilterConsumer().accept(ImmutableMap.of("123", partitionBloomFilter));
+        filter.getTupleDomainConsumer().accept(TupleDomain.withColumnDomains(ImmutableMap.of(
+                "123", Domain.create(ValueSet.ofRanges(range(BIGINT, 100L, true, 199L, true)), false))));
+        assertFalse(bloomFilterResult.isDone());
+
+        // the second partition reported exact values only
+        filter.getTupleDomainConsumer().accept(TupleDomain.withColumnDomains(ImmutableMap.of(
+                "123", Domain.multipleValues(BIGINT, ImmutableList.of(7L, 1000L)))));
+        assertTrue(result.isDone());
+
+        Map<VariableReferenceExpression, BlockedBloomFilter> bloomFilters = bloomFilterResult.get();
+        assertEquals(bloomFilters.keySet(), ImmutableSet.of(probeVariable));
+        BlockedBloomFilter bloomFilter = bloomFilters.get(probeVariable);
+        for (long value = 100; value < 200; value++) {
+            assertTrue(bloomFilter.mightContainLong(value));
+        }
+        assertTrue(bloomFilter.mightContainLong(7));
+        assertTrue(bloomFilter.mightContainLong(1000));
+    }
+
     @Test
     public void testNone()
             throws ExecutionException, InterruptedException
@@ -0,0 +1,104 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.sql.planner.iterative.rule;
+
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.operator.scalar.JsonExtractScalarsFunction;
+import com.facebook.presto.spi.plan.PlanNode;
+import com.facebook.presto.spi.plan.ProjectNode;
+import com.facebook.presto.spi.relation.CallExpression;
+import com.facebook.presto.spi.relation.ConstantExpression;
+import com.facebook.presto.spi.relation.RowExpression;
+import com.facebook.presto.spi.relation.VariableReferenceExpression;
+import com.facebook.presto.sql.planner.iterative.rule.test.BaseRuleTest;
+import com.google.common.collect.ImmutableList;
+import org.testng.annotations.Test;
+
+import static com.facebook.presto.SystemSessionProperties.OPTIMIZE_MULTIPLE_JSON_EXTRACT_SCALAR_ON_SAME_FIELD;
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.common.type.VarcharType.VARCHAR;
+import static com.facebook.presto.sql.planner.iterative.rule.test.PlanBuilder.assignment;
+import static com.google.common.collect.Iterables.getOnlyElement;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestCombineJsonExtractScalarFunctions
+        extends BaseRuleTest
+{
+    @Test
+    public void testCombine()
+    {
+        PlanNode result = tester().assertThat(new CombineJsonExtractScalarFunctions(getFunctionManager()))
+                .setSystemProperty(OPTIMIZE_MULTIPLE_JSON_EXTRACT_SCALAR_ON_SAME_FIELD, "true")
+                .on(p -> {
+                    VariableReferenceExpression payload = p.variable("payload", VARCHAR);
+                    return p.project(
+                            assignment(
+                                    p.variable("a", VARCHAR), p.rowExpression("json_extract_scalar(payload, '$.a')"),
+                                    p.variable("b", BIGINT), p.rowExpression("CAST(json_extract_scalar(payload, '$.b') AS bigint)")),
+                            p.values(payload));
+                })
+                .get();
+
+        ProjectNode project = (ProjectNode) result;
+        ProjectNode source = (ProjectNode) project.getSource();
+
+        CallExpression extractAll = (CallExpression) getOnlyElement(source.getAssignments().getExpressions().stream()
+                .filter(expression -> expression instanceof CallExpression)
+                .collect(ImmutableList.toImmutableList()));
+        assertEquals(extractAll.getDisplayName(), JsonExtractScalarsFunction.NAME);
+        Block paths = (Block) ((ConstantExpression) extractAll.getArguments().get(1)).getValue();
+        assertEquals(paths.getPositionCount(), 2);
+        assertEquals(VARCHAR.getSlice(paths, 0).toStringUtf8(), "$.a");
+        assertEquals(VARCHAR.getSlice(paths, 1).toStringUtf8(), "$.b");
+
+        for (RowExpression expression : project.getAssignments().getExpressions()) {
+            assertTrue(expression.toString().contains("element_at"), expression.toString());
+            assertFalse(expression.toString().contains("json_extract_scalar"), expression.toString());
+        }
+    }
+
+    @Test
+    public void testSinglePath()
+    {
+        tester().assertThat(new CombineJsonExtractScalarFunctions(getFunctionManager()))
+                .setSystemProperty(OPTIMIZE_MULTIPLE_JSON_EXTRACT_SCALAR_ON_SAME_FIELD, "true")
+                .on(p -> {
+                    VariableReferenceExpression payload = p.variable("payload", VARCHAR);
+                    return p.project(
+                            assignment(
+                                    p.variable("a", VARCHAR), p.rowExpression("json_extract_scalar(payload, '$.a')"),
+                                    p.variable("b", VARCHAR), p.rowExpression("upper(json_extract_scalar(payload, '$.a'))")),
+                            p.values(payload));
+                })
+                .doesNotFire();
+    }
+
+    @Test
+    public void testDisabled()
+    {
+        tester().assertThat(new CombineJsonExtractScalarFunctions(getFunctionManager()))
+                .setSystemProperty(OPTIMIZE_MULTIPLE_JSON_EXTRACT_SCALAR_ON_SAME_FIELD, "false")
+                .on(p -> {
+                    VariableReferenceExpression payload = p.variable("payload", VARCHAR);
+                    return p.project(
+                            assignment(
+                                    p.variable("a", VARCHAR), p.rowExpression("json_extract_scalar(payload, '$.a')"),
+                                    p.variable("b", VARCHAR), p.rowExpression("json_extract_scalar(payload, '$.b')")),
+                            p.values(payload));
+                })
+                .doesNotFire();
+    }
+}
@@ -21,6 +21,7 @@ public class MemoryConfig
 {
     private int splitsPerNode = Runtime.getRuntime().availableProcessors();
     private DataSize maxDataPerNode = new DataSize(128, DataSize.Unit.MEGABYTE);
+    private boolean columnarStorageEnabled;
 
     @NotNull
     public int getSplitsPerNode()
@@ -47,4 +48,16 @@ public class MemoryConfig
         this.maxDataPerNode = maxDataPerNode;
         return this;
     }
+
+    public boolean isColumnarStorageEnabled()
+    {
+        return columnarStorageEnabled;
+    }
+
+    @Config("memory.columnar-storage-enabled")
+    public MemoryConfig setColumnarStorageEnabled(boolean columnarStorageEnabled)
+    {
+        this.columnarStorageEnabled = columnarStorageEnabled;
+        return this;
+    }
 }
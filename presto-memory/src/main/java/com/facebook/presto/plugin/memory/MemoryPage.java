@@ -0,0 +1,223 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.plugin.memory;
+
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.block.DictionaryBlock;
+import com.facebook.presto.common.block.RunLengthEncodedBlock;
+import com.facebook.presto.common.predicate.Domain;
+import com.facebook.presto.common.predicate.Range;
+import com.facebook.presto.common.predicate.TupleDomain;
+import com.facebook.presto.common.predicate.ValueSet;
+import com.facebook.presto.common.type.Type;
+import io.airlift.slice.Slice;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static com.facebook.presto.common.type.DoubleType.DOUBLE;
+import static com.facebook.presto.common.type.RealType.REAL;
+import static com.facebook.presto.common.type.TypeUtils.readNativeValue;
+import static java.lang.Integer.highestOneBit;
+import static java.lang.Math.max;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A page stored by {@link MemoryPagesStore}.
+ * <p>
+ * In columnar storage mode, low cardinality blocks are dictionary or run length
+ * encoded when the page is inserted, and a min/max zone map is kept for every
+ * column, which lets reads skip pages that cannot match the pushed down predicate.
+ */
+final class MemoryPage
+{
+    // blocks with more distinct values than this fraction of their positions are stored as is
+    private static final double MAX_DICTIONARY_RATIO = 0.5;
+
+    private final Page page;
+    // null when zone maps were not computed; individual entries are null for columns without a zone map
+    private final Domain[] zoneMaps;
+
+    private MemoryPage(Page page, Domain[] zoneMaps)
+    {
+        this.page = requireNonNull(page, "page is null");
+        this.zoneMaps = zoneMaps;
+    }
+
+    public static MemoryPage create(Page page, List<Type> columnTypes, boolean columnarStorageEnabled)
+    {
+        page.compact();
+        if (!columnarStorageEnabled) {
+            return new MemoryPage(page, null);
+        }
+
+        Block[] blocks = new Block[page.getChannelCount()];
+        Domain[] zoneMaps = new Domain[page.getChannelCount()];
+        for (int channel = 0; channel < page.getChannelCount(); channel++) {
+            Block block = page.getBlock(channel);
+            blocks[channel] = block;
+            // column types may be unknown for pages written through a bare table handle
+            if (channel >= columnTypes.size() || block.getPositionCount() != page.getPositionCount() || !isSupported(columnTypes.get(channel))) {
+                continue;
+            }
+            Type type = columnTypes.get(channel);
+            zoneMaps[channel] = computeZoneMap(type, block);
+            blocks[channel] = encode(type, block);
+        }
+        return new MemoryPage(new Page(page.getPositionCount(), blocks), zoneMaps);
+    }
+
+    public Page getPage()
+    {
+        return page;
+    }
+
+    public long getRetainedSizeInBytes()
+    {
+        return page.getRetainedSizeInBytes();
+    }
+
+    /**
+     * Returns false if no row of this page can satisfy {@code constraint}, which is keyed by column index.
+     */
+    public boolean mayMatch(TupleDomain<Integer> constraint)
+    {
+        if (constraint.isNone()) {
+            return false;
+        }
+        if (zoneMaps == null || constraint.isAll()) {
+            return true;
+        }
+        for (Map.Entry<Integer, Domain> entry : constraint.getDomains().get().entrySet()) {
+            int column = entry.getKey();
+            if (column < zoneMaps.length && zoneMaps[column] != null && !zoneMaps[column].overlaps(entry.getValue())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isSupported(Type type)
+    {
+        Class<?> javaType = type.getJavaType();
+        return type.isComparable() &&
+                type.isOrderable() &&
+                (javaType == long.class || javaType == double.class || javaType == boolean.class || javaType == Slice.class);
+    }
+
+    private static Domain computeZoneMap(Type type, Block block)
+    {
+        int min = -1;
+        int max = -1;
+        boolean hasNull = false;
+        for (int position = 0; position < block.getPositionCount(); position++) {
+            if (block.isNull(position)) {
+                hasNull = true;
+                continue;
+            }
+            if (isNaN(type, block, position)) {
+                // NaN is not ordered with respect to other values, so no range can describe this block
+                return null;
+            }
+            if (min < 0 || type.compareTo(block, position, block, min) < 0) {
+                min = position;
+            }
+            if (max < 0 || type.compareTo(block, position, block, max) > 0) {
+                max = position;
+            }
+        }
+
+        if (min < 0) {
+            return hasNull ? Domain.onlyNull(type) : Domain.none(type);
+        }
+        Range range = Range.range(type, readNativeValue(type, block, min), true, readNativeValue(type, block, max), true);
+        return Domain.create(ValueSet.ofRanges(range), hasNull);
+    }
+
+    private static boolean isNaN(Type type, Block block, int position)
+    {
+        if (type.equals(DOUBLE)) {
+            return Double.isNaN(type.getDouble(block, position));
+        }
+        if (type.equals(REAL)) {
+            return Float.isNaN(Float.intBitsToFloat((int) type.getLong(block, position)));
+        }
+        return false;
+    }
+
+    private static Block encode(Type type, Block block)
+    {
+        int positionCount = block.getPositionCount();
+        if (positionCount < 2 || block instanceof DictionaryBlock || block instanceof RunLengthEncodedBlock) {
+            return block;
+        }
+
+        int maxDistinct = max(1, (int) (positionCount * MAX_DICTIONARY_RATIO));
+        int hashSize = highestOneBit(maxDistinct) << 2;
+        int mask = hashSize - 1;
+        int[] hashTable = new int[hashSize];
+        Arrays.fill(hashTable, -1);
+        int[] distinctPositions = new int[maxDistinct];
+        int[] ids = new int[positionCount];
+        int distinctCount = 0;
+
+        for (int position = 0; position < positionCount; position++) {
+            int slot = hashPosition(type, block, position) & mask;
+            while (true) {
+                int id = hashTable[slot];
+                if (id < 0) {
+                    if (distinctCount == maxDistinct) {
+                        return block;
+                    }
+                    hashTable[slot] = distinctCount;
+                    distinctPositions[distinctCount] = position;
+                    ids[position] = distinctCount;
+                    distinctCount++;
+                    break;
+                }
+                if (positionEqualsPosition(type, block, distinctPositions[id], position)) {
+                    ids[position] = id;
+                    break;
+                }
+                slot = (slot + 1) & mask;
+            }
+        }
+
+        if (distinctCount == 1) {
+            return new RunLengthEncodedBlock(block.getSingleValueBlock(0), positionCount);
+        }
+        Block encoded = new DictionaryBlock(positionCount, block.copyPositions(distinctPositions, 0, distinctCount), ids);
+        return encoded.getRetainedSizeInBytes() < block.getRetainedSizeInBytes() ? encoded : block;
+    }
+
+    private static int hashPosition(Type type, Block block, int position)
+    {
+        if (block.isNull(position)) {
+            return 0;
+        }
+        return Long.hashCode(type.hash(block, position) * 0x9E3779B97F4A7C15L);
+    }
+
+    private static boolean positionEqualsPosition(Type type, Block block, int left, int right)
+    {
+        boolean leftIsNull = block.isNull(left);
+        boolean rightIsNull = block.isNull(right);
+        if (leftIsNull || rightIsNull) {
+            return leftIsNull && rightIsNull;
+        }
+        return type.equalTo(block, left, block, right);
+    }
+}
@@ -15,6 +15,8 @@ package com.facebook.presto.plugin.memory;
 
 import com.facebook.presto.common.Page;
 import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.predicate.TupleDomain;
+import com.facebook.presto.common.type.Type;
 import com.facebook.presto.spi.PrestoException;
 import com.google.common.collect.ImmutableList;
 import com.google.errorprone.annotations.ThreadSafe;
@@ -37,6 +39,7 @@ import static java.lang.String.format;
 public class MemoryPagesStore
 {
     private final long maxBytes;
+    private final boolean columnarStorageEnabled;
 
     @GuardedBy("this")
     private long currentBytes;
@@ -47,6 +50,7 @@ public class MemoryPagesStore
     public MemoryPagesStore(MemoryConfig config)
     {
         this.maxBytes = config.getMaxDataPerNode().toBytes();
+        this.columnarStorageEnabled = config.isColumnarStorageEnabled();
     }
 
     public synchronized void initialize(long tableId)
@@ -56,22 +60,22 @@ public class MemoryPagesStore
         }
     }
 
-    public synchronized void add(Long tableId, Page page)
+    public synchronized void add(Long tableId, Page page, List<Type> columnTypes)
     {
         if (!contains(tableId)) {
             throw new PrestoException(MISSING_DATA, "Failed to find table on a worker.");
         }
 
-        page.compact();
+        MemoryPage memoryPage = MemoryPage.create(page, columnTypes, columnarStorageEnabled);
 
-        long newSize = currentBytes + page.getRetainedSizeInBytes();
+        long newSize = currentBytes + memoryPage.getRetainedSizeInBytes();
         if (maxBytes < newSize) {
             throw new PrestoException(MEMORY_LIMIT_EXCEEDED, format("Memory limit [%d] for memory connector exceeded", maxBytes));
         }
         currentBytes = newSize;
 
         TableData tableData = tables.get(tableId);
-        tableData.add(page);
+        tableData.add(memoryPage);
     }
 
     public synchronized List<Page> getPages(
@@ -80,6 +84,22 @@ public class MemoryPagesStore
             int totalParts,
             List<Integer> columnIndexes,
             long expectedRows)
+    {
+        return getPages(tableId, partNumber, totalParts, columnIndexes, expectedRows, TupleDomain.all());
+    }
+
+    /**
+     * Returns the pages of the given part, skipping pages whose zone maps show that no row can satisfy
+     * {@code constraint}. The constraint is keyed by column index and only prunes whole pages, so the
+     * returned rows still have to be filtered.
+     */
+    public synchronized List<Page> getPages(
+            Long tableId,
+            int partNumber,
+            int totalParts,
+            List<Integer> columnIndexes,
+            long expectedRows,
+            TupleDomain<Integer> constraint)
     {
         if (!contains(tableId)) {
             throw new PrestoException(MISSING_DATA, "Failed to find table on a worker.");
@@ -93,7 +113,10 @@ public class MemoryPagesStore
         ImmutableList.Builder<Page> partitionedPages = ImmutableList.builder();
 
         for (int i = partNumber; i < tableData.getPages().size(); i += totalParts) {
-            partitionedPages.add(getColumns(tableData.getPages().get(i), columnIndexes));
+            MemoryPage memoryPage = tableData.getPages().get(i);
+            if (memoryPage.mayMatch(constraint)) {
+                partitionedPages.add(getColumns(memoryPage.getPage(), columnIndexes));
+            }
         }
 
         return partitionedPages.build();
@@ -108,7 +131,7 @@ public class MemoryPagesStore
     {
         TableData tableData = tables.get(tableId);
         if (tableData != null) {
-            for (Page page : tableData.getPages()) {
+            for (MemoryPage page : tableData.getPages()) {
                 currentBytes -= page.getRetainedSizeInBytes();
             }
             tables.put(tableId, new TableData());
@@ -135,7 +158,7 @@ public class MemoryPagesStore
             Map.Entry<Long, TableData> tablePagesEntry = tableDataIterator.next();
             Long tableId = tablePagesEntry.getKey();
             if (tableId < latestTableId && !activeTableIds.contains(tableId)) {
-                for (Page removedPage : tablePagesEntry.getValue().getPages()) {
+                for (MemoryPage removedPage : tablePagesEntry.getValue().getPages()) {
                     currentBytes -= removedPage.getRetainedSizeInBytes();
                 }
                 tableDataIterator.remove();
@@ -156,16 +179,16 @@ public class MemoryPagesStore
 
     private static final class TableData
     {
-        private final List<Page> pages = new ArrayList<>();
+        private final List<MemoryPage> pages = new ArrayList<>();
         private long rows;
 
-        public void add(Page page)
+        public void add(MemoryPage page)
         {
             pages.add(page);
-            rows += page.getPositionCount();
+            rows += page.getPage().getPositionCount();
         }
 
-        private List<Page> getPages()
+        private List<MemoryPage> getPages()
         {
             return pages;
         }
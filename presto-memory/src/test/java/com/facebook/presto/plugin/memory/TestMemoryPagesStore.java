@@ -16,6 +16,10 @@ package com.facebook.presto.plugin.memory;
 import com.facebook.airlift.units.DataSize;
 import com.facebook.presto.common.Page;
 import com.facebook.presto.common.block.BlockBuilder;
+import com.facebook.presto.common.block.DictionaryBlock;
+import com.facebook.presto.common.block.RunLengthEncodedBlock;
+import com.facebook.presto.common.predicate.Domain;
+import com.facebook.presto.common.predicate.TupleDomain;
 import com.facebook.presto.spi.ConnectorInsertTableHandle;
 import com.facebook.presto.spi.ConnectorOutputTableHandle;
 import com.facebook.presto.spi.ConnectorPageSink;
@@ -25,10 +29,14 @@ import com.facebook.presto.spi.PageSinkContext;
 import com.facebook.presto.spi.PrestoException;
 import com.facebook.presto.testing.TestingConnectorSession;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import java.util.List;
+import java.util.function.IntUnaryOperator;
+
 import static com.facebook.presto.common.type.BigintType.BIGINT;
 import static java.lang.String.format;
 import static org.testng.Assert.assertEquals;
@@ -119,6 +127,41 @@ public class TestMemoryPagesStore
         insertToTable(0L, createOneMegaBytePage(), 0L);
     }
 
+    @Test
+    public void testColumnarStorage()
+    {
+        MemoryPagesStore columnarStore = new MemoryPagesStore(new MemoryConfig().setColumnarStorageEnabled(true));
+        columnarStore.initialize(0L);
+        columnarStore.add(0L, createPage(100, position -> position % 4), ImmutableList.of(BIGINT));
+        columnarStore.add(0L, createPage(100, position -> 1000), ImmutableList.of(BIGINT));
+
+        List<Page> pages = columnarStore.getPages(0L, 0, 1, ImmutableList.of(0), 200);
+        assertEquals(pages.size(), 2);
+        assertTrue(pages.get(0).getBlock(0) instanceof DictionaryBlock);
+        assertTrue(pages.get(1).getBlock(0) instanceof RunLengthEncodedBlock);
+        assertEquals(BIGINT.getLong(pages.get(0).getBlock(0), 5), 1L);
+        assertEquals(BIGINT.getLong(pages.get(1).getBlock(0), 99), 1000L);
+
+        assertEquals(columnarStore.getPages(0L, 0, 1, ImmutableList.of(0), 200, columnDomain(Domain.singleValue(BIGINT, 1000L))).size(), 1);
+        assertEquals(columnarStore.getPages(0L, 0, 1, ImmutableList.of(0), 200, columnDomain(Domain.singleValue(BIGINT, 2L))).size(), 1);
+        assertEquals(columnarStore.getPages(0L, 0, 1, ImmutableList.of(0), 200, columnDomain(Domain.singleValue(BIGINT, 500L))).size(), 0);
+        assertEquals(columnarStore.getPages(0L, 0, 1, ImmutableList.of(0), 200, columnDomain(Domain.onlyNull(BIGINT))).size(), 0);
+    }
+
+    private static TupleDomain<Integer> columnDomain(Domain domain)
+    {
+        return TupleDomain.withColumnDomains(ImmutableMap.of(0, domain));
+    }
+
+    private static Page createPage(int positionCount, IntUnaryOperator values)
+    {
+        BlockBuilder blockBuilder = BIGINT.createBlockBuilder(null, positionCount);
+        for (int position = 0; position < positionCount; position++) {
+            BIGINT.writeLong(blockBuilder, values.applyAsInt(position));
+        }
+        return new Page(blockBuilder.build());
+    }
+
     private void insertToTable(long tableId, Long... activeTableIds)
     {
         insertToTable(tableId, createPage(), activeTableIds);
@@ -27,6 +27,7 @@ import com.facebook.presto.orc.metadata.StripeInformation;
 import com.facebook.presto.orc.metadata.statistics.ColumnStatistics;
 import com.facebook.presto.orc.metadata.statistics.StripeStatistics;
 import com.facebook.presto.orc.reader.StreamReader;
+import com.facebook.presto.orc.stream.DecompressionBufferPool;
 import com.facebook.presto.orc.stream.InputStreamSources;
 import com.facebook.presto.orc.stream.SharedBuffer;
 import com.google.common.annotations.VisibleForTesting;
@@ -54,6 +55,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.OptionalInt;
 import java.util.Set;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
 import static com.facebook.presto.orc.AbstractOrcRecordReader.LinearProbeRangeFinder.createTinyStripesRangeFinder;
@@ -79,6 +81,7 @@ abstract class AbstractOrcRecordReader<T extends StreamReader>
     private static final int INSTANCE_SIZE = ClassLayout.parseClass(AbstractOrcRecordReader.class).instanceSize();
 
     private final OrcDataSource orcDataSource;
+    private final Optional<PrefetchingOrcDataSource> prefetchingDataSource;
 
     private final T[] streamReaders;
 
@@ -99,6 +102,8 @@ abstract class AbstractOrcRecordReader<T extends StreamReader>
     private final StripeReader stripeReader;
     private int currentStripe = -1;
     private OrcAggregatedMemoryContext currentStripeSystemMemoryContext;
+    // buffers of the streams of a stripe are reused by the streams of the following stripes
+    private final DecompressionBufferPool decompressionBufferPool;
     private Optional<DwrfEncryptionInfo> dwrfEncryptionInfo = Optional.empty();
 
     private final long fileRowCount;
@@ -148,6 +153,8 @@ abstract class AbstractOrcRecordReader<T extends StreamReader>
             DataSize maxMergeDistance,
             DataSize tinyStripeThreshold,
             DataSize maxBlockSize,
+            Optional<Executor> stripePrefetchExecutor,
+            DataSize maxStripePrefetchSize,
             Map<String, Slice> userMetadata,
             OrcAggregatedMemoryContext systemMemoryUsage,
             Optional<OrcWriteValidation> writeValidation,
@@ -231,6 +238,10 @@ abstract class AbstractOrcRecordReader<T extends StreamReader>
         this.stripeFilePositions = stripeFilePositions.build();
 
         orcDataSource = wrapWithCacheIfTinyStripes(orcDataSource, this.stripes, maxMergeDistance, tinyStripeThreshold, systemMemoryUsage);
+        this.prefetchingDataSource = createPrefetchingDataSource(orcDataSource, this.stripes, stripePrefetchExecutor, maxMergeDistance, maxStripePrefetchSize, systemMemoryUsage);
+        if (prefetchingDataSource.isPresent()) {
+            orcDataSource = prefetchingDataSource.get();
+        }
         this.orcDataSource = orcDataSource;
         this.splitLength = splitLength;
 
@@ -242,6 +253,7 @@ abstract class AbstractOrcRecordReader<T extends StreamReader>
         this.userMetadata = ImmutableMap.copyOf(Maps.transformValues(userMetadata, Slices::copyOf));
 
         this.currentStripeSystemMemoryContext = this.systemMemoryUsage.newOrcAggregatedMemoryContext();
+        this.decompressionBufferPool = DecompressionBufferPool.acquire(this.systemMemoryUsage.newOrcLocalMemoryContext(DecompressionBufferPool.class.getSimpleName()));
 
         Set<Integer> includedOrcColumns = getIncludedOrcColumns(types, this.presentColumns, requireNonNull(requiredSubfields, "requiredSubfields is null"));
         this.encryptionLibrary = encryptionLibrary;
@@ -455,6 +467,26 @@ abstract class AbstractOrcRecordReader<T extends StreamReader>
         return new CachingOrcDataSource(dataSource, createTinyStripesRangeFinder(stripes, maxMergeDistance, tinyStripeThreshold), systemMemoryContext.newOrcLocalMemoryContext(CachingOrcDataSource.class.getSimpleName()));
     }
 
+    private static Optional<PrefetchingOrcDataSource> createPrefetchingDataSource(
+            OrcDataSource dataSource,
+            List<StripeInformation> stripes,
+            Optional<Executor> executor,
+            DataSize maxMergeDistance,
+            DataSize maxPrefetchSize,
+            OrcAggregatedMemoryContext systemMemoryContext)
+    {
+        // tiny stripes are already read in their entirety
+        if (!executor.isPresent() || maxPrefetchSize.toBytes() == 0 || stripes.size() < 2 || dataSource instanceof CachingOrcDataSource) {
+            return Optional.empty();
+        }
+        return Optional.of(new PrefetchingOrcDataSource(
+                dataSource,
+                executor.get(),
+                maxMergeDistance,
+                maxPrefetchSize,
+                systemMemoryContext.newOrcLocalMemoryContext(PrefetchingOrcDataSource.class.getSimpleName())));
+    }
+
     /**
      * Return the row position relative to the start of the file.
      */
@@ -504,6 +536,8 @@ abstract class AbstractOrcRecordReader<T extends StreamReader>
             throws IOException
     {
         try (Closer closer = Closer.create()) {
+            // closed last, once the streams are no longer read
+            closer.register(decompressionBufferPool::close);
             closer.register(orcDataSource);
             for (StreamReader column : streamReaders) {
                 if (column != null) {
@@ -635,6 +669,7 @@ abstract class AbstractOrcRecordReader<T extends StreamReader>
     {
         currentStripeSystemMemoryContext.close();
         currentStripeSystemMemoryContext = systemMemoryUsage.newOrcAggregatedMemoryContext();
+        decompressionBufferPool.reclaim();
         rowGroups = ImmutableList.<RowGroup>of().iterator();
 
         if (currentStripe >= 0) {
@@ -668,8 +703,11 @@ abstract class AbstractOrcRecordReader<T extends StreamReader>
             dwrfEncryptionInfo = Optional.of(createDwrfEncryptionInfo(encryptionLibrary.get(), stripeDecryptionKeyMetadata, intermediateKeyMetadata, dwrfEncryptionGroupMap));
         }
 
-        SharedBuffer sharedDecompressionBuffer = new SharedBuffer(currentStripeSystemMemoryContext.newOrcLocalMemoryContext("sharedDecompressionBuffer"));
+        SharedBuffer sharedDecompressionBuffer = new SharedBuffer(currentStripeSystemMemoryContext.newOrcLocalMemoryContext("sharedDecompressionBuffer"), Optional.of(decompressionBufferPool));
         Stripe stripe = stripeReader.readStripe(stripeInformation, currentStripeSystemMemoryContext, dwrfEncryptionInfo, sharedDecompressionBuffer);
+        if (prefetchingDataSource.isPresent()) {
+            prefetchNextStripe(prefetchingDataSource.get());
+        }
         if (stripe != null) {
             for (StreamReader column : streamReaders) {
                 if (column != null) {
@@ -682,6 +720,36 @@ abstract class AbstractOrcRecordReader<T extends StreamReader>
         fileIntrospector.ifPresent(introspector -> introspector.onStripe(stripeInformation, stripe));
     }
 
+    /**
+     * Starts reading the streams of the next stripe, and the footer of the stripe after it, while the
+     * current stripe is decoded. The footer of the next stripe is usually already prefetched.
+     */
+    private void prefetchNextStripe(PrefetchingOrcDataSource prefetchingDataSource)
+            throws IOException
+    {
+        // the streams of the current stripe may reference the prefetched buffers without a copy, so they
+        // stay accounted until the next stripe has been read, and only the ranges of earlier stripes are released
+        prefetchingDataSource.releaseBefore(stripes.get(currentStripe).getOffset());
+        int nextStripe = currentStripe + 1;
+        if (nextStripe >= stripes.size()) {
+            return;
+        }
+        StripeInformation nextStripeInformation = stripes.get(nextStripe);
+
+        prefetchingDataSource.prefetch(ImmutableList.of(getStripeFooterDiskRange(nextStripeInformation)));
+        ImmutableList.Builder<DiskRange> diskRanges = ImmutableList.builder();
+        diskRanges.addAll(stripeReader.getIncludedStreamDiskRanges(nextStripeInformation, currentStripeSystemMemoryContext));
+        if (nextStripe + 1 < stripes.size()) {
+            diskRanges.add(getStripeFooterDiskRange(stripes.get(nextStripe + 1)));
+        }
+        prefetchingDataSource.prefetch(diskRanges.build());
+    }
+
+    private static DiskRange getStripeFooterDiskRange(StripeInformation stripe)
+    {
+        return new DiskRange(stripe.getOffset() + stripe.getIndexLength() + stripe.getDataLength(), toIntExact(stripe.getFooterLength()));
+    }
+
     @VisibleForTesting
     public static List<byte[]> getDecryptionKeyMetadata(int currentStripe, List<StripeInformation> stripes)
     {
@@ -101,6 +101,8 @@ public class OrcBatchRecordReader
                 options.getMaxMergeDistance(),
                 options.getTinyStripeThreshold(),
                 options.getMaxBlockSize(),
+                options.getStripePrefetchExecutor(),
+                options.getMaxStripePrefetchSize(),
                 userMetadata,
                 systemMemoryUsage,
                 writeValidation,
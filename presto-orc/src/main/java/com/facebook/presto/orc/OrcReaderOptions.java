@@ -15,6 +15,10 @@ package com.facebook.presto.orc;
 
 import com.facebook.airlift.units.DataSize;
 
+import java.util.Optional;
+import java.util.concurrent.Executor;
+
+import static com.facebook.airlift.units.DataSize.Unit.BYTE;
 import static com.facebook.airlift.units.DataSize.Unit.GIGABYTE;
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static java.util.Objects.requireNonNull;
@@ -32,6 +36,10 @@ public class OrcReaderOptions
     // slice reader will throw if the slice size is larger than this value
     private final DataSize maxSliceSize;
     private final boolean resetAllReaders;
+    // executor reading the streams of the next stripe while the current stripe is decoded
+    private final Optional<Executor> stripePrefetchExecutor;
+    // prefetching is disabled if this is zero
+    private final DataSize maxStripePrefetchSize;
 
     /**
      * Read column statistics for flat map columns. Usually there are quite a
@@ -48,7 +56,9 @@ public class OrcReaderOptions
             boolean appendRowNumber,
             boolean readMapStatistics,
             DataSize maxSliceSize,
-            boolean resetAllReaders)
+            boolean resetAllReaders,
+            Optional<Executor> stripePrefetchExecutor,
+            DataSize maxStripePrefetchSize)
     {
         this.maxMergeDistance = requireNonNull(maxMergeDistance, "maxMergeDistance is null");
         this.maxBlockSize = requireNonNull(maxBlockSize, "maxBlockSize is null");
@@ -59,6 +69,8 @@ public class OrcReaderOptions
         this.readMapStatistics = readMapStatistics;
         this.maxSliceSize = maxSliceSize;
         this.resetAllReaders = resetAllReaders;
+        this.stripePrefetchExecutor = requireNonNull(stripePrefetchExecutor, "stripePrefetchExecutor is null");
+        this.maxStripePrefetchSize = requireNonNull(maxStripePrefetchSize, "maxStripePrefetchSize is null");
     }
 
     public DataSize getMaxMergeDistance()
@@ -106,6 +118,16 @@ public class OrcReaderOptions
         return resetAllReaders;
     }
 
+    public Optional<Executor> getStripePrefetchExecutor()
+    {
+        return stripePrefetchExecutor;
+    }
+
+    public DataSize getMaxStripePrefetchSize()
+    {
+        return maxStripePrefetchSize;
+    }
+
     @Override
     public String toString()
     {
@@ -119,6 +141,7 @@ public class OrcReaderOptions
                 .add("readMapStatistics", readMapStatistics)
                 .add("maxSliceSize", maxSliceSize)
                 .add("resetAllReaders", resetAllReaders)
+                .add("maxStripePrefetchSize", maxStripePrefetchSize)
                 .toString();
     }
 
@@ -138,6 +161,8 @@ public class OrcReaderOptions
         private boolean readMapStatistics;
         private DataSize maxSliceSize = DEFAULT_MAX_SLICE_SIZE;
         private boolean resetAllReaders;
+        private Optional<Executor> stripePrefetchExecutor = Optional.empty();
+        private DataSize maxStripePrefetchSize = new DataSize(0, BYTE);
 
         private Builder() {}
 
@@ -195,6 +220,18 @@ public class OrcReaderOptions
             return this;
         }
 
+        public Builder withStripePrefetchExecutor(Executor stripePrefetchExecutor)
+        {
+            this.stripePrefetchExecutor = Optional.of(requireNonNull(stripePrefetchExecutor, "stripePrefetchExecutor is null"));
+            return this;
+        }
+
+        public Builder withMaxStripePrefetchSize(DataSize maxStripePrefetchSize)
+        {
+            this.maxStripePrefetchSize = requireNonNull(maxStripePrefetchSize, "maxStripePrefetchSize is null");
+            return this;
+        }
+
         public OrcReaderOptions build()
         {
             return new OrcReaderOptions(
@@ -206,7 +243,9 @@ public class OrcReaderOptions
                     appendRowNumber,
                     readMapStatistics,
                     maxSliceSize,
-                    resetAllReaders);
+                    resetAllReaders,
+                    stripePrefetchExecutor,
+                    maxStripePrefetchSize);
         }
     }
 }
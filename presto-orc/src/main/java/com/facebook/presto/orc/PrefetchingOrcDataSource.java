@@ -0,0 +1,335 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.orc;
+
+import com.facebook.airlift.units.DataSize;
+import com.google.common.collect.ImmutableMap;
+import com.google.errorprone.annotations.concurrent.GuardedBy;
+import io.airlift.slice.Slices;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+
+import static com.facebook.presto.orc.OrcDataSourceUtils.mergeAdjacentDiskRanges;
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.Math.toIntExact;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Data source which reads requested disk ranges ahead of time on an I/O executor, so that the
+ * latency of the reads overlaps with decoding of the data read before. Reads which are fully
+ * contained in a prefetched range are served from memory, all other reads go to the underlying
+ * data source.
+ * <p>
+ * The total size of the prefetched ranges which are in flight or not yet released is bounded by
+ * {@code maxPrefetchSize}, and accounted in the system memory context. Buffers of prefetched ranges
+ * are handed out to readers without a copy, so a range must only be released once its data is no
+ * longer referenced. Released ranges whose read is still in flight stay accounted until the read
+ * completes. The underlying data source must support concurrent positional reads.
+ * <p>
+ * This class is not thread safe; prefetch requests and reads must come from the reader thread.
+ */
+public class PrefetchingOrcDataSource
+        implements OrcDataSource
+{
+    private final OrcDataSource dataSource;
+    private final Executor executor;
+    private final DataSize maxMergeDistance;
+    private final DataSize maxPrefetchSize;
+    private final OrcLocalMemoryContext systemMemoryContext;
+
+    // prefetched ranges in the order they were requested
+    private final Map<DiskRange, PrefetchedRead> prefetchedRanges = new LinkedHashMap<>();
+    // released reads which were already in flight, their buffers are allocated until the read completes
+    private final List<PrefetchedRead> cancelledReads = new ArrayList<>();
+    private long prefetchedBytes;
+
+    public PrefetchingOrcDataSource(OrcDataSource dataSource, Executor executor, DataSize maxMergeDistance, DataSize maxPrefetchSize, OrcLocalMemoryContext systemMemoryContext)
+    {
+        this.dataSource = requireNonNull(dataSource, "dataSource is null");
+        this.executor = requireNonNull(executor, "executor is null");
+        this.maxMergeDistance = requireNonNull(maxMergeDistance, "maxMergeDistance is null");
+        this.maxPrefetchSize = requireNonNull(maxPrefetchSize, "maxPrefetchSize is null");
+        checkArgument(maxPrefetchSize.toBytes() > 0, "maxPrefetchSize must be positive");
+        this.systemMemoryContext = requireNonNull(systemMemoryContext, "systemMemoryContext is null");
+    }
+
+    /**
+     * Starts reading the disk ranges in the background. Ranges closer than {@code maxMergeDistance}
+     * are read in one request. Ranges which do not fit into the remaining prefetch budget are not
+     * prefetched, and will be read when requested.
+     */
+    public void prefetch(Collection<DiskRange> diskRanges)
+    {
+        if (diskRanges.isEmpty()) {
+            return;
+        }
+        reclaimCancelledReads();
+
+        for (DiskRange diskRange : mergeAdjacentDiskRanges(diskRanges, maxMergeDistance, maxPrefetchSize)) {
+            if (findPrefetchedRange(diskRange) != null) {
+                continue;
+            }
+            if (prefetchedBytes + diskRange.getLength() > maxPrefetchSize.toBytes()) {
+                break;
+            }
+
+            PrefetchedRead read = new PrefetchedRead(dataSource, diskRange);
+            prefetchedRanges.put(diskRange, read);
+            prefetchedBytes += diskRange.getLength();
+            systemMemoryContext.setBytes(prefetchedBytes);
+            executor.execute(read);
+        }
+    }
+
+    /**
+     * Releases the prefetched ranges which end at or before {@code position}. Reads which have not
+     * started yet are cancelled, reads in flight stay accounted until they complete.
+     */
+    public void releaseBefore(long position)
+    {
+        Iterator<Entry<DiskRange, PrefetchedRead>> iterator = prefetchedRanges.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Entry<DiskRange, PrefetchedRead> entry = iterator.next();
+            if (entry.getKey().getEnd() <= position) {
+                iterator.remove();
+                if (entry.getValue().cancel()) {
+                    cancelledReads.add(entry.getValue());
+                }
+                else {
+                    prefetchedBytes -= entry.getKey().getLength();
+                }
+            }
+        }
+        reclaimCancelledReads();
+    }
+
+    @Override
+    public OrcDataSourceId getId()
+    {
+        return dataSource.getId();
+    }
+
+    @Override
+    public long getReadBytes()
+    {
+        return dataSource.getReadBytes();
+    }
+
+    @Override
+    public long getReadTimeNanos()
+    {
+        return dataSource.getReadTimeNanos();
+    }
+
+    @Override
+    public long getSize()
+    {
+        return dataSource.getSize();
+    }
+
+    @Override
+    public void readFully(long position, byte[] buffer)
+            throws IOException
+    {
+        readFully(position, buffer, 0, buffer.length);
+    }
+
+    @Override
+    public void readFully(long position, byte[] buffer, int bufferOffset, int bufferLength)
+            throws IOException
+    {
+        DiskRange diskRange = new DiskRange(position, bufferLength);
+        DiskRange prefetchedRange = findPrefetchedRange(diskRange);
+        byte[] prefetchedBuffer = prefetchedRange == null ? null : getPrefetchedBuffer(prefetchedRange);
+        if (prefetchedBuffer == null) {
+            dataSource.readFully(position, buffer, bufferOffset, bufferLength);
+            return;
+        }
+        System.arraycopy(prefetchedBuffer, toIntExact(position - prefetchedRange.getOffset()), buffer, bufferOffset, bufferLength);
+    }
+
+    @Override
+    public <K> Map<K, OrcDataSourceInput> readFully(Map<K, DiskRange> diskRanges)
+            throws IOException
+    {
+        ImmutableMap.Builder<K, OrcDataSourceInput> inputs = ImmutableMap.builder();
+        ImmutableMap.Builder<K, DiskRange> remainingRanges = ImmutableMap.builder();
+        for (Entry<K, DiskRange> entry : diskRanges.entrySet()) {
+            DiskRange diskRange = entry.getValue();
+            DiskRange prefetchedRange = findPrefetchedRange(diskRange);
+            byte[] prefetchedBuffer = prefetchedRange == null ? null : getPrefetchedBuffer(prefetchedRange);
+            if (prefetchedBuffer == null) {
+                remainingRanges.put(entry);
+                continue;
+            }
+            int offset = toIntExact(diskRange.getOffset() - prefetchedRange.getOffset());
+            inputs.put(entry.getKey(), new OrcDataSourceInput(Slices.wrappedBuffer(prefetchedBuffer, offset, diskRange.getLength()).getInput(), diskRange.getLength()));
+        }
+        Map<K, DiskRange> remaining = remainingRanges.build();
+        if (!remaining.isEmpty()) {
+            inputs.putAll(dataSource.readFully(remaining));
+        }
+        return inputs.build();
+    }
+
+    @Override
+    public void close()
+            throws IOException
+    {
+        releaseBefore(Long.MAX_VALUE);
+        // wait for the reads in flight, so that no memory is allocated after the reservation is released
+        for (PrefetchedRead read : cancelledReads) {
+            read.awaitCompletion();
+        }
+        reclaimCancelledReads();
+        dataSource.close();
+    }
+
+    @Override
+    public String toString()
+    {
+        return dataSource.toString();
+    }
+
+    private DiskRange findPrefetchedRange(DiskRange diskRange)
+    {
+        for (DiskRange prefetchedRange : prefetchedRanges.keySet()) {
+            if (prefetchedRange.contains(diskRange)) {
+                return prefetchedRange;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Waits for the prefetched range to be read. Returns null if the read failed, in which case
+     * the caller reads the data from the underlying data source, which reports the failure.
+     */
+    private byte[] getPrefetchedBuffer(DiskRange prefetchedRange)
+            throws IOException
+    {
+        try {
+            return prefetchedRanges.get(prefetchedRange).getBuffer();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for prefetched range " + prefetchedRange);
+        }
+        catch (ExecutionException e) {
+            return null;
+        }
+    }
+
+    private void reclaimCancelledReads()
+    {
+        Iterator<PrefetchedRead> iterator = cancelledReads.iterator();
+        while (iterator.hasNext()) {
+            PrefetchedRead read = iterator.next();
+            if (read.isDone()) {
+                iterator.remove();
+                prefetchedBytes -= read.getDiskRange().getLength();
+            }
+        }
+        systemMemoryContext.setBytes(prefetchedBytes);
+    }
+
+    private static class PrefetchedRead
+            implements Runnable
+    {
+        private final OrcDataSource dataSource;
+        private final DiskRange diskRange;
+        private final CompletableFuture<byte[]> buffer = new CompletableFuture<>();
+
+        @GuardedBy("this")
+        private boolean started;
+        @GuardedBy("this")
+        private boolean cancelled;
+
+        public PrefetchedRead(OrcDataSource dataSource, DiskRange diskRange)
+        {
+            this.dataSource = requireNonNull(dataSource, "dataSource is null");
+            this.diskRange = requireNonNull(diskRange, "diskRange is null");
+        }
+
+        @Override
+        public void run()
+        {
+            synchronized (this) {
+                if (cancelled) {
+                    return;
+                }
+                started = true;
+            }
+            try {
+                byte[] data = new byte[diskRange.getLength()];
+                dataSource.readFully(diskRange.getOffset(), data);
+                buffer.complete(data);
+            }
+            catch (Throwable t) {
+                buffer.completeExceptionally(t);
+            }
+        }
+
+        public DiskRange getDiskRange()
+        {
+            return diskRange;
+        }
+
+        public byte[] getBuffer()
+                throws InterruptedException, ExecutionException
+        {
+            return buffer.get();
+        }
+
+        /**
+         * Cancels the read if it has not started yet. Returns true if the read is in flight.
+         */
+        public synchronized boolean cancel()
+        {
+            cancelled = true;
+            return started && !buffer.isDone();
+        }
+
+        public boolean isDone()
+        {
+            return buffer.isDone();
+        }
+
+        public void awaitCompletion()
+                throws InterruptedIOException
+        {
+            try {
+                buffer.get();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for prefetched range " + diskRange);
+            }
+            catch (ExecutionException ignored) {
+                // the read failed, so its buffer is no longer allocated
+            }
+        }
+    }
+}
@@ -501,6 +501,29 @@ public class StripeReader
         }
     }
 
+    /**
+     * Returns the file ranges of the streams of the included columns of the stripe. Streams of
+     * encrypted columns are not included, as they are only known after decrypting the stripe footer.
+     */
+    public List<DiskRange> getIncludedStreamDiskRanges(StripeInformation stripe, OrcAggregatedMemoryContext systemMemoryUsage)
+            throws IOException
+    {
+        StripeId stripeId = new StripeId(orcDataSource.getId(), stripe.getOffset());
+        StripeFooter stripeFooter = readStripeFooter(stripeId, stripe, systemMemoryUsage);
+
+        Map<StreamId, Stream> includedStreams = new HashMap<>();
+        addIncludedStreams(stripeFooter.getColumnEncodings(), stripeFooter.getStreams(), includedStreams);
+
+        ImmutableList.Builder<DiskRange> diskRanges = ImmutableList.builder();
+        for (Entry<StreamId, DiskRange> entry : getDiskRanges(ImmutableList.of(stripeFooter.getStreams())).entrySet()) {
+            if (includedStreams.containsKey(entry.getKey())) {
+                DiskRange diskRange = entry.getValue();
+                diskRanges.add(new DiskRange(stripe.getOffset() + diskRange.getOffset(), diskRange.getLength()));
+            }
+        }
+        return diskRanges.build();
+    }
+
     static boolean isIndexStream(Stream stream)
     {
         return stream.getStreamKind().getStreamArea() == INDEX;
@@ -0,0 +1,185 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.orc.stream;
+
+import com.facebook.airlift.concurrent.NotThreadSafe;
+import com.facebook.presto.orc.OrcLocalMemoryContext;
+import com.google.common.annotations.VisibleForTesting;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static io.airlift.slice.SizeOf.sizeOf;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Pool of the buffers the streams of a reader decompress into. Buffer sizes are rounded up to size
+ * classes which are powers of two and one and a half times powers of two, so that a buffer wastes at
+ * most a third of its size. The buffers handed out to the streams of a stripe are tracked, and are all
+ * returned to the pool by {@link #reclaim()} once the reader has moved past the stripe, so that the
+ * streams of the following stripes reuse them instead of allocating new ones.
+ * <p>
+ * Readers {@link #acquire(OrcLocalMemoryContext) acquire} the pool of the thread which opens them, and
+ * hand it back to the thread which closes them, so that the readers of the splits a driver processes one
+ * after another reuse the same buffers. A pool is owned by one reader at a time; a reader which is opened
+ * while the pool of the thread is owned by another reader gets a new pool.
+ * <p>
+ * The memory of the buffers in use is accounted by the streams; the pool only accounts the free buffers,
+ * in the memory context of the reader which owns it. The free buffers a thread keeps between readers are
+ * not accounted, so they are limited to {@code MAX_IDLE_BYTES}.
+ */
+@NotThreadSafe
+public class DecompressionBufferPool
+{
+    private static final int MIN_BUFFER_SIZE = 64;
+    private static final int MAX_BUFFER_SIZE = 1 << 30;
+    @VisibleForTesting
+    static final long MAX_IDLE_BYTES = 4 * 1024 * 1024;
+
+    // pool of the current thread which is not owned by a reader
+    private static final ThreadLocal<DecompressionBufferPool> IDLE_POOL = new ThreadLocal<>();
+
+    private OrcLocalMemoryContext memoryUsage;
+    private final Map<Integer, Deque<byte[]>> freeBuffers = new HashMap<>();
+    private final Set<byte[]> lentBuffers = Collections.newSetFromMap(new IdentityHashMap<>());
+    private long freeBufferBytes;
+
+    public DecompressionBufferPool(OrcLocalMemoryContext memoryUsage)
+    {
+        this.memoryUsage = requireNonNull(memoryUsage, "memoryUsage is null");
+    }
+
+    /**
+     * Takes the pool of the current thread, or creates a new pool if the thread has none, and accounts
+     * its free buffers in {@code memoryUsage}. The pool is handed back by {@link #close()}.
+     */
+    public static DecompressionBufferPool acquire(OrcLocalMemoryContext memoryUsage)
+    {
+        DecompressionBufferPool pool = IDLE_POOL.get();
+        if (pool == null) {
+            return new DecompressionBufferPool(memoryUsage);
+        }
+        IDLE_POOL.remove();
+        pool.memoryUsage = requireNonNull(memoryUsage, "memoryUsage is null");
+        pool.memoryUsage.setBytes(pool.freeBufferBytes);
+        return pool;
+    }
+
+    public byte[] allocate(int size)
+    {
+        int bufferSize = getBufferSize(size);
+        Deque<byte[]> buffers = freeBuffers.get(bufferSize);
+        byte[] buffer;
+        if (buffers == null || buffers.isEmpty()) {
+            buffer = new byte[bufferSize];
+        }
+        else {
+            buffer = buffers.pop();
+            freeBufferBytes -= sizeOf(buffer);
+            memoryUsage.setBytes(freeBufferBytes);
+        }
+        lentBuffers.add(buffer);
+        return buffer;
+    }
+
+    /**
+     * Returns a buffer to the pool before the stripe is finished. Buffers which were not
+     * allocated from the pool are ignored.
+     */
+    public void release(byte[] buffer)
+    {
+        if (lentBuffers.remove(buffer)) {
+            addFreeBuffer(buffer);
+            memoryUsage.setBytes(freeBufferBytes);
+        }
+    }
+
+    /**
+     * Returns all buffers handed out to the streams of the previous stripe to the pool.
+     * The streams must no longer be read.
+     */
+    public void reclaim()
+    {
+        if (lentBuffers.isEmpty()) {
+            return;
+        }
+        for (byte[] buffer : lentBuffers) {
+            addFreeBuffer(buffer);
+        }
+        lentBuffers.clear();
+        memoryUsage.setBytes(freeBufferBytes);
+    }
+
+    /**
+     * Returns all buffers to the pool, and hands the pool over to the current thread, unless the thread
+     * already has one. The free buffers are no longer accounted in the memory context of the reader.
+     * The streams must no longer be read. Closing a closed pool has no effect.
+     */
+    public void close()
+    {
+        if (memoryUsage == null) {
+            return;
+        }
+        reclaim();
+        Iterator<Deque<byte[]>> iterator = freeBuffers.values().iterator();
+        while (freeBufferBytes > MAX_IDLE_BYTES && iterator.hasNext()) {
+            Deque<byte[]> buffers = iterator.next();
+            while (freeBufferBytes > MAX_IDLE_BYTES && !buffers.isEmpty()) {
+                freeBufferBytes -= sizeOf(buffers.pop());
+            }
+        }
+        memoryUsage.setBytes(0);
+        memoryUsage = null;
+        if (IDLE_POOL.get() == null) {
+            IDLE_POOL.set(this);
+        }
+    }
+
+    public int getLentBufferCount()
+    {
+        return lentBuffers.size();
+    }
+
+    public long getFreeBufferBytes()
+    {
+        return freeBufferBytes;
+    }
+
+    private void addFreeBuffer(byte[] buffer)
+    {
+        freeBuffers.computeIfAbsent(buffer.length, ignored -> new ArrayDeque<>()).push(buffer);
+        freeBufferBytes += sizeOf(buffer);
+    }
+
+    static int getBufferSize(int size)
+    {
+        checkArgument(size >= 0 && size <= MAX_BUFFER_SIZE, "Invalid buffer size: %s", size);
+        if (size <= MIN_BUFFER_SIZE) {
+            return MIN_BUFFER_SIZE;
+        }
+        int powerOfTwo = Integer.highestOneBit(size - 1);
+        int oneAndAHalfPowerOfTwo = powerOfTwo + (powerOfTwo >> 1);
+        if (oneAndAHalfPowerOfTwo >= size) {
+            return oneAndAHalfPowerOfTwo;
+        }
+        return powerOfTwo << 1;
+    }
+}
@@ -26,7 +26,6 @@ import org.openjdk.jol.info.ClassLayout;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.Arrays;
 import java.util.Optional;
 
 import static com.facebook.presto.orc.checkpoint.InputStreamCheckpoint.createInputStreamCheckpoint;
@@ -213,6 +212,7 @@ public final class OrcInputStream
                 throw new OrcCorruptionException(orcDataSourceId, "Reset stream has a block offset but stream is not compressed or encrypted");
             }
             compressedSliceInput.setPosition(compressedBlockOffset);
+            sharedDecompressionBuffer.releaseDecompressedBuffer(buffer);
             buffer = new byte[0];
             memoryUsage.setBytes(getRetainedSizeInBytes());
             position = 0;
@@ -446,6 +446,7 @@ public final class OrcInputStream
             throws IOException
     {
         if (compressedSliceInput == null || compressedSliceInput.remaining() == 0) {
+            sharedDecompressionBuffer.releaseDecompressedBuffer(buffer);
             buffer = null;
             position = 0;
             length = 0;
@@ -500,10 +501,11 @@ public final class OrcInputStream
                 sizeOf(temporaryBuffer);
     }
 
-    private static byte[] ensureCapacity(byte[] buffer, int capacity)
+    private byte[] ensureCapacity(byte[] buffer, int capacity)
     {
         if (buffer == null || buffer.length < capacity || buffer.length > round(capacity * BUFFER_ALLOWED_MEMORY_WASTE_RATIO)) {
-            return new byte[capacity];
+            sharedDecompressionBuffer.releaseDecompressedBuffer(buffer);
+            return sharedDecompressionBuffer.allocateDecompressedBuffer(capacity);
         }
 
         return buffer;
@@ -536,7 +538,10 @@ public final class OrcInputStream
             public byte[] grow(int size)
             {
                 if (size > buffer.length) {
-                    buffer = Arrays.copyOfRange(buffer, 0, size);
+                    byte[] grownBuffer = sharedDecompressionBuffer.allocateDecompressedBuffer(size);
+                    System.arraycopy(buffer, 0, grownBuffer, 0, buffer.length);
+                    sharedDecompressionBuffer.releaseDecompressedBuffer(buffer);
+                    buffer = grownBuffer;
                 }
                 return buffer;
             }
@@ -16,6 +16,8 @@ package com.facebook.presto.orc.stream;
 import com.facebook.airlift.concurrent.NotThreadSafe;
 import com.facebook.presto.orc.OrcLocalMemoryContext;
 
+import java.util.Optional;
+
 import static java.util.Objects.requireNonNull;
 
 @NotThreadSafe
@@ -24,12 +26,19 @@ public class SharedBuffer
     private static final byte[] EMPTY_BUFFER = new byte[0];
 
     private final OrcLocalMemoryContext bufferMemoryUsage;
+    private final Optional<DecompressionBufferPool> decompressionBufferPool;
 
     private byte[] buffer = EMPTY_BUFFER;
 
     public SharedBuffer(OrcLocalMemoryContext bufferMemoryUsage)
+    {
+        this(bufferMemoryUsage, Optional.empty());
+    }
+
+    public SharedBuffer(OrcLocalMemoryContext bufferMemoryUsage, Optional<DecompressionBufferPool> decompressionBufferPool)
     {
         this.bufferMemoryUsage = requireNonNull(bufferMemoryUsage, "bufferMemoryUsage is null");
+        this.decompressionBufferPool = requireNonNull(decompressionBufferPool, "decompressionBufferPool is null");
     }
 
     public byte[] get()
@@ -44,4 +53,22 @@ public class SharedBuffer
             bufferMemoryUsage.setBytes(size);
         }
     }
+
+    /**
+     * Allocates a buffer of at least {@code size} bytes for the decompressed data of a stream.
+     */
+    public byte[] allocateDecompressedBuffer(int size)
+    {
+        if (decompressionBufferPool.isPresent()) {
+            return decompressionBufferPool.get().allocate(size);
+        }
+        return new byte[size];
+    }
+
+    public void releaseDecompressedBuffer(byte[] buffer)
+    {
+        if (buffer != null && decompressionBufferPool.isPresent()) {
+            decompressionBufferPool.get().release(buffer);
+        }
+    }
 }
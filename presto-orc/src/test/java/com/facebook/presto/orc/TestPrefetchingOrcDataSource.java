@@ -0,0 +1,185 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.orc;
+
+import com.facebook.airlift.units.DataSize;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.airlift.slice.Slice;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+
+import static com.facebook.airlift.units.DataSize.Unit.BYTE;
+import static com.facebook.airlift.units.DataSize.Unit.MEGABYTE;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static java.lang.Math.toIntExact;
+import static java.util.concurrent.Executors.newSingleThreadExecutor;
+import static org.testng.Assert.assertEquals;
+
+public class TestPrefetchingOrcDataSource
+{
+    private static final DataSize MAX_MERGE_DISTANCE = new DataSize(100, BYTE);
+    private static final DataSize MAX_PREFETCH_SIZE = new DataSize(1000, BYTE);
+
+    private final byte[] data = createData(10_000);
+
+    @Test
+    public void testReadPrefetchedRanges()
+            throws IOException
+    {
+        TestingOrcDataSource testingDataSource = new TestingOrcDataSource(new InMemoryOrcDataSource(data));
+        OrcAggregatedMemoryContext memoryContext = new TestingHiveOrcAggregatedMemoryContext();
+        PrefetchingOrcDataSource dataSource = createDataSource(testingDataSource, memoryContext);
+
+        // close ranges are prefetched in one read
+        dataSource.prefetch(ImmutableList.of(new DiskRange(0, 100), new DiskRange(150, 100)));
+        assertEquals(testingDataSource.getReadCount(), 1);
+        assertEquals(testingDataSource.getLastReadRanges(), ImmutableList.of(new DiskRange(0, 250)));
+        assertEquals(memoryContext.getBytes(), 250);
+
+        // ranges which are already prefetched are not read again
+        dataSource.prefetch(ImmutableList.of(new DiskRange(150, 50)));
+        assertEquals(testingDataSource.getReadCount(), 1);
+
+        byte[] buffer = new byte[60];
+        dataSource.readFully(10, buffer, 5, 50);
+        assertEquals(testingDataSource.getReadCount(), 1);
+        assertEquals(Arrays.copyOfRange(buffer, 5, 55), Arrays.copyOfRange(data, 10, 60));
+
+        Map<String, OrcDataSourceInput> inputs = dataSource.readFully(ImmutableMap.of(
+                "prefetched", new DiskRange(160, 40),
+                "partially prefetched", new DiskRange(200, 100),
+                "not prefetched", new DiskRange(2000, 100)));
+        assertEquals(testingDataSource.getReadCount(), 3);
+        assertEquals(testingDataSource.getLastReadRanges(), ImmutableList.of(new DiskRange(200, 100), new DiskRange(2000, 100)));
+        assertInput(inputs.get("prefetched"), new DiskRange(160, 40));
+        assertInput(inputs.get("partially prefetched"), new DiskRange(200, 100));
+        assertInput(inputs.get("not prefetched"), new DiskRange(2000, 100));
+
+        dataSource.releaseBefore(250);
+        assertEquals(memoryContext.getBytes(), 0);
+        dataSource.readFully(10, buffer, 5, 50);
+        assertEquals(testingDataSource.getReadCount(), 4);
+    }
+
+    @Test
+    public void testPrefetchBudget()
+            throws IOException
+    {
+        TestingOrcDataSource testingDataSource = new TestingOrcDataSource(new InMemoryOrcDataSource(data));
+        OrcAggregatedMemoryContext memoryContext = new TestingHiveOrcAggregatedMemoryContext();
+        PrefetchingOrcDataSource dataSource = createDataSource(testingDataSource, memoryContext);
+
+        dataSource.prefetch(ImmutableList.of(new DiskRange(0, 600), new DiskRange(1000, 300), new DiskRange(2000, 300)));
+        assertEquals(testingDataSource.getReadRanges(), ImmutableList.of(new DiskRange(0, 600), new DiskRange(1000, 300)));
+        assertEquals(memoryContext.getBytes(), 900);
+
+        // prefetching continues once earlier ranges are released
+        dataSource.releaseBefore(1000);
+        dataSource.prefetch(ImmutableList.of(new DiskRange(2000, 300)));
+        assertEquals(testingDataSource.getLastReadRanges(), ImmutableList.of(new DiskRange(2000, 300)));
+        assertEquals(memoryContext.getBytes(), 600);
+
+        dataSource.close();
+        assertEquals(memoryContext.getBytes(), 0);
+    }
+
+    @Test
+    public void testReleaseReadInFlight()
+            throws Exception
+    {
+        CountDownLatch readStarted = new CountDownLatch(1);
+        CountDownLatch readReleased = new CountDownLatch(1);
+        OrcDataSource blockingDataSource = new InMemoryOrcDataSource(data)
+        {
+            @Override
+            protected void readInternal(long position, byte[] buffer, int bufferOffset, int bufferLength)
+            {
+                readStarted.countDown();
+                try {
+                    readReleased.await();
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException(e);
+                }
+                super.readInternal(position, buffer, bufferOffset, bufferLength);
+            }
+        };
+        OrcAggregatedMemoryContext memoryContext = new TestingHiveOrcAggregatedMemoryContext();
+        ExecutorService executor = newSingleThreadExecutor();
+        try {
+            PrefetchingOrcDataSource dataSource = new PrefetchingOrcDataSource(blockingDataSource, executor, MAX_MERGE_DISTANCE, MAX_PREFETCH_SIZE, memoryContext.newOrcLocalMemoryContext("test"));
+            dataSource.prefetch(ImmutableList.of(new DiskRange(0, 100), new DiskRange(2000, 200)));
+            readStarted.await();
+            assertEquals(memoryContext.getBytes(), 300);
+
+            // the read which has not started is cancelled, the read in flight stays accounted
+            dataSource.releaseBefore(Long.MAX_VALUE);
+            assertEquals(memoryContext.getBytes(), 100);
+
+            readReleased.countDown();
+            dataSource.close();
+            assertEquals(memoryContext.getBytes(), 0);
+        }
+        finally {
+            readReleased.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    private static PrefetchingOrcDataSource createDataSource(OrcDataSource dataSource, OrcAggregatedMemoryContext memoryContext)
+    {
+        return new PrefetchingOrcDataSource(dataSource, directExecutor(), MAX_MERGE_DISTANCE, MAX_PREFETCH_SIZE, memoryContext.newOrcLocalMemoryContext("test"));
+    }
+
+    private void assertInput(OrcDataSourceInput input, DiskRange diskRange)
+    {
+        Slice slice = input.getInput().readSlice(diskRange.getLength());
+        assertEquals(slice.getBytes(), Arrays.copyOfRange(data, toIntExact(diskRange.getOffset()), toIntExact(diskRange.getEnd())));
+    }
+
+    private static byte[] createData(int length)
+    {
+        byte[] data = new byte[length];
+        new Random(42).nextBytes(data);
+        return data;
+    }
+
+    private static class InMemoryOrcDataSource
+            extends AbstractOrcDataSource
+    {
+        private static final DataSize SIZE = new DataSize(1, MEGABYTE);
+
+        private final byte[] data;
+
+        public InMemoryOrcDataSource(byte[] data)
+        {
+            super(new OrcDataSourceId("memory"), data.length, SIZE, SIZE, SIZE, false);
+            this.data = data;
+        }
+
+        @Override
+        protected void readInternal(long position, byte[] buffer, int bufferOffset, int bufferLength)
+        {
+            System.arraycopy(data, toIntExact(position), buffer, bufferOffset, bufferLength);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.orc.stream;
+
+import com.facebook.presto.orc.OrcAggregatedMemoryContext;
+import com.facebook.presto.orc.TestingHiveOrcAggregatedMemoryContext;
+import org.testng.annotations.Test;
+
+import static com.facebook.presto.orc.stream.DecompressionBufferPool.MAX_IDLE_BYTES;
+import static com.facebook.presto.orc.stream.DecompressionBufferPool.getBufferSize;
+import static io.airlift.slice.SizeOf.sizeOf;
+import static java.lang.Math.toIntExact;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+public class TestDecompressionBufferPool
+{
+    @Test
+    public void testBufferSize()
+    {
+        assertEquals(getBufferSize(0), 64);
+        assertEquals(getBufferSize(64), 64);
+        assertEquals(getBufferSize(65), 96);
+        assertEquals(getBufferSize(96), 96);
+        assertEquals(getBufferSize(97), 128);
+        assertEquals(getBufferSize(1000), 1024);
+        assertEquals(getBufferSize(1025), 1536);
+        assertEquals(getBufferSize(256 * 1024), 256 * 1024);
+        assertEquals(getBufferSize(256 * 1024 + 1), 384 * 1024);
+    }
+
+    @Test
+    public void testReuse()
+    {
+        OrcAggregatedMemoryContext memoryContext = new TestingHiveOrcAggregatedMemoryContext();
+        DecompressionBufferPool pool = new DecompressionBufferPool(memoryContext.newOrcLocalMemoryContext("pool"));
+
+        byte[] first = pool.allocate(1000);
+        assertEquals(first.length, 1024);
+        assertEquals(pool.getLentBufferCount(), 1);
+
+        pool.release(first);
+        assertEquals(pool.getLentBufferCount(), 0);
+        assertEquals(pool.getFreeBufferBytes(), sizeOf(first));
+        assertEquals(memoryContext.getBytes(), sizeOf(first));
+
+        assertSame(pool.allocate(900), first);
+        assertEquals(pool.getFreeBufferBytes(), 0);
+        assertEquals(memoryContext.getBytes(), 0);
+
+        // buffers of a different size class are not reused
+        byte[] second = pool.allocate(2000);
+        assertNotSame(second, first);
+        assertEquals(second.length, 2048);
+
+        // buffers which were not allocated from the pool are ignored
+        pool.release(new byte[1024]);
+        assertEquals(pool.getFreeBufferBytes(), 0);
+        assertEquals(pool.getLentBufferCount(), 2);
+
+        pool.reclaim();
+        assertEquals(pool.getLentBufferCount(), 0);
+        assertEquals(pool.getFreeBufferBytes(), sizeOf(first) + sizeOf(second));
+        assertEquals(memoryContext.getBytes(), sizeOf(first) + sizeOf(second));
+        assertSame(pool.allocate(2048), second);
+    }
+
+    @Test
+    public void testHandoff()
+    {
+        OrcAggregatedMemoryContext firstContext = new TestingHiveOrcAggregatedMemoryContext();
+        DecompressionBufferPool first = DecompressionBufferPool.acquire(firstContext.newOrcLocalMemoryContext("pool"));
+        byte[] buffer = first.allocate(100_000);
+        long freeBytes = first.getFreeBufferBytes();
+        first.close();
+        assertEquals(first.getLentBufferCount(), 0);
+        assertEquals(firstContext.getBytes(), 0);
+
+        // the next reader of the thread takes over the pool and accounts its free buffers
+        OrcAggregatedMemoryContext secondContext = new TestingHiveOrcAggregatedMemoryContext();
+        DecompressionBufferPool second = DecompressionBufferPool.acquire(secondContext.newOrcLocalMemoryContext("pool"));
+        assertSame(second, first);
+        assertEquals(second.getFreeBufferBytes(), freeBytes + sizeOf(buffer));
+        assertEquals(secondContext.getBytes(), freeBytes + sizeOf(buffer));
+        assertSame(second.allocate(100_000), buffer);
+
+        // a pool is owned by one reader at a time
+        OrcAggregatedMemoryContext thirdContext = new TestingHiveOrcAggregatedMemoryContext();
+        DecompressionBufferPool third = DecompressionBufferPool.acquire(thirdContext.newOrcLocalMemoryContext("pool"));
+        assertNotSame(third, second);
+
+        // the free buffers kept between readers are limited
+        third.allocate(toIntExact(MAX_IDLE_BYTES * 2));
+        third.close();
+        second.close();
+        DecompressionBufferPool fourth = DecompressionBufferPool.acquire(thirdContext.newOrcLocalMemoryContext("pool"));
+        assertSame(fourth, third);
+        assertTrue(fourth.getFreeBufferBytes() <= MAX_IDLE_BYTES);
+        fourth.close();
+    }
+}
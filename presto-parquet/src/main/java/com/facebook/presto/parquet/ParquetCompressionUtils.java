@@ -37,6 +37,9 @@ import static sun.misc.Unsafe.ARRAY_BYTE_BASE_OFFSET;
 public final class ParquetCompressionUtils
 {
     private static final int GZIP_BUFFER_SIZE = 8 * 1024;
+    // the zstd decompressor allocates its working buffers, a few hundred kilobytes, when it is created,
+    // so the decompressor is reused by the pages decompressed by a thread instead of created per page
+    private static final ThreadLocal<ZstdDecompressor> ZSTD_DECOMPRESSOR = ThreadLocal.withInitial(ZstdDecompressor::new);
 
     private ParquetCompressionUtils() {}
 
@@ -77,7 +80,7 @@ public final class ParquetCompressionUtils
     private static Slice decompressZstd(Slice input, int uncompressedSize)
     {
         byte[] buffer = new byte[uncompressedSize];
-        decompress(new ZstdDecompressor(), input, 0, input.length(), buffer, 0);
+        decompress(ZSTD_DECOMPRESSOR.get(), input, 0, input.length(), buffer, 0);
         return wrappedBuffer(buffer);
     }
 
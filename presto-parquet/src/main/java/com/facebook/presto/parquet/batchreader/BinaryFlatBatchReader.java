@@ -63,6 +63,7 @@ public class BinaryFlatBatchReader
     private Dictionary dictionary;
     private int readOffset;
     private PageReader pageReader;
+    private RowRangesIterator rowRangesIterator;
 
     public BinaryFlatBatchReader(RichColumnDescriptor columnDescriptor)
     {
@@ -82,6 +83,7 @@ public class BinaryFlatBatchReader
         this.pageReader = requireNonNull(pageReader, "pageReader is null");
         checkArgument(pageReader.getValueCountInColumnChunk() > 0, "page is empty");
         this.field = requireNonNull(field, "field is null");
+        this.rowRangesIterator = rowRanges == null ? null : new RowRangesIterator(rowRanges);
 
         DictionaryPage dictionaryPage = pageReader.readDictionaryPage();
         if (dictionaryPage != null) {
@@ -144,6 +146,9 @@ public class BinaryFlatBatchReader
         valuesDecoder = (BinaryValuesDecoder) flatDecoders.getValuesDecoder();
 
         remainingCountInPage = page.getValueCount();
+        if (rowRangesIterator != null) {
+            rowRangesIterator.startPage(page);
+        }
         return true;
     }
 
@@ -160,13 +165,12 @@ public class BinaryFlatBatchReader
         int remainingInBatch = nextBatchSize;
         int startOffset = 0;
         while (remainingInBatch > 0) {
-            if (remainingCountInPage == 0) {
-                if (!readNextPage()) {
-                    break;
-                }
+            int selectedCountInPage = skipUnselectedRows();
+            if (selectedCountInPage == 0) {
+                break;
             }
 
-            int readChunkSize = Math.min(remainingCountInPage, remainingInBatch);
+            int readChunkSize = Math.min(selectedCountInPage, remainingInBatch);
             int nonNullCount = definitionLevelDecoder.readNext(isNull, startOffset, readChunkSize);
             totalNonNullCount += nonNullCount;
 
@@ -238,13 +242,12 @@ public class BinaryFlatBatchReader
         int remainingInBatch = nextBatchSize;
         int startOffset = 0;
         while (remainingInBatch > 0) {
-            if (remainingCountInPage == 0) {
-                if (!readNextPage()) {
-                    break;
-                }
+            int selectedCountInPage = skipUnselectedRows();
+            if (selectedCountInPage == 0) {
+                break;
             }
 
-            int readChunkSize = Math.min(remainingCountInPage, remainingInBatch);
+            int readChunkSize = Math.min(selectedCountInPage, remainingInBatch);
 
             ValueBuffer valueBuffer = valuesDecoder.readNext(readChunkSize);
             bufferSize += valueBuffer.getBufferSize();
@@ -279,6 +282,37 @@ public class BinaryFlatBatchReader
         return new ColumnChunk(block, new int[0], new int[0]);
     }
 
+    /**
+     * Reads the next page if the current page is exhausted, and skips the values of the rows which are not
+     * selected by the column index filter. Returns the number of values which can be read from the current
+     * page, or 0 if there are no more pages.
+     */
+    private int skipUnselectedRows()
+            throws IOException
+    {
+        while (true) {
+            if (remainingCountInPage == 0 && !readNextPage()) {
+                return 0;
+            }
+            if (rowRangesIterator == null) {
+                return remainingCountInPage;
+            }
+
+            int skipCount = rowRangesIterator.getSkipCount(remainingCountInPage);
+            if (skipCount > 0) {
+                int skipSize = skipCount;
+                if (!columnDescriptor.isRequired()) {
+                    skipSize = definitionLevelDecoder.readNext(new boolean[skipCount], 0, skipCount);
+                }
+                valuesDecoder.skip(skipSize);
+                remainingCountInPage -= skipCount;
+            }
+            if (remainingCountInPage > 0) {
+                return rowRangesIterator.getSelectedCount(remainingCountInPage);
+            }
+        }
+    }
+
     private void seek()
             throws IOException
     {
@@ -289,13 +323,12 @@ public class BinaryFlatBatchReader
         int remainingInBatch = readOffset;
         int startOffset = 0;
         while (remainingInBatch > 0) {
-            if (remainingCountInPage == 0) {
-                if (!readNextPage()) {
-                    break;
-                }
+            int selectedCountInPage = skipUnselectedRows();
+            if (selectedCountInPage == 0) {
+                break;
             }
 
-            int chunkSize = Math.min(remainingCountInPage, remainingInBatch);
+            int chunkSize = Math.min(selectedCountInPage, remainingInBatch);
             int skipSize = chunkSize;
             if (!columnDescriptor.isRequired()) {
                 boolean[] isNull = new boolean[readOffset];
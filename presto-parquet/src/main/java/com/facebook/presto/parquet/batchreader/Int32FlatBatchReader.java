@@ -58,6 +58,7 @@ public class Int32FlatBatchReader
     private Dictionary dictionary;
     private int readOffset;
     private PageReader pageReader;
+    private RowRangesIterator rowRangesIterator;
 
     public Int32FlatBatchReader(RichColumnDescriptor columnDescriptor)
     {
@@ -77,6 +78,7 @@ public class Int32FlatBatchReader
         this.pageReader = requireNonNull(pageReader, "pageReader is null");
         checkArgument(pageReader.getValueCountInColumnChunk() > 0, "page is empty");
         this.field = requireNonNull(field, "field is null");
+        this.rowRangesIterator = rowRanges == null ? null : new RowRangesIterator(rowRanges);
 
         DictionaryPage dictionaryPage = pageReader.readDictionaryPage();
         if (dictionaryPage != null) {
@@ -139,6 +141,9 @@ public class Int32FlatBatchReader
         valuesDecoder = (Int32ValuesDecoder) flatDecoders.getValuesDecoder();
 
         remainingCountInPage = page.getValueCount();
+        if (rowRangesIterator != null) {
+            rowRangesIterator.startPage(page);
+        }
         return true;
     }
 
@@ -152,13 +157,12 @@ public class Int32FlatBatchReader
         int remainingInBatch = nextBatchSize;
         int startOffset = 0;
         while (remainingInBatch > 0) {
-            if (remainingCountInPage == 0) {
-                if (!readNextPage()) {
-                    break;
-                }
+            int selectedCountInPage = skipUnselectedRows();
+            if (selectedCountInPage == 0) {
+                break;
             }
 
-            int chunkSize = Math.min(remainingCountInPage, remainingInBatch);
+            int chunkSize = Math.min(selectedCountInPage, remainingInBatch);
             int nonNullCount = definitionLevelDecoder.readNext(isNull, startOffset, chunkSize);
             totalNonNullCount += nonNullCount;
 
@@ -203,13 +207,12 @@ public class Int32FlatBatchReader
         int remainingInBatch = nextBatchSize;
         int startOffset = 0;
         while (remainingInBatch > 0) {
-            if (remainingCountInPage == 0) {
-                if (!readNextPage()) {
-                    break;
-                }
+            int selectedCountInPage = skipUnselectedRows();
+            if (selectedCountInPage == 0) {
+                break;
             }
 
-            int chunkSize = Math.min(remainingCountInPage, remainingInBatch);
+            int chunkSize = Math.min(selectedCountInPage, remainingInBatch);
 
             valuesDecoder.readNext(values, startOffset, chunkSize);
             startOffset += chunkSize;
@@ -225,6 +228,37 @@ public class Int32FlatBatchReader
         return new ColumnChunk(block, new int[0], new int[0]);
     }
 
+    /**
+     * Reads the next page if the current page is exhausted, and skips the values of the rows which are not
+     * selected by the column index filter. Returns the number of values which can be read from the current
+     * page, or 0 if there are no more pages.
+     */
+    private int skipUnselectedRows()
+            throws IOException
+    {
+        while (true) {
+            if (remainingCountInPage == 0 && !readNextPage()) {
+                return 0;
+            }
+            if (rowRangesIterator == null) {
+                return remainingCountInPage;
+            }
+
+            int skipCount = rowRangesIterator.getSkipCount(remainingCountInPage);
+            if (skipCount > 0) {
+                int skipSize = skipCount;
+                if (!columnDescriptor.isRequired()) {
+                    skipSize = definitionLevelDecoder.readNext(new boolean[skipCount], 0, skipCount);
+                }
+                valuesDecoder.skip(skipSize);
+                remainingCountInPage -= skipCount;
+            }
+            if (remainingCountInPage > 0) {
+                return rowRangesIterator.getSelectedCount(remainingCountInPage);
+            }
+        }
+    }
+
     private void seek()
             throws IOException
     {
@@ -235,13 +269,12 @@ public class Int32FlatBatchReader
         int remainingInBatch = readOffset;
         int startOffset = 0;
         while (remainingInBatch > 0) {
-            if (remainingCountInPage == 0) {
-                if (!readNextPage()) {
-                    break;
-                }
+            int selectedCountInPage = skipUnselectedRows();
+            if (selectedCountInPage == 0) {
+                break;
             }
 
-            int chunkSize = Math.min(remainingCountInPage, remainingInBatch);
+            int chunkSize = Math.min(selectedCountInPage, remainingInBatch);
             int skipSize = chunkSize;
             if (!columnDescriptor.isRequired()) {
                 boolean[] isNull = new boolean[readOffset];
@@ -0,0 +1,84 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.parquet.batchreader;
+
+import com.facebook.presto.parquet.DataPage;
+import org.apache.parquet.internal.filter2.columnindex.RowRanges;
+import org.apache.parquet.internal.filter2.columnindex.RowRanges.Range;
+
+import java.util.List;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Iterates over the row ranges selected by the column index filter while the pages of a flat column
+ * are read. The page reader only returns the pages which contain selected rows, but these pages may
+ * still contain rows outside of the selected ranges, and the page boundaries differ between columns.
+ * The values of these rows have to be skipped to keep the columns of the row group aligned.
+ * <p>
+ * Positions in the current page are given as the number of values remaining in the page. Each value
+ * of a flat column is a row.
+ */
+class RowRangesIterator
+{
+    private final List<Range> ranges;
+    private int currentRange;
+    private long firstRowInPage;
+    private int valueCountInPage;
+
+    public RowRangesIterator(RowRanges rowRanges)
+    {
+        this.ranges = requireNonNull(rowRanges, "rowRanges is null").getRanges();
+    }
+
+    /**
+     * Pages without a first row index, which are read when the column has no offset index, follow
+     * the previous page.
+     */
+    public void startPage(DataPage page)
+    {
+        firstRowInPage = page.getFirstRowIndex().orElse(firstRowInPage + valueCountInPage);
+        valueCountInPage = page.getValueCount();
+    }
+
+    /**
+     * Returns the number of values to skip before the next selected row in the current page.
+     */
+    public int getSkipCount(int remainingCountInPage)
+    {
+        long row = getCurrentRow(remainingCountInPage);
+        while (currentRange < ranges.size() && ranges.get(currentRange).to < row) {
+            currentRange++;
+        }
+        if (currentRange == ranges.size()) {
+            return remainingCountInPage;
+        }
+        return (int) min(remainingCountInPage, max(0, ranges.get(currentRange).from - row));
+    }
+
+    /**
+     * Returns the number of consecutive selected values in the current page, starting at a selected row.
+     */
+    public int getSelectedCount(int remainingCountInPage)
+    {
+        return (int) min(remainingCountInPage, ranges.get(currentRange).to - getCurrentRow(remainingCountInPage) + 1);
+    }
+
+    private long getCurrentRow(int remainingCountInPage)
+    {
+        return firstRowInPage + valueCountInPage - remainingCountInPage;
+    }
+}
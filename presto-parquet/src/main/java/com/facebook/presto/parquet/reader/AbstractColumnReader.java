@@ -119,6 +119,7 @@ public abstract class AbstractColumnReader
         checkArgument(pageReader.getValueCountInColumnChunk() > 0, "page is empty");
         valueCountInColumnChunk = pageReader.getValueCountInColumnChunk();
         indexIterator = (rowRanges == null) ? null : rowRanges.iterator();
+        currentRow = -1;
     }
 
     @Override
@@ -174,7 +175,8 @@ public abstract class AbstractColumnReader
 
     private void skipValues(int valuesToRead)
     {
-        processValues(valuesToRead, ignored -> skipValue(), false);
+        // the read offset counts the selected rows only, so the rows outside of the row ranges are skipped as well
+        processValues(valuesToRead, ignored -> skipValue(), indexIterator != null);
     }
 
     /**
@@ -343,12 +345,10 @@ public abstract class AbstractColumnReader
 
         try {
             valuesReader.initFromPage(valueCount, inputStream);
+            // pages without a first row index follow the previous page
             if (firstRowIndex != -1) {
                 currentRow = firstRowIndex - 1;
             }
-            else {
-                currentRow = -1;
-            }
             return valuesReader;
         }
         catch (IOException e) {
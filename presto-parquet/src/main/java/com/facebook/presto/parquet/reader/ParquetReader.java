@@ -250,19 +250,25 @@ public class ParquetReader
         currentBlockMetadata = blocks.get(currentBlock);
         firstRowIndexInGroup = firstRowsOfBlocks.map(firstRows -> firstRows.get(currentBlock));
 
-        if (filter != null && columnIndexFilterEnabled) {
+        // the row ranges are not applied when row indexes are requested, as the returned rows have to be consecutive
+        currentGroupRowRanges = null;
+        if (filter != null && columnIndexFilterEnabled && !firstRowsOfBlocks.isPresent()) {
             ColumnIndexStore columnIndexStore = blockIndexStores.get(currentBlock);
             if (columnIndexStore != null) {
-                currentGroupRowRanges = getRowRanges(currentBlock);
-                long rowCount = currentGroupRowRanges.rowCount();
+                RowRanges rowRanges = getRowRanges(currentBlock);
+                long rowCount = rowRanges.rowCount();
                 if (rowCount == 0) {
-                    return false;
+                    return advanceToNextRowGroup();
+                }
+                if (rowCount < currentBlockMetadata.getRowCount()) {
+                    currentGroupRowRanges = rowRanges;
                 }
             }
         }
 
         nextRowInGroup = 0L;
-        currentGroupRowCount = currentBlockMetadata.getRowCount();
+        // when the row group is filtered, only the rows in the selected ranges are returned by the column readers
+        currentGroupRowCount = currentGroupRowRanges == null ? currentBlockMetadata.getRowCount() : currentGroupRowRanges.rowCount();
         initializeColumnReaders();
         return true;
     }
@@ -373,7 +379,8 @@ public class ParquetReader
                         columnDescriptor,
                         Optional.empty(),
                         pageReaderMemoryContext);
-                columnReader.init(pageReader, field, null);
+                // columns without an offset index read all pages, and skip the rows outside of the selected ranges
+                columnReader.init(pageReader, field, currentGroupRowRanges);
 
                 if (enableVerification) {
                     ColumnReader verificationColumnReader = verificationColumnReaders[field.getId()];
@@ -384,7 +391,7 @@ public class ParquetReader
                             columnDescriptor,
                             Optional.empty(),
                             verificationPageReaderMemoryContext);
-                    verificationColumnReader.init(pageReaderVerification, field, null);
+                    verificationColumnReader.init(pageReaderVerification, field, currentGroupRowRanges);
                 }
             }
         }
@@ -465,7 +472,6 @@ public class ParquetReader
         return filter != null &&
                 columnIndexFilterEnabled &&
                 currentGroupRowRanges != null &&
-                currentGroupRowRanges.rowCount() < currentGroupRowCount &&
                 blockIndexStores.get(currentBlock) != null &&
                 blockIndexStores.get(currentBlock).getColumnIndex(path) != null;
     }
@@ -522,7 +528,9 @@ public class ParquetReader
     {
         for (PrimitiveColumnIO columnIO : columns) {
             RichColumnDescriptor column = new RichColumnDescriptor(columnIO.getColumnDescriptor(), columnIO.getType().asPrimitiveType());
-            columnReaders[columnIO.getId()] = ColumnReaderFactory.createReader(column, batchReadEnabled);
+            // the nested batch readers do not skip the rows outside of the selected row ranges
+            boolean isNested = column.getPath().length > 1;
+            columnReaders[columnIO.getId()] = ColumnReaderFactory.createReader(column, batchReadEnabled && (currentGroupRowRanges == null || !isNested));
 
             if (enableVerification) {
                 verificationColumnReaders[columnIO.getId()] = ColumnReaderFactory.createReader(column, false);
@@ -0,0 +1,105 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.parquet.batchreader;
+
+import com.facebook.presto.parquet.DataPage;
+import com.facebook.presto.parquet.DataPageV1;
+import org.apache.parquet.internal.column.columnindex.OffsetIndex;
+import org.apache.parquet.internal.column.columnindex.OffsetIndexBuilder;
+import org.apache.parquet.internal.filter2.columnindex.RowRanges;
+import org.testng.annotations.Test;
+
+import java.util.stream.IntStream;
+
+import static com.facebook.presto.parquet.ParquetEncoding.PLAIN;
+import static com.facebook.presto.parquet.ParquetEncoding.RLE;
+import static io.airlift.slice.Slices.EMPTY_SLICE;
+import static org.testng.Assert.assertEquals;
+
+public class TestRowRangesIterator
+{
+    private static final int ROW_COUNT = 100;
+    private static final int ROWS_PER_PAGE = 10;
+
+    @Test
+    public void testPagesWithFirstRowIndex()
+    {
+        // rows [10, 19] and [40, 49] are selected
+        RowRangesIterator iterator = new RowRangesIterator(createRowRanges(1, 4));
+
+        // page with rows [0, 29]
+        iterator.startPage(createPage(0, 30));
+        assertEquals(iterator.getSkipCount(30), 10);
+        assertEquals(iterator.getSelectedCount(20), 10);
+        assertEquals(iterator.getSkipCount(10), 10);
+
+        // page with rows [30, 59]
+        iterator.startPage(createPage(30, 30));
+        assertEquals(iterator.getSkipCount(30), 10);
+        assertEquals(iterator.getSelectedCount(20), 10);
+        assertEquals(iterator.getSkipCount(10), 10);
+    }
+
+    @Test
+    public void testPagesWithoutFirstRowIndex()
+    {
+        RowRangesIterator iterator = new RowRangesIterator(createRowRanges(1, 4));
+
+        // page with rows [0, 24]
+        iterator.startPage(createPage(-1, 25));
+        assertEquals(iterator.getSkipCount(25), 10);
+        assertEquals(iterator.getSelectedCount(15), 10);
+        assertEquals(iterator.getSkipCount(5), 5);
+
+        // page with rows [25, 49]
+        iterator.startPage(createPage(-1, 25));
+        assertEquals(iterator.getSkipCount(25), 15);
+        assertEquals(iterator.getSkipCount(10), 0);
+        assertEquals(iterator.getSelectedCount(10), 10);
+    }
+
+    @Test
+    public void testSelectedRangeSpanningPages()
+    {
+        // rows [10, 19] and [30, 39] are selected
+        RowRangesIterator iterator = new RowRangesIterator(createRowRanges(1, 3));
+
+        // page with rows [0, 14]
+        iterator.startPage(createPage(0, 15));
+        assertEquals(iterator.getSkipCount(15), 10);
+        assertEquals(iterator.getSelectedCount(5), 5);
+
+        // page with rows [15, 34]
+        iterator.startPage(createPage(15, 20));
+        assertEquals(iterator.getSkipCount(20), 0);
+        assertEquals(iterator.getSelectedCount(20), 5);
+        assertEquals(iterator.getSkipCount(15), 10);
+        assertEquals(iterator.getSelectedCount(5), 5);
+    }
+
+    private static RowRanges createRowRanges(int... selectedPages)
+    {
+        OffsetIndexBuilder builder = OffsetIndexBuilder.getBuilder();
+        for (int page = 0; page < ROW_COUNT / ROWS_PER_PAGE; page++) {
+            builder.add(1234, ROWS_PER_PAGE);
+        }
+        OffsetIndex offsetIndex = builder.build();
+        return RowRanges.create(ROW_COUNT, IntStream.of(selectedPages).iterator(), offsetIndex);
+    }
+
+    private static DataPage createPage(long firstRowIndex, int valueCount)
+    {
+        return new DataPageV1(EMPTY_SLICE, valueCount, 0, firstRowIndex, null, RLE, RLE, PLAIN);
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.parquet.reader;
+
+import com.facebook.airlift.units.DataSize;
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.predicate.Domain;
+import com.facebook.presto.common.predicate.Range;
+import com.facebook.presto.common.predicate.TupleDomain;
+import com.facebook.presto.common.predicate.ValueSet;
+import com.facebook.presto.parquet.Field;
+import com.facebook.presto.parquet.ParquetDataSourceId;
+import com.facebook.presto.parquet.RichColumnDescriptor;
+import com.facebook.presto.parquet.cache.MetadataReader;
+import com.facebook.presto.parquet.predicate.Predicate;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.parquet.column.ColumnDescriptor;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.simple.SimpleGroupFactory;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.example.ExampleParquetWriter;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.hadoop.metadata.ParquetMetadata;
+import org.apache.parquet.internal.filter2.columnindex.ColumnIndexStore;
+import org.apache.parquet.io.MessageColumnIO;
+import org.apache.parquet.schema.MessageType;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.facebook.airlift.units.DataSize.Unit.MEGABYTE;
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.common.type.VarcharType.VARCHAR;
+import static com.facebook.presto.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
+import static com.facebook.presto.parquet.ParquetTypeUtils.getColumnIO;
+import static com.facebook.presto.parquet.ParquetTypeUtils.getDescriptors;
+import static com.facebook.presto.parquet.ParquetTypeUtils.lookupColumnByName;
+import static com.facebook.presto.parquet.predicate.PredicateUtils.buildPredicate;
+import static com.facebook.presto.parquet.reader.ColumnIndexFilterUtils.getColumnIndexStore;
+import static com.facebook.presto.parquet.reader.TestEncryption.constructField;
+import static com.facebook.presto.parquet.reader.TestFileBuilder.createTempFile;
+import static org.apache.parquet.schema.MessageTypeParser.parseMessageType;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class TestParquetReaderColumnIndexFilter
+{
+    private static final int ROW_COUNT = 20_000;
+    private static final MessageType SCHEMA = parseMessageType("message test { required int64 id; optional binary value (UTF8); }");
+
+    private final Configuration conf = new Configuration(false);
+
+    @DataProvider
+    public static Object[][] batchReadEnabled()
+    {
+        return new Object[][] {{true}, {false}};
+    }
+
+    @Test(dataProvider = "batchReadEnabled")
+    public void testLazyColumnInFilteredRowGroup(boolean batchReadEnabled)
+            throws IOException
+    {
+        Path path = new Path(writeFile());
+        FileSystem fileSystem = path.getFileSystem(conf);
+        long fileSize = fileSystem.getFileStatus(path).getLen();
+        MockParquetDataSource dataSource = new MockParquetDataSource(new ParquetDataSourceId(path.toString()), fileSystem.open(path));
+        ParquetMetadata parquetMetadata = MetadataReader.readFooter(dataSource, fileSize, Optional.empty(), false).getParquetMetadata();
+        List<BlockMetaData> blocks = parquetMetadata.getBlocks();
+        assertEquals(blocks.size(), 1, "Test requires a single row group");
+
+        Map<List<String>, RichColumnDescriptor> descriptorsByPath = getDescriptors(SCHEMA, SCHEMA);
+        ColumnDescriptor idColumn = descriptorsByPath.get(ImmutableList.of("id"));
+        Domain idDomain = Domain.create(
+                ValueSet.ofRanges(
+                        Range.range(BIGINT, 5_000L, true, 5_999L, true),
+                        Range.range(BIGINT, 12_000L, true, 12_999L, true)),
+                false);
+        Predicate predicate = buildPredicate(SCHEMA, TupleDomain.withColumnDomains(ImmutableMap.of(idColumn, idDomain)), descriptorsByPath);
+        Optional<ColumnIndexStore> columnIndexStore = getColumnIndexStore(predicate, dataSource, blocks.get(0), descriptorsByPath, true);
+        assertTrue(columnIndexStore.isPresent(), "Test requires column indexes");
+
+        MessageColumnIO messageColumnIO = getColumnIO(SCHEMA, SCHEMA);
+        Field idField = constructField(BIGINT, lookupColumnByName(messageColumnIO, "id")).get();
+        Field valueField = constructField(VARCHAR, lookupColumnByName(messageColumnIO, "value")).get();
+
+        List<ColumnIndexStore> blockIndexStores = new ArrayList<>();
+        blockIndexStores.add(columnIndexStore.get());
+        ParquetReader parquetReader = new ParquetReader(
+                messageColumnIO,
+                blocks,
+                Optional.empty(),
+                dataSource,
+                newSimpleAggregatedMemoryContext(),
+                new DataSize(1, MEGABYTE),
+                batchReadEnabled,
+                false,
+                predicate,
+                blockIndexStores,
+                true,
+                Optional.empty());
+
+        int rowCount = 0;
+        int validatedRowCount = 0;
+        int batch = 0;
+        long previousId = -1;
+        for (int batchSize = parquetReader.nextBatch(); batchSize > 0; batchSize = parquetReader.nextBatch()) {
+            Block ids = parquetReader.readBlock(idField);
+            assertEquals(ids.getPositionCount(), batchSize);
+            for (int position = 0; position < batchSize; position++) {
+                long id = BIGINT.getLong(ids, position);
+                assertTrue(id > previousId, "rows must be returned in order");
+                previousId = id;
+            }
+
+            // the value column is read lazily for every third batch only, so it has to skip the selected rows of the other batches
+            if (batch % 3 == 2) {
+                Block values = parquetReader.readBlock(valueField);
+                assertEquals(values.getPositionCount(), batchSize);
+                for (int position = 0; position < batchSize; position++) {
+                    long id = BIGINT.getLong(ids, position);
+                    if (id % 7 == 0) {
+                        assertTrue(values.isNull(position));
+                    }
+                    else {
+                        assertEquals(VARCHAR.getSlice(values, position).toStringUtf8(), getValue(id));
+                    }
+                }
+                validatedRowCount += batchSize;
+            }
+            rowCount += batchSize;
+            batch++;
+        }
+        parquetReader.close();
+
+        // the column index selects whole pages of the id column, which contain all matching rows
+        assertTrue(rowCount >= 2_000, "all rows matching the predicate must be returned");
+        assertTrue(rowCount < ROW_COUNT, "the row group must be filtered by the column index");
+        assertTrue(validatedRowCount > 0, "the value column must be read");
+    }
+
+    private String writeFile()
+            throws IOException
+    {
+        String fileName = createTempFile("column-index-filter");
+        SimpleGroupFactory groupFactory = new SimpleGroupFactory(SCHEMA);
+        // the value column is much wider than the id column, so the pages of the two columns are not aligned
+        try (ParquetWriter<Group> writer = ExampleParquetWriter.builder(new Path(fileName))
+                .withConf(conf)
+                .withType(SCHEMA)
+                .withCompressionCodec(CompressionCodecName.UNCOMPRESSED)
+                .withDictionaryEncoding(false)
+                .withPageSize(8 * 1024)
+                .withPageRowCountLimit(1_000)
+                .withRowGroupSize(1024 * 1024 * 1024)
+                .build()) {
+            for (long id = 0; id < ROW_COUNT; id++) {
+                Group group = groupFactory.newGroup().append("id", id);
+                if (id % 7 != 0) {
+                    group.append("value", getValue(id));
+                }
+                writer.write(group);
+            }
+        }
+        return fileName;
+    }
+
+    private static String getValue(long id)
+    {
+        StringBuilder value = new StringBuilder("value-").append(id);
+        while (value.length() < 100) {
+            value.append('x');
+        }
+        return value.toString();
+    }
+}
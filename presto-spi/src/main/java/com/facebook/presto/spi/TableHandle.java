@@ -16,11 +16,13 @@ package com.facebook.presto.spi;
 import com.facebook.drift.annotations.ThriftConstructor;
 import com.facebook.drift.annotations.ThriftField;
 import com.facebook.drift.annotations.ThriftStruct;
+import com.facebook.presto.common.predicate.BlockedBloomFilter;
 import com.facebook.presto.common.predicate.TupleDomain;
 import com.facebook.presto.spi.connector.ConnectorTransactionHandle;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.function.Supplier;
@@ -37,6 +39,7 @@ public final class TableHandle
 
     // This is not serializable; for local execution only
     private final Optional<Supplier<TupleDomain<ColumnHandle>>> dynamicFilter;
+    private final Optional<Supplier<Map<ColumnHandle, BlockedBloomFilter>>> dynamicBloomFilters;
 
     @JsonCreator
     public TableHandle(
@@ -64,12 +67,24 @@ public final class TableHandle
             ConnectorTransactionHandle transaction,
             Optional<ConnectorTableLayoutHandle> layout,
             Optional<Supplier<TupleDomain<ColumnHandle>>> dynamicFilter)
+    {
+        this(connectorId, connectorHandle, transaction, layout, dynamicFilter, Optional.empty());
+    }
+
+    private TableHandle(
+            ConnectorId connectorId,
+            ConnectorTableHandle connectorHandle,
+            ConnectorTransactionHandle transaction,
+            Optional<ConnectorTableLayoutHandle> layout,
+            Optional<Supplier<TupleDomain<ColumnHandle>>> dynamicFilter,
+            Optional<Supplier<Map<ColumnHandle, BlockedBloomFilter>>> dynamicBloomFilters)
     {
         this.connectorId = requireNonNull(connectorId, "connectorId is null");
         this.connectorHandle = requireNonNull(connectorHandle, "connectorHandle is null");
         this.transaction = requireNonNull(transaction, "transaction is null");
         this.layout = requireNonNull(layout, "layout is null");
         this.dynamicFilter = requireNonNull(dynamicFilter, "dynamicFilter is null");
+        this.dynamicBloomFilters = requireNonNull(dynamicBloomFilters, "dynamicBloomFilters is null");
     }
 
     @JsonProperty
@@ -116,7 +131,21 @@ public final class TableHandle
         if (this.dynamicFilter.isPresent()) {
             throw new RuntimeException("dynamicFilter already exists");
         }
-        return new TableHandle(connectorId, connectorHandle, transaction, layout, Optional.of(dynamicFilter));
+        return new TableHandle(connectorId, connectorHandle, transaction, layout, Optional.of(dynamicFilter), dynamicBloomFilters);
+    }
+
+    public Optional<Supplier<Map<ColumnHandle, BlockedBloomFilter>>> getDynamicBloomFilters()
+    {
+        return dynamicBloomFilters;
+    }
+
+    public TableHandle withDynamicBloomFilters(Supplier<Map<ColumnHandle, BlockedBloomFilter>> dynamicBloomFilters)
+    {
+        requireNonNull(dynamicBloomFilters, "dynamicBloomFilters is null");
+        if (this.dynamicBloomFilters.isPresent()) {
+            throw new RuntimeException("dynamicBloomFilters already exists");
+        }
+        return new TableHandle(connectorId, connectorHandle, transaction, layout, dynamicFilter, Optional.of(dynamicBloomFilters));
     }
 
     @Override
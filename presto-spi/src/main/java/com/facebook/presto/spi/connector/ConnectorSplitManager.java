@@ -40,6 +40,12 @@ public interface ConnectorSplitManager
         private final SplitSchedulingStrategy splitSchedulingStrategy;
         private final boolean schedulerUsesHostAddresses;
         private final WarningCollector warningCollector;
+        private final boolean fragmentResultCachingEnabled;
+
+        public SplitSchedulingContext(SplitSchedulingStrategy splitSchedulingStrategy, boolean schedulerUsesHostAddresses, WarningCollector warningCollector)
+        {
+            this(splitSchedulingStrategy, schedulerUsesHostAddresses, warningCollector, false);
+        }
 
         /**
          * @param splitSchedulingStrategy the method by which splits are scheduled
@@ -48,12 +54,16 @@ public interface ConnectorSplitManager
          * the connector can return an empty list of addresses for remotely accessible
          * splits without any performance loss.  Non-remotely accessible splits always
          * need to provide host addresses.
+         * @param fragmentResultCachingEnabled whether the results of the splits may be cached
+         * on the workers, in which case the connector should produce the same splits for the
+         * same data in every query.
          */
-        public SplitSchedulingContext(SplitSchedulingStrategy splitSchedulingStrategy, boolean schedulerUsesHostAddresses, WarningCollector warningCollector)
+        public SplitSchedulingContext(SplitSchedulingStrategy splitSchedulingStrategy, boolean schedulerUsesHostAddresses, WarningCollector warningCollector, boolean fragmentResultCachingEnabled)
         {
             this.splitSchedulingStrategy = requireNonNull(splitSchedulingStrategy, "splitSchedulingStrategy is null");
             this.schedulerUsesHostAddresses = schedulerUsesHostAddresses;
             this.warningCollector = requireNonNull(warningCollector, "warningCollector is null ");
+            this.fragmentResultCachingEnabled = fragmentResultCachingEnabled;
         }
 
         public SplitSchedulingStrategy getSplitSchedulingStrategy()
@@ -70,5 +80,10 @@ public interface ConnectorSplitManager
         {
             return warningCollector;
         }
+
+        public boolean isFragmentResultCachingEnabled()
+        {
+            return fragmentResultCachingEnabled;
+        }
     }
 }